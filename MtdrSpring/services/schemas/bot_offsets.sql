@@ -0,0 +1,14 @@
+------------------------------------------------------------
+--  Telegram long polling progress
+--  Una fila por bot. LAST_UPDATE_ID es el ultimo update_id con
+--  todos los anteriores procesados; DONE_ABOVE lista los ya
+--  procesados por encima de el. El lider la reescribe cada
+--  bot.leader.heartbeat-ms: UPDATED_AT es su ultimo latido.
+------------------------------------------------------------
+CREATE TABLE TODOUSER.BOT_OFFSETS (
+    BOT_NAME VARCHAR2(255) NOT NULL,
+    LAST_UPDATE_ID NUMBER NOT NULL,
+    DONE_ABOVE VARCHAR2(4000),
+    UPDATED_AT TIMESTAMP(6) DEFAULT SYSTIMESTAMP NOT NULL,
+    CONSTRAINT BOT_OFFSETS_PK PRIMARY KEY (BOT_NAME)
+);
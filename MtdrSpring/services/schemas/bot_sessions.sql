@@ -0,0 +1,17 @@
+------------------------------------------------------------
+--  Bot conversation state (bot.sessions.persistent=true)
+--  Una fila por chat con el estado de la conversacion en JSON.
+--  VERSION cambia con cada escritura: con varias replicas
+--  (bot.sessions.revalidate=true) cada una detecta los cambios
+--  de las demas sin leer STATE.
+------------------------------------------------------------
+CREATE TABLE TODOUSER.BOT_SESSIONS (
+    CHAT_ID NUMBER NOT NULL,
+    STATE CLOB NOT NULL,
+    VERSION NUMBER NOT NULL,
+    UPDATED_AT TIMESTAMP(6) DEFAULT SYSTIMESTAMP NOT NULL,
+    CONSTRAINT BOT_SESSIONS_PK PRIMARY KEY (CHAT_ID)
+);
+
+-- Purga de sesiones inactivas (bot.sessions.persisted-ttl-days)
+CREATE INDEX IDX_BOT_SESSIONS_UPDATED ON TODOUSER.BOT_SESSIONS (UPDATED_AT);
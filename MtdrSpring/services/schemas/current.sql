@@ -1,6 +1,22 @@
 ------------------------------------------------------------
 --  Reduced schema for schema TODOUSER
 ------------------------------------------------------------
+-- Table: BOT_OFFSETS (ver bot_offsets.sql)
+CREATE TABLE TODOUSER.BOT_OFFSETS (
+    BOT_NAME VARCHAR2(255) NOT NULL,
+    LAST_UPDATE_ID NUMBER NOT NULL,
+    DONE_ABOVE VARCHAR2(4000),
+    UPDATED_AT TIMESTAMP(6) DEFAULT SYSTIMESTAMP NOT NULL,
+    CONSTRAINT BOT_OFFSETS_PK PRIMARY KEY (BOT_NAME)
+);
+-- Table: BOT_SESSIONS (ver bot_sessions.sql)
+CREATE TABLE TODOUSER.BOT_SESSIONS (
+    CHAT_ID NUMBER NOT NULL,
+    STATE CLOB NOT NULL,
+    VERSION NUMBER NOT NULL,
+    UPDATED_AT TIMESTAMP(6) DEFAULT SYSTIMESTAMP NOT NULL,
+    CONSTRAINT BOT_SESSIONS_PK PRIMARY KEY (CHAT_ID)
+);
 -- Table: COMMENTS
 CREATE TABLE TODOUSER.COMMENTS (
     ID NUMBER GENERATED BY DEFAULT AS IDENTITY,
@@ -12,6 +28,26 @@ CREATE TABLE TODOUSER.COMMENTS (
     CONSTRAINT FK_COMMENT_TASK FOREIGN KEY (TASK_ID) REFERENCES TODOUSER.TASKS (ID) ON DELETE CASCADE,
     CONSTRAINT FK_COMMENT_CREATOR FOREIGN KEY (CREATED_BY_ID) REFERENCES TODOUSER.USERS (ID)
 );
+-- Table: KPI_MEMBER_SPRINT (ver kpi_aggregates.sql)
+CREATE TABLE TODOUSER.KPI_MEMBER_SPRINT (
+    USER_ID NUMBER NOT NULL,
+    SPRINT_ID NUMBER DEFAULT 0 NOT NULL,
+    COMPLETED_TASKS NUMBER DEFAULT 0 NOT NULL,
+    ASSIGNED_TASKS NUMBER DEFAULT 0 NOT NULL,
+    ACTUAL_HOURS NUMBER,
+    ESTIMATED_HOURS NUMBER,
+    COMPLETED_ACTUAL_HOURS NUMBER,
+    CONSTRAINT KPI_MEMBER_SPRINT_PK PRIMARY KEY (USER_ID, SPRINT_ID)
+);
+-- Table: KPI_SPRINT (ver kpi_aggregates.sql)
+CREATE TABLE TODOUSER.KPI_SPRINT (
+    SPRINT_ID NUMBER NOT NULL,
+    COMPLETED_TASKS NUMBER DEFAULT 0 NOT NULL,
+    TOTAL_TASKS NUMBER DEFAULT 0 NOT NULL,
+    ACTUAL_HOURS NUMBER,
+    ESTIMATED_HOURS NUMBER,
+    CONSTRAINT KPI_SPRINT_PK PRIMARY KEY (SPRINT_ID)
+);
 -- Table: SPRINTS
 CREATE TABLE TODOUSER.SPRINTS (
     ID NUMBER GENERATED BY DEFAULT AS IDENTITY,
@@ -43,6 +79,16 @@ CREATE TABLE TODOUSER.TASKS (
     SPRINT_ID NUMBER,
     ESTIMATED_HOURS NUMBER(5, 2),
     ACTUAL_HOURS NUMBER(5, 2),
+    -- Codigo numerico del estado (ver TaskStatusCode): <20 abierta, 20-29 terminada, 30 cancelada
+    STATUS_CODE NUMBER(2) GENERATED ALWAYS AS (
+        CASE STATUS
+            WHEN 'Backlog' THEN 10
+            WHEN 'En progreso' THEN 11
+            WHEN 'Completada' THEN 20
+            WHEN 'DONE' THEN 21
+            WHEN 'Cancelada' THEN 30
+        END
+    ) VIRTUAL,
     CONSTRAINT TASKS_PK PRIMARY KEY (ID),
     CONSTRAINT CHK_TASK_STATUS CHECK (
         STATUS IN (
@@ -97,7 +143,11 @@ CREATE INDEX IDX_TASK_TEAM ON TODOUSER.TASKS (TEAM_ID);
 CREATE INDEX IDX_USER_TEAM ON TODOUSER.USERS (TEAM_ID);
 CREATE INDEX IDX_SPRINT_TEAM ON TODOUSER.SPRINTS (TEAM_ID);
 CREATE INDEX IDX_USER_TELEGRAM ON TODOUSER.USERS (TELEGRAM_USER_ID);
+CREATE INDEX IDX_USER_TELEGRAMID ON TODOUSER.USERS (TELEGRAMID);
 CREATE INDEX IDX_TASK_CREATOR ON TODOUSER.TASKS (CREATED_BY_ID);
 CREATE INDEX IDX_COMMENT_CREATOR ON TODOUSER.COMMENTS (CREATED_BY_ID);
 CREATE INDEX IDX_COMMENT_TASK ON TODOUSER.COMMENTS (TASK_ID);
-CREATE INDEX IDX_TASK_SPRINT ON TODOUSER.TASKS (SPRINT_ID);
\ No newline at end of file
+CREATE INDEX IDX_TASK_SPRINT_STATUS ON TODOUSER.TASKS (SPRINT_ID, STATUS_CODE);
+CREATE INDEX IDX_TASK_STATUS_CODE ON TODOUSER.TASKS (STATUS_CODE, SPRINT_ID);
+CREATE INDEX IDX_KPI_MEMBER_SPRINT_SPRINT ON TODOUSER.KPI_MEMBER_SPRINT (SPRINT_ID);
+CREATE INDEX IDX_BOT_SESSIONS_UPDATED ON TODOUSER.BOT_SESSIONS (UPDATED_AT);
\ No newline at end of file
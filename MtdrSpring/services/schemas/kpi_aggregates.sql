@@ -0,0 +1,26 @@
+------------------------------------------------------------
+--  KPI aggregate tables (kpi.aggregates.enabled=true)
+--  Mantenidas por las escrituras de tareas; para llenarlas la
+--  primera vez: POST /api/kpis/aggregates/rebuild
+------------------------------------------------------------
+-- Table: KPI_MEMBER_SPRINT (una fila por miembro y sprint; SPRINT_ID 0 = sin sprint)
+CREATE TABLE TODOUSER.KPI_MEMBER_SPRINT (
+    USER_ID NUMBER NOT NULL,
+    SPRINT_ID NUMBER DEFAULT 0 NOT NULL,
+    COMPLETED_TASKS NUMBER DEFAULT 0 NOT NULL,
+    ASSIGNED_TASKS NUMBER DEFAULT 0 NOT NULL,
+    ACTUAL_HOURS NUMBER,
+    ESTIMATED_HOURS NUMBER,
+    COMPLETED_ACTUAL_HOURS NUMBER,
+    CONSTRAINT KPI_MEMBER_SPRINT_PK PRIMARY KEY (USER_ID, SPRINT_ID)
+);
+-- Table: KPI_SPRINT (una fila por sprint con tareas)
+CREATE TABLE TODOUSER.KPI_SPRINT (
+    SPRINT_ID NUMBER NOT NULL,
+    COMPLETED_TASKS NUMBER DEFAULT 0 NOT NULL,
+    TOTAL_TASKS NUMBER DEFAULT 0 NOT NULL,
+    ACTUAL_HOURS NUMBER,
+    ESTIMATED_HOURS NUMBER,
+    CONSTRAINT KPI_SPRINT_PK PRIMARY KEY (SPRINT_ID)
+);
+CREATE INDEX IDX_KPI_MEMBER_SPRINT_SPRINT ON TODOUSER.KPI_MEMBER_SPRINT (SPRINT_ID);
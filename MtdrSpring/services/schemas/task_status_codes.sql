@@ -0,0 +1,31 @@
+------------------------------------------------------------
+--  Task status codes (TaskStatusCode)
+--  Columna virtual: Oracle la calcula de STATUS, no hay que
+--  llenarla ni mantenerla desde la aplicacion. Correr antes de
+--  desplegar la version que filtra por STATUS_CODE.
+--  Rangos: <20 abierta, 20-29 terminada, 30 cancelada
+------------------------------------------------------------
+ALTER TABLE TODOUSER.TASKS ADD (
+    STATUS_CODE NUMBER(2) GENERATED ALWAYS AS (
+        CASE STATUS
+            WHEN 'Backlog' THEN 10
+            WHEN 'En progreso' THEN 11
+            WHEN 'Completada' THEN 20
+            WHEN 'DONE' THEN 21
+            WHEN 'Cancelada' THEN 30
+        END
+    ) VIRTUAL
+);
+
+-- Conteos y movimientos por sprint ("abiertas" / "terminadas" del sprint) sin leer TASKS;
+-- reemplaza a IDX_TASK_SPRINT, que queda cubierto por el prefijo
+CREATE INDEX IDX_TASK_SPRINT_STATUS ON TODOUSER.TASKS (SPRINT_ID, STATUS_CODE);
+DROP INDEX TODOUSER.IDX_TASK_SPRINT;
+
+-- KPIs que solo miran tareas terminadas (STATUS_CODE BETWEEN 20 AND 29)
+CREATE INDEX IDX_TASK_STATUS_CODE ON TODOUSER.TASKS (STATUS_CODE, SPRINT_ID);
+
+BEGIN
+    DBMS_STATS.GATHER_TABLE_STATS('TODOUSER', 'TASKS', cascade => TRUE);
+END;
+/
@@ -0,0 +1,14 @@
+------------------------------------------------------------
+--  Telegram chat lookup (UserRepository.findByChatId,
+--  forgetChatId)
+--  El bot guarda el chat en TELEGRAMID, no en TELEGRAM_USER_ID
+--  (el que tiene IDX_USER_TELEGRAM), asi que cada busqueda por
+--  chat recorria USERS completa. Las consultas comparan con
+--  TO_CHAR(:chatId) para que Oracle pueda usar este indice.
+------------------------------------------------------------
+CREATE INDEX IDX_USER_TELEGRAMID ON TODOUSER.USERS (TELEGRAMID);
+
+BEGIN
+    DBMS_STATS.GATHER_TABLE_STATS('TODOUSER', 'USERS', cascade => TRUE);
+END;
+/
@@ -1,5 +1,6 @@
 package com.springboot.MyTodoList;
 
+import com.springboot.MyTodoList.service.FanOut;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.http.HttpStatus;
@@ -16,6 +17,18 @@ public class GlobalExceptionHandler extends ResponseEntityExceptionHandler {
 
     private static final Logger logger = LoggerFactory.getLogger(GlobalExceptionHandler.class);
 
+    // Consultas en paralelo que no terminaron a tiempo (FanOut)
+    @ExceptionHandler(FanOut.DeadlineExceededException.class)
+    public ResponseEntity<Object> handleDeadlineExceeded(FanOut.DeadlineExceededException ex, WebRequest request) {
+        logger.warn(ex.getMessage());
+
+        Map<String, Object> body = new HashMap<>();
+        body.put("message", "The request took too long, please try again");
+        body.put("status", HttpStatus.GATEWAY_TIMEOUT.value());
+
+        return new ResponseEntity<>(body, HttpStatus.GATEWAY_TIMEOUT);
+    }
+
     @ExceptionHandler(Exception.class)
     public ResponseEntity<Object> handleAllExceptions(Exception ex, WebRequest request) {
         logger.error("Unhandled exception occurred", ex);
@@ -12,20 +12,34 @@ import java.util.Optional;
 @Component
 public class IdentityUtil {
 
+    // JwtAuthenticationFilter guarda aqui el usuario ya cargado (rol, equipo),
+    // para que los controladores no lo vuelvan a consultar en cada peticion
+    public static final String CURRENT_USER_ATTRIBUTE = IdentityUtil.class.getName() + ".currentUser";
+
     public IdentityUtil() {
         // Default constructor
     }
 
     public Long getCurrentUserId(HttpServletRequest request) {
-        User currentUser = getCurrentUserFromSecurity();
+        User currentUser = getCurrentUser(request).orElse(null);
         return currentUser != null ? currentUser.getId() : null;
     }
 
     public Optional<User> getCurrentUser(HttpServletRequest request) {
+        if (request != null) {
+            Object attribute = request.getAttribute(CURRENT_USER_ATTRIBUTE);
+            if (attribute instanceof User) {
+                return Optional.of((User) attribute);
+            }
+        }
         User currentUser = getCurrentUserFromSecurity();
         return Optional.ofNullable(currentUser);
     }
 
+    public static void setCurrentUser(HttpServletRequest request, User user) {
+        request.setAttribute(CURRENT_USER_ATTRIBUTE, user);
+    }
+
     private User getCurrentUserFromSecurity() {
         Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
         if (authentication != null && authentication.getPrincipal() instanceof User) {
@@ -35,12 +49,12 @@ public class IdentityUtil {
     }
 
     public boolean isManager(HttpServletRequest request) {
-        User currentUser = getCurrentUserFromSecurity();
+        User currentUser = getCurrentUser(request).orElse(null);
         return currentUser != null && "manager".equals(currentUser.getRole());
     }
 
     public boolean canAccessTeam(HttpServletRequest request, Long teamId) {
-        User currentUser = getCurrentUserFromSecurity();
+        User currentUser = getCurrentUser(request).orElse(null);
         if (currentUser == null) {
             return false;
         }
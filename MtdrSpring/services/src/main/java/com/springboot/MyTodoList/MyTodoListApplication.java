@@ -44,6 +44,12 @@ public class MyTodoListApplication implements CommandLineRunner {
 	@Override
 	public void run(String... args) {
 		try {
+			// Con webhook todas las replicas reciben updates; no hace falta un lider
+			if (telegramBotService.isWebhookMode()) {
+				logger.info("Starting Telegram bot in webhook mode");
+				telegramBotService.registerWebhook();
+				return;
+			}
 			logger.info("Starting leader election process");
 			leaderElectionService.startLeaderElection(telegramBotService);
 		} catch (Exception e) {
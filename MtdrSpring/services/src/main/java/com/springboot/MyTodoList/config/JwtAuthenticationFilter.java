@@ -1,6 +1,10 @@
 package com.springboot.MyTodoList.config;
 
+import com.springboot.MyTodoList.IdentityUtil;
+import com.springboot.MyTodoList.model.User;
 import com.springboot.MyTodoList.service.JwtService;
+import com.springboot.MyTodoList.service.TokenRevocationList;
+import com.springboot.MyTodoList.service.VerifiedToken;
 import javax.servlet.FilterChain;
 import javax.servlet.ServletException;
 import javax.servlet.http.HttpServletRequest;
@@ -22,13 +26,16 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
     private final HandlerExceptionResolver handlerExceptionResolver;
     private final JwtService jwtService;
     private final UserDetailsService userDetailsService;
+    private final TokenRevocationList revocationList;
 
     public JwtAuthenticationFilter(
             JwtService jwtService,
             UserDetailsService userDetailsService,
+            TokenRevocationList revocationList,
             HandlerExceptionResolver handlerExceptionResolver) {
         this.jwtService = jwtService;
         this.userDetailsService = userDetailsService;
+        this.revocationList = revocationList;
         this.handlerExceptionResolver = handlerExceptionResolver;
     }
 
@@ -46,12 +53,14 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
         try {
             final String jwt = authHeader.substring(7);
-            final String userEmail = jwtService.extractUsername(jwt);
+            // Firma y expiracion se verifican una sola vez por peticion
+            final VerifiedToken token = jwtService.verifyToken(jwt);
+            final String userEmail = token.getSubject();
 
             if (userEmail != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-                UserDetails userDetails = this.userDetailsService.loadUserByUsername(userEmail);
+                UserDetails userDetails = loadUser(token, userEmail);
 
-                if (jwtService.isTokenValid(jwt, userDetails)) {
+                if (jwtService.isTokenValid(token, userDetails)) {
                     UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
                             userDetails,
                             null,
@@ -59,6 +68,10 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
                     authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
                     SecurityContextHolder.getContext().setAuthentication(authToken);
+
+                    if (userDetails instanceof User) {
+                        IdentityUtil.setCurrentUser(request, (User) userDetails);
+                    }
                 }
             }
 
@@ -70,4 +83,17 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
             handlerExceptionResolver.resolveException(request, response, null, exception);
         }
     }
-}
\ No newline at end of file
+
+    // En modo sin estado se usan los claims del token, salvo que el usuario o su
+    // equipo hayan cambiado despues de emitirlo
+    private UserDetails loadUser(VerifiedToken token, String userEmail) {
+        if (jwtService.isStatelessClaims()) {
+            User claimsUser = jwtService.userFromClaims(token);
+            if (claimsUser != null && !revocationList.isStale(
+                    claimsUser.getId(), claimsUser.getTeamId(), token.getIssuedAt())) {
+                return claimsUser;
+            }
+        }
+        return this.userDetailsService.loadUserByUsername(userEmail);
+    }
+}
@@ -1,6 +1,12 @@
 package com.springboot.MyTodoList.config;
 
-import oracle.jdbc.pool.OracleDataSource;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import oracle.ucp.jdbc.JDBCConnectionPoolStatistics;
+import oracle.ucp.jdbc.PoolDataSource;
+import oracle.ucp.jdbc.PoolDataSourceFactory;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -9,6 +15,7 @@ import org.springframework.context.annotation.Configuration;
 import org.springframework.core.env.Environment;
 import javax.sql.DataSource;
 import java.sql.SQLException;
+import java.util.function.ToDoubleFunction;
 
 ///*
 // This class grabs the appropriate values for OracleDataSource,
@@ -18,17 +25,23 @@ import java.sql.SQLException;
 // */
 @Configuration
 public class OracleConfig {
+        private static final String UCP_PREFIX = "spring.datasource.oracleucp.";
+
         Logger logger = LoggerFactory.getLogger("DatabaseLogger");
         @Autowired
         private Environment env;
 
+        // Este bean reemplaza la auto-configuracion de Spring, asi que las propiedades
+        // spring.datasource.oracleucp.* se aplican aqui al pool de UCP
         @Bean
         public DataSource dataSource() throws SQLException {
-                OracleDataSource ds = new OracleDataSource();
+                PoolDataSource ds = PoolDataSourceFactory.getPoolDataSource();
 
                 String driver_class = env.getRequiredProperty("driver_class_name");
                 logger.info("Using Driver " + driver_class);
-                ds.setDriverType(driver_class);
+                ds.setConnectionFactoryClassName(ucpProperty("connection-factory-class-name",
+                                "oracle.jdbc.pool.OracleDataSource"));
+                ds.setConnectionFactoryProperty("driverType", driver_class);
 
                 String db_url = env.getRequiredProperty("db_url");
                 logger.info("Using URL: " + db_url);
@@ -40,6 +53,114 @@ public class OracleConfig {
 
                 ds.setPassword(env.getRequiredProperty("dbpassword"));
 
+                ds.setConnectionPoolName(ucpProperty("connection-pool-name", "connectionPoolName1"));
+                ds.setInitialPoolSize(ucpInt("initial-pool-size", 5));
+                ds.setMinPoolSize(ucpInt("min-pool-size", 5));
+                ds.setMaxPoolSize(ucpInt("max-pool-size", 10));
+
+                // Tiempos en segundos
+                ds.setInactiveConnectionTimeout(ucpInt("inactive-connection-timeout", 300));
+                ds.setConnectionWaitTimeout(ucpInt("connection-wait-timeout", 5));
+                ds.setTimeoutCheckInterval(ucpInt("timeout-check-interval", 30));
+
+                ds.setValidateConnectionOnBorrow(ucpBoolean("validate-connection-on-borrow", true));
+                ds.setSQLForValidateConnection(ucpProperty("sql-for-validate-connection", "select 1 from dual"));
+                ds.setConnectionValidationTimeout(ucpInt("connection-validation-timeout", 2));
+
+                logger.info("UCP pool {}: initial={}, min={}, max={}, waitTimeout={}s",
+                                ds.getConnectionPoolName(), ds.getInitialPoolSize(), ds.getMinPoolSize(),
+                                ds.getMaxPoolSize(), ds.getConnectionWaitTimeout());
+
+                if (ucpBoolean("prewarm", true)) {
+                        prewarm(ds);
+                }
+
                 return ds;
         }
+
+        // Expone las estadisticas del pool UCP como metricas (ucp.*)
+        @Bean
+        public MeterBinder ucpPoolMetrics(DataSource dataSource) {
+                return registry -> {
+                        if (!(dataSource instanceof PoolDataSource)) {
+                                return;
+                        }
+                        PoolDataSource pool = (PoolDataSource) dataSource;
+                        String poolName = pool.getConnectionPoolName();
+
+                        poolGauge(registry, pool, poolName, "ucp.connections.borrowed",
+                                        "Connections currently borrowed from the pool",
+                                        JDBCConnectionPoolStatistics::getBorrowedConnectionsCount);
+                        poolGauge(registry, pool, poolName, "ucp.connections.available",
+                                        "Idle connections available in the pool",
+                                        JDBCConnectionPoolStatistics::getAvailableConnectionsCount);
+                        poolGauge(registry, pool, poolName, "ucp.connections.total",
+                                        "Physical connections open in the pool",
+                                        JDBCConnectionPoolStatistics::getTotalConnectionsCount);
+                        poolGauge(registry, pool, poolName, "ucp.connections.pending",
+                                        "Requests waiting for a connection",
+                                        JDBCConnectionPoolStatistics::getPendingRequestsCount);
+                        poolGauge(registry, pool, poolName, "ucp.connections.wait.average",
+                                        "Average time callers waited for a connection (ms)",
+                                        JDBCConnectionPoolStatistics::getAverageConnectionWaitTime);
+                        poolGauge(registry, pool, poolName, "ucp.connections.wait.peak",
+                                        "Longest time a caller waited for a connection (ms)",
+                                        JDBCConnectionPoolStatistics::getPeakConnectionWaitTime);
+
+                        FunctionCounter.builder("ucp.connections.timeouts", pool,
+                                        p -> poolStatistic(p, JDBCConnectionPoolStatistics::getCumulativeFailedConnectionWaitCount))
+                                        .description("Borrow attempts that gave up after connection-wait-timeout")
+                                        .tag("pool", poolName)
+                                        .register(registry);
+                        FunctionCounter.builder("ucp.connections.created", pool,
+                                        p -> poolStatistic(p, JDBCConnectionPoolStatistics::getConnectionsCreatedCount))
+                                        .description("Physical connections opened by the pool")
+                                        .tag("pool", poolName)
+                                        .register(registry);
+                        FunctionCounter.builder("ucp.connections.wait.time", pool,
+                                        p -> poolStatistic(p, JDBCConnectionPoolStatistics::getCumulativeConnectionWaitTime))
+                                        .description("Cumulative time callers waited for a connection")
+                                        .baseUnit("milliseconds")
+                                        .tag("pool", poolName)
+                                        .register(registry);
+                };
+        }
+
+        // Abre las conexiones iniciales al arrancar en lugar de hacerlo en la primera peticion
+        private void prewarm(PoolDataSource ds) {
+                try {
+                        ds.getConnection().close();
+                        logger.info("UCP pool {} prewarmed", ds.getConnectionPoolName());
+                } catch (SQLException e) {
+                        logger.warn("Could not prewarm UCP pool {}: {}", ds.getConnectionPoolName(), e.getMessage());
+                }
+        }
+
+        private void poolGauge(MeterRegistry registry, PoolDataSource pool,
+                        String poolName, String name, String description,
+                        ToDoubleFunction<JDBCConnectionPoolStatistics> statistic) {
+                Gauge.builder(name, pool, p -> poolStatistic(p, statistic))
+                                .description(description)
+                                .tag("pool", poolName)
+                                .register(registry);
+        }
+
+        // getStatistics() devuelve null hasta que el pool arranca
+        private static double poolStatistic(PoolDataSource pool,
+                        ToDoubleFunction<JDBCConnectionPoolStatistics> statistic) {
+                JDBCConnectionPoolStatistics statistics = pool.getStatistics();
+                return statistics == null ? 0 : statistic.applyAsDouble(statistics);
+        }
+
+        private String ucpProperty(String key, String defaultValue) {
+                return env.getProperty(UCP_PREFIX + key, defaultValue);
+        }
+
+        private int ucpInt(String key, int defaultValue) {
+                return env.getProperty(UCP_PREFIX + key, Integer.class, defaultValue);
+        }
+
+        private boolean ucpBoolean(String key, boolean defaultValue) {
+                return env.getProperty(UCP_PREFIX + key, Boolean.class, defaultValue);
+        }
 }
@@ -43,7 +43,11 @@ public class WebSecurityConfig {
                                                 .permitAll()
                                                 .antMatchers("/api/auth/**").permitAll()
                                                 .antMatchers("/api", "/api/healthcheck", "/api/debug").permitAll()
+                                                // Telegram se autentica con el secret token del webhook
+                                                .antMatchers("/api/telegram/webhook").permitAll()
                                                 .antMatchers("/api/**").authenticated()
+                                                .antMatchers("/actuator/health").permitAll()
+                                                .antMatchers("/actuator/**").authenticated()
                                                 .anyRequest().permitAll())
                                 .sessionManagement(session -> session
                                                 .sessionCreationPolicy(SessionCreationPolicy.STATELESS))
@@ -7,24 +7,41 @@ import com.springboot.MyTodoList.repository.CommentRepository;
 import com.springboot.MyTodoList.repository.KpiRepository;
 import com.springboot.MyTodoList.repository.SprintRepository;
 import com.springboot.MyTodoList.model.Task;
+import com.springboot.MyTodoList.model.TaskStatusCode;
 import com.springboot.MyTodoList.model.Comment;
 import com.springboot.MyTodoList.model.Kpi;
 import com.springboot.MyTodoList.model.Sprint;
 import com.springboot.MyTodoList.service.AuthenticationService;
+import com.springboot.MyTodoList.service.BotChatIndex;
+import com.springboot.MyTodoList.service.BotGeminiJobs;
+import com.springboot.MyTodoList.service.BotMessageSender;
+import com.springboot.MyTodoList.service.BotSessionStore;
+import com.springboot.MyTodoList.service.BotUpdateDispatcher;
+import com.springboot.MyTodoList.service.BotUpdateOffsets;
+import com.springboot.MyTodoList.service.TaskChangeFeed;
+import com.springboot.MyTodoList.service.TelegramHttpTransport;
 
 import org.jdbi.v3.core.Jdbi;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.telegram.telegrambots.bots.DefaultBotOptions;
 import org.telegram.telegrambots.bots.TelegramLongPollingBot;
 import org.telegram.telegrambots.meta.api.methods.send.SendMessage;
+import org.telegram.telegrambots.meta.api.methods.updatingmessages.EditMessageText;
+import org.telegram.telegrambots.meta.api.objects.Message;
 import org.telegram.telegrambots.meta.api.objects.Update;
 import org.telegram.telegrambots.meta.api.objects.replykeyboard.buttons.InlineKeyboardButton;
 import org.telegram.telegrambots.meta.api.objects.replykeyboard.InlineKeyboardMarkup;
 import org.telegram.telegrambots.meta.exceptions.TelegramApiException;
 
+import java.io.IOException;
 import java.text.SimpleDateFormat;
 import java.util.*;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 /**
@@ -43,6 +60,21 @@ public class BotController extends TelegramLongPollingBot {
 	private final SprintRepository sprintRepository;
 	private final KpiRepository kpiRepository;
 	private final GeminiController geminiController;
+	private final TaskChangeFeed taskChangeFeed;
+	// null: cada update se procesa en el hilo que lo recibe (tests)
+	private final BotUpdateDispatcher dispatcher;
+	// null: sendMessage llama a execute() directamente (tests)
+	private final BotMessageSender messageSender;
+	// Con cola de salida y sin proxy: TelegramHttpTransport, con un pool a la medida de
+	// la cola; si no, el cliente de telegrambots (execute)
+	private final BotMessageSender.Transport transport;
+	private final TelegramHttpTransport httpTransport;
+	// null: cada chat nuevo se busca en USERS (tests)
+	private final BotChatIndex chatIndex;
+	// null: Gemini se consulta dentro del carril del chat (tests)
+	private final BotGeminiJobs geminiJobs;
+	// null: no se lleva la cuenta de los update_id procesados (webhook, tests)
+	private volatile BotUpdateOffsets updateOffsets;
 
 	private final String botUsername;
 
@@ -67,20 +99,77 @@ public class BotController extends TelegramLongPollingBot {
 	private static final String SHOW_KPIS = "showKpis";
 	private static final String SELF_ASSIGN_PREFIX = "selfAssign_";
 	private static final String GEMINI_DIVIDE_TASK = "gemini_divide_task";
+	private static final String GEMINI_PLACEHOLDER = "Consultando a Gemini para sugerencias...";
+	// Cuanto espera la respuesta de Gemini a que salga el aviso que va a editar
+	private static final long PLACEHOLDER_WAIT_SECONDS = 60;
+
+	// Etiquetas acotadas para las metricas por comando
+	private static final Set<String> TEXT_COMMANDS = Set.of(
+			"/login", "/logout", "/start", "/tasks", "/kpis", "/whoami", "/cancel");
+	private static final List<String> CALLBACK_PREFIXES = List.of(
+			LOGIN_USER_PREFIX, TASK_PREFIX, SELF_ASSIGN_PREFIX, SPRINT_SELECT_PREFIX,
+			STATUS_SELECT_PREFIX, TAG_SELECT_PREFIX);
+	private static final Set<String> CALLBACKS = Set.of(
+			SHOW_COMMENTS, SHOW_KPIS, SHOW_FLOATING_TASKS, ADD_COMMENT, ADD_TASK_CALLBACK,
+			CHANGE_STATUS, CHANGE_REAL_HOURS, GEMINI_DIVIDE_TASK);
 
 	// Public for unit tests
-	public Map<Long, UserState> userStates = new ConcurrentHashMap<>();
+	public final BotSessionStore<UserState> userStates;
 
 	public BotController(String botToken,
 			String botUsername,
 			Jdbi jdbi,
 			AuthenticationService autentication,
 			GeminiController geminiController) {
-		super(botToken);
+		this(botToken, botUsername, jdbi, autentication, geminiController,
+				new TaskChangeFeed(Collections.emptyList()));
+	}
+
+	public BotController(String botToken,
+			String botUsername,
+			Jdbi jdbi,
+			AuthenticationService autentication,
+			GeminiController geminiController,
+			TaskChangeFeed taskChangeFeed) {
+		this(botToken, botUsername, jdbi, autentication, geminiController, taskChangeFeed, null, null);
+	}
+
+	public BotController(String botToken,
+			String botUsername,
+			Jdbi jdbi,
+			AuthenticationService autentication,
+			GeminiController geminiController,
+			TaskChangeFeed taskChangeFeed,
+			BotUpdateDispatcher dispatcher,
+			BotMessageSender messageSender) {
+		this(botToken, new DefaultBotOptions(), botUsername, jdbi, autentication, geminiController, taskChangeFeed,
+				dispatcher, messageSender, BotSessionStore.inMemory(UserState.class), null, null);
+	}
+
+	// options: baseUrl de la API de Telegram (una API falsa local en pruebas)
+	public BotController(String botToken,
+			DefaultBotOptions options,
+			String botUsername,
+			Jdbi jdbi,
+			AuthenticationService autentication,
+			GeminiController geminiController,
+			TaskChangeFeed taskChangeFeed,
+			BotUpdateDispatcher dispatcher,
+			BotMessageSender messageSender,
+			BotSessionStore<UserState> userStates,
+			BotChatIndex chatIndex,
+			BotGeminiJobs geminiJobs) {
+		super(options, botToken);
 		this.botUsername = botUsername;
 		this.jdbi = jdbi;
 		this.autentication = autentication;
 		this.geminiController = geminiController;
+		this.taskChangeFeed = taskChangeFeed;
+		this.dispatcher = dispatcher;
+		this.messageSender = messageSender;
+		this.userStates = userStates;
+		this.chatIndex = chatIndex;
+		this.geminiJobs = geminiJobs;
 
 		this.userRepository = jdbi.onDemand(UserRepository.class);
 		this.taskRepository = jdbi.onDemand(TaskRepository.class);
@@ -88,14 +177,51 @@ public class BotController extends TelegramLongPollingBot {
 		this.sprintRepository = jdbi.onDemand(SprintRepository.class);
 		this.kpiRepository = jdbi.onDemand(KpiRepository.class);
 
+		if (messageSender != null && options.getProxyType() == DefaultBotOptions.ProxyType.NO_PROXY) {
+			// Los hilos de la cola de salida, mas un par de envios de reserva
+			this.httpTransport = new TelegramHttpTransport(options, botToken, messageSender.getWorkerCount() + 2);
+			this.transport = httpTransport;
+		} else {
+			this.httpTransport = null;
+			this.transport = method -> execute(method);
+		}
+
 		logger.info("BotController initialized for bot username: {}", botUsername);
 	}
 
+	// Al apagar el pod (TelegramBotService)
+	@Override
+	public void onClosing() {
+		super.onClosing();
+		if (httpTransport != null) {
+			try {
+				httpTransport.close();
+			} catch (IOException e) {
+				logger.warn("Could not close the Telegram HTTP client: {}", e.getMessage());
+			}
+		}
+	}
+
 	@Override
 	public String getBotUsername() {
 		return this.botUsername;
 	}
 
+	// Long polling con failover: avisa a offsets cuando termina cada update
+	public void setUpdateOffsets(BotUpdateOffsets updateOffsets) {
+		this.updateOffsets = updateOffsets;
+	}
+
+	// Escrituras de tareas: si hay listeners en la feed se hacen en una transaccion
+	// y se publican; si no, es la misma llamada directa al repositorio
+	private <R> R writeTasks(Collection<Long> taskIds, Function<TaskRepository, R> write) {
+		if (!taskChangeFeed.hasListeners()) {
+			return write.apply(taskRepository);
+		}
+		return taskChangeFeed.inTransaction(jdbi, taskIds,
+				(handle, change) -> write.apply(handle.attach(TaskRepository.class)));
+	}
+
 	private static class TelegramUI {
 		public static InlineKeyboardButton createButton(String text, String callbackData) {
 			InlineKeyboardButton button = new InlineKeyboardButton();
@@ -150,6 +276,12 @@ public class BotController extends TelegramLongPollingBot {
 			message.setReplyMarkup(markup);
 		}
 
+		// Con la cola de salida el handler no espera a Telegram
+		if (messageSender != null) {
+			messageSender.send(chatId, message, transport);
+			return;
+		}
+
 		try {
 			execute(message);
 		} catch (TelegramApiException e) {
@@ -180,20 +312,35 @@ public class BotController extends TelegramLongPollingBot {
 			return displayName;
 		}
 
+		// El bot agrupa DONE junto con Completada
+		public static TaskStatus of(TaskStatusCode code) {
+			if (code == null) {
+				return null;
+			}
+			switch (code) {
+				case BACKLOG:
+					return BACKLOG;
+				case IN_PROGRESS:
+					return IN_PROGRESS;
+				case CANCELLED:
+					return CANCELLED;
+				default:
+					return COMPLETED;
+			}
+		}
+
 		public static TaskStatus fromString(String text) {
-			for (TaskStatus status : TaskStatus.values()) {
-				if (status.displayName.equalsIgnoreCase(text)) {
-					return status;
-				}
+			TaskStatus status = of(TaskStatusCode.fromName(text));
+			if (status != null) {
+				return status;
 			}
 			logger.warn("Invalid status string received: '{}', defaulting to BACKLOG", text);
 			return BACKLOG;
 		}
 
 		public static Optional<TaskStatus> valueOfDisplayName(String displayName) {
-			return Arrays.stream(values())
-					.filter(status -> status.displayName.equalsIgnoreCase(displayName))
-					.findFirst();
+			return Optional.ofNullable(of(TaskStatusCode.fromName(displayName)))
+					.filter(status -> status.displayName.equalsIgnoreCase(displayName));
 		}
 	}
 
@@ -235,6 +382,14 @@ public class BotController extends TelegramLongPollingBot {
 
 	public UserState findUserOrNewState(long chatId) {
 		UserState newState = new UserState();
+		if (chatIndex != null) {
+			chatIndex.find(chatId).ifPresent(user -> {
+				newState.loggedInUserId = user.getUserId();
+				newState.userName = user.getName();
+				logger.debug("Found existing user {} for chat {}", newState.userName, chatId);
+			});
+			return newState;
+		}
 		userRepository.findByChatId(chatId).ifPresent(user -> {
 			newState.loggedInUserId = user.getId();
 			newState.userName = user.getName();
@@ -243,10 +398,39 @@ public class BotController extends TelegramLongPollingBot {
 		return newState;
 	}
 
+	// Con chatIndex se evita el UPDATE cuando ya se sabe que el chat no tiene usuario
+	private void unlinkChat(long chatId) {
+		if (chatIndex == null || chatIndex.mayBeLinked(chatId)) {
+			userRepository.forgetChatId(chatId);
+		}
+		if (chatIndex != null) {
+			chatIndex.forgetChat(chatId);
+		}
+	}
+
+	private void linkChat(long chatId, User user) {
+		unlinkChat(chatId);
+		userRepository.setChatIdForUser(user.getId(), chatId);
+		if (chatIndex != null) {
+			chatIndex.link(user, chatId);
+		}
+	}
+
 	@Override
 	public void onUpdateReceived(Update update) {
+		receive(update, false);
+	}
+
+	// Updates que llegan por webhook: no espera a que haya lugar en el carril del chat.
+	// false si estaba lleno; el webhook responde error y Telegram reintenta la entrega
+	public boolean acceptUpdate(Update update) {
+		return receive(update, true);
+	}
+
+	private boolean receive(Update update, boolean webhook) {
 		final long chatId;
 		final String data;
+		final Integer updateId = update.getUpdateId();
 		boolean isCallback = update.hasCallbackQuery();
 		boolean isMessage = update.hasMessage() && update.getMessage().hasText();
 
@@ -261,9 +445,42 @@ public class BotController extends TelegramLongPollingBot {
 			data = update.getMessage().getText();
 			logger.debug("Handling message from Tel_ID {}: {}", chatId, data);
 		} else {
-			return; // Maybe an error? What would lead to this?
+			finished(updateId);
+			return true; // Maybe an error? What would lead to this?
+		}
+
+		// Mismo chat en orden; chats distintos en paralelo
+		Runnable work = () -> {
+			try {
+				processUpdate(chatId, data, isCallback);
+			} finally {
+				finished(updateId);
+			}
+		};
+		if (dispatcher == null) {
+			work.run();
+			return true;
+		}
+		if (webhook) {
+			return dispatcher.dispatch(chatId, work, 0);
+		}
+		if (!dispatcher.dispatch(chatId, work)) {
+			sendMessage(chatId, "El bot está ocupado. Por favor, intenta de nuevo en unos segundos.");
+			finished(updateId);
+		}
+		return true;
+	}
+
+	private void finished(Integer updateId) {
+		BotUpdateOffsets offsets = updateOffsets;
+		if (offsets != null && updateId != null) {
+			offsets.finish(updateId);
 		}
+	}
 
+	private void processUpdate(long chatId, String data, boolean isCallback) {
+		long started = System.nanoTime();
+		String command = "unknown";
 		try {
 			UserState state = userStates.computeIfAbsent(chatId, k -> findUserOrNewState(chatId));
 
@@ -279,10 +496,11 @@ public class BotController extends TelegramLongPollingBot {
 				state = finalState;
 			}
 
-			if (isMessage) {
+			command = commandOf(data, isCallback, state);
+			if (!isCallback) {
 				logger.debug("Processing data '{}' in context {}", data, state);
 				handleTextMessage(chatId, data, state);
-			} else if (isCallback) {
+			} else {
 				logger.debug("Processing callback '{}' in context {}", data, state);
 
 				if (state.loggedInUserId == null && !data.startsWith(LOGIN_USER_PREFIX)) {
@@ -307,7 +525,34 @@ public class BotController extends TelegramLongPollingBot {
 			if (errorState != null) {
 				errorState.softReset();
 			}
+		} finally {
+			// Persistido al terminar cada update: sobrevive a expulsiones y cambios de lider
+			userStates.save(chatId);
+			if (dispatcher != null) {
+				dispatcher.recordCommand(command, System.nanoTime() - started);
+			}
+		}
+	}
+
+	// Comando conocido, accion en curso para texto libre (email, horas...) o callback
+	// sin su id
+	private static String commandOf(String data, boolean isCallback, UserState state) {
+		if (isCallback) {
+			if (CALLBACKS.contains(data)) {
+				return data;
+			}
+			for (String prefix : CALLBACK_PREFIXES) {
+				if (data.startsWith(prefix)) {
+					return prefix;
+				}
+			}
+			return "other_callback";
+		}
+		String text = data.trim().toLowerCase(Locale.ROOT);
+		if (TEXT_COMMANDS.contains(text)) {
+			return text;
 		}
+		return text.startsWith("/") ? "other_command" : "text_" + state.currentAction;
 	}
 
 	// Deprecado, solo se usaba para previo a login usuario/contraseña
@@ -344,7 +589,8 @@ public class BotController extends TelegramLongPollingBot {
 
 		for (Task task : tasks) {
 			// TODO: Show only this sprint's tasks?
-			ByStatus.get(TaskStatus.fromString(task.getStatus())).add(task);
+			TaskStatus status = TaskStatus.of(task.getStatusCode());
+			ByStatus.get(status != null ? status : TaskStatus.fromString(task.getStatus())).add(task);
 		}
 
 		// Show all taks assigned to this user, grouped by status
@@ -461,7 +707,7 @@ public class BotController extends TelegramLongPollingBot {
 	}
 
 	private void createNewTask(Long chatId, UserState state) {
-		Long taskId = jdbi.withHandle(handle -> {
+		Long taskId = jdbi.inTransaction(handle -> {
 			TaskRepository taskRepo = handle.attach(TaskRepository.class);
 			UserRepository userRepo = handle.attach(UserRepository.class);
 
@@ -487,10 +733,12 @@ public class BotController extends TelegramLongPollingBot {
 						currentUser.getName(), state.NewTask.getTitle());
 			}
 
+			TaskChangeFeed.Capture change = taskChangeFeed.capture(handle, Collections.emptyList());
 			Long newTaskId = taskRepo.insert(state.NewTask);
 
 			if (newTaskId != null) {
 				taskRepo.addAssignee(newTaskId, state.loggedInUserId);
+				change.addTask(newTaskId).publish();
 				logger.info("Task {} created with ID {} and assigned to user {}",
 						state.NewTask.getTitle(), newTaskId, state.loggedInUserId);
 			} else {
@@ -601,22 +849,94 @@ public class BotController extends TelegramLongPollingBot {
 		Task task = optTask.get();
 		String taskDescription = GeminiController.descriptionFromTask(task);
 		// sendMessage(chatId, taskDescription);
-		sendMessage(chatId, "Consultando a Gemini para sugerencias...");
+		if (geminiJobs == null) {
+			sendMessage(chatId, GEMINI_PLACEHOLDER);
+			sendMessage(chatId, askGemini(taskDescription));
+			return;
+		}
+
+		// El carril del chat sigue atendiendo mientras Gemini responde; el aviso se
+		// edita con la respuesta
+		CompletableFuture<Message> placeholder = new CompletableFuture<>();
+		if (!geminiJobs.submit(chatId,
+				() -> editPlaceholder(chatId, placeholder, askGemini(taskDescription)))) {
+			sendMessage(chatId, "Ya hay una consulta a Gemini en curso. Espera su respuesta antes de pedir otra.");
+			return;
+		}
+		sendPlaceholder(chatId, placeholder);
+	}
 
+	// Texto para el chat: las subtareas, o el motivo por el que no las hay
+	private String askGemini(String taskDescription) {
 		try {
 			// Get response from Gemini
 			String response = geminiController.callGeminiToAtomize(taskDescription);
 
 			if (response != null && !response.isEmpty()) {
 				// Formatear la respuesta para Telegram
-				String formattedResponse = geminiController.formatSubtasksForTelegram(response);
-				sendMessage(chatId, formattedResponse);
-			} else {
-				sendMessage(chatId, "No se pudo obtener una respuesta de Gemini.");
+				return geminiController.formatSubtasksForTelegram(response);
 			}
+			return "No se pudo obtener una respuesta de Gemini.";
 		} catch (Exception e) {
 			logger.error("Error al consultar Gemini: " + e.getMessage(), e);
-			sendMessage(chatId, "Error al consultar Gemini: " + e.getMessage());
+			return "Error al consultar Gemini: " + e.getMessage();
+		}
+	}
+
+	// No se junta con otros mensajes en la cola de salida: se necesita su message_id
+	private void sendPlaceholder(long chatId, CompletableFuture<Message> placeholder) {
+		SendMessage message = new SendMessage();
+		message.setChatId(String.valueOf(chatId));
+		message.setText(GEMINI_PLACEHOLDER);
+
+		if (messageSender != null) {
+			messageSender.sendForEdit(chatId, message, transport).whenComplete((sent, error) -> {
+				if (error != null) {
+					placeholder.completeExceptionally(error);
+				} else {
+					placeholder.complete(sent);
+				}
+			});
+			return;
+		}
+
+		try {
+			placeholder.complete(execute(message));
+		} catch (TelegramApiException e) {
+			logger.error("Telegram API error sending message to chat {}: {}", chatId, e.getMessage(), e);
+			placeholder.completeExceptionally(e);
+		}
+	}
+
+	// En el hilo de BotGeminiJobs
+	private void editPlaceholder(long chatId, CompletableFuture<Message> placeholder, String text) {
+		Message sent;
+		try {
+			sent = placeholder.get(PLACEHOLDER_WAIT_SECONDS, TimeUnit.SECONDS);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			return;
+		} catch (ExecutionException | TimeoutException e) {
+			// Sin aviso que editar, la respuesta va en un mensaje nuevo
+			logger.warn("Gemini placeholder for chat {} was not sent; replying with a new message", chatId);
+			sendMessage(chatId, text);
+			return;
+		}
+
+		EditMessageText edit = new EditMessageText();
+		edit.setChatId(String.valueOf(chatId));
+		edit.setMessageId(sent.getMessageId());
+		edit.setText(text);
+
+		if (messageSender != null) {
+			messageSender.edit(chatId, edit, transport);
+			return;
+		}
+
+		try {
+			execute(edit);
+		} catch (TelegramApiException e) {
+			logger.error("Telegram API error editing message in chat {}: {}", chatId, e.getMessage(), e);
 		}
 	}
 
@@ -662,7 +982,7 @@ public class BotController extends TelegramLongPollingBot {
 		}
 
 		if ("/logout".equalsIgnoreCase(text)) {
-			userRepository.forgetChatId(chatId);
+			unlinkChat(chatId);
 			sendMessage(chatId, "Terminando sesión como " + state.userName);
 			state.reset();
 			return;
@@ -768,7 +1088,8 @@ public class BotController extends TelegramLongPollingBot {
 				}
 				try {
 					double realHours = Double.parseDouble(text);
-					taskRepository.updateRealHours(state.selectedTaskId, realHours);
+					Long taskId = state.selectedTaskId;
+					writeTasks(List.of(taskId), repository -> repository.updateRealHours(taskId, realHours));
 					sendMessage(chatId, "Horas reales actualizadas.");
 					state.softReset();
 					listTasksForUser(chatId, state.loggedInUserId);
@@ -797,8 +1118,7 @@ public class BotController extends TelegramLongPollingBot {
 					state.loginEmail = null;
 
 					// Si llegamos aquí, la autenticación fue exitosa
-					userRepository.forgetChatId(chatId);
-					userRepository.setChatIdForUser(authenticatedUser.getId(), chatId);
+					linkChat(chatId, authenticatedUser);
 
 					state.loggedInUserId = authenticatedUser.getId();
 					state.userName = authenticatedUser.getName();
@@ -833,13 +1153,11 @@ public class BotController extends TelegramLongPollingBot {
 				String userIdString = callbackData.substring(LOGIN_USER_PREFIX.length());
 				Long userId = Long.parseLong(userIdString);
 
-				userRepository.forgetChatId(chatId);
-				userRepository.setChatIdForUser(userId, chatId);
-
 				Optional<User> userOpt = userRepository.findById(userId);
 
 				if (userOpt.isPresent()) {
 					User user = userOpt.get();
+					linkChat(chatId, user);
 					state.loggedInUserId = userId;
 					state.userName = user.getName();
 					state.currentAction = "NORMAL";
@@ -848,6 +1166,7 @@ public class BotController extends TelegramLongPollingBot {
 					listTasksForUser(chatId, userId);
 				} else {
 					logger.error("Login failed: User ID {} not found after callback.", userId);
+					unlinkChat(chatId);
 					sendMessage(chatId, "Error al iniciar sesión: Usuario no encontrado.");
 					state.reset();
 				}
@@ -898,7 +1217,8 @@ public class BotController extends TelegramLongPollingBot {
 				String taskIdString = callbackData.substring(SELF_ASSIGN_PREFIX.length());
 				Long taskId = Long.parseLong(taskIdString);
 
-				int newAssignee = taskRepository.addAssignee(taskId, state.loggedInUserId);
+				Long userId = state.loggedInUserId;
+				int newAssignee = writeTasks(List.of(taskId), repository -> repository.addAssignee(taskId, userId));
 				if (newAssignee > 0) {
 					sendMessage(chatId, "Tarea asignada con éxito.");
 				}
@@ -1011,13 +1331,20 @@ public class BotController extends TelegramLongPollingBot {
 			try {
 				TaskStatus selectedStatus = TaskStatus.valueOf(statusName);
 
-				if (selectedStatus == TaskStatus.COMPLETED) {
-					String endDate = new SimpleDateFormat("yyyy-MM-dd").format(new Date());
-					taskRepository.updateEndDate(state.selectedTaskId, endDate);
+				Long taskId = state.selectedTaskId;
+				String endDate = selectedStatus == TaskStatus.COMPLETED
+						? new SimpleDateFormat("yyyy-MM-dd").format(new Date())
+						: null;
+				writeTasks(List.of(taskId), repository -> {
+					if (endDate != null) {
+						repository.updateEndDate(taskId, endDate);
+					}
+					return repository.updateStatus(taskId, selectedStatus.getDisplayName());
+				});
+				if (endDate != null) {
 					sendMessage(chatId, "Fecha Final declarada como " + endDate);
 				}
 
-				taskRepository.updateStatus(state.selectedTaskId, selectedStatus.getDisplayName());
 				sendMessage(chatId, "Estado actualizado a: " + selectedStatus.getDisplayName());
 
 				state.currentAction = "NORMAL";
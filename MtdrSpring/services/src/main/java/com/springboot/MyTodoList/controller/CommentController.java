@@ -10,7 +10,6 @@ import com.springboot.MyTodoList.model.Task;
 import com.springboot.MyTodoList.model.User;
 import com.springboot.MyTodoList.repository.CommentRepository;
 import com.springboot.MyTodoList.repository.TaskRepository;
-import com.springboot.MyTodoList.repository.UserRepository;
 import com.springboot.MyTodoList.IdentityUtil;
 
 import javax.servlet.http.HttpServletRequest;
@@ -52,8 +51,7 @@ public class CommentController {
 
             Comment comment = commentOpt.get();
 
-            User currentUser = handle.attach(UserRepository.class)
-                    .findById(currentUserId)
+            User currentUser = identityUtil.getCurrentUser(request)
                     .orElseThrow(() -> new RuntimeException("User not found"));
 
             boolean isManager = "manager".equals(currentUser.getRole());
@@ -137,9 +135,7 @@ public class CommentController {
             }
 
             Task task = taskOpt.get();
-            User currentUser = handle
-                    .attach(UserRepository.class)
-                    .findById(currentUserId)
+            User currentUser = identityUtil.getCurrentUser(request)
                     .orElseThrow(() -> new RuntimeException("User not found"));
 
             boolean isManager = "manager".equals(currentUser.getRole());
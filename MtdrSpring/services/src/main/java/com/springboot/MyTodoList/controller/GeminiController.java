@@ -184,9 +184,11 @@ public class GeminiController {
 					.build();
 
 			// Crear la solicitud HTTP
+			// Con timeout: el bot no acepta otra consulta del chat mientras esta siga
 			HttpRequest request = HttpRequest.newBuilder()
 					.uri(URI.create(url))
 					.header("Content-Type", "application/json")
+					.timeout(Duration.ofSeconds(60))
 					.POST(HttpRequest.BodyPublishers.ofString(requestBody.toString(), StandardCharsets.UTF_8))
 					.build();
 
@@ -1,14 +1,23 @@
 package com.springboot.MyTodoList.controller;
 
+import com.springboot.MyTodoList.IdentityUtil;
 import com.springboot.MyTodoList.model.Kpi;
+import com.springboot.MyTodoList.model.KpiDashboard;
+import com.springboot.MyTodoList.model.SprintVelocity;
+import com.springboot.MyTodoList.repository.KpiAggregateRepository;
+import com.springboot.MyTodoList.repository.KpiQueries;
 import com.springboot.MyTodoList.repository.KpiRepository;
+import com.springboot.MyTodoList.service.KpiAggregateService;
+import com.springboot.MyTodoList.service.KpiCache;
+import com.springboot.MyTodoList.service.KpiEngine;
+import com.springboot.MyTodoList.service.SprintSeries;
 import org.jdbi.v3.core.Jdbi;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
-import java.math.BigDecimal;
-import java.util.HashMap;
+import javax.servlet.http.HttpServletRequest;
 import java.util.List;
 import java.util.Map;
 
@@ -16,37 +25,112 @@ import java.util.Map;
 @RequestMapping("/api/kpis")
 public class KpiController {
 
-    private final KpiRepository kpiRepository;
+    private final KpiQueries kpiRepository;
+    private final KpiAggregateService aggregateService;
+    private final KpiEngine engine;
+    private final KpiCache kpiCache;
+    private final SprintSeries sprintSeries;
+    private final IdentityUtil identityUtil;
 
+    // Con kpi.aggregates.enabled los KPIs por miembro y por sprint se leen de las
+    // tablas agregadas; los reportes por tarea siguen en KpiRepository
     @Autowired
-    public KpiController(Jdbi jdbi) {
-        this.kpiRepository = jdbi.onDemand(KpiRepository.class);
+    public KpiController(Jdbi jdbi, ObjectProvider<KpiAggregateService> aggregateService,
+            ObjectProvider<KpiEngine> engine, KpiCache kpiCache, SprintSeries sprintSeries,
+            IdentityUtil identityUtil) {
+        this.aggregateService = aggregateService.getIfAvailable();
+        this.engine = engine.getIfAvailable();
+        this.kpiCache = kpiCache;
+        this.sprintSeries = sprintSeries;
+        this.identityUtil = identityUtil;
+        this.kpiRepository = this.aggregateService != null
+                ? jdbi.onDemand(KpiAggregateRepository.class)
+                : jdbi.onDemand(KpiRepository.class);
     }
 
+    // Con kpi.engine.enabled responde el motor en memoria en cuanto termina su
+    // primera carga; antes, y sin el motor, responde SQL
+    private KpiQueries kpis() {
+        return engine != null && engine.isReady() ? engine : kpiRepository;
+    }
+
+    // Recalcula las tablas agregadas desde cero y verifica el resultado
+    @PostMapping("/aggregates/rebuild")
+    public ResponseEntity<?> rebuildAggregates(HttpServletRequest request) {
+        if (!identityUtil.isManager(request)) {
+            return ResponseEntity.status(403)
+                    .body(Map.of("message", "Forbidden: Only managers can rebuild KPI aggregates"));
+        }
+        if (aggregateService == null) {
+            return ResponseEntity.badRequest().body(Map.of("message", "KPI aggregates are disabled"));
+        }
+        Map<String, Object> result = aggregateService.rebuild();
+        kpiCache.clear();
+        return ResponseEntity.ok(result);
+    }
+
+    // Solo verifica: filas que difieren de un calculo desde cero
+    @GetMapping("/aggregates/check")
+    public ResponseEntity<?> checkAggregates(HttpServletRequest request) {
+        if (!identityUtil.isManager(request)) {
+            return ResponseEntity.status(403)
+                    .body(Map.of("message", "Forbidden: Only managers can check KPI aggregates"));
+        }
+        if (aggregateService == null) {
+            return ResponseEntity.badRequest().body(Map.of("message", "KPI aggregates are disabled"));
+        }
+        return ResponseEntity.ok(Map.of("mismatches", aggregateService.countMismatches()));
+    }
+
+    // Filas y memoria ocupada por el motor en memoria
+    @GetMapping("/engine/stats")
+    public ResponseEntity<?> getEngineStats() {
+        if (engine == null) {
+            return ResponseEntity.badRequest().body(Map.of("message", "KPI engine is disabled"));
+        }
+        return ResponseEntity.ok(engine.stats());
+    }
+
+    // Compara cada consulta del motor contra KpiRepository; mismatches debe estar vacio
+    @GetMapping("/engine/verify")
+    public ResponseEntity<?> verifyEngine(HttpServletRequest request) {
+        if (!identityUtil.isManager(request)) {
+            return ResponseEntity.status(403)
+                    .body(Map.of("message", "Forbidden: Only managers can verify the KPI engine"));
+        }
+        if (engine == null || !engine.isReady()) {
+            return ResponseEntity.badRequest().body(Map.of("message", "KPI engine is disabled or still loading"));
+        }
+        return ResponseEntity.ok(engine.verify());
+    }
+
+    // Todas las lecturas pasan por KpiCache; cache=false la salta (para depurar)
     @GetMapping("/completed-tasks")
     public ResponseEntity<List<Kpi>> getCompletedTasksByMember(
-            @RequestParam(name = "teamId", required = false) Long teamId) {
+            @RequestParam(name = "teamId", required = false) Long teamId,
+            @RequestParam(name = "cache", defaultValue = "true") boolean cache) {
 
-        List<Kpi> kpis;
-        if (teamId != null) {
-            kpis = kpiRepository.getCompletedTasksByMemberAndTeam(teamId);
-        } else {
-            kpis = kpiRepository.getCompletedTasksByMember();
-        }
+        List<Kpi> kpis = kpiCache.get("completed-tasks", teamId, null, false, cache, () -> {
+            if (teamId != null) {
+                return kpis().getCompletedTasksByMemberAndTeam(teamId);
+            }
+            return kpis().getCompletedTasksByMember();
+        });
 
         return ResponseEntity.ok(kpis);
     }
 
     @GetMapping("/actual-hours")
     public ResponseEntity<List<Kpi>> getTotalActualHoursByMember(
-            @RequestParam(name = "teamId", required = false) Long teamId) {
+            @RequestParam(name = "teamId", required = false) Long teamId,
+            @RequestParam(name = "cache", defaultValue = "true") boolean cache) {
 
-        List<Kpi> kpis;
-        if (teamId != null) {
-            kpis = kpiRepository.getTotalActualHoursByMemberAndTeam(teamId);
-        } else {
-            kpis = kpiRepository.getTotalActualHoursByMember();
-        }
+        List<Kpi> kpis = kpiCache.get("actual-hours", teamId, null, false, cache, () -> {
+            if (teamId != null) {
+                return kpis().getTotalActualHoursByMemberAndTeam(teamId);
+            }
+            return kpis().getTotalActualHoursByMember();
+        });
 
         return ResponseEntity.ok(kpis);
     }
@@ -55,43 +139,37 @@ public class KpiController {
     public ResponseEntity<List<Kpi>> getCompletionRateByMember(
             @RequestParam(name = "teamId", required = false) Long teamId,
             @RequestParam(name = "sprintId", required = false) Long sprintId,
-            @RequestParam(name = "aggregated", required = false) Boolean aggregated) {
-
-        List<Kpi> kpis;
-
-        if (sprintId != null) {
-            kpis = kpiRepository.getCompletionRateByMemberAndSprint(sprintId);
-        } else if (teamId != null) {
-            if (Boolean.TRUE.equals(aggregated)) {
-                kpis = kpiRepository.getCompletionRateBySprintAndTeam(teamId);
-            } else {
-                kpis = kpiRepository.getCompletionRateByMemberAndTeam(teamId);
+            @RequestParam(name = "aggregated", required = false) Boolean aggregated,
+            @RequestParam(name = "cache", defaultValue = "true") boolean cache) {
+
+        boolean bySprint = Boolean.TRUE.equals(aggregated);
+        List<Kpi> kpis = kpiCache.get("completion-rate", teamId, sprintId, bySprint, cache, () -> {
+            if (sprintId != null) {
+                return kpis().getCompletionRateByMemberAndSprint(sprintId);
+            } else if (teamId != null) {
+                if (bySprint) {
+                    return kpis().getCompletionRateBySprintAndTeam(teamId);
+                }
+                return kpis().getCompletionRateByMemberAndTeam(teamId);
             }
-        } else {
-            kpis = kpiRepository.getCompletionRateByMember();
-        }
+            return kpis().getCompletionRateByMember();
+        });
 
         return ResponseEntity.ok(kpis);
     }
 
+    // Una sola consulta: completadas y horas se derivan de la tasa de finalizacion
     @GetMapping("/dashboard")
-    public ResponseEntity<Map<String, List<Kpi>>> getDashboardData(
-            @RequestParam(name = "teamId", required = false) Long teamId) {
-
-        Map<String, List<Kpi>> dashboard = new HashMap<>();
-
-        if (teamId != null) {
-            // dashboard.put("completedTasks", kpiRepository.getCompletedTasksByMemberAndTeam(teamId));
-            // dashboard.put("actualHours", kpiRepository.getTotalActualHoursByMemberAndTeam(teamId));
-            // dashboard.put("completionRate", kpiRepository.getCompletionRateByMemberAndTeam(teamId));
-            dashboard.put("completedTasks", kpiRepository.getCompletedTasksBySprintAndTeam(teamId));
-            dashboard.put("actualHours", kpiRepository.getTotalActualHoursBySprintAndTeam(teamId));
-            dashboard.put("completionRate", kpiRepository.getCompletionRateBySprintAndTeam(teamId));
-        } else {
-            dashboard.put("completedTasks", kpiRepository.getCompletedTasksByMember());
-            dashboard.put("actualHours", kpiRepository.getTotalActualHoursByMember());
-            dashboard.put("completionRate", kpiRepository.getCompletionRateByMember());
-        }
+    public ResponseEntity<KpiDashboard> getDashboardData(
+            @RequestParam(name = "teamId", required = false) Long teamId,
+            @RequestParam(name = "cache", defaultValue = "true") boolean cache) {
+
+        KpiDashboard dashboard = kpiCache.get("dashboard", teamId, null, false, cache, () -> {
+            if (teamId != null) {
+                return KpiDashboard.fromCompletionRates(kpis().getCompletionRateBySprintAndTeam(teamId), true);
+            }
+            return KpiDashboard.fromCompletionRates(kpis().getCompletionRateByMember(), false);
+        });
 
         return ResponseEntity.ok(dashboard);
     }
@@ -99,14 +177,14 @@ public class KpiController {
     // Sprint Performance - Hours worked per sprint and member
     @GetMapping("/sprint-performance/hours")
     public ResponseEntity<List<Kpi>> getHoursPerSprintAndMember(
-            @RequestParam(name = "teamId", required = false) Long teamId) {
-        List<Kpi> kpis;
-        
-        if (teamId != null) {
-            kpis = kpiRepository.getHoursPerSprintAndMember(teamId);
-        } else {
-            kpis = kpiRepository.getHoursPerSprintAndMemberAllTeams();
-        }
+            @RequestParam(name = "teamId", required = false) Long teamId,
+            @RequestParam(name = "cache", defaultValue = "true") boolean cache) {
+        List<Kpi> kpis = kpiCache.get("sprint-performance/hours", teamId, null, false, cache, () -> {
+            if (teamId != null) {
+                return kpis().getHoursPerSprintAndMember(teamId);
+            }
+            return kpis().getHoursPerSprintAndMemberAllTeams();
+        });
         
         return ResponseEntity.ok(kpis);
     }
@@ -114,28 +192,28 @@ public class KpiController {
     // Developer Performance - Hours and tasks per sprint per developer
     @GetMapping("/developer-performance/hours")
     public ResponseEntity<List<Kpi>> getDeveloperHoursPerSprint(
-            @RequestParam(name = "teamId", required = false) Long teamId) {
-        List<Kpi> kpis;
-        
-        if (teamId != null) {
-            kpis = kpiRepository.getDeveloperHoursPerSprint(teamId);
-        } else {
-            kpis = kpiRepository.getDeveloperHoursPerSprintAllTeams();
-        }
+            @RequestParam(name = "teamId", required = false) Long teamId,
+            @RequestParam(name = "cache", defaultValue = "true") boolean cache) {
+        List<Kpi> kpis = kpiCache.get("developer-performance/hours", teamId, null, false, cache, () -> {
+            if (teamId != null) {
+                return kpis().getDeveloperHoursPerSprint(teamId);
+            }
+            return kpis().getDeveloperHoursPerSprintAllTeams();
+        });
         
         return ResponseEntity.ok(kpis);
     }
 
     @GetMapping("/developer-performance/tasks")
     public ResponseEntity<List<Kpi>> getDeveloperTasksPerSprint(
-            @RequestParam(name = "teamId", required = false) Long teamId) {
-        List<Kpi> kpis;
-        
-        if (teamId != null) {
-            kpis = kpiRepository.getDeveloperTasksPerSprint(teamId);
-        } else {
-            kpis = kpiRepository.getDeveloperTasksPerSprintAllTeams();
-        }
+            @RequestParam(name = "teamId", required = false) Long teamId,
+            @RequestParam(name = "cache", defaultValue = "true") boolean cache) {
+        List<Kpi> kpis = kpiCache.get("developer-performance/tasks", teamId, null, false, cache, () -> {
+            if (teamId != null) {
+                return kpis().getDeveloperTasksPerSprint(teamId);
+            }
+            return kpis().getDeveloperTasksPerSprintAllTeams();
+        });
         
         return ResponseEntity.ok(kpis);
     }
@@ -143,8 +221,10 @@ public class KpiController {
     // Last Sprint Report - Detailed tasks per developer
     @GetMapping("/last-sprint/tasks")
     public ResponseEntity<List<Kpi>> getLastSprintTasks(
-            @RequestParam(name = "teamId", required = false) Long teamId) {
-        List<Kpi> kpis = kpiRepository.getLastSprintTasksByDeveloper(teamId);
+            @RequestParam(name = "teamId", required = false) Long teamId,
+            @RequestParam(name = "cache", defaultValue = "true") boolean cache) {
+        List<Kpi> kpis = kpiCache.get(KpiCache.LAST_SPRINT_TASKS, teamId, null, false, cache,
+                () -> kpis().getLastSprintTasksByDeveloper(teamId));
         return ResponseEntity.ok(kpis);
     }
 
@@ -152,8 +232,24 @@ public class KpiController {
     @GetMapping("/sprint/{sprintId}/tasks")
     public ResponseEntity<List<Kpi>> getSprintTasks(
             @PathVariable Long sprintId,
-            @RequestParam(name = "teamId", required = false) Long teamId) {
-        List<Kpi> kpis = kpiRepository.getSprintTasksByDeveloper(sprintId, teamId);
+            @RequestParam(name = "teamId", required = false) Long teamId,
+            @RequestParam(name = "cache", defaultValue = "true") boolean cache) {
+        List<Kpi> kpis = kpiCache.get("sprint/tasks", teamId, sprintId, false, cache,
+                () -> kpis().getSprintTasksByDeveloper(sprintId, teamId));
         return ResponseEntity.ok(kpis);
     }
+
+    // Burndown - Horas estimadas pendientes por dia del sprint
+    @GetMapping("/burndown/{sprintId}")
+    public ResponseEntity<?> getBurndown(@PathVariable Long sprintId) {
+        return sprintSeries.burndown(sprintId)
+                .<ResponseEntity<?>>map(ResponseEntity::ok)
+                .orElseGet(() -> ResponseEntity.status(404).body(Map.of("message", "Sprint not found")));
+    }
+
+    // Velocity - Horas completadas por sprint del equipo
+    @GetMapping("/velocity")
+    public ResponseEntity<List<SprintVelocity>> getVelocity(@RequestParam(name = "teamId") Long teamId) {
+        return ResponseEntity.ok(sprintSeries.velocity(teamId));
+    }
 }
@@ -11,18 +11,20 @@ import com.springboot.MyTodoList.model.User;
 import com.springboot.MyTodoList.model.Team;
 import com.springboot.MyTodoList.repository.SprintRepository;
 import com.springboot.MyTodoList.repository.TaskRepository;
-import com.springboot.MyTodoList.repository.UserRepository;
 import com.springboot.MyTodoList.repository.TeamRepository;
+import com.springboot.MyTodoList.service.TaskChangeFeed;
 import com.springboot.MyTodoList.IdentityUtil;
 
 import javax.servlet.http.HttpServletRequest;
 
 import java.text.SimpleDateFormat;
+import java.util.ArrayList;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.function.Function;
 
 @RestController
 @RequestMapping("/api/sprints")
@@ -30,10 +32,12 @@ public class SprintController {
 
     private final Jdbi jdbi;
     private final IdentityUtil identityUtil;
+    private final TaskChangeFeed taskChangeFeed;
 
-    public SprintController(Jdbi jdbi, IdentityUtil identityUtil) {
+    public SprintController(Jdbi jdbi, IdentityUtil identityUtil, TaskChangeFeed taskChangeFeed) {
         this.jdbi = jdbi;
         this.identityUtil = identityUtil;
+        this.taskChangeFeed = taskChangeFeed;
     }
 
     @GetMapping
@@ -47,8 +51,7 @@ public class SprintController {
         }
 
         return jdbi.inTransaction(handle -> {
-            UserRepository userRepo = handle.attach(UserRepository.class);
-            User currentUser = userRepo.findById(currentUserId)
+            User currentUser = identityUtil.getCurrentUser(request)
                     .orElseThrow(() -> new RuntimeException("User not found"));
 
             boolean isManager = "manager".equals(currentUser.getRole());
@@ -94,8 +97,7 @@ public class SprintController {
 
             Sprint sprint = sprintOpt.get();
 
-            UserRepository userRepo = handle.attach(UserRepository.class);
-            User currentUser = userRepo.findById(currentUserId)
+            User currentUser = identityUtil.getCurrentUser(request)
                     .orElseThrow(() -> new RuntimeException("User not found"));
 
             boolean isManager = "manager".equals(currentUser.getRole());
@@ -114,53 +116,20 @@ public class SprintController {
     public ResponseEntity<?> getSprintTasks(
             @PathVariable Long id,
             HttpServletRequest request) {
-
-        Long currentUserId = identityUtil.getCurrentUserId(request);
-        if (currentUserId == null) {
-            return ResponseEntity.status(401).body(Map.of("message", "Unauthorized"));
-        }
-
-        return jdbi.inTransaction(handle -> {
-            SprintRepository sprintRepo = handle.attach(SprintRepository.class);
-            Optional<Sprint> sprintOpt = sprintRepo.findById(id);
-
-            if (!sprintOpt.isPresent()) {
-                return ResponseEntity.notFound().build();
-            }
-
-            Sprint sprint = sprintOpt.get();
-
-            UserRepository userRepo = handle.attach(UserRepository.class);
-            User currentUser = userRepo.findById(currentUserId)
-                    .orElseThrow(() -> new RuntimeException("User not found"));
-
-            boolean isManager = "manager".equals(currentUser.getRole());
-            boolean hasTeamAccess = currentUser.getTeamId() != null &&
-                    currentUser.getTeamId().equals(sprint.getTeamId());
-
-            if (!isManager && !hasTeamAccess) {
-                return ResponseEntity.status(403).body(Map.of("message", "Forbidden"));
-            }
-
-            List<Task> tasks = sprintRepo.findTasksBySprint(id);
-            TaskRepository taskRepo = handle.attach(TaskRepository.class);
-
-            for (Task task : tasks) {
-                task.setAssignees(taskRepo.findAssigneesByTaskId(task.getId()));
-                if (task.getCreatorId() != null) {
-                    userRepo.findById(task.getCreatorId()).ifPresent(
-                            creator -> task.setCreatorName(creator.getName()));
-                }
-            }
-
-            return ResponseEntity.ok(tasks);
-        });
+        return sprintTasks(id, request, sprintRepo -> sprintRepo.findTasksBySprint(id));
     }
 
     @GetMapping("/{id}/incomplete-tasks")
     public ResponseEntity<?> getSprintIncompleteTasks(
             @PathVariable Long id,
             HttpServletRequest request) {
+        return sprintTasks(id, request, sprintRepo -> sprintRepo.findIncompleteTasksBySprint(id));
+    }
+
+    // Primero el sprint y el acceso; las tareas solo se leen si el usuario puede
+    // verlo. Todo en una transaccion, como una sola lectura consistente
+    private ResponseEntity<?> sprintTasks(Long id, HttpServletRequest request,
+            Function<SprintRepository, List<Task>> findTasks) {
 
         Long currentUserId = identityUtil.getCurrentUserId(request);
         if (currentUserId == null) {
@@ -177,8 +146,7 @@ public class SprintController {
 
             Sprint sprint = sprintOpt.get();
 
-            UserRepository userRepo = handle.attach(UserRepository.class);
-            User currentUser = userRepo.findById(currentUserId)
+            User currentUser = identityUtil.getCurrentUser(request)
                     .orElseThrow(() -> new RuntimeException("User not found"));
 
             boolean isManager = "manager".equals(currentUser.getRole());
@@ -189,18 +157,11 @@ public class SprintController {
                 return ResponseEntity.status(403).body(Map.of("message", "Forbidden"));
             }
 
-            List<Task> incompleteTasks = sprintRepo.findIncompleteTasksBySprint(id);
-            TaskRepository taskRepo = handle.attach(TaskRepository.class);
-
-            for (Task task : incompleteTasks) {
-                task.setAssignees(taskRepo.findAssigneesByTaskId(task.getId()));
-                if (task.getCreatorId() != null) {
-                    userRepo.findById(task.getCreatorId()).ifPresent(
-                            creator -> task.setCreatorName(creator.getName()));
-                }
-            }
+            List<Task> tasks = findTasks.apply(sprintRepo);
+            // creator_name ya viene del JOIN; los asignados se cargan en una sola consulta
+            handle.attach(TaskRepository.class).loadAssignees(tasks);
 
-            return ResponseEntity.ok(incompleteTasks);
+            return ResponseEntity.ok(tasks);
         });
     }
 
@@ -216,8 +177,7 @@ public class SprintController {
         }
 
         return jdbi.inTransaction(handle -> {
-            UserRepository userRepo = handle.attach(UserRepository.class);
-            User currentUser = userRepo.findById(currentUserId)
+            User currentUser = identityUtil.getCurrentUser(httpRequest)
                     .orElseThrow(() -> new RuntimeException("User not found"));
 
             if (!"manager".equals(currentUser.getRole())) {
@@ -288,8 +248,7 @@ public class SprintController {
         }
 
         return jdbi.inTransaction(handle -> {
-            UserRepository userRepo = handle.attach(UserRepository.class);
-            User currentUser = userRepo.findById(currentUserId)
+            User currentUser = identityUtil.getCurrentUser(httpRequest)
                     .orElseThrow(() -> new RuntimeException("User not found"));
 
             if (!"manager".equals(currentUser.getRole())) {
@@ -358,8 +317,7 @@ public class SprintController {
         }
 
         return jdbi.inTransaction(handle -> {
-            UserRepository userRepo = handle.attach(UserRepository.class);
-            User currentUser = userRepo.findById(currentUserId)
+            User currentUser = identityUtil.getCurrentUser(request)
                     .orElseThrow(() -> new RuntimeException("User not found"));
 
             if (!"manager".equals(currentUser.getRole())) {
@@ -375,9 +333,11 @@ public class SprintController {
 
             List<Task> sprintTasks = sprintRepo.findTasksBySprint(id);
 
+            TaskChangeFeed.Capture change = taskChangeFeed.captureSprint(handle, id);
             for (Task task : sprintTasks) {
                 sprintRepo.removeTaskFromSprint(task.getId());
             }
+            change.publish();
 
             sprintRepo.delete(id);
 
@@ -398,8 +358,7 @@ public class SprintController {
         }
 
         return jdbi.inTransaction(handle -> {
-            UserRepository userRepo = handle.attach(UserRepository.class);
-            User currentUser = userRepo.findById(currentUserId)
+            User currentUser = identityUtil.getCurrentUser(httpRequest)
                     .orElseThrow(() -> new RuntimeException("User not found"));
 
             SprintRepository sprintRepo = handle.attach(SprintRepository.class);
@@ -432,6 +391,12 @@ public class SprintController {
             result.put("successful", 0);
             result.put("failed", 0);
 
+            List<Long> changedTaskIds = new ArrayList<>(taskIds.size());
+            for (Integer taskId : taskIds) {
+                changedTaskIds.add(taskId.longValue());
+            }
+            TaskChangeFeed.Capture change = taskChangeFeed.capture(handle, changedTaskIds);
+
             for (Integer taskId : taskIds) {
                 Optional<Task> taskOpt = taskRepo.findById(taskId.longValue());
                 if (!taskOpt.isPresent()) {
@@ -453,6 +418,7 @@ public class SprintController {
                     result.put("failed", (Integer) result.get("failed") + 1);
                 }
             }
+            change.publish();
 
             return ResponseEntity.ok(result);
         });
@@ -471,8 +437,7 @@ public class SprintController {
         }
 
         return jdbi.inTransaction(handle -> {
-            UserRepository userRepo = handle.attach(UserRepository.class);
-            User currentUser = userRepo.findById(currentUserId)
+            User currentUser = identityUtil.getCurrentUser(request)
                     .orElseThrow(() -> new RuntimeException("User not found"));
 
             SprintRepository sprintRepo = handle.attach(SprintRepository.class);
@@ -506,7 +471,9 @@ public class SprintController {
                         .body(Map.of("message", "Task is not assigned to this sprint"));
             }
 
+            TaskChangeFeed.Capture change = taskChangeFeed.capture(handle, List.of(taskId));
             sprintRepo.removeTaskFromSprint(taskId);
+            change.publish();
 
             return ResponseEntity.ok(Map.of("message", "Task removed from sprint"));
         });
@@ -525,8 +492,7 @@ public class SprintController {
         }
 
         return jdbi.inTransaction(handle -> {
-            UserRepository userRepo = handle.attach(UserRepository.class);
-            User currentUser = userRepo.findById(currentUserId)
+            User currentUser = identityUtil.getCurrentUser(httpRequest)
                     .orElseThrow(() -> new RuntimeException("User not found"));
 
             if (!"manager".equals(currentUser.getRole())) {
@@ -542,6 +508,7 @@ public class SprintController {
 
             Sprint sprint = sprintOpt.get();
 
+            TaskChangeFeed.Capture change = taskChangeFeed.captureSprint(handle, sprintId);
             if (request.containsKey("incompleteTasksAction")) {
                 String action = request.get("incompleteTasksAction").toString();
 
@@ -566,6 +533,8 @@ public class SprintController {
                 }
             }
 
+            change.publish();
+
             sprintRepo.updateSprintStatus(sprintId, "COMPLETED");
 
             return ResponseEntity.ok(Map.of("message", "Sprint completed successfully"));
@@ -5,15 +5,22 @@ import com.springboot.MyTodoList.model.Task;
 import com.springboot.MyTodoList.model.User;
 import com.springboot.MyTodoList.model.Sprint;
 import com.springboot.MyTodoList.repository.TaskRepository;
-import com.springboot.MyTodoList.repository.UserRepository;
 import com.springboot.MyTodoList.repository.SprintRepository;
+import com.springboot.MyTodoList.repository.TaskFilter;
+import com.springboot.MyTodoList.response.CursorPage;
+import com.springboot.MyTodoList.service.TaskChangeFeed;
+import com.springboot.MyTodoList.service.TaskExportService;
+import java.nio.charset.StandardCharsets;
 import java.util.*;
 import java.util.stream.Collectors;
 import javax.servlet.http.HttpServletRequest;
 import org.jdbi.v3.core.Jdbi;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 @RestController
 @RequestMapping("/api/tasks")
@@ -21,10 +28,15 @@ public class TaskController {
 
     private final Jdbi jdbi;
     private final IdentityUtil identityUtil;
+    private final TaskExportService taskExportService;
+    private final TaskChangeFeed taskChangeFeed;
 
-    public TaskController(Jdbi jdbi, IdentityUtil identityUtil) {
+    public TaskController(Jdbi jdbi, IdentityUtil identityUtil, TaskExportService taskExportService,
+            TaskChangeFeed taskChangeFeed) {
         this.jdbi = jdbi;
         this.identityUtil = identityUtil;
+        this.taskExportService = taskExportService;
+        this.taskChangeFeed = taskChangeFeed;
     }
 
     @GetMapping
@@ -34,8 +46,11 @@ public class TaskController {
             @RequestParam(required = false) String status,
             @RequestParam(required = false) String tag,
             @RequestParam(required = false) Long created_by,
+            @RequestParam(required = false) Long sprint_id,
+            @RequestParam(required = false) Long assignee_id,
             @RequestParam(defaultValue = "0") int skip,
             @RequestParam(defaultValue = "300") int limit,
+            @RequestParam(required = false) String cursor,
             HttpServletRequest request) {
         Long currentUserId = identityUtil.getCurrentUserId(request);
         if (currentUserId == null) {
@@ -43,10 +58,18 @@ public class TaskController {
                     Map.of("message", "Unauthorized"));
         }
 
+        // Con "cursor" (vacio para la primera pagina) se pagina por id y la
+        // respuesta es { items, nextCursor }; sin el, se mantiene skip/limit
+        final boolean useCursor = cursor != null;
+        final long after;
+        try {
+            after = CursorPage.decodeCursor(cursor);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("message", "Invalid cursor"));
+        }
+
         return jdbi.inTransaction(handle -> {
-            User currentUser = handle
-                    .attach(UserRepository.class)
-                    .findById(currentUserId)
+            User currentUser = identityUtil.getCurrentUser(request)
                     .orElseThrow(() -> new RuntimeException("User not found"));
 
             boolean isManager = "manager".equals(currentUser.getRole());
@@ -61,19 +84,21 @@ public class TaskController {
             }
 
             List<Task> tasks;
+            boolean paged = false;
+            TaskFilter filter = new TaskFilter()
+                    .setStatus(status)
+                    .setTag(tag)
+                    .setCreatorId(created_by)
+                    .setSprintId(sprint_id)
+                    .setAssigneeId(assignee_id);
 
             // Managers con view_mode=assigned
             if ("assigned".equals(view_mode)) {
                 if (isManager && (team_id == null || team_id == 0)) {
                     // view_mode=assigned y no un equipo especifico
                     // retorna todas las tareas, de todos los equipos
-                    tasks = taskRepo.findWithFilters(
-                            null,
-                            status,
-                            tag,
-                            created_by,
-                            limit,
-                            skip);
+                    tasks = findPage(taskRepo, filter.setTeamId(null), useCursor, after, limit, skip);
+                    paged = true;
                 } else {
                     // Caso regular - solo tareas asignadas al usuario actual
                     tasks = taskRepo.findTasksAssignedToUser(currentUserId);
@@ -82,13 +107,8 @@ public class TaskController {
                 if (isManager && team_id == null) {
                     // Para managers con "view_mode=team" y sin team_id,
                     // retorna TODAS las tareas de todos los equipos
-                    tasks = taskRepo.findWithFilters(
-                            null,
-                            status,
-                            tag,
-                            created_by,
-                            limit,
-                            skip);
+                    tasks = findPage(taskRepo, filter.setTeamId(null), useCursor, after, limit, skip);
+                    paged = true;
                 } else {
                     // Tareas específicas del equipo
                     Long effectiveTeamId = team_id;
@@ -104,26 +124,89 @@ public class TaskController {
                 }
             } else {
                 // Filtros generales
-                tasks = taskRepo.findWithFilters(
-                        team_id,
-                        status,
-                        tag,
-                        created_by,
-                        limit,
-                        skip);
+                tasks = findPage(taskRepo, filter.setTeamId(team_id), useCursor, after, limit, skip);
+                paged = true;
             }
 
-            // Obtiene los asignados para cada tarea
-            for (Task task : tasks) {
-                List<User> assignees = taskRepo.findAssigneesByTaskId(
-                        task.getId());
-                task.setAssignees(assignees);
-            }
+            // Obtiene los asignados de todas las tareas en una sola consulta
+            taskRepo.loadAssignees(tasks);
 
+            if (useCursor) {
+                // Las vistas sin paginar devuelven todo en una sola pagina
+                return ResponseEntity.ok(paged
+                        ? CursorPage.of(tasks, limit, Task::getId)
+                        : new CursorPage<>(tasks, null));
+            }
             return ResponseEntity.ok(tasks);
         });
     }
 
+    private List<Task> findPage(TaskRepository taskRepo, TaskFilter filter,
+            boolean useCursor, long after, int limit, int skip) {
+        if (useCursor) {
+            return taskRepo.findByFilter(filter.setAfterId(after), limit, 0);
+        }
+        return taskRepo.findByFilter(filter, limit, skip);
+    }
+
+    // Exporta las tareas en streaming (format=jsonl o csv) sin cargarlas en memoria
+    @GetMapping("/export")
+    public ResponseEntity<?> exportTasks(
+            @RequestParam(defaultValue = "jsonl") String format,
+            @RequestParam(required = false) Long team_id,
+            @RequestParam(required = false) String status,
+            @RequestParam(required = false) String tag,
+            @RequestParam(required = false) Long created_by,
+            @RequestParam(required = false) Long sprint_id,
+            @RequestParam(required = false) Long assignee_id,
+            HttpServletRequest request) {
+        Optional<User> currentUserOpt = identityUtil.getCurrentUser(request);
+        if (currentUserOpt.isEmpty()) {
+            return ResponseEntity.status(401).body(
+                    Map.of("message", "Unauthorized"));
+        }
+
+        boolean csv = "csv".equalsIgnoreCase(format);
+        if (!csv && !"jsonl".equalsIgnoreCase(format)) {
+            return ResponseEntity.badRequest().body(
+                    Map.of("message", "format must be jsonl or csv"));
+        }
+
+        User currentUser = currentUserOpt.get();
+        TaskFilter filter = new TaskFilter()
+                .setTeamId(team_id)
+                .setStatus(status)
+                .setTag(tag)
+                .setCreatorId(created_by)
+                .setSprintId(sprint_id)
+                .setAssigneeId(assignee_id);
+
+        // Quien no es manager solo exporta su equipo (o sus tareas si no tiene equipo)
+        if (!"manager".equals(currentUser.getRole())) {
+            if (team_id != null && !team_id.equals(currentUser.getTeamId())) {
+                return ResponseEntity.status(403).body(
+                        Map.of("message", "Forbidden"));
+            }
+            if (currentUser.getTeamId() != null) {
+                filter.setTeamId(currentUser.getTeamId());
+            } else {
+                filter.setAssigneeId(currentUser.getId());
+            }
+        }
+
+        StreamingResponseBody body = csv
+                ? out -> taskExportService.exportCsv(filter, out)
+                : out -> taskExportService.exportJsonLines(filter, out);
+
+        return ResponseEntity.ok()
+                .contentType(csv
+                        ? new MediaType("text", "csv", StandardCharsets.UTF_8)
+                        : MediaType.parseMediaType("application/x-ndjson"))
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        "attachment; filename=\"tasks." + (csv ? "csv" : "jsonl") + "\"")
+                .body(body);
+    }
+
     @GetMapping("/{taskId}")
     public ResponseEntity<?> getTask(
             @PathVariable Long taskId,
@@ -145,9 +228,7 @@ public class TaskController {
 
             Task task = taskOpt.get();
 
-            User currentUser = handle
-                    .attach(UserRepository.class)
-                    .findById(currentUserId)
+            User currentUser = identityUtil.getCurrentUser(request)
                     .orElseThrow(() -> new RuntimeException("User not found"));
 
             boolean isManager = "manager".equals(currentUser.getRole());
@@ -251,7 +332,9 @@ public class TaskController {
             }
 
             TaskRepository taskRepo = handle.attach(TaskRepository.class);
+            TaskChangeFeed.Capture change = taskChangeFeed.capture(handle, Collections.emptyList());
             Long taskId = taskRepo.insert(task);
+            change.addTask(taskId);
 
             if (request.containsKey("assignee_ids") &&
                     request.get("assignee_ids") != null) {
@@ -268,6 +351,7 @@ public class TaskController {
                     }
                 }
             }
+            change.publish();
 
             Optional<Task> createdTaskOpt = taskRepo.findById(taskId);
             if (createdTaskOpt.isPresent()) {
@@ -303,9 +387,7 @@ public class TaskController {
 
             Task task = taskOpt.get();
 
-            User currentUser = handle
-                    .attach(UserRepository.class)
-                    .findById(currentUserId)
+            User currentUser = identityUtil.getCurrentUser(httpRequest)
                     .orElseThrow(() -> new RuntimeException("User not found"));
 
             boolean isManager = "manager".equals(currentUser.getRole());
@@ -392,6 +474,7 @@ public class TaskController {
                     }
                 }
             }
+            TaskChangeFeed.Capture change = taskChangeFeed.capture(handle, List.of(taskId));
             taskRepo.update(task);
 
             if (request.containsKey("assignee_ids")) {
@@ -411,6 +494,7 @@ public class TaskController {
                     }
                 }
             }
+            change.publish();
 
             Optional<Task> updatedTaskOpt = taskRepo.findById(taskId);
             if (updatedTaskOpt.isPresent()) {
@@ -442,9 +526,7 @@ public class TaskController {
         }
 
         return jdbi.inTransaction(handle -> {
-            User currentUser = handle
-                    .attach(UserRepository.class)
-                    .findById(currentUserId)
+            User currentUser = identityUtil.getCurrentUser(request)
                     .orElseThrow(() -> new RuntimeException("User not found"));
 
             boolean isManager = "manager".equals(currentUser.getRole());
@@ -482,9 +564,11 @@ public class TaskController {
                 }
             }
 
+            TaskChangeFeed.Capture change = taskChangeFeed.capture(handle, accessibleTaskIds);
             handle
                     .attach(TaskRepository.class)
                     .deleteMultiple(accessibleTaskIds);
+            change.publish();
 
             Map<String, Object> response = new HashMap<>();
             response.put("message", "Tasks deleted");
@@ -525,9 +609,7 @@ public class TaskController {
 
             Task task = taskOpt.get();
 
-            User currentUser = handle
-                    .attach(UserRepository.class)
-                    .findById(currentUserId)
+            User currentUser = identityUtil.getCurrentUser(httpRequest)
                     .orElseThrow(() -> new RuntimeException("User not found"));
 
             boolean isManager = "manager".equals(currentUser.getRole());
@@ -544,7 +626,9 @@ public class TaskController {
                         Map.of("message", "Forbidden: You cannot update this task's status"));
             }
 
+            TaskChangeFeed.Capture change = taskChangeFeed.capture(handle, List.of(taskId));
             taskRepo.updateStatus(taskId, status);
+            change.publish();
 
             Optional<Task> updatedTaskOpt = taskRepo.findById(taskId);
             if (updatedTaskOpt.isPresent()) {
@@ -587,9 +671,7 @@ public class TaskController {
 
             Task task = taskOpt.get();
 
-            User currentUser = handle
-                    .attach(UserRepository.class)
-                    .findById(currentUserId)
+            User currentUser = identityUtil.getCurrentUser(httpRequest)
                     .orElseThrow(() -> new RuntimeException("User not found"));
 
             boolean isManager = "manager".equals(currentUser.getRole());
@@ -602,6 +684,7 @@ public class TaskController {
                         Map.of("message", "Forbidden: Only managers or team members can assign tasks"));
             }
 
+            TaskChangeFeed.Capture change = taskChangeFeed.capture(handle, List.of(taskId));
             taskRepo.deleteAllAssignees(taskId);
 
             for (Object rawId : assigneeIdsRaw) {
@@ -612,6 +695,7 @@ public class TaskController {
                     System.err.println("Invalid assignee ID format during assign: " + rawId);
                 }
             }
+            change.publish();
 
             Optional<Task> updatedTaskOpt = taskRepo.findById(taskId);
             if (updatedTaskOpt.isPresent()) {
@@ -677,7 +761,6 @@ public class TaskController {
         return jdbi.inTransaction(handle -> {
             TaskRepository taskRepo = handle.attach(TaskRepository.class);
             SprintRepository sprintRepo = handle.attach(SprintRepository.class);
-            UserRepository userRepo = handle.attach(UserRepository.class);
 
             Optional<Sprint> targetSprintOpt = sprintRepo.findById(targetSprintId); // Use final variable
             if (!targetSprintOpt.isPresent()) {
@@ -686,7 +769,7 @@ public class TaskController {
             }
             Sprint targetSprint = targetSprintOpt.get();
 
-            User currentUser = userRepo.findById(finalCurrentUserId) // Use final variable
+            User currentUser = identityUtil.getCurrentUser(httpRequest)
                     .orElseThrow(() -> new RuntimeException("User not found"));
 
             boolean isManager = "manager".equals(currentUser.getRole());
@@ -708,13 +791,17 @@ public class TaskController {
                  System.out.println("Warning: Some tasks not found for migration: " + notFoundIds);
             }
 
+            Map<Long, List<User>> assigneesByTask = isManager
+                    ? Collections.emptyMap()
+                    : taskRepo.findAssigneesByTaskIds(taskIds);
+
             for (Task task : tasksToMigrate) {
                 boolean isTaskTeamMember = currentUser.getTeamId() != null &&
                         task.getTeamId() != null &&
                         currentUser.getTeamId().equals(task.getTeamId());
 
                 if (!isManager && !isTaskTeamMember) {
-                    boolean isAssigned = taskRepo.findAssigneesByTaskId(task.getId())
+                    boolean isAssigned = assigneesByTask.getOrDefault(task.getId(), Collections.emptyList())
                             .stream()
                             .anyMatch(user -> user.getId().equals(finalCurrentUserId)); // Use final variable
                     if (!isAssigned) {
@@ -724,7 +811,9 @@ public class TaskController {
                 }
             }
 
+            TaskChangeFeed.Capture change = taskChangeFeed.capture(handle, taskIds);
             int updatedRows = taskRepo.bulkUpdateSprintId(taskIds, targetSprintId); // Use final variables
+            change.publish();
 
             if (updatedRows != tasksToMigrate.size()) {
                  System.err.println("Warning: Number of updated tasks (" + updatedRows +
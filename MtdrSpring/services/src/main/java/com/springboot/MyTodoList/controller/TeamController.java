@@ -9,6 +9,8 @@ import com.springboot.MyTodoList.model.Team;
 import com.springboot.MyTodoList.model.User;
 import com.springboot.MyTodoList.repository.TeamRepository;
 import com.springboot.MyTodoList.IdentityUtil;
+import com.springboot.MyTodoList.response.CursorPage;
+import com.springboot.MyTodoList.service.TokenRevocationList;
 
 import javax.servlet.http.HttpServletRequest;
 import java.util.List;
@@ -21,17 +23,23 @@ public class TeamController {
 
     private final Jdbi jdbi;
     private final IdentityUtil identityUtil; // Inject IdentityUtil
+    private final TokenRevocationList revocationList;
+    // Lecturas fuera de transaccion: cada llamada toma su propia conexion
+    private final TeamRepository teamRepository;
 
     // Update constructor to accept IdentityUtil
-    public TeamController(Jdbi jdbi, IdentityUtil identityUtil) {
+    public TeamController(Jdbi jdbi, IdentityUtil identityUtil, TokenRevocationList revocationList) {
         this.jdbi = jdbi;
         this.identityUtil = identityUtil;
+        this.revocationList = revocationList;
+        this.teamRepository = jdbi.onDemand(TeamRepository.class);
     }
 
     @GetMapping
     public ResponseEntity<?> getTeams(
             @RequestParam(defaultValue = "0") int skip,
             @RequestParam(defaultValue = "100") int limit,
+            @RequestParam(required = false) String cursor,
             HttpServletRequest request) {
 
         // --- FIX: Use IdentityUtil ---
@@ -49,17 +57,24 @@ public class TeamController {
         // return ResponseEntity.status(403).body(Map.of("message", "Forbidden"));
         // }
 
-        return jdbi.inTransaction(handle -> {
-            List<Team> teams = handle.attach(TeamRepository.class).findAll(limit, skip);
+        // Paginacion por cursor si se envia "cursor" (vacio para la primera pagina)
+        final long after;
+        try {
+            after = CursorPage.decodeCursor(cursor);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("message", "Invalid cursor"));
+        }
 
-            for (Team team : teams) {
-                List<User> members = handle.attach(TeamRepository.class)
-                        .findMembersByTeamId(team.getId());
-                team.setMembers(members);
-            }
+        List<Team> teams = cursor != null
+                ? teamRepository.findAllAfter(after, limit)
+                : teamRepository.findAll(limit, skip);
 
-            return ResponseEntity.ok(teams);
-        });
+        teamRepository.loadMembers(teams);
+
+        if (cursor != null) {
+            return ResponseEntity.ok(CursorPage.of(teams, limit, Team::getId));
+        }
+        return ResponseEntity.ok(teams);
     }
 
     @GetMapping("/{teamId}")
@@ -75,14 +90,14 @@ public class TeamController {
             return ResponseEntity.status(403).body(Map.of("message", "Forbidden"));
         }
 
+        // Dos lecturas de una fila: en linea, sin pasar por FanOut
         return jdbi.inTransaction(handle -> {
-            Optional<Team> teamOpt = handle.attach(TeamRepository.class).findById(teamId);
+            TeamRepository teamRepo = handle.attach(TeamRepository.class);
+            Optional<Team> teamOpt = teamRepo.findById(teamId);
 
             if (teamOpt.isPresent()) {
                 Team team = teamOpt.get();
-                List<User> members = handle.attach(TeamRepository.class)
-                        .findMembersByTeamId(team.getId());
-                team.setMembers(members);
+                team.setMembers(teamRepo.findMembersByTeamId(team.getId()));
                 return ResponseEntity.ok(team);
             } else {
                 return ResponseEntity.notFound().build();
@@ -108,18 +123,12 @@ public class TeamController {
         }
 
         try {
-            return jdbi.inTransaction(handle -> {
-                List<Team> teams = handle.attach(TeamRepository.class).findTeamsByUserId(userId);
+            List<Team> teams = teamRepository.findTeamsByUserId(userId);
 
-                // Populate members for each team
-                for (Team team : teams) {
-                    List<User> members = handle.attach(TeamRepository.class)
-                            .findMembersByTeamId(team.getId());
-                    team.setMembers(members);
-                }
+            // Populate members for each team
+            teamRepository.loadMembers(teams);
 
-                return ResponseEntity.ok(teams);
-            });
+            return ResponseEntity.ok(teams);
         } catch (Exception e) {
             // Log the exception for debugging
             e.printStackTrace();
@@ -207,6 +216,8 @@ public class TeamController {
                     return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
                             .body(Map.of("error", "Failed to update team"));
                 }
+                // El nombre del equipo viaja en los claims de sus miembros
+                revocationList.markTeamChanged(teamId);
 
                 // Fetch updated team with members
                 Optional<Team> updatedTeamOpt = repository.findById(teamId);
@@ -248,6 +259,7 @@ public class TeamController {
 
                 // First, unassign all users from this team (if any)
                 repository.unassignUsersFromTeam(teamId);
+                revocationList.markTeamChanged(teamId);
 
                 // Then delete the team
                 int deletedCount = repository.delete(teamId);
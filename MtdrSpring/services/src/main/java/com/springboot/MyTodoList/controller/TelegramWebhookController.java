@@ -0,0 +1,73 @@
+package com.springboot.MyTodoList.controller;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.springboot.MyTodoList.service.TelegramBotService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.telegram.telegrambots.meta.api.objects.Update;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.Map;
+import java.util.Optional;
+
+// Entrada de updates en modo webhook (telegram.mode=webhook). Verifica el secret
+// token antes de leer el cuerpo, encola el update en BotUpdateDispatcher y responde
+// enseguida; los handlers de BotController corren despues en el carril del chat.
+@RestController
+@RequestMapping("/api/telegram")
+public class TelegramWebhookController {
+    private static final Logger logger = LoggerFactory.getLogger(TelegramWebhookController.class);
+
+    static final String SECRET_HEADER = "X-Telegram-Bot-Api-Secret-Token";
+
+    private final TelegramBotService telegramBotService;
+    private final ObjectMapper objectMapper;
+
+    public TelegramWebhookController(TelegramBotService telegramBotService, ObjectMapper objectMapper) {
+        this.telegramBotService = telegramBotService;
+        this.objectMapper = objectMapper;
+    }
+
+    @PostMapping("/webhook")
+    public ResponseEntity<?> receiveUpdate(
+            @RequestHeader(name = SECRET_HEADER, required = false) String secretToken,
+            @RequestBody String body) {
+
+        Optional<BotController> bot = telegramBotService.getWebhookBot();
+        if (!telegramBotService.isWebhookMode() || !bot.isPresent()) {
+            return ResponseEntity.status(404).body(Map.of("message", "Telegram webhook is disabled"));
+        }
+        if (!matchesSecret(secretToken)) {
+            return ResponseEntity.status(401).body(Map.of("message", "Invalid secret token"));
+        }
+
+        Update update;
+        try {
+            update = objectMapper.readValue(body, Update.class);
+        } catch (JsonProcessingException e) {
+            // Telegram reintentaria para siempre un cuerpo que no se puede leer
+            logger.warn("Ignoring unreadable Telegram update: {}", e.getOriginalMessage());
+            return ResponseEntity.ok().build();
+        }
+
+        // Con el carril lleno Telegram vuelve a entregar el update mas tarde
+        if (!bot.get().acceptUpdate(update)) {
+            return ResponseEntity.status(503).body(Map.of("message", "Bot is busy"));
+        }
+        return ResponseEntity.ok().build();
+    }
+
+    // Comparacion en tiempo constante
+    private boolean matchesSecret(String secretToken) {
+        String expected = telegramBotService.getWebhookSecret();
+        if (secretToken == null || expected == null || expected.isBlank()) {
+            return false;
+        }
+        return MessageDigest.isEqual(secretToken.getBytes(StandardCharsets.UTF_8),
+                expected.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -7,7 +7,10 @@ import org.springframework.web.bind.annotation.*;
 
 import com.springboot.MyTodoList.model.User;
 import com.springboot.MyTodoList.repository.UserRepository;
+import com.springboot.MyTodoList.response.CursorPage;
 import com.springboot.MyTodoList.IdentityUtil;
+import com.springboot.MyTodoList.service.BotChatIndex;
+import com.springboot.MyTodoList.service.TokenRevocationList;
 
 import javax.servlet.http.HttpServletRequest;
 import java.util.HashMap;
@@ -21,11 +24,16 @@ public class UserController {
 
     private final Jdbi jdbi;
     private final IdentityUtil identityUtil;
+    private final TokenRevocationList revocationList;
+    private final BotChatIndex chatIndex;
 
     // Update constructor to accept IdentityUtil
-    public UserController(Jdbi jdbi, IdentityUtil identityUtil) {
+    public UserController(Jdbi jdbi, IdentityUtil identityUtil, TokenRevocationList revocationList,
+            BotChatIndex chatIndex) {
         this.jdbi = jdbi;
         this.identityUtil = identityUtil;
+        this.revocationList = revocationList;
+        this.chatIndex = chatIndex;
     }
 
     @GetMapping("/me")
@@ -45,6 +53,7 @@ public class UserController {
     public ResponseEntity<?> getUsers(
             @RequestParam(defaultValue = "0") int skip,
             @RequestParam(defaultValue = "100") int limit,
+            @RequestParam(required = false) String cursor,
             HttpServletRequest request) {
 
         // --- FIX: Use IdentityUtil for authorization check if needed ---
@@ -57,7 +66,21 @@ public class UserController {
         // return ResponseEntity.status(403).body(Map.of("message", "Forbidden"));
         // }
 
+        // Paginacion por cursor si se envia "cursor" (vacio para la primera pagina)
+        final long after;
         try {
+            after = CursorPage.decodeCursor(cursor);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("message", "Invalid cursor"));
+        }
+
+        try {
+            if (cursor != null) {
+                List<User> users = jdbi.withExtension(UserRepository.class,
+                        repository -> repository.findAllAfter(after, limit));
+                return ResponseEntity.ok(CursorPage.of(users, limit, User::getId));
+            }
+
             List<User> users = jdbi.withExtension(UserRepository.class,
                     repository -> repository.findAll(limit, skip));
             return ResponseEntity.ok(users);
@@ -143,6 +166,7 @@ public class UserController {
             if (updated == 0) {
                 return ResponseEntity.notFound().build();
             }
+            revocationList.markUserChanged(userId);
 
             // Return the updated user
             Optional<User> user = jdbi.withExtension(UserRepository.class, repository -> repository.findById(userId));
@@ -188,6 +212,8 @@ public class UserController {
             if (updated == 0) {
                 return ResponseEntity.notFound().build();
             }
+            revocationList.markUserChanged(userId);
+            chatIndex.refreshUser(userId);
 
             // Return the updated user
             Optional<User> user = jdbi.withExtension(UserRepository.class, repository -> repository.findById(userId));
@@ -229,6 +255,8 @@ public class UserController {
             if (updated == 0) {
                 return ResponseEntity.notFound().build();
             }
+            revocationList.markUserChanged(userId);
+            chatIndex.refreshUser(userId);
 
             // Return the updated user
             Optional<User> updatedUser = jdbi.withExtension(UserRepository.class,
@@ -268,6 +296,8 @@ public class UserController {
                     repository -> repository.delete(userId));
 
             if (deleted > 0) {
+                revocationList.markUserChanged(userId);
+                chatIndex.refreshUser(userId);
                 return ResponseEntity.ok(Map.of("message", "User deleted successfully"));
             } else {
                 return ResponseEntity.status(500)
@@ -0,0 +1,63 @@
+package com.springboot.MyTodoList.model;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+// Datos del tablero de KPIs. Las tres series salen de una sola consulta de tasa de
+// finalizacion (completadas, asignadas y horas por grupo), en lugar de tres
+// consultas que recorren SPRINTS y TASKS por separado.
+public class KpiDashboard {
+    private List<Kpi> completedTasks;
+    private List<Kpi> actualHours;
+    private List<Kpi> completionRate;
+
+    public KpiDashboard(List<Kpi> completedTasks, List<Kpi> actualHours, List<Kpi> completionRate) {
+        this.completedTasks = completedTasks;
+        this.actualHours = actualHours;
+        this.completionRate = completionRate;
+    }
+
+    // Por sprint las series conservan todos los sprints en el orden de la consulta.
+    // Por miembro se reproducen los filtros de las consultas originales: solo
+    // miembros con tareas completadas (de mayor a menor) y solo miembros con horas.
+    public static KpiDashboard fromCompletionRates(List<Kpi> rows, boolean bySprint) {
+        List<Kpi> completed = new ArrayList<>(rows.size());
+        List<Kpi> hours = new ArrayList<>(rows.size());
+
+        for (Kpi row : rows) {
+            Integer completedCount = row.getCompletedTasks();
+            if (bySprint || (completedCount != null && completedCount > 0)) {
+                Kpi kpi = new Kpi();
+                kpi.setMemberName(row.getMemberName());
+                kpi.setCompletedTasks(completedCount);
+                completed.add(kpi);
+            }
+
+            if (bySprint || row.getTotalActualHours() != null || row.getTotalEstimatedHours() != null) {
+                Kpi kpi = new Kpi();
+                kpi.setMemberName(row.getMemberName());
+                kpi.setTotalActualHours(row.getTotalActualHours());
+                kpi.setTotalEstimatedHours(row.getTotalEstimatedHours());
+                hours.add(kpi);
+            }
+        }
+
+        if (!bySprint) {
+            completed.sort(Comparator.comparing(Kpi::getCompletedTasks).reversed());
+        }
+        return new KpiDashboard(completed, hours, rows);
+    }
+
+    public List<Kpi> getCompletedTasks() {
+        return completedTasks;
+    }
+
+    public List<Kpi> getActualHours() {
+        return actualHours;
+    }
+
+    public List<Kpi> getCompletionRate() {
+        return completionRate;
+    }
+}
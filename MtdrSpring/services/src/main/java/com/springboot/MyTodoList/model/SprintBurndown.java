@@ -0,0 +1,86 @@
+package com.springboot.MyTodoList.model;
+
+import java.util.List;
+
+// Horas estimadas pendientes de un sprint, un punto por dia entre inicio y fin
+public class SprintBurndown {
+    private Long sprintId;
+    private String sprintName;
+    private String startDate;
+    private String endDate;
+    private Double totalEstimatedHours;
+    private List<Point> points;
+
+    public Long getSprintId() {
+        return sprintId;
+    }
+
+    public void setSprintId(Long sprintId) {
+        this.sprintId = sprintId;
+    }
+
+    public String getSprintName() {
+        return sprintName;
+    }
+
+    public void setSprintName(String sprintName) {
+        this.sprintName = sprintName;
+    }
+
+    public String getStartDate() {
+        return startDate;
+    }
+
+    public void setStartDate(String startDate) {
+        this.startDate = startDate;
+    }
+
+    public String getEndDate() {
+        return endDate;
+    }
+
+    public void setEndDate(String endDate) {
+        this.endDate = endDate;
+    }
+
+    public Double getTotalEstimatedHours() {
+        return totalEstimatedHours;
+    }
+
+    public void setTotalEstimatedHours(Double totalEstimatedHours) {
+        this.totalEstimatedHours = totalEstimatedHours;
+    }
+
+    public List<Point> getPoints() {
+        return points;
+    }
+
+    public void setPoints(List<Point> points) {
+        this.points = points;
+    }
+
+    // remainingHours es null en los dias que todavia no llegan
+    public static class Point {
+        private String date;
+        private Double remainingHours;
+        private Double idealHours;
+
+        public Point(String date, Double remainingHours, Double idealHours) {
+            this.date = date;
+            this.remainingHours = remainingHours;
+            this.idealHours = idealHours;
+        }
+
+        public String getDate() {
+            return date;
+        }
+
+        public Double getRemainingHours() {
+            return remainingHours;
+        }
+
+        public Double getIdealHours() {
+            return idealHours;
+        }
+    }
+}
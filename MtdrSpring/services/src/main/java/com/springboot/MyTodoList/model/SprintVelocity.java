@@ -0,0 +1,95 @@
+package com.springboot.MyTodoList.model;
+
+// Horas comprometidas y completadas en un sprint
+public class SprintVelocity {
+    private Long sprintId;
+    private String sprintName;
+    private String status;
+    private String startDate;
+    private String endDate;
+    private Integer completedTasks;
+    private Integer totalTasks;
+    private Double committedHours;
+    private Double completedEstimatedHours;
+    private Double completedActualHours;
+
+    public Long getSprintId() {
+        return sprintId;
+    }
+
+    public void setSprintId(Long sprintId) {
+        this.sprintId = sprintId;
+    }
+
+    public String getSprintName() {
+        return sprintName;
+    }
+
+    public void setSprintName(String sprintName) {
+        this.sprintName = sprintName;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public void setStatus(String status) {
+        this.status = status;
+    }
+
+    public String getStartDate() {
+        return startDate;
+    }
+
+    public void setStartDate(String startDate) {
+        this.startDate = startDate;
+    }
+
+    public String getEndDate() {
+        return endDate;
+    }
+
+    public void setEndDate(String endDate) {
+        this.endDate = endDate;
+    }
+
+    public Integer getCompletedTasks() {
+        return completedTasks;
+    }
+
+    public void setCompletedTasks(Integer completedTasks) {
+        this.completedTasks = completedTasks;
+    }
+
+    public Integer getTotalTasks() {
+        return totalTasks;
+    }
+
+    public void setTotalTasks(Integer totalTasks) {
+        this.totalTasks = totalTasks;
+    }
+
+    public Double getCommittedHours() {
+        return committedHours;
+    }
+
+    public void setCommittedHours(Double committedHours) {
+        this.committedHours = committedHours;
+    }
+
+    public Double getCompletedEstimatedHours() {
+        return completedEstimatedHours;
+    }
+
+    public void setCompletedEstimatedHours(Double completedEstimatedHours) {
+        this.completedEstimatedHours = completedEstimatedHours;
+    }
+
+    public Double getCompletedActualHours() {
+        return completedActualHours;
+    }
+
+    public void setCompletedActualHours(Double completedActualHours) {
+        this.completedActualHours = completedActualHours;
+    }
+}
@@ -1,5 +1,7 @@
 package com.springboot.MyTodoList.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
 import java.util.List;
 
 public class Task {
@@ -8,6 +10,7 @@ public class Task {
     private String description;
     private String tag;
     private String status;
+    private TaskStatusCode statusCode;
     private String startDate;
     private String endDate;
     private Long creatorId;
@@ -57,6 +60,18 @@ public class Task {
 
     public void setStatus(String status) {
         this.status = status;
+        this.statusCode = TaskStatusCode.fromName(status);
+    }
+
+    // Estado como enum para comparar en Java; null si el texto no es un estado conocido
+    @JsonIgnore
+    public TaskStatusCode getStatusCode() {
+        return statusCode;
+    }
+
+    public void setStatusCode(TaskStatusCode statusCode) {
+        this.statusCode = statusCode;
+        this.status = statusCode != null ? statusCode.getStatusName() : null;
     }
 
     public String getStartDate() {
@@ -0,0 +1,69 @@
+package com.springboot.MyTodoList.model;
+
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+// Diccionario de estados de tarea. El codigo es la columna virtual TASKS.STATUS_CODE
+// (ver schemas/task_status_codes.sql) y los rangos permiten filtrar por intervalo:
+// menor a 20 abiertas, de 20 a 29 terminadas, 30 canceladas.
+public enum TaskStatusCode {
+    BACKLOG(10, "Backlog"),
+    IN_PROGRESS(11, "En progreso"),
+    COMPLETED(20, "Completada"),
+    DONE(21, "DONE"),
+    CANCELLED(30, "Cancelada");
+
+    public static final int FIRST_DONE = 20;
+    public static final int LAST_DONE = 29;
+    public static final int CANCELLED_CODE = 30;
+
+    private static final Map<Integer, TaskStatusCode> BY_CODE = new HashMap<>();
+    private static final Map<String, TaskStatusCode> BY_NAME = new HashMap<>();
+
+    static {
+        for (TaskStatusCode status : values()) {
+            BY_CODE.put(status.code, status);
+            BY_NAME.put(status.statusName.toLowerCase(Locale.ROOT), status);
+        }
+    }
+
+    private final int code;
+    private final String statusName;
+
+    TaskStatusCode(int code, String statusName) {
+        this.code = code;
+        this.statusName = statusName;
+    }
+
+    public int getCode() {
+        return code;
+    }
+
+    // Texto guardado en TASKS.STATUS
+    public String getStatusName() {
+        return statusName;
+    }
+
+    public boolean isOpen() {
+        return code < FIRST_DONE;
+    }
+
+    public boolean isDone() {
+        return code >= FIRST_DONE && code <= LAST_DONE;
+    }
+
+    public boolean isCancelled() {
+        return code == CANCELLED_CODE;
+    }
+
+    // null si el codigo no existe
+    public static TaskStatusCode fromCode(int code) {
+        return BY_CODE.get(code);
+    }
+
+    // Sin distinguir mayusculas; null si el texto no es un estado conocido
+    public static TaskStatusCode fromName(String statusName) {
+        return statusName == null ? null : BY_NAME.get(statusName.toLowerCase(Locale.ROOT));
+    }
+}
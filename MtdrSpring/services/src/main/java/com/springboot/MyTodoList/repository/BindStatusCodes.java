@@ -0,0 +1,42 @@
+package com.springboot.MyTodoList.repository;
+
+import org.jdbi.v3.core.statement.SqlStatement;
+import org.jdbi.v3.core.statement.SqlStatements;
+import org.jdbi.v3.sqlobject.customizer.SqlStatementCustomizer;
+import org.jdbi.v3.sqlobject.customizer.SqlStatementCustomizerFactory;
+import org.jdbi.v3.sqlobject.customizer.SqlStatementCustomizingAnnotation;
+
+import com.springboot.MyTodoList.model.TaskStatusCode;
+
+import java.lang.annotation.Annotation;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+import java.lang.reflect.Method;
+
+// Enlaza los rangos de TaskStatusCode para el SQL que filtra por TASKS.STATUS_CODE:
+// :firstDone y :lastDone (terminadas, "BETWEEN :firstDone AND :lastDone"; abiertas,
+// "< :firstDone"). Solo en los metodos cuyo SQL usa alguno de los dos.
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.METHOD)
+@SqlStatementCustomizingAnnotation(BindStatusCodes.Factory.class)
+public @interface BindStatusCodes {
+
+        class Factory implements SqlStatementCustomizerFactory {
+
+                // Tambien para las consultas armadas a mano (FilteredQuery)
+                public static void bind(SqlStatement<?> statement) {
+                        // Las consultas de tareas abiertas no usan :lastDone
+                        statement.getConfig(SqlStatements.class).setUnusedBindingAllowed(true);
+                        statement.bind("firstDone", TaskStatusCode.FIRST_DONE);
+                        statement.bind("lastDone", TaskStatusCode.LAST_DONE);
+                }
+
+                @Override
+                public SqlStatementCustomizer createForMethod(Annotation annotation, Class<?> sqlObjectType,
+                                Method method) {
+                        return Factory::bind;
+                }
+        }
+}
@@ -0,0 +1,48 @@
+package com.springboot.MyTodoList.repository;
+
+import org.jdbi.v3.core.mapper.RowMapper;
+import org.jdbi.v3.core.statement.StatementContext;
+import org.jdbi.v3.sqlobject.customizer.Bind;
+import org.jdbi.v3.sqlobject.statement.SqlQuery;
+import org.jdbi.v3.sqlobject.statement.SqlUpdate;
+import org.jdbi.v3.sqlobject.statement.UseRowMapper;
+
+import com.springboot.MyTodoList.service.BotUpdateOffsets;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Optional;
+
+// Punto de avance del long polling (ver schemas/bot_offsets.sql)
+public interface BotOffsetRepository extends BotUpdateOffsets.Persistence {
+
+        // Edad calculada con el reloj de la base, no con el de cada pod
+        @Override
+        @SqlQuery("SELECT last_update_id, done_above, " +
+                        "EXTRACT(DAY FROM age) * 86400000 + EXTRACT(HOUR FROM age) * 3600000 + " +
+                        "EXTRACT(MINUTE FROM age) * 60000 + ROUND(EXTRACT(SECOND FROM age) * 1000) AS age_ms " +
+                        "FROM (SELECT last_update_id, done_above, " +
+                        "CAST(SYSTIMESTAMP AS TIMESTAMP) - updated_at AS age " +
+                        "FROM bot_offsets WHERE bot_name = :botName)")
+        @UseRowMapper(SavedMapper.class)
+        Optional<BotUpdateOffsets.Saved> load(@Bind("botName") String botName);
+
+        @Override
+        @SqlUpdate("MERGE INTO bot_offsets o " +
+                        "USING (SELECT :botName AS bot_name FROM dual) d ON (o.bot_name = d.bot_name) " +
+                        "WHEN MATCHED THEN UPDATE SET o.last_update_id = :lastUpdateId, " +
+                        "o.done_above = :doneAbove, o.updated_at = SYSTIMESTAMP " +
+                        "WHEN NOT MATCHED THEN INSERT (bot_name, last_update_id, done_above) " +
+                        "VALUES (:botName, :lastUpdateId, :doneAbove)")
+        void save(@Bind("botName") String botName, @Bind("lastUpdateId") long lastUpdateId,
+                        @Bind("doneAbove") String doneAbove);
+
+        class SavedMapper implements RowMapper<BotUpdateOffsets.Saved> {
+
+                @Override
+                public BotUpdateOffsets.Saved map(ResultSet rs, StatementContext ctx) throws SQLException {
+                        return new BotUpdateOffsets.Saved(rs.getLong("last_update_id"), rs.getString("done_above"),
+                                        rs.getLong("age_ms"));
+                }
+        }
+}
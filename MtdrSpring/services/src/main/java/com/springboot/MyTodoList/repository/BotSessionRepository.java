@@ -0,0 +1,48 @@
+package com.springboot.MyTodoList.repository;
+
+import org.jdbi.v3.core.mapper.RowMapper;
+import org.jdbi.v3.core.statement.StatementContext;
+import org.jdbi.v3.sqlobject.customizer.Bind;
+import org.jdbi.v3.sqlobject.statement.SqlQuery;
+import org.jdbi.v3.sqlobject.statement.SqlUpdate;
+import org.jdbi.v3.sqlobject.statement.UseRowMapper;
+
+import com.springboot.MyTodoList.service.BotSessionStore;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Optional;
+
+// Copia persistida de BotSessionStore (ver schemas/bot_sessions.sql)
+public interface BotSessionRepository extends BotSessionStore.Persistence {
+
+        @Override
+        @SqlQuery("SELECT state, version FROM bot_sessions WHERE chat_id = :chatId")
+        @UseRowMapper(StoredMapper.class)
+        Optional<BotSessionStore.Stored> load(@Bind("chatId") long chatId);
+
+        @Override
+        @SqlQuery("SELECT version FROM bot_sessions WHERE chat_id = :chatId")
+        Long findVersion(@Bind("chatId") long chatId);
+
+        @Override
+        @SqlUpdate("MERGE INTO bot_sessions s " +
+                        "USING (SELECT :chatId AS chat_id FROM dual) d ON (s.chat_id = d.chat_id) " +
+                        "WHEN MATCHED THEN UPDATE SET s.state = :state, s.version = :version, " +
+                        "s.updated_at = SYSTIMESTAMP " +
+                        "WHEN NOT MATCHED THEN INSERT (chat_id, state, version) " +
+                        "VALUES (:chatId, :state, :version)")
+        void save(@Bind("chatId") long chatId, @Bind("state") String state, @Bind("version") long version);
+
+        @Override
+        @SqlUpdate("DELETE FROM bot_sessions WHERE updated_at < SYSTIMESTAMP - NUMTODSINTERVAL(:days, 'DAY')")
+        int purgeOlderThanDays(@Bind("days") int days);
+
+        class StoredMapper implements RowMapper<BotSessionStore.Stored> {
+
+                @Override
+                public BotSessionStore.Stored map(ResultSet rs, StatementContext ctx) throws SQLException {
+                        return new BotSessionStore.Stored(rs.getString("state"), rs.getLong("version"));
+                }
+        }
+}
@@ -0,0 +1,102 @@
+package com.springboot.MyTodoList.repository;
+
+import org.jdbi.v3.core.statement.StatementContext;
+
+import java.math.BigDecimal;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Posicion de cada columna de un resultado, leida de ResultSetMetaData una sola vez
+// por sentencia. Los mappers la resuelven en specialize() y leen por indice, en lugar
+// de probar columnas por nombre y atrapar la SQLException cuando no existen.
+public final class ColumnIndex {
+    // Indice que devuelve get() cuando la columna no esta en el resultado
+    public static final int ABSENT = 0;
+
+    // Las sentencias distintas son pocas (SQL fijo o combinaciones de FilteredQuery);
+    // el limite solo evita crecer sin control con SQL generado de otra forma
+    private static final int MAX_CACHED_STATEMENTS = 1000;
+    private static final Map<String, ColumnIndex> BY_SQL = new ConcurrentHashMap<>();
+
+    private final Map<String, Integer> indexes;
+    private final int columnCount;
+
+    private ColumnIndex(Map<String, Integer> indexes, int columnCount) {
+        this.indexes = indexes;
+        this.columnCount = columnCount;
+    }
+
+    public static ColumnIndex of(ResultSet rs, StatementContext ctx) throws SQLException {
+        ResultSetMetaData metaData = rs.getMetaData();
+        String sql = ctx != null ? ctx.getRenderedSql() : null;
+        if (sql == null) {
+            return read(metaData);
+        }
+
+        // SELECT * puede cambiar de forma si cambia la tabla; se compara el numero de columnas
+        ColumnIndex cached = BY_SQL.get(sql);
+        if (cached != null && cached.columnCount == metaData.getColumnCount()) {
+            return cached;
+        }
+
+        ColumnIndex index = read(metaData);
+        if (BY_SQL.size() >= MAX_CACHED_STATEMENTS) {
+            BY_SQL.clear();
+        }
+        BY_SQL.put(sql, index);
+        return index;
+    }
+
+    private static ColumnIndex read(ResultSetMetaData metaData) throws SQLException {
+        int count = metaData.getColumnCount();
+        Map<String, Integer> indexes = new HashMap<>();
+        for (int i = 1; i <= count; i++) {
+            // Si dos columnas tienen la misma etiqueta gana la primera, igual que rs.getXxx(nombre)
+            indexes.putIfAbsent(metaData.getColumnLabel(i).toUpperCase(Locale.ROOT), i);
+        }
+        return new ColumnIndex(indexes, count);
+    }
+
+    public int get(String label) {
+        return indexes.getOrDefault(label.toUpperCase(Locale.ROOT), ABSENT);
+    }
+
+    // Lecturas por indice: columna ausente o valor NULL devuelven null
+
+    public static String getString(ResultSet rs, int index) throws SQLException {
+        return index == ABSENT ? null : rs.getString(index);
+    }
+
+    public static Long getLong(ResultSet rs, int index) throws SQLException {
+        if (index == ABSENT) {
+            return null;
+        }
+        long value = rs.getLong(index);
+        return rs.wasNull() ? null : value;
+    }
+
+    public static Integer getInteger(ResultSet rs, int index) throws SQLException {
+        if (index == ABSENT) {
+            return null;
+        }
+        int value = rs.getInt(index);
+        return rs.wasNull() ? null : value;
+    }
+
+    public static Double getDouble(ResultSet rs, int index) throws SQLException {
+        if (index == ABSENT) {
+            return null;
+        }
+        double value = rs.getDouble(index);
+        return rs.wasNull() ? null : value;
+    }
+
+    public static BigDecimal getBigDecimal(ResultSet rs, int index) throws SQLException {
+        return index == ABSENT ? null : rs.getBigDecimal(index);
+    }
+}
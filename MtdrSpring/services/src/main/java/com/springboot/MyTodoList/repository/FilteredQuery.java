@@ -0,0 +1,113 @@
+package com.springboot.MyTodoList.repository;
+
+import org.jdbi.v3.core.Handle;
+import org.jdbi.v3.core.statement.Query;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Consulta con filtros opcionales que solo emite los predicados presentes, en
+// lugar del patron (:x IS NULL OR col = :x) que impide a Oracle usar los indices.
+// El SQL de cada combinacion de filtros se arma una vez y se reutiliza, asi el
+// shared pool ve un texto estable por combinacion.
+public final class FilteredQuery {
+    private final String select;
+    private final List<String> fixedPredicates;
+    private final List<String> names;
+    private final List<String> predicates;
+    private final String suffix;
+    private final Map<Integer, String> sqlByCombination = new ConcurrentHashMap<>();
+
+    private FilteredQuery(Builder builder) {
+        this.select = builder.select;
+        this.fixedPredicates = new ArrayList<>(builder.fixedPredicates);
+        this.names = new ArrayList<>(builder.names);
+        this.predicates = new ArrayList<>(builder.predicates);
+        this.suffix = builder.suffix;
+    }
+
+    public static Builder select(String select) {
+        return new Builder(select);
+    }
+
+    // Crea la consulta con los predicados cuyo valor no es null y los enlaza.
+    // Los parametros del sufijo (limit, offset...) los enlaza quien llama.
+    public Query createQuery(Handle handle, Map<String, ?> filters) {
+        int combination = 0;
+        for (int i = 0; i < names.size(); i++) {
+            if (filters.get(names.get(i)) != null) {
+                combination |= 1 << i;
+            }
+        }
+
+        Query query = handle.createQuery(sqlFor(combination));
+        for (int i = 0; i < names.size(); i++) {
+            if ((combination & (1 << i)) != 0) {
+                query.bind(names.get(i), filters.get(names.get(i)));
+            }
+        }
+        return query;
+    }
+
+    String sqlFor(int combination) {
+        return sqlByCombination.computeIfAbsent(combination, this::buildSql);
+    }
+
+    private String buildSql(int combination) {
+        List<String> where = new ArrayList<>(fixedPredicates);
+        for (int i = 0; i < predicates.size(); i++) {
+            if ((combination & (1 << i)) != 0) {
+                where.add(predicates.get(i));
+            }
+        }
+
+        StringBuilder sql = new StringBuilder(select);
+        if (!where.isEmpty()) {
+            sql.append(" WHERE ").append(String.join(" AND ", where));
+        }
+        if (suffix != null) {
+            sql.append(' ').append(suffix);
+        }
+        return sql.toString();
+    }
+
+    public static final class Builder {
+        private final String select;
+        private final List<String> fixedPredicates = new ArrayList<>();
+        private final List<String> names = new ArrayList<>();
+        private final List<String> predicates = new ArrayList<>();
+        private String suffix;
+
+        private Builder(String select) {
+            this.select = select;
+        }
+
+        // Predicado que siempre se aplica
+        public Builder where(String predicate) {
+            fixedPredicates.add(predicate);
+            return this;
+        }
+
+        // Predicado que solo se emite si el filtro "name" tiene valor;
+        // debe usar el parametro :name
+        public Builder filter(String name, String predicate) {
+            if (names.size() >= Integer.SIZE - 1) {
+                throw new IllegalStateException("Too many optional filters");
+            }
+            names.add(name);
+            predicates.add(predicate);
+            return this;
+        }
+
+        public Builder suffix(String suffix) {
+            this.suffix = suffix;
+            return this;
+        }
+
+        public FilteredQuery build() {
+            return new FilteredQuery(this);
+        }
+    }
+}
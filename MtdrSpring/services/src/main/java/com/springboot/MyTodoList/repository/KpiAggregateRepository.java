@@ -0,0 +1,367 @@
+package com.springboot.MyTodoList.repository;
+
+import org.jdbi.v3.sqlobject.config.RegisterRowMapper;
+import org.jdbi.v3.sqlobject.customizer.Bind;
+import org.jdbi.v3.sqlobject.customizer.BindList;
+import org.jdbi.v3.sqlobject.statement.SqlBatch;
+import org.jdbi.v3.sqlobject.statement.SqlQuery;
+import org.jdbi.v3.sqlobject.statement.SqlUpdate;
+
+import com.springboot.MyTodoList.model.Kpi;
+
+import java.util.List;
+
+// KPIs leidos de las tablas agregadas KPI_MEMBER_SPRINT y KPI_SPRINT (ver
+// schemas/kpi_aggregates.sql) en lugar de recorrer USERS x TASK_ASSIGNEE x TASKS.
+// Sobrescribe las consultas por miembro y por sprint de KpiRepository con los mismos
+// resultados; los reportes por tarea siguen leyendo TASKS. El equipo se toma de
+// USERS / SPRINTS al leer, igual que las consultas originales, asi que cambiar a un
+// miembro de equipo no requiere recalcular nada.
+@RegisterRowMapper(KpiRepository.KpiMapper.class)
+public interface KpiAggregateRepository extends KpiRepository {
+
+    // Totales por (miembro, sprint) calculados desde las tablas base; SPRINT_ID 0 = sin sprint
+    String MEMBER_SPRINT_TOTALS = "SELECT " +
+            "    ta.USER_ID, " +
+            "    NVL(t.SPRINT_ID, 0) AS SPRINT_ID, " +
+            "    COUNT(CASE WHEN t.STATUS_CODE BETWEEN :firstDone AND :lastDone THEN 1 END) AS COMPLETED_TASKS, " +
+            "    COUNT(t.ID) AS ASSIGNED_TASKS, " +
+            "    SUM(t.ACTUAL_HOURS) AS ACTUAL_HOURS, " +
+            "    SUM(t.ESTIMATED_HOURS) AS ESTIMATED_HOURS, " +
+            "    SUM(CASE WHEN t.STATUS_CODE BETWEEN :firstDone AND :lastDone THEN t.ACTUAL_HOURS END) AS COMPLETED_ACTUAL_HOURS " +
+            "FROM TODOUSER.TASK_ASSIGNEE ta " +
+            "JOIN TODOUSER.TASKS t ON t.ID = ta.TASK_ID ";
+
+    String MEMBER_SPRINT_GROUP = "GROUP BY ta.USER_ID, NVL(t.SPRINT_ID, 0)";
+
+    String MEMBER_SPRINT_COLUMNS = "USER_ID, SPRINT_ID, COMPLETED_TASKS, ASSIGNED_TASKS, " +
+            "ACTUAL_HOURS, ESTIMATED_HOURS, COMPLETED_ACTUAL_HOURS";
+
+    String SPRINT_TOTALS = "SELECT " +
+            "    t.SPRINT_ID, " +
+            "    COUNT(CASE WHEN t.STATUS_CODE BETWEEN :firstDone AND :lastDone THEN 1 END) AS COMPLETED_TASKS, " +
+            "    COUNT(t.ID) AS TOTAL_TASKS, " +
+            "    SUM(t.ACTUAL_HOURS) AS ACTUAL_HOURS, " +
+            "    SUM(t.ESTIMATED_HOURS) AS ESTIMATED_HOURS " +
+            "FROM TODOUSER.TASKS t ";
+
+    String SPRINT_COLUMNS = "SPRINT_ID, COMPLETED_TASKS, TOTAL_TASKS, ACTUAL_HOURS, ESTIMATED_HOURS";
+
+    // Mantenimiento incremental: se recalculan solo los grupos que toco una escritura
+
+    // Serializa a quienes recalculan los mismos miembros: el segundo espera el commit
+    // del primero y su recalculo ya ve esos cambios
+    @SqlQuery("SELECT ID FROM TODOUSER.USERS WHERE ID IN (<userIds>) ORDER BY ID FOR UPDATE")
+    List<Long> lockMembers(@BindList("userIds") List<Long> userIds);
+
+    @SqlQuery("SELECT ID FROM TODOUSER.SPRINTS WHERE ID IN (<sprintIds>) ORDER BY ID FOR UPDATE")
+    List<Long> lockSprints(@BindList("sprintIds") List<Long> sprintIds);
+
+    @SqlBatch("DELETE FROM TODOUSER.KPI_MEMBER_SPRINT WHERE USER_ID = :userId AND SPRINT_ID = :sprintId")
+    void deleteMemberSprints(@Bind("userId") List<Long> userIds, @Bind("sprintId") List<Long> sprintIds);
+
+    @SqlBatch("INSERT INTO TODOUSER.KPI_MEMBER_SPRINT (" + MEMBER_SPRINT_COLUMNS + ") " +
+            MEMBER_SPRINT_TOTALS +
+            "WHERE ta.USER_ID = :userId AND NVL(t.SPRINT_ID, 0) = :sprintId " +
+            MEMBER_SPRINT_GROUP)
+    void insertMemberSprints(@Bind("userId") List<Long> userIds, @Bind("sprintId") List<Long> sprintIds);
+
+    @SqlBatch("DELETE FROM TODOUSER.KPI_SPRINT WHERE SPRINT_ID = :sprintId")
+    void deleteSprints(@Bind("sprintId") List<Long> sprintIds);
+
+    @SqlBatch("INSERT INTO TODOUSER.KPI_SPRINT (" + SPRINT_COLUMNS + ") " +
+            SPRINT_TOTALS +
+            "WHERE t.SPRINT_ID = :sprintId " +
+            "GROUP BY t.SPRINT_ID")
+    void insertSprints(@Bind("sprintId") List<Long> sprintIds);
+
+    // Reconstruccion completa
+
+    @SqlUpdate("DELETE FROM TODOUSER.KPI_MEMBER_SPRINT")
+    int deleteAllMemberSprints();
+
+    @SqlUpdate("INSERT INTO TODOUSER.KPI_MEMBER_SPRINT (" + MEMBER_SPRINT_COLUMNS + ") " +
+            MEMBER_SPRINT_TOTALS + MEMBER_SPRINT_GROUP)
+    @BindStatusCodes
+    int insertAllMemberSprints();
+
+    @SqlUpdate("DELETE FROM TODOUSER.KPI_SPRINT")
+    int deleteAllSprints();
+
+    @SqlUpdate("INSERT INTO TODOUSER.KPI_SPRINT (" + SPRINT_COLUMNS + ") " +
+            SPRINT_TOTALS +
+            "WHERE t.SPRINT_ID IS NOT NULL " +
+            "GROUP BY t.SPRINT_ID")
+    @BindStatusCodes
+    int insertAllSprints();
+
+    // Filas que difieren entre la tabla agregada y un calculo desde cero (0 = consistente)
+    @SqlQuery("SELECT COUNT(*) FROM (" +
+            "(" + MEMBER_SPRINT_TOTALS + MEMBER_SPRINT_GROUP +
+            " MINUS SELECT " + MEMBER_SPRINT_COLUMNS + " FROM TODOUSER.KPI_MEMBER_SPRINT) " +
+            "UNION ALL " +
+            "(SELECT " + MEMBER_SPRINT_COLUMNS + " FROM TODOUSER.KPI_MEMBER_SPRINT MINUS " +
+            MEMBER_SPRINT_TOTALS + MEMBER_SPRINT_GROUP + "))")
+    @BindStatusCodes
+    int countMemberSprintMismatches();
+
+    @SqlQuery("SELECT COUNT(*) FROM (" +
+            "(" + SPRINT_TOTALS + "WHERE t.SPRINT_ID IS NOT NULL GROUP BY t.SPRINT_ID" +
+            " MINUS SELECT " + SPRINT_COLUMNS + " FROM TODOUSER.KPI_SPRINT) " +
+            "UNION ALL " +
+            "(SELECT " + SPRINT_COLUMNS + " FROM TODOUSER.KPI_SPRINT MINUS " +
+            SPRINT_TOTALS + "WHERE t.SPRINT_ID IS NOT NULL GROUP BY t.SPRINT_ID))")
+    @BindStatusCodes
+    int countSprintMismatches();
+
+    // KPI 1: Tareas completadas por miembro
+    @Override
+    @SqlQuery("SELECT " +
+            "    u.NAME AS MEMBER_NAME, " +
+            "    SUM(k.COMPLETED_TASKS) AS COMPLETED_TASKS " +
+            "FROM TODOUSER.USERS u " +
+            "JOIN TODOUSER.KPI_MEMBER_SPRINT k ON k.USER_ID = u.ID " +
+            "GROUP BY u.NAME " +
+            "HAVING SUM(k.COMPLETED_TASKS) > 0 " +
+            "ORDER BY COMPLETED_TASKS DESC")
+    List<Kpi> getCompletedTasksByMember();
+
+    @Override
+    @SqlQuery("SELECT " +
+            "    u.NAME AS MEMBER_NAME, " +
+            "    SUM(k.COMPLETED_TASKS) AS COMPLETED_TASKS " +
+            "FROM TODOUSER.USERS u " +
+            "JOIN TODOUSER.KPI_MEMBER_SPRINT k ON k.USER_ID = u.ID " +
+            "WHERE u.TEAM_ID = :teamId " +
+            "GROUP BY u.NAME " +
+            "HAVING SUM(k.COMPLETED_TASKS) > 0 " +
+            "ORDER BY COMPLETED_TASKS DESC")
+    List<Kpi> getCompletedTasksByMemberAndTeam(@Bind("teamId") Long teamId);
+
+    // KPI 2: Horas por miembro (solo grupos con alguna hora registrada)
+    @Override
+    @SqlQuery("SELECT " +
+            "    u.NAME AS MEMBER_NAME, " +
+            "    SUM(k.ACTUAL_HOURS) AS TOTAL_ACTUAL_HOURS, " +
+            "    SUM(k.ESTIMATED_HOURS) AS TOTAL_ESTIMATED_HOURS " +
+            "FROM TODOUSER.USERS u " +
+            "JOIN TODOUSER.KPI_MEMBER_SPRINT k ON k.USER_ID = u.ID " +
+            "WHERE k.ACTUAL_HOURS IS NOT NULL OR k.ESTIMATED_HOURS IS NOT NULL " +
+            "GROUP BY u.NAME " +
+            "ORDER BY MEMBER_NAME")
+    List<Kpi> getTotalActualHoursByMember();
+
+    @Override
+    @SqlQuery("SELECT " +
+            "    u.NAME AS MEMBER_NAME, " +
+            "    SUM(k.ACTUAL_HOURS) AS TOTAL_ACTUAL_HOURS, " +
+            "    SUM(k.ESTIMATED_HOURS) AS TOTAL_ESTIMATED_HOURS " +
+            "FROM TODOUSER.USERS u " +
+            "JOIN TODOUSER.KPI_MEMBER_SPRINT k ON k.USER_ID = u.ID " +
+            "WHERE (k.ACTUAL_HOURS IS NOT NULL OR k.ESTIMATED_HOURS IS NOT NULL) " +
+            "    AND u.TEAM_ID = :teamId " +
+            "GROUP BY u.NAME " +
+            "ORDER BY MEMBER_NAME")
+    List<Kpi> getTotalActualHoursByMemberAndTeam(@Bind("teamId") Long teamId);
+
+    // KPI 3: Tasa de finalizacion por miembro
+    @Override
+    @SqlQuery("SELECT " +
+            "    u.NAME AS MEMBER_NAME, " +
+            "    SUM(k.COMPLETED_TASKS) AS COMPLETED_TASKS, " +
+            "    SUM(k.ASSIGNED_TASKS) AS TOTAL_ASSIGNED_TASKS, " +
+            "    ROUND(CASE WHEN SUM(k.ASSIGNED_TASKS) = 0 THEN 0 ELSE SUM(k.COMPLETED_TASKS) * 100.0 / SUM(k.ASSIGNED_TASKS) END, 2) AS COMPLETION_RATE_PERCENT, " +
+            "    SUM(k.ACTUAL_HOURS) AS TOTAL_ACTUAL_HOURS, " +
+            "    SUM(k.ESTIMATED_HOURS) AS TOTAL_ESTIMATED_HOURS " +
+            "FROM TODOUSER.USERS u " +
+            "JOIN TODOUSER.KPI_MEMBER_SPRINT k ON k.USER_ID = u.ID " +
+            "GROUP BY u.NAME " +
+            "ORDER BY MEMBER_NAME")
+    List<Kpi> getCompletionRateByMember();
+
+    @Override
+    @SqlQuery("SELECT " +
+            "    u.NAME AS MEMBER_NAME, " +
+            "    SUM(k.COMPLETED_TASKS) AS COMPLETED_TASKS, " +
+            "    SUM(k.ASSIGNED_TASKS) AS TOTAL_ASSIGNED_TASKS, " +
+            "    ROUND(CASE WHEN SUM(k.ASSIGNED_TASKS) = 0 THEN 0 ELSE SUM(k.COMPLETED_TASKS) * 100.0 / SUM(k.ASSIGNED_TASKS) END, 2) AS COMPLETION_RATE_PERCENT, " +
+            "    SUM(k.ACTUAL_HOURS) AS TOTAL_ACTUAL_HOURS, " +
+            "    SUM(k.ESTIMATED_HOURS) AS TOTAL_ESTIMATED_HOURS " +
+            "FROM TODOUSER.USERS u " +
+            "JOIN TODOUSER.KPI_MEMBER_SPRINT k ON k.USER_ID = u.ID " +
+            "WHERE u.TEAM_ID = :teamId " +
+            "GROUP BY u.NAME " +
+            "ORDER BY MEMBER_NAME")
+    List<Kpi> getCompletionRateByMemberAndTeam(@Bind("teamId") Long teamId);
+
+    @Override
+    @SqlQuery("SELECT " +
+            "    u.NAME AS MEMBER_NAME, " +
+            "    SUM(k.COMPLETED_TASKS) AS COMPLETED_TASKS, " +
+            "    SUM(k.ASSIGNED_TASKS) AS TOTAL_ASSIGNED_TASKS, " +
+            "    ROUND(CASE WHEN SUM(k.ASSIGNED_TASKS) = 0 THEN 0 ELSE SUM(k.COMPLETED_TASKS) * 100.0 / SUM(k.ASSIGNED_TASKS) END, 2) AS COMPLETION_RATE_PERCENT, " +
+            "    SUM(k.ACTUAL_HOURS) AS TOTAL_ACTUAL_HOURS, " +
+            "    SUM(k.ESTIMATED_HOURS) AS TOTAL_ESTIMATED_HOURS " +
+            "FROM TODOUSER.USERS u " +
+            "JOIN TODOUSER.KPI_MEMBER_SPRINT k ON k.USER_ID = u.ID " +
+            "WHERE k.SPRINT_ID = :sprintId " +
+            "GROUP BY u.NAME " +
+            "ORDER BY MEMBER_NAME")
+    List<Kpi> getCompletionRateByMemberAndSprint(@Bind("sprintId") Long sprintId);
+
+    // KPIs por sprint: los sprints sin tareas aparecen con 0, como con el LEFT JOIN original
+    @Override
+    @SqlQuery("SELECT " +
+            "    s.NAME AS MEMBER_NAME, " +
+            "    NVL(SUM(k.COMPLETED_TASKS), 0) AS COMPLETED_TASKS " +
+            "FROM TODOUSER.SPRINTS s " +
+            "LEFT JOIN TODOUSER.KPI_SPRINT k ON k.SPRINT_ID = s.ID " +
+            "GROUP BY s.NAME, s.START_DATE " +
+            "ORDER BY s.START_DATE")
+    List<Kpi> getCompletedTasksBySprint();
+
+    @Override
+    @SqlQuery("SELECT " +
+            "    s.NAME AS MEMBER_NAME, " +
+            "    NVL(SUM(k.COMPLETED_TASKS), 0) AS COMPLETED_TASKS " +
+            "FROM TODOUSER.SPRINTS s " +
+            "LEFT JOIN TODOUSER.KPI_SPRINT k ON k.SPRINT_ID = s.ID " +
+            "WHERE s.TEAM_ID = :teamId " +
+            "GROUP BY s.NAME, s.START_DATE " +
+            "ORDER BY s.START_DATE")
+    List<Kpi> getCompletedTasksBySprintAndTeam(@Bind("teamId") Long teamId);
+
+    @Override
+    @SqlQuery("SELECT " +
+            "    s.NAME AS MEMBER_NAME, " +
+            "    SUM(k.ACTUAL_HOURS) AS TOTAL_ACTUAL_HOURS, " +
+            "    SUM(k.ESTIMATED_HOURS) AS TOTAL_ESTIMATED_HOURS " +
+            "FROM TODOUSER.SPRINTS s " +
+            "LEFT JOIN TODOUSER.KPI_SPRINT k ON k.SPRINT_ID = s.ID " +
+            "GROUP BY s.NAME, s.START_DATE " +
+            "ORDER BY s.START_DATE")
+    List<Kpi> getTotalActualHoursBySprint();
+
+    @Override
+    @SqlQuery("SELECT " +
+            "    s.NAME AS MEMBER_NAME, " +
+            "    SUM(k.ACTUAL_HOURS) AS TOTAL_ACTUAL_HOURS, " +
+            "    SUM(k.ESTIMATED_HOURS) AS TOTAL_ESTIMATED_HOURS " +
+            "FROM TODOUSER.SPRINTS s " +
+            "LEFT JOIN TODOUSER.KPI_SPRINT k ON k.SPRINT_ID = s.ID " +
+            "WHERE s.TEAM_ID = :teamId " +
+            "GROUP BY s.NAME, s.START_DATE " +
+            "ORDER BY s.START_DATE")
+    List<Kpi> getTotalActualHoursBySprintAndTeam(@Bind("teamId") Long teamId);
+
+    @Override
+    @SqlQuery("SELECT " +
+            "    s.NAME AS MEMBER_NAME, " +
+            "    NVL(SUM(k.COMPLETED_TASKS), 0) AS COMPLETED_TASKS, " +
+            "    NVL(SUM(k.TOTAL_TASKS), 0) AS TOTAL_ASSIGNED_TASKS, " +
+            "    ROUND(CASE WHEN NVL(SUM(k.TOTAL_TASKS), 0) = 0 THEN 0 ELSE SUM(k.COMPLETED_TASKS) * 100.0 / SUM(k.TOTAL_TASKS) END, 2) AS COMPLETION_RATE_PERCENT, " +
+            "    SUM(k.ACTUAL_HOURS) AS TOTAL_ACTUAL_HOURS, " +
+            "    SUM(k.ESTIMATED_HOURS) AS TOTAL_ESTIMATED_HOURS " +
+            "FROM TODOUSER.SPRINTS s " +
+            "LEFT JOIN TODOUSER.KPI_SPRINT k ON k.SPRINT_ID = s.ID " +
+            "GROUP BY s.NAME, s.START_DATE " +
+            "ORDER BY s.START_DATE")
+    List<Kpi> getCompletionRateBySprint();
+
+    @Override
+    @SqlQuery("SELECT " +
+            "    s.NAME AS MEMBER_NAME, " +
+            "    NVL(SUM(k.COMPLETED_TASKS), 0) AS COMPLETED_TASKS, " +
+            "    NVL(SUM(k.TOTAL_TASKS), 0) AS TOTAL_ASSIGNED_TASKS, " +
+            "    ROUND(CASE WHEN NVL(SUM(k.TOTAL_TASKS), 0) = 0 THEN 0 ELSE SUM(k.COMPLETED_TASKS) * 100.0 / SUM(k.TOTAL_TASKS) END, 2) AS COMPLETION_RATE_PERCENT, " +
+            "    SUM(k.ACTUAL_HOURS) AS TOTAL_ACTUAL_HOURS, " +
+            "    SUM(k.ESTIMATED_HOURS) AS TOTAL_ESTIMATED_HOURS " +
+            "FROM TODOUSER.SPRINTS s " +
+            "LEFT JOIN TODOUSER.KPI_SPRINT k ON k.SPRINT_ID = s.ID " +
+            "WHERE s.TEAM_ID = :teamId " +
+            "GROUP BY s.NAME, s.START_DATE " +
+            "ORDER BY s.START_DATE")
+    List<Kpi> getCompletionRateBySprintAndTeam(@Bind("teamId") Long teamId);
+
+    // Horas de tareas completadas por sprint y miembro
+    @Override
+    @SqlQuery("SELECT " +
+            "    s.NAME AS SPRINT_NAME, " +
+            "    u.NAME AS MEMBER_NAME, " +
+            "    SUM(k.COMPLETED_ACTUAL_HOURS) AS TOTAL_ACTUAL_HOURS " +
+            "FROM TODOUSER.SPRINTS s " +
+            "JOIN TODOUSER.KPI_MEMBER_SPRINT k ON k.SPRINT_ID = s.ID " +
+            "JOIN TODOUSER.USERS u ON u.ID = k.USER_ID " +
+            "WHERE k.COMPLETED_TASKS > 0 " +
+            "GROUP BY s.NAME, u.NAME, s.START_DATE " +
+            "ORDER BY s.START_DATE, u.NAME")
+    List<Kpi> getHoursPerSprintAndMemberAllTeams();
+
+    @Override
+    @SqlQuery("SELECT " +
+            "    s.NAME AS SPRINT_NAME, " +
+            "    u.NAME AS MEMBER_NAME, " +
+            "    SUM(k.COMPLETED_ACTUAL_HOURS) AS TOTAL_ACTUAL_HOURS " +
+            "FROM TODOUSER.SPRINTS s " +
+            "JOIN TODOUSER.KPI_MEMBER_SPRINT k ON k.SPRINT_ID = s.ID " +
+            "JOIN TODOUSER.USERS u ON u.ID = k.USER_ID " +
+            "WHERE k.COMPLETED_TASKS > 0 " +
+            "AND u.TEAM_ID = :teamId " +
+            "GROUP BY s.NAME, u.NAME, s.START_DATE " +
+            "ORDER BY s.START_DATE, u.NAME")
+    List<Kpi> getHoursPerSprintAndMember(@Bind("teamId") Long teamId);
+
+    @Override
+    @SqlQuery("SELECT " +
+            "    u.NAME AS MEMBER_NAME, " +
+            "    s.NAME AS SPRINT_NAME, " +
+            "    SUM(k.COMPLETED_ACTUAL_HOURS) AS TOTAL_ACTUAL_HOURS " +
+            "FROM TODOUSER.USERS u " +
+            "JOIN TODOUSER.KPI_MEMBER_SPRINT k ON k.USER_ID = u.ID " +
+            "JOIN TODOUSER.SPRINTS s ON s.ID = k.SPRINT_ID " +
+            "WHERE k.COMPLETED_TASKS > 0 " +
+            "GROUP BY u.NAME, s.NAME, s.START_DATE " +
+            "ORDER BY u.NAME, s.START_DATE")
+    List<Kpi> getDeveloperHoursPerSprintAllTeams();
+
+    @Override
+    @SqlQuery("SELECT " +
+            "    u.NAME AS MEMBER_NAME, " +
+            "    s.NAME AS SPRINT_NAME, " +
+            "    SUM(k.COMPLETED_ACTUAL_HOURS) AS TOTAL_ACTUAL_HOURS " +
+            "FROM TODOUSER.USERS u " +
+            "JOIN TODOUSER.KPI_MEMBER_SPRINT k ON k.USER_ID = u.ID " +
+            "JOIN TODOUSER.SPRINTS s ON s.ID = k.SPRINT_ID " +
+            "WHERE k.COMPLETED_TASKS > 0 " +
+            "AND u.TEAM_ID = :teamId " +
+            "GROUP BY u.NAME, s.NAME, s.START_DATE " +
+            "ORDER BY u.NAME, s.START_DATE")
+    List<Kpi> getDeveloperHoursPerSprint(@Bind("teamId") Long teamId);
+
+    @Override
+    @SqlQuery("SELECT " +
+            "    u.NAME AS MEMBER_NAME, " +
+            "    s.NAME AS SPRINT_NAME, " +
+            "    SUM(k.COMPLETED_TASKS) AS COMPLETED_TASKS " +
+            "FROM TODOUSER.USERS u " +
+            "JOIN TODOUSER.KPI_MEMBER_SPRINT k ON k.USER_ID = u.ID " +
+            "JOIN TODOUSER.SPRINTS s ON s.ID = k.SPRINT_ID " +
+            "WHERE k.COMPLETED_TASKS > 0 " +
+            "GROUP BY u.NAME, s.NAME, s.START_DATE " +
+            "ORDER BY u.NAME, s.START_DATE")
+    List<Kpi> getDeveloperTasksPerSprintAllTeams();
+
+    @Override
+    @SqlQuery("SELECT " +
+            "    u.NAME AS MEMBER_NAME, " +
+            "    s.NAME AS SPRINT_NAME, " +
+            "    SUM(k.COMPLETED_TASKS) AS COMPLETED_TASKS " +
+            "FROM TODOUSER.USERS u " +
+            "JOIN TODOUSER.KPI_MEMBER_SPRINT k ON k.USER_ID = u.ID " +
+            "JOIN TODOUSER.SPRINTS s ON s.ID = k.SPRINT_ID " +
+            "WHERE k.COMPLETED_TASKS > 0 " +
+            "AND u.TEAM_ID = :teamId " +
+            "GROUP BY u.NAME, s.NAME, s.START_DATE " +
+            "ORDER BY u.NAME, s.START_DATE")
+    List<Kpi> getDeveloperTasksPerSprint(@Bind("teamId") Long teamId);
+}
@@ -0,0 +1,53 @@
+package com.springboot.MyTodoList.repository;
+
+import com.springboot.MyTodoList.model.Kpi;
+
+import java.util.List;
+
+// Consultas de KPIs que expone KpiController. Las implementan KpiRepository (SQL
+// sobre las tablas base), KpiAggregateRepository (tablas agregadas) y KpiEngine
+// (columnas en memoria); todas devuelven las mismas filas en el mismo orden.
+public interface KpiQueries {
+
+    List<Kpi> getCompletedTasksByMember();
+
+    List<Kpi> getCompletedTasksByMemberAndTeam(Long teamId);
+
+    List<Kpi> getTotalActualHoursByMember();
+
+    List<Kpi> getTotalActualHoursByMemberAndTeam(Long teamId);
+
+    List<Kpi> getCompletionRateByMember();
+
+    List<Kpi> getCompletionRateByMemberAndTeam(Long teamId);
+
+    List<Kpi> getCompletionRateByMemberAndSprint(Long sprintId);
+
+    List<Kpi> getCompletedTasksBySprint();
+
+    List<Kpi> getCompletedTasksBySprintAndTeam(Long teamId);
+
+    List<Kpi> getTotalActualHoursBySprint();
+
+    List<Kpi> getTotalActualHoursBySprintAndTeam(Long teamId);
+
+    List<Kpi> getCompletionRateBySprint();
+
+    List<Kpi> getCompletionRateBySprintAndTeam(Long teamId);
+
+    List<Kpi> getHoursPerSprintAndMemberAllTeams();
+
+    List<Kpi> getHoursPerSprintAndMember(Long teamId);
+
+    List<Kpi> getDeveloperHoursPerSprintAllTeams();
+
+    List<Kpi> getDeveloperHoursPerSprint(Long teamId);
+
+    List<Kpi> getDeveloperTasksPerSprintAllTeams();
+
+    List<Kpi> getDeveloperTasksPerSprint(Long teamId);
+
+    List<Kpi> getLastSprintTasksByDeveloper(Long teamId);
+
+    List<Kpi> getSprintTasksByDeveloper(Long sprintId, Long teamId);
+}
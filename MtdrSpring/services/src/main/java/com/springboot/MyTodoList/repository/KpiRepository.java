@@ -1,19 +1,22 @@
 package com.springboot.MyTodoList.repository;
 
+import org.jdbi.v3.sqlobject.SqlObject;
 import org.jdbi.v3.sqlobject.customizer.Bind;
 import org.jdbi.v3.sqlobject.statement.SqlQuery;
 import org.jdbi.v3.core.mapper.RowMapper;
+import org.jdbi.v3.core.statement.Query;
 import org.jdbi.v3.core.statement.StatementContext;
-import org.jdbi.v3.sqlobject.config.RegisterBeanMapper;
+import org.jdbi.v3.sqlobject.config.RegisterRowMapper;
 
 import com.springboot.MyTodoList.model.Kpi;
 
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.util.Collections;
 import java.util.List;
 
-@RegisterBeanMapper(Kpi.class)
-public interface KpiRepository {
+@RegisterRowMapper(KpiRepository.KpiMapper.class)
+public interface KpiRepository extends SqlObject, KpiQueries {
 
     // KPI 1: Tareas completadas por miembro
     @SqlQuery("SELECT " +
@@ -26,11 +29,12 @@ public interface KpiRepository {
             "JOIN " +
             "    TODOUSER.TASKS t ON ta.TASK_ID = t.ID " +
             "WHERE " +
-            "    t.STATUS IN ('Completada', 'DONE') " +
+            "    t.STATUS_CODE BETWEEN :firstDone AND :lastDone " +
             "GROUP BY " +
             "    u.NAME " +
             "ORDER BY " +
             "    COMPLETED_TASKS DESC")
+    @BindStatusCodes
     List<Kpi> getCompletedTasksByMember();
 
     // KPI 1 filtrado por equipo
@@ -44,12 +48,13 @@ public interface KpiRepository {
             "JOIN " +
             "    TODOUSER.TASKS t ON ta.TASK_ID = t.ID " +
             "WHERE " +
-            "    t.STATUS IN ('Completada', 'DONE') " +
+            "    t.STATUS_CODE BETWEEN :firstDone AND :lastDone " +
             "    AND u.TEAM_ID = :teamId " +
             "GROUP BY " +
             "    u.NAME " +
             "ORDER BY " +
             "    COMPLETED_TASKS DESC")
+    @BindStatusCodes
     List<Kpi> getCompletedTasksByMemberAndTeam(@Bind("teamId") Long teamId);
 
     // KPI 2: Horas actuales por miembro
@@ -94,9 +99,9 @@ public interface KpiRepository {
     // KPI 3: Tasa de finalización por miembro
     @SqlQuery("SELECT " +
             "    u.NAME AS MEMBER_NAME, " +
-            "    COUNT(CASE WHEN t.STATUS IN ('Completada', 'DONE') THEN 1 END) AS COMPLETED_TASKS, " +
+            "    COUNT(CASE WHEN t.STATUS_CODE BETWEEN :firstDone AND :lastDone THEN 1 END) AS COMPLETED_TASKS, " +
             "    COUNT(t.ID) AS TOTAL_ASSIGNED_TASKS, " +
-            "    ROUND(CASE WHEN COUNT(t.ID) = 0 THEN 0 ELSE COUNT(CASE WHEN t.STATUS IN ('Completada', 'DONE') THEN 1 END) * 100.0 / COUNT(t.ID) END, 2) AS COMPLETION_RATE_PERCENT, " +
+            "    ROUND(CASE WHEN COUNT(t.ID) = 0 THEN 0 ELSE COUNT(CASE WHEN t.STATUS_CODE BETWEEN :firstDone AND :lastDone THEN 1 END) * 100.0 / COUNT(t.ID) END, 2) AS COMPLETION_RATE_PERCENT, " +
             "    SUM(t.ACTUAL_HOURS) AS TOTAL_ACTUAL_HOURS, " +
             "    SUM(t.ESTIMATED_HOURS) AS TOTAL_ESTIMATED_HOURS " +
             "FROM " +
@@ -109,14 +114,15 @@ public interface KpiRepository {
             "    u.NAME " +
             "ORDER BY " +
             "    MEMBER_NAME")
+    @BindStatusCodes
     List<Kpi> getCompletionRateByMember();
 
     // KPI 3 filtrado por equipo
     @SqlQuery("SELECT " +
             "    u.NAME AS MEMBER_NAME, " +
-            "    COUNT(CASE WHEN t.STATUS IN ('Completada', 'DONE') THEN 1 END) AS COMPLETED_TASKS, " +
+            "    COUNT(CASE WHEN t.STATUS_CODE BETWEEN :firstDone AND :lastDone THEN 1 END) AS COMPLETED_TASKS, " +
             "    COUNT(t.ID) AS TOTAL_ASSIGNED_TASKS, " +
-            "    ROUND(CASE WHEN COUNT(t.ID) = 0 THEN 0 ELSE COUNT(CASE WHEN t.STATUS IN ('Completada', 'DONE') THEN 1 END) * 100.0 / COUNT(t.ID) END, 2) AS COMPLETION_RATE_PERCENT, " +
+            "    ROUND(CASE WHEN COUNT(t.ID) = 0 THEN 0 ELSE COUNT(CASE WHEN t.STATUS_CODE BETWEEN :firstDone AND :lastDone THEN 1 END) * 100.0 / COUNT(t.ID) END, 2) AS COMPLETION_RATE_PERCENT, " +
             "    SUM(t.ACTUAL_HOURS) AS TOTAL_ACTUAL_HOURS, " +
             "    SUM(t.ESTIMATED_HOURS) AS TOTAL_ESTIMATED_HOURS " +
             "FROM " +
@@ -131,14 +137,15 @@ public interface KpiRepository {
             "    u.NAME " +
             "ORDER BY " +
             "    MEMBER_NAME")
+    @BindStatusCodes
     List<Kpi> getCompletionRateByMemberAndTeam(@Bind("teamId") Long teamId);
 
     // KPI adicional: Filtrar por sprint
     @SqlQuery("SELECT " +
             "    u.NAME AS MEMBER_NAME, " +
-            "    COUNT(CASE WHEN t.STATUS IN ('Completada', 'DONE') THEN 1 END) AS COMPLETED_TASKS, " +
+            "    COUNT(CASE WHEN t.STATUS_CODE BETWEEN :firstDone AND :lastDone THEN 1 END) AS COMPLETED_TASKS, " +
             "    COUNT(t.ID) AS TOTAL_ASSIGNED_TASKS, " +
-            "    ROUND(CASE WHEN COUNT(t.ID) = 0 THEN 0 ELSE COUNT(CASE WHEN t.STATUS IN ('Completada', 'DONE') THEN 1 END) * 100.0 / COUNT(t.ID) END, 2) AS COMPLETION_RATE_PERCENT, " +
+            "    ROUND(CASE WHEN COUNT(t.ID) = 0 THEN 0 ELSE COUNT(CASE WHEN t.STATUS_CODE BETWEEN :firstDone AND :lastDone THEN 1 END) * 100.0 / COUNT(t.ID) END, 2) AS COMPLETION_RATE_PERCENT, " +
             "    SUM(t.ACTUAL_HOURS) AS TOTAL_ACTUAL_HOURS, " +
             "    SUM(t.ESTIMATED_HOURS) AS TOTAL_ESTIMATED_HOURS " +
             "FROM " +
@@ -153,31 +160,34 @@ public interface KpiRepository {
             "    u.NAME " +
             "ORDER BY " +
             "    MEMBER_NAME")
+    @BindStatusCodes
     List<Kpi> getCompletionRateByMemberAndSprint(@Bind("sprintId") Long sprintId);
 
     // KPI 1: Completed tasks per sprint
     @SqlQuery(
         "SELECT \n" +
         "  s.NAME AS MEMBER_NAME, \n" +
-        "  COUNT(CASE WHEN t.STATUS IN ('Completada', 'DONE') THEN 1 END) AS COMPLETED_TASKS \n" +
+        "  COUNT(CASE WHEN t.STATUS_CODE BETWEEN :firstDone AND :lastDone THEN 1 END) AS COMPLETED_TASKS \n" +
         "FROM TODOUSER.SPRINTS s \n" +
         "LEFT JOIN TODOUSER.TASKS t ON t.SPRINT_ID = s.ID \n" +
         "GROUP BY s.NAME, s.START_DATE \n" +
         "ORDER BY s.START_DATE"
     )
+    @BindStatusCodes
     List<Kpi> getCompletedTasksBySprint();
 
     // KPI 1 filtered by team
     @SqlQuery(
         "SELECT \n" +
         "  s.NAME AS MEMBER_NAME, \n" +
-        "  COUNT(CASE WHEN t.STATUS IN ('Completada', 'DONE') THEN 1 END) AS COMPLETED_TASKS \n" +
+        "  COUNT(CASE WHEN t.STATUS_CODE BETWEEN :firstDone AND :lastDone THEN 1 END) AS COMPLETED_TASKS \n" +
         "FROM TODOUSER.SPRINTS s \n" +
         "LEFT JOIN TODOUSER.TASKS t ON t.SPRINT_ID = s.ID \n" +
         "WHERE s.TEAM_ID = :teamId \n" +
         "GROUP BY s.NAME, s.START_DATE \n" +
         "ORDER BY s.START_DATE"
     )
+    @BindStatusCodes
     List<Kpi> getCompletedTasksBySprintAndTeam(@Bind("teamId") Long teamId);
 
     // KPI 2: Total actual & estimated hours per sprint
@@ -211,11 +221,11 @@ public interface KpiRepository {
     @SqlQuery(
         "SELECT \n" +
         "  s.NAME AS MEMBER_NAME, \n" +
-        "  COUNT(CASE WHEN t.STATUS IN ('Completada', 'DONE') THEN 1 END) AS COMPLETED_TASKS, \n" +
+        "  COUNT(CASE WHEN t.STATUS_CODE BETWEEN :firstDone AND :lastDone THEN 1 END) AS COMPLETED_TASKS, \n" +
         "  COUNT(t.ID) AS TOTAL_ASSIGNED_TASKS, \n" +
         "  ROUND(\n" +
         "    CASE WHEN COUNT(t.ID) = 0 THEN 0 \n" +
-        "         ELSE COUNT(CASE WHEN t.STATUS IN ('Completada', 'DONE') THEN 1 END) * 100.0 / COUNT(t.ID) \n" +
+        "         ELSE COUNT(CASE WHEN t.STATUS_CODE BETWEEN :firstDone AND :lastDone THEN 1 END) * 100.0 / COUNT(t.ID) \n" +
         "    END, 2\n" +
         "  ) AS COMPLETION_RATE_PERCENT, \n" +
         "  SUM(t.ACTUAL_HOURS) AS TOTAL_ACTUAL_HOURS, \n" +
@@ -225,17 +235,18 @@ public interface KpiRepository {
         "GROUP BY s.NAME, s.START_DATE \n" +
         "ORDER BY s.START_DATE"
     )
+    @BindStatusCodes
     List<Kpi> getCompletionRateBySprint();
 
     // KPI 3 filtered by team
     @SqlQuery(
         "SELECT \n" +
         "  s.NAME AS MEMBER_NAME, \n" +
-        "  COUNT(CASE WHEN t.STATUS IN ('Completada', 'DONE') THEN 1 END) AS COMPLETED_TASKS, \n" +
+        "  COUNT(CASE WHEN t.STATUS_CODE BETWEEN :firstDone AND :lastDone THEN 1 END) AS COMPLETED_TASKS, \n" +
         "  COUNT(t.ID) AS TOTAL_ASSIGNED_TASKS, \n" +
         "  ROUND(\n" +
         "    CASE WHEN COUNT(t.ID) = 0 THEN 0 \n" +
-        "         ELSE COUNT(CASE WHEN t.STATUS IN ('Completada', 'DONE') THEN 1 END) * 100.0 / COUNT(t.ID) \n" +
+        "         ELSE COUNT(CASE WHEN t.STATUS_CODE BETWEEN :firstDone AND :lastDone THEN 1 END) * 100.0 / COUNT(t.ID) \n" +
         "    END, 2\n" +
         "  ) AS COMPLETION_RATE_PERCENT, \n" +
         "  SUM(t.ACTUAL_HOURS) AS TOTAL_ACTUAL_HOURS, \n" +
@@ -246,6 +257,7 @@ public interface KpiRepository {
         "GROUP BY s.NAME, s.START_DATE \n" +
         "ORDER BY s.START_DATE"
     )
+    @BindStatusCodes
     List<Kpi> getCompletionRateBySprintAndTeam(@Bind("teamId") Long teamId);
 
     // Sprint Performance - Hours worked per sprint and member
@@ -257,9 +269,10 @@ public interface KpiRepository {
             "JOIN TODOUSER.TASKS t ON t.SPRINT_ID = s.ID " +
             "JOIN TODOUSER.TASK_ASSIGNEE ta ON ta.TASK_ID = t.ID " +
             "JOIN TODOUSER.USERS u ON u.ID = ta.USER_ID " +
-            "WHERE t.STATUS IN ('Completada', 'DONE') " +
+            "WHERE t.STATUS_CODE BETWEEN :firstDone AND :lastDone " +
             "GROUP BY s.NAME, u.NAME, s.START_DATE " +
             "ORDER BY s.START_DATE, u.NAME")
+    @BindStatusCodes
     List<Kpi> getHoursPerSprintAndMemberAllTeams();
 
     @SqlQuery("SELECT " +
@@ -270,10 +283,11 @@ public interface KpiRepository {
             "JOIN TODOUSER.TASKS t ON t.SPRINT_ID = s.ID " +
             "JOIN TODOUSER.TASK_ASSIGNEE ta ON ta.TASK_ID = t.ID " +
             "JOIN TODOUSER.USERS u ON u.ID = ta.USER_ID " +
-            "WHERE t.STATUS IN ('Completada', 'DONE') " +
+            "WHERE t.STATUS_CODE BETWEEN :firstDone AND :lastDone " +
             "AND u.TEAM_ID = :teamId " +
             "GROUP BY s.NAME, u.NAME, s.START_DATE " +
             "ORDER BY s.START_DATE, u.NAME")
+    @BindStatusCodes
     List<Kpi> getHoursPerSprintAndMember(@Bind("teamId") Long teamId);
 
     // Developer Performance - Hours per sprint per developer
@@ -285,9 +299,10 @@ public interface KpiRepository {
             "JOIN TODOUSER.TASK_ASSIGNEE ta ON u.ID = ta.USER_ID " +
             "JOIN TODOUSER.TASKS t ON ta.TASK_ID = t.ID " +
             "JOIN TODOUSER.SPRINTS s ON t.SPRINT_ID = s.ID " +
-            "WHERE t.STATUS IN ('Completada', 'DONE') " +
+            "WHERE t.STATUS_CODE BETWEEN :firstDone AND :lastDone " +
             "GROUP BY u.NAME, s.NAME, s.START_DATE " +
             "ORDER BY u.NAME, s.START_DATE")
+    @BindStatusCodes
     List<Kpi> getDeveloperHoursPerSprintAllTeams();
 
     @SqlQuery("SELECT " +
@@ -298,10 +313,11 @@ public interface KpiRepository {
             "JOIN TODOUSER.TASK_ASSIGNEE ta ON u.ID = ta.USER_ID " +
             "JOIN TODOUSER.TASKS t ON ta.TASK_ID = t.ID " +
             "JOIN TODOUSER.SPRINTS s ON t.SPRINT_ID = s.ID " +
-            "WHERE t.STATUS IN ('Completada', 'DONE') " +
+            "WHERE t.STATUS_CODE BETWEEN :firstDone AND :lastDone " +
             "AND u.TEAM_ID = :teamId " +
             "GROUP BY u.NAME, s.NAME, s.START_DATE " +
             "ORDER BY u.NAME, s.START_DATE")
+    @BindStatusCodes
     List<Kpi> getDeveloperHoursPerSprint(@Bind("teamId") Long teamId);
 
     // Developer Performance - Tasks per sprint per developer
@@ -313,9 +329,10 @@ public interface KpiRepository {
             "JOIN TODOUSER.TASK_ASSIGNEE ta ON u.ID = ta.USER_ID " +
             "JOIN TODOUSER.TASKS t ON ta.TASK_ID = t.ID " +
             "JOIN TODOUSER.SPRINTS s ON t.SPRINT_ID = s.ID " +
-            "WHERE t.STATUS IN ('Completada', 'DONE') " +
+            "WHERE t.STATUS_CODE BETWEEN :firstDone AND :lastDone " +
             "GROUP BY u.NAME, s.NAME, s.START_DATE " +
             "ORDER BY u.NAME, s.START_DATE")
+    @BindStatusCodes
     List<Kpi> getDeveloperTasksPerSprintAllTeams();
 
     @SqlQuery("SELECT " +
@@ -326,123 +343,116 @@ public interface KpiRepository {
             "JOIN TODOUSER.TASK_ASSIGNEE ta ON u.ID = ta.USER_ID " +
             "JOIN TODOUSER.TASKS t ON ta.TASK_ID = t.ID " +
             "JOIN TODOUSER.SPRINTS s ON t.SPRINT_ID = s.ID " +
-            "WHERE t.STATUS IN ('Completada', 'DONE') " +
+            "WHERE t.STATUS_CODE BETWEEN :firstDone AND :lastDone " +
             "AND u.TEAM_ID = :teamId " +
             "GROUP BY u.NAME, s.NAME, s.START_DATE " +
             "ORDER BY u.NAME, s.START_DATE")
+    @BindStatusCodes
     List<Kpi> getDeveloperTasksPerSprint(@Bind("teamId") Long teamId);
 
     // Last Sprint Report - Tasks by developer
-    @SqlQuery("WITH LastSprint AS ( " +
-            "    SELECT ID, NAME " +
-            "    FROM TODOUSER.SPRINTS " +
-            "    WHERE STATUS = 'COMPLETED' " +
-            "    ORDER BY END_DATE DESC " +
-            "    FETCH FIRST 1 ROW ONLY " +
-            ") " +
-            "SELECT " +
-            "    u.NAME AS MEMBER_NAME, " +
-            "    t.TITLE AS TASK_TITLE, " +
-            "    t.DESCRIPTION AS TASK_DESCRIPTION, " +
-            "    t.ACTUAL_HOURS AS TOTAL_ACTUAL_HOURS, " +
-            "    t.ESTIMATED_HOURS AS TOTAL_ESTIMATED_HOURS, " +
-            "    t.STATUS AS TASK_STATUS " +
-            "FROM LastSprint ls " +
-            "JOIN TODOUSER.TASKS t ON t.SPRINT_ID = ls.ID " +
-            "JOIN TODOUSER.TASK_ASSIGNEE ta ON ta.TASK_ID = t.ID " +
-            "JOIN TODOUSER.USERS u ON u.ID = ta.USER_ID " +
-            "WHERE t.STATUS IN ('Completada', 'DONE') " +
-            "AND (:teamId IS NULL OR u.TEAM_ID = :teamId) " +
-            "ORDER BY u.NAME, t.TITLE")
-    List<Kpi> getLastSprintTasksByDeveloper(@Bind("teamId") Long teamId);
+    // El filtro de equipo solo se emite si viene (ver FilteredQuery)
+    FilteredQuery LAST_SPRINT_TASKS = FilteredQuery
+            .select("WITH LastSprint AS ( " +
+                    "    SELECT ID, NAME " +
+                    "    FROM TODOUSER.SPRINTS " +
+                    "    WHERE STATUS = 'COMPLETED' " +
+                    "    ORDER BY END_DATE DESC " +
+                    "    FETCH FIRST 1 ROW ONLY " +
+                    ") " +
+                    "SELECT " +
+                    "    u.NAME AS MEMBER_NAME, " +
+                    "    t.TITLE AS TASK_TITLE, " +
+                    "    t.DESCRIPTION AS TASK_DESCRIPTION, " +
+                    "    t.ACTUAL_HOURS AS TOTAL_ACTUAL_HOURS, " +
+                    "    t.ESTIMATED_HOURS AS TOTAL_ESTIMATED_HOURS, " +
+                    "    t.STATUS AS TASK_STATUS " +
+                    "FROM LastSprint ls " +
+                    "JOIN TODOUSER.TASKS t ON t.SPRINT_ID = ls.ID " +
+                    "JOIN TODOUSER.TASK_ASSIGNEE ta ON ta.TASK_ID = t.ID " +
+                    "JOIN TODOUSER.USERS u ON u.ID = ta.USER_ID")
+            .where("t.STATUS_CODE BETWEEN :firstDone AND :lastDone")
+            .filter("teamId", "u.TEAM_ID = :teamId")
+            .suffix("ORDER BY u.NAME, t.TITLE")
+            .build();
+
+    default List<Kpi> getLastSprintTasksByDeveloper(Long teamId) {
+        Query query = LAST_SPRINT_TASKS.createQuery(getHandle(), Collections.singletonMap("teamId", teamId));
+        BindStatusCodes.Factory.bind(query);
+        return query.map(new KpiMapper())
+                .list();
+    }
 
     // Specific Sprint Tasks - Get tasks for a specific sprint
-    @SqlQuery("SELECT " +
-            "    u.NAME AS MEMBER_NAME, " +
-            "    t.TITLE AS TASK_TITLE, " +
-            "    t.DESCRIPTION AS TASK_DESCRIPTION, " +
-            "    t.ACTUAL_HOURS AS TOTAL_ACTUAL_HOURS, " +
-            "    t.ESTIMATED_HOURS AS TOTAL_ESTIMATED_HOURS, " +
-            "    t.STATUS AS TASK_STATUS, " +
-            "    t.SPRINT_ID AS SPRINT_ID " +
-            "FROM TODOUSER.TASKS t " +
-            "JOIN TODOUSER.TASK_ASSIGNEE ta ON ta.TASK_ID = t.ID " +
-            "JOIN TODOUSER.USERS u ON u.ID = ta.USER_ID " +
-            "WHERE t.SPRINT_ID = :sprintId " +
-            "AND t.STATUS IN ('Completada', 'DONE') " +
-            "AND (:teamId IS NULL OR u.TEAM_ID = :teamId) " +
-            "ORDER BY u.NAME, t.TITLE")
-    List<Kpi> getSprintTasksByDeveloper(@Bind("sprintId") Long sprintId, @Bind("teamId") Long teamId);
+    FilteredQuery SPRINT_TASKS = FilteredQuery
+            .select("SELECT " +
+                    "    u.NAME AS MEMBER_NAME, " +
+                    "    t.TITLE AS TASK_TITLE, " +
+                    "    t.DESCRIPTION AS TASK_DESCRIPTION, " +
+                    "    t.ACTUAL_HOURS AS TOTAL_ACTUAL_HOURS, " +
+                    "    t.ESTIMATED_HOURS AS TOTAL_ESTIMATED_HOURS, " +
+                    "    t.STATUS AS TASK_STATUS, " +
+                    "    t.SPRINT_ID AS SPRINT_ID " +
+                    "FROM TODOUSER.TASKS t " +
+                    "JOIN TODOUSER.TASK_ASSIGNEE ta ON ta.TASK_ID = t.ID " +
+                    "JOIN TODOUSER.USERS u ON u.ID = ta.USER_ID")
+            .where("t.SPRINT_ID = :sprintId")
+            .where("t.STATUS_CODE BETWEEN :firstDone AND :lastDone")
+            .filter("teamId", "u.TEAM_ID = :teamId")
+            .suffix("ORDER BY u.NAME, t.TITLE")
+            .build();
+
+    default List<Kpi> getSprintTasksByDeveloper(Long sprintId, Long teamId) {
+        Query query = SPRINT_TASKS.createQuery(getHandle(), Collections.singletonMap("teamId", teamId));
+        BindStatusCodes.Factory.bind(query);
+        return query.bind("sprintId", sprintId)
+                .map(new KpiMapper())
+                .list();
+    }
 
     // RowMapper para mapear los resultados de las consultas a objetos Kpi
     class KpiMapper implements RowMapper<Kpi> {
+        // Cada consulta de KPI trae un subconjunto distinto de columnas; las que
+        // no vienen quedan en null
         @Override
-        public Kpi map(ResultSet rs, StatementContext ctx) throws SQLException {
-            Kpi kpi = new Kpi();
-            kpi.setMemberName(rs.getString("MEMBER_NAME"));
-
-            // Manejar los diferentes resultados de columnas dependiendo de la consulta
-            try {
-                kpi.setSprintName(rs.getString("SPRINT_NAME"));
-            } catch (SQLException e) {
-                // Si la columna no existe, ignorar
-            }
-
-            try {
-                kpi.setTaskTitle(rs.getString("TASK_TITLE"));
-            } catch (SQLException e) {
-                // Si la columna no existe, ignorar
-            }
-
-            try {
-                kpi.setTaskDescription(rs.getString("TASK_DESCRIPTION"));
-            } catch (SQLException e) {
-                // Si la columna no existe, ignorar
-            }
-
-            try {
-                kpi.setTaskStatus(rs.getString("TASK_STATUS"));
-            } catch (SQLException e) {
-                // Si la columna no existe, ignorar
-            }
-
-            try {
-                kpi.setCompletedTasks(rs.getInt("COMPLETED_TASKS"));
-            } catch (SQLException e) {
-                // Si la columna no existe, ignorar
-            }
-
-            try {
-                kpi.setTotalAssignedTasks(rs.getInt("TOTAL_ASSIGNED_TASKS"));
-            } catch (SQLException e) {
-                // Si la columna no existe, ignorar
-            }
-
-            try {
-                kpi.setCompletionRatePercent(rs.getBigDecimal("COMPLETION_RATE_PERCENT"));
-            } catch (SQLException e) {
-                // Si la columna no existe, ignorar
-            }
-
-            try {
-                kpi.setTotalActualHours(rs.getDouble("TOTAL_ACTUAL_HOURS"));
-                if (rs.wasNull()) {
-                    kpi.setTotalActualHours(null);
-                }
-            } catch (SQLException e) {
-                // Si la columna no existe, ignorar
-            }
-
-            try {
-                kpi.setTotalEstimatedHours(rs.getDouble("TOTAL_ESTIMATED_HOURS"));
-                if (rs.wasNull()) {
-                    kpi.setTotalEstimatedHours(null);
-                }
-            } catch (SQLException e) {
-                // Si la columna no existe, ignorar
-            }
+        public RowMapper<Kpi> specialize(ResultSet rs, StatementContext ctx) throws SQLException {
+            ColumnIndex columns = ColumnIndex.of(rs, ctx);
+            int memberName = columns.get("MEMBER_NAME");
+            int sprintId = columns.get("SPRINT_ID");
+            int sprintName = columns.get("SPRINT_NAME");
+            int teamId = columns.get("TEAM_ID");
+            int teamName = columns.get("TEAM_NAME");
+            int taskTitle = columns.get("TASK_TITLE");
+            int taskDescription = columns.get("TASK_DESCRIPTION");
+            int taskStatus = columns.get("TASK_STATUS");
+            int completedTasks = columns.get("COMPLETED_TASKS");
+            int totalAssignedTasks = columns.get("TOTAL_ASSIGNED_TASKS");
+            int completionRatePercent = columns.get("COMPLETION_RATE_PERCENT");
+            int totalActualHours = columns.get("TOTAL_ACTUAL_HOURS");
+            int totalEstimatedHours = columns.get("TOTAL_ESTIMATED_HOURS");
+
+            return (row, rowCtx) -> {
+                Kpi kpi = new Kpi();
+                kpi.setMemberName(ColumnIndex.getString(row, memberName));
+                kpi.setSprintId(ColumnIndex.getLong(row, sprintId));
+                kpi.setSprintName(ColumnIndex.getString(row, sprintName));
+                kpi.setTeamId(ColumnIndex.getLong(row, teamId));
+                kpi.setTeamName(ColumnIndex.getString(row, teamName));
+                kpi.setTaskTitle(ColumnIndex.getString(row, taskTitle));
+                kpi.setTaskDescription(ColumnIndex.getString(row, taskDescription));
+                kpi.setTaskStatus(ColumnIndex.getString(row, taskStatus));
+                kpi.setCompletedTasks(ColumnIndex.getInteger(row, completedTasks));
+                kpi.setTotalAssignedTasks(ColumnIndex.getInteger(row, totalAssignedTasks));
+                kpi.setCompletionRatePercent(ColumnIndex.getBigDecimal(row, completionRatePercent));
+                kpi.setTotalActualHours(ColumnIndex.getDouble(row, totalActualHours));
+                kpi.setTotalEstimatedHours(ColumnIndex.getDouble(row, totalEstimatedHours));
+                return kpi;
+            };
+        }
 
-            return kpi;
+        @Override
+        public Kpi map(ResultSet rs, StatementContext ctx) throws SQLException {
+            return specialize(rs, ctx).map(rs, ctx);
         }
     }
 }
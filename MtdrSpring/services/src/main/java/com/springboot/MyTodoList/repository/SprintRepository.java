@@ -23,32 +23,39 @@ import java.util.Optional;
 @RegisterRowMapper(TaskMapper.class)
 public interface SprintRepository {
 
-    @SqlQuery("SELECT s.*, t.name as team_name, " +
-            "(SELECT COUNT(*) FROM tasks WHERE sprint_id = s.id) as tasks_count, " +
-            "(SELECT COUNT(*) FROM tasks WHERE sprint_id = s.id AND status IN ('Completada', 'DONE')) as completed_tasks_count "
-            +
+    // Los contadores salen de una sola pasada agrupada sobre tasks unida a sprints,
+    // en lugar de dos subconsultas correlacionadas por cada sprint. Cada consulta
+    // filtra la agrupacion a los sprints que va a devolver.
+    String SPRINT_SELECT = "SELECT s.*, t.name as team_name, " +
+            "NVL(c.tasks_count, 0) as tasks_count, " +
+            "NVL(c.completed_tasks_count, 0) as completed_tasks_count " +
             "FROM sprints s " +
-            "JOIN teams t ON s.team_id = t.id " +
+            "JOIN teams t ON s.team_id = t.id ";
+
+    String TASK_COUNTS_SELECT = "LEFT JOIN (SELECT sprint_id, COUNT(*) as tasks_count, " +
+            "COUNT(CASE WHEN status_code BETWEEN :firstDone AND :lastDone THEN 1 END) as completed_tasks_count " +
+            "FROM tasks ";
+
+    String TASK_COUNTS_JOIN = "GROUP BY sprint_id) c ON c.sprint_id = s.id ";
+
+    @SqlQuery(SPRINT_SELECT +
+            TASK_COUNTS_SELECT + "WHERE sprint_id IS NOT NULL " + TASK_COUNTS_JOIN +
             "ORDER BY s.start_date DESC")
+    @BindStatusCodes
     List<Sprint> findAll();
 
-    @SqlQuery("SELECT s.*, t.name as team_name, " +
-            "(SELECT COUNT(*) FROM tasks WHERE sprint_id = s.id) as tasks_count, " +
-            "(SELECT COUNT(*) FROM tasks WHERE sprint_id = s.id AND status IN ('Completada', 'DONE')) as completed_tasks_count "
-            +
-            "FROM sprints s " +
-            "JOIN teams t ON s.team_id = t.id " +
+    @SqlQuery(SPRINT_SELECT +
+            TASK_COUNTS_SELECT + "WHERE sprint_id IN (SELECT id FROM sprints WHERE team_id = :teamId) " +
+            TASK_COUNTS_JOIN +
             "WHERE s.team_id = :teamId " +
             "ORDER BY s.start_date DESC")
+    @BindStatusCodes
     List<Sprint> findByTeamId(@Bind("teamId") Long teamId);
 
-    @SqlQuery("SELECT s.*, t.name as team_name, " +
-            "(SELECT COUNT(*) FROM tasks WHERE sprint_id = s.id) as tasks_count, " +
-            "(SELECT COUNT(*) FROM tasks WHERE sprint_id = s.id AND status IN ('Completada', 'DONE')) as completed_tasks_count "
-            +
-            "FROM sprints s " +
-            "JOIN teams t ON s.team_id = t.id " +
+    @SqlQuery(SPRINT_SELECT +
+            TASK_COUNTS_SELECT + "WHERE sprint_id = :id " + TASK_COUNTS_JOIN +
             "WHERE s.id = :id")
+    @BindStatusCodes
     Optional<Sprint> findById(@Bind("id") Long id);
 
     // Updated query to include joins and aliases needed by TaskMapper
@@ -65,8 +72,9 @@ public interface SprintRepository {
             "FROM tasks t " +
             "LEFT JOIN users u ON t.created_by_id = u.id " +
             "LEFT JOIN teams tm ON t.team_id = tm.id " +
-            "WHERE t.sprint_id = :sprintId AND t.status NOT IN ('Completada', 'DONE', 'Cancelada') " +
+            "WHERE t.sprint_id = :sprintId AND t.status_code < :firstDone " +
             "ORDER BY t.priority DESC, t.start_date ASC") // Use alias t. for clarity
+    @BindStatusCodes
     List<Task> findIncompleteTasksBySprint(@Bind("sprintId") Long sprintId);
 
     @SqlUpdate("INSERT INTO sprints (team_id, name, status, start_date, end_date) " +
@@ -86,39 +94,51 @@ public interface SprintRepository {
     @SqlUpdate("UPDATE tasks SET sprint_id = NULL WHERE id = :taskId")
     int removeTaskFromSprint(@Bind("taskId") Long taskId);
 
-    @SqlUpdate("UPDATE tasks SET sprint_id = :newSprintId WHERE sprint_id = :sprintId AND status NOT IN ('Completada', 'DONE', 'Cancelada')")
+    @SqlUpdate("UPDATE tasks SET sprint_id = :newSprintId WHERE sprint_id = :sprintId AND status_code < :firstDone")
+    @BindStatusCodes
     int moveIncompleteTasksToNewSprint(@Bind("sprintId") Long sprintId, @Bind("newSprintId") Long newSprintId);
 
-    @SqlUpdate("UPDATE tasks SET sprint_id = NULL WHERE sprint_id = :sprintId AND status NOT IN ('Completada', 'DONE', 'Cancelada')")
+    @SqlUpdate("UPDATE tasks SET sprint_id = NULL WHERE sprint_id = :sprintId AND status_code < :firstDone")
+    @BindStatusCodes
     int moveIncompleteTasksToBacklog(@Bind("sprintId") Long sprintId);
 
     @SqlUpdate("UPDATE sprints SET status = :status WHERE id = :id")
     int updateSprintStatus(@Bind("id") Long id, @Bind("status") String status);
 
-    // SprintMapper remains the same
     class SprintMapper implements RowMapper<Sprint> {
+        // Los contadores calculados no vienen en todas las consultas; si faltan quedan en 0
+        @Override
+        public RowMapper<Sprint> specialize(ResultSet rs, StatementContext ctx) throws SQLException {
+            ColumnIndex columns = ColumnIndex.of(rs, ctx);
+            int id = columns.get("id");
+            int teamId = columns.get("team_id");
+            int teamName = columns.get("team_name");
+            int name = columns.get("name");
+            int status = columns.get("status");
+            int startDate = columns.get("start_date");
+            int endDate = columns.get("end_date");
+            int tasksCount = columns.get("tasks_count");
+            int completedTasksCount = columns.get("completed_tasks_count");
+
+            return (row, rowCtx) -> {
+                Sprint sprint = new Sprint();
+                sprint.setId(row.getLong(id));
+                sprint.setTeamId(row.getLong(teamId));
+                sprint.setTeamName(row.getString(teamName));
+                sprint.setName(row.getString(name));
+                sprint.setStatus(row.getString(status));
+                sprint.setStartDate(row.getDate(startDate));
+                sprint.setEndDate(row.getDate(endDate));
+                sprint.setTasksCount(tasksCount == ColumnIndex.ABSENT ? 0 : row.getInt(tasksCount));
+                sprint.setCompletedTasksCount(
+                        completedTasksCount == ColumnIndex.ABSENT ? 0 : row.getInt(completedTasksCount));
+                return sprint;
+            };
+        }
+
         @Override
         public Sprint map(ResultSet rs, StatementContext ctx) throws SQLException {
-            Sprint sprint = new Sprint();
-            sprint.setId(rs.getLong("id"));
-            sprint.setTeamId(rs.getLong("team_id"));
-            sprint.setTeamName(rs.getString("team_name"));
-            sprint.setName(rs.getString("name"));
-            sprint.setStatus(rs.getString("status"));
-            sprint.setStartDate(rs.getDate("start_date"));
-            sprint.setEndDate(rs.getDate("end_date"));
-
-            // Handle the computed fields which might not be present in all queries
-            try {
-                sprint.setTasksCount(rs.getInt("tasks_count"));
-                sprint.setCompletedTasksCount(rs.getInt("completed_tasks_count"));
-            } catch (SQLException e) {
-                // Ignore if columns don't exist
-                sprint.setTasksCount(0);
-                sprint.setCompletedTasksCount(0);
-            }
-
-            return sprint;
+            return specialize(rs, ctx).map(rs, ctx);
         }
     }
 }
@@ -0,0 +1,91 @@
+package com.springboot.MyTodoList.repository;
+
+import java.util.HashMap;
+import java.util.Map;
+
+// Filtros opcionales del tablero de tareas; los que quedan en null no se emiten en el SQL
+public class TaskFilter {
+    private Long teamId;
+    private String status;
+    private String tag;
+    private Long creatorId;
+    private Long sprintId;
+    private Long assigneeId;
+    private Long afterId;
+
+    public Long getTeamId() {
+        return teamId;
+    }
+
+    public TaskFilter setTeamId(Long teamId) {
+        this.teamId = teamId;
+        return this;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public TaskFilter setStatus(String status) {
+        this.status = status;
+        return this;
+    }
+
+    public String getTag() {
+        return tag;
+    }
+
+    public TaskFilter setTag(String tag) {
+        this.tag = tag;
+        return this;
+    }
+
+    public Long getCreatorId() {
+        return creatorId;
+    }
+
+    public TaskFilter setCreatorId(Long creatorId) {
+        this.creatorId = creatorId;
+        return this;
+    }
+
+    public Long getSprintId() {
+        return sprintId;
+    }
+
+    public TaskFilter setSprintId(Long sprintId) {
+        this.sprintId = sprintId;
+        return this;
+    }
+
+    public Long getAssigneeId() {
+        return assigneeId;
+    }
+
+    public TaskFilter setAssigneeId(Long assigneeId) {
+        this.assigneeId = assigneeId;
+        return this;
+    }
+
+    // Paginacion por cursor: solo tareas con id mayor a este
+    public Long getAfterId() {
+        return afterId;
+    }
+
+    public TaskFilter setAfterId(Long afterId) {
+        this.afterId = afterId;
+        return this;
+    }
+
+    Map<String, Object> toBindings() {
+        Map<String, Object> bindings = new HashMap<>();
+        bindings.put("teamId", teamId);
+        bindings.put("status", status);
+        bindings.put("tag", tag);
+        bindings.put("creatorId", creatorId);
+        bindings.put("sprintId", sprintId);
+        bindings.put("assigneeId", assigneeId);
+        bindings.put("afterId", afterId);
+        return bindings;
+    }
+}
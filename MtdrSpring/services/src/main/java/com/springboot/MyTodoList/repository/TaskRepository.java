@@ -2,6 +2,7 @@ package com.springboot.MyTodoList.repository;
 
 import org.jdbi.v3.core.mapper.RowMapper;
 import org.jdbi.v3.core.statement.StatementContext;
+import org.jdbi.v3.sqlobject.SqlObject;
 import org.jdbi.v3.sqlobject.customizer.Bind;
 import org.jdbi.v3.sqlobject.customizer.BindBean;
 import org.jdbi.v3.sqlobject.customizer.BindList;
@@ -11,14 +12,21 @@ import org.jdbi.v3.sqlobject.statement.SqlUpdate;
 import org.jdbi.v3.sqlobject.statement.UseRowMapper;
 
 import com.springboot.MyTodoList.model.Task;
+import com.springboot.MyTodoList.model.TaskStatusCode;
 import com.springboot.MyTodoList.model.User;
 
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.function.Consumer;
 
-public interface TaskRepository {
+public interface TaskRepository extends SqlObject {
 
         @SqlQuery("SELECT t.*, u.name as creator_name, tm.name as team_name " +
                         "FROM tasks t " +
@@ -27,23 +35,75 @@ public interface TaskRepository {
                         "WHERE t.id = :id")
         Optional<Task> findById(@Bind("id") Long id);
 
-        @SqlQuery("SELECT t.*, u.name as creator_name, tm.name as team_name " +
-                        "FROM tasks t " +
-                        "LEFT JOIN users u ON t.created_by_id = u.id " + 
-                        "LEFT JOIN teams tm ON t.team_id = tm.id " +
-                        "WHERE (:teamId IS NULL OR t.team_id = :teamId) " +
-                        "AND (:status IS NULL OR t.status = :status) " +
-                        "AND (:tag IS NULL OR t.tag = :tag) " +
-                        "AND (:creatorId IS NULL OR t.created_by_id = :creatorId) " +
-                        "ORDER BY t.id " +
-                        "OFFSET :offset ROWS FETCH NEXT :limit ROWS ONLY")
-        List<Task> findWithFilters(
-                        @Bind("teamId") Long teamId,
-                        @Bind("status") String status,
-                        @Bind("tag") String tag,
-                        @Bind("creatorId") Long creatorId,
-                        @Bind("limit") int limit,
-                        @Bind("offset") int offset);
+        // Filtros del tablero: solo se emiten los predicados presentes (ver FilteredQuery)
+        FilteredQuery TASK_FILTERS = FilteredQuery
+                        .select("SELECT t.*, u.name as creator_name, tm.name as team_name " +
+                                        "FROM tasks t " +
+                                        "LEFT JOIN users u ON t.created_by_id = u.id " +
+                                        "LEFT JOIN teams tm ON t.team_id = tm.id")
+                        .filter("afterId", "t.id > :afterId")
+                        .filter("teamId", "t.team_id = :teamId")
+                        .filter("status", "t.status = :status")
+                        .filter("tag", "t.tag = :tag")
+                        .filter("creatorId", "t.created_by_id = :creatorId")
+                        .filter("sprintId", "t.sprint_id = :sprintId")
+                        .filter("assigneeId", "EXISTS (SELECT 1 FROM task_assignee fa " +
+                                        "WHERE fa.task_id = t.id AND fa.user_id = :assigneeId)")
+                        .suffix("ORDER BY t.id OFFSET :offset ROWS FETCH NEXT :limit ROWS ONLY")
+                        .build();
+
+        default List<Task> findByFilter(TaskFilter filter, int limit, int offset) {
+                return TASK_FILTERS.createQuery(getHandle(), filter.toBindings())
+                                .bind("limit", limit)
+                                .bind("offset", offset)
+                                .mapTo(Task.class)
+                                .list();
+        }
+
+        // Exportacion: una fila por (tarea, asignado) ordenada por tarea, para
+        // armar cada tarea con sus asignados en una sola pasada
+        FilteredQuery TASK_EXPORT = FilteredQuery
+                        .select("SELECT t.*, u.name as creator_name, tm.name as team_name, " +
+                                        "a.id as assignee_id, a.name as assignee_name, a.email as assignee_email " +
+                                        "FROM tasks t " +
+                                        "LEFT JOIN users u ON t.created_by_id = u.id " +
+                                        "LEFT JOIN teams tm ON t.team_id = tm.id " +
+                                        "LEFT JOIN task_assignee ta ON ta.task_id = t.id " +
+                                        "LEFT JOIN users a ON a.id = ta.user_id")
+                        .filter("teamId", "t.team_id = :teamId")
+                        .filter("status", "t.status = :status")
+                        .filter("tag", "t.tag = :tag")
+                        .filter("creatorId", "t.created_by_id = :creatorId")
+                        .filter("sprintId", "t.sprint_id = :sprintId")
+                        .filter("assigneeId", "EXISTS (SELECT 1 FROM task_assignee fa " +
+                                        "WHERE fa.task_id = t.id AND fa.user_id = :assigneeId)")
+                        .suffix("ORDER BY t.id")
+                        .build();
+
+        // Recorre las tareas con un cursor (fetchSize filas por viaje) y entrega
+        // cada tarea completa, con sus asignados, sin cargar el resultado en memoria
+        default void forEachTaskWithAssignees(TaskFilter filter, int fetchSize, Consumer<Task> consumer) {
+                TASK_EXPORT.createQuery(getHandle(), filter.toBindings())
+                                .setFetchSize(fetchSize)
+                                .map(new TaskExportMapper())
+                                .useIterator(rows -> {
+                                        Task current = null;
+                                        while (rows.hasNext()) {
+                                                Task row = rows.next();
+                                                if (current != null && current.getId().equals(row.getId())) {
+                                                        current.getAssignees().addAll(row.getAssignees());
+                                                        continue;
+                                                }
+                                                if (current != null) {
+                                                        consumer.accept(current);
+                                                }
+                                                current = row;
+                                        }
+                                        if (current != null) {
+                                                consumer.accept(current);
+                                        }
+                                });
+        }
 
         @SqlQuery("SELECT u.*, t.name as team_name FROM users u " +
                         "JOIN task_assignee ta ON u.id = ta.user_id " +
@@ -51,6 +111,52 @@ public interface TaskRepository {
                         "WHERE ta.task_id = :taskId")
         List<User> findAssigneesByTaskId(@Bind("taskId") Long taskId);
 
+        // Oracle rechaza listas IN de mas de 1000 elementos
+        int ASSIGNEE_BATCH_SIZE = 1000;
+
+        @SqlQuery("SELECT u.*, t.name as team_name, ta.task_id as assignee_task_id FROM users u " +
+                        "JOIN task_assignee ta ON u.id = ta.user_id " +
+                        "LEFT JOIN teams t ON u.team_id = t.id " +
+                        "WHERE ta.task_id IN (<taskIds>)")
+        @UseRowMapper(TaskAssigneeMapper.class)
+        List<Map.Entry<Long, User>> findAssigneeRowsByTaskIds(@BindList("taskIds") List<Long> taskIds);
+
+        // Carga los asignados de varias tareas en una sola consulta (por bloque)
+        // y los agrupa por tarea en memoria
+        default Map<Long, List<User>> findAssigneesByTaskIds(Collection<Long> taskIds) {
+                Map<Long, List<User>> assigneesByTask = new HashMap<>();
+                if (taskIds == null || taskIds.isEmpty()) {
+                        return assigneesByTask;
+                }
+
+                List<Long> ids = new ArrayList<>(taskIds);
+                for (int from = 0; from < ids.size(); from += ASSIGNEE_BATCH_SIZE) {
+                        List<Long> batch = ids.subList(from, Math.min(from + ASSIGNEE_BATCH_SIZE, ids.size()));
+                        for (Map.Entry<Long, User> row : findAssigneeRowsByTaskIds(batch)) {
+                                assigneesByTask.computeIfAbsent(row.getKey(), id -> new ArrayList<>())
+                                                .add(row.getValue());
+                        }
+                }
+                return assigneesByTask;
+        }
+
+        // Asigna a cada tarea su lista de asignados (vacia si no tiene)
+        default void loadAssignees(List<Task> tasks) {
+                if (tasks == null || tasks.isEmpty()) {
+                        return;
+                }
+
+                List<Long> taskIds = new ArrayList<>(tasks.size());
+                for (Task task : tasks) {
+                        taskIds.add(task.getId());
+                }
+
+                Map<Long, List<User>> assigneesByTask = findAssigneesByTaskIds(taskIds);
+                for (Task task : tasks) {
+                        task.setAssignees(assigneesByTask.getOrDefault(task.getId(), new ArrayList<>()));
+                }
+        }
+
         @SqlUpdate("INSERT INTO tasks (title, description, tag, status, start_date, end_date, created_by_id, team_id, sprint_id, estimated_hours, actual_hours) "
                         +
                         "VALUES (:title, :description, :tag, :status, :startDate, :endDate, :creatorId, :teamId, :sprintId, :estimatedHours, :actualHours)")
@@ -115,34 +221,113 @@ public interface TaskRepository {
 
         class TaskMapper implements RowMapper<Task> {
 
+                @Override
+                public RowMapper<Task> specialize(ResultSet rs, StatementContext ctx) throws SQLException {
+                        ColumnIndex columns = ColumnIndex.of(rs, ctx);
+                        int id = columns.get("id");
+                        int title = columns.get("title");
+                        int description = columns.get("description");
+                        int tag = columns.get("tag");
+                        int status = columns.get("status");
+                        // Con la columna STATUS_CODE el estado se resuelve por codigo
+                        int statusCode = columns.get("status_code");
+                        int startDate = columns.get("start_date");
+                        int endDate = columns.get("end_date");
+                        int createdById = columns.get("created_by_id");
+                        int creatorName = columns.get("creator_name");
+                        int sprintId = columns.get("sprint_id");
+                        int estimatedHours = columns.get("estimated_hours");
+                        int actualHours = columns.get("actual_hours");
+                        int teamId = columns.get("team_id");
+                        int teamName = columns.get("team_name");
+
+                        return (row, rowCtx) -> {
+                                Task task = new Task();
+                                task.setId(row.getLong(id));
+                                task.setTitle(row.getString(title));
+                                task.setDescription(row.getString(description));
+                                task.setTag(row.getString(tag));
+                                Integer code = ColumnIndex.getInteger(row, statusCode);
+                                TaskStatusCode known = code == null ? null : TaskStatusCode.fromCode(code);
+                                if (known != null) {
+                                        task.setStatusCode(known);
+                                } else {
+                                        task.setStatus(row.getString(status));
+                                }
+                                task.setStartDate(row.getString(startDate));
+                                task.setEndDate(row.getString(endDate));
+                                task.setCreatorId(row.getLong(createdById));
+                                task.setCreatorName(ColumnIndex.getString(row, creatorName));
+                                task.setSprintId(ColumnIndex.getLong(row, sprintId));
+                                task.setEstimatedHours(ColumnIndex.getDouble(row, estimatedHours));
+                                task.setActualHours(ColumnIndex.getDouble(row, actualHours));
+                                Long team = ColumnIndex.getLong(row, teamId);
+                                if (team != null) {
+                                        task.setTeamId(team);
+                                }
+                                task.setTeamName(ColumnIndex.getString(row, teamName));
+                                return task;
+                        };
+                }
+
                 @Override
                 public Task map(ResultSet rs, StatementContext ctx) throws SQLException {
-                        Task task = new Task();
-                        task.setId(rs.getLong("id"));
-                        task.setTitle(rs.getString("title"));
-                        task.setDescription(rs.getString("description"));
-                        task.setTag(rs.getString("tag"));
-                        task.setStatus(rs.getString("status"));
-                        task.setStartDate(rs.getString("start_date"));
-                        task.setEndDate(rs.getString("end_date"));
-                        task.setCreatorId(rs.getLong("created_by_id"));
-                        task.setCreatorName(rs.getString("creator_name"));
-                        task.setSprintId(rs.getObject("sprint_id", Long.class));
-
-                        Double estimatedHours = rs.getObject("estimated_hours", Double.class);
-                        task.setEstimatedHours(estimatedHours);
-
-                        Double actualHours = rs.getObject("actual_hours", Double.class);
-                        task.setActualHours(actualHours);
-
-                        Long teamId = rs.getObject("team_id", Long.class);
-                        if (!rs.wasNull()) {
-                                task.setTeamId(teamId);
-                        }
+                        return specialize(rs, ctx).map(rs, ctx);
+                }
+        }
+
+        // Una fila por (tarea, asignado) de TASK_EXPORT; la tarea lleva solo ese asignado
+        class TaskExportMapper implements RowMapper<Task> {
+
+                private final TaskMapper taskMapper = new TaskMapper();
+
+                @Override
+                public RowMapper<Task> specialize(ResultSet rs, StatementContext ctx) throws SQLException {
+                        RowMapper<Task> tasks = taskMapper.specialize(rs, ctx);
+                        ColumnIndex columns = ColumnIndex.of(rs, ctx);
+                        int assigneeId = columns.get("assignee_id");
+                        int assigneeName = columns.get("assignee_name");
+                        int assigneeEmail = columns.get("assignee_email");
 
-                        task.setTeamName(rs.getString("team_name"));
+                        return (row, rowCtx) -> {
+                                Task task = tasks.map(row, rowCtx);
+                                List<User> assignees = new ArrayList<>(1);
+                                Long id = ColumnIndex.getLong(row, assigneeId);
+                                if (id != null) {
+                                        User assignee = new User();
+                                        assignee.setId(id);
+                                        assignee.setName(ColumnIndex.getString(row, assigneeName));
+                                        assignee.setEmail(ColumnIndex.getString(row, assigneeEmail));
+                                        assignees.add(assignee);
+                                }
+                                task.setAssignees(assignees);
+                                return task;
+                        };
+                }
+
+                @Override
+                public Task map(ResultSet rs, StatementContext ctx) throws SQLException {
+                        return specialize(rs, ctx).map(rs, ctx);
+                }
+        }
 
-                        return task;
+        class TaskAssigneeMapper implements RowMapper<Map.Entry<Long, User>> {
+
+                private final UserRepository.UserMapper userMapper = new UserRepository.UserMapper();
+
+                @Override
+                public RowMapper<Map.Entry<Long, User>> specialize(ResultSet rs, StatementContext ctx)
+                                throws SQLException {
+                        int taskId = ColumnIndex.of(rs, ctx).get("assignee_task_id");
+                        RowMapper<User> users = userMapper.specialize(rs, ctx);
+                        return (row, rowCtx) -> new AbstractMap.SimpleImmutableEntry<>(
+                                        row.getLong(taskId),
+                                        users.map(row, rowCtx));
+                }
+
+                @Override
+                public Map.Entry<Long, User> map(ResultSet rs, StatementContext ctx) throws SQLException {
+                        return specialize(rs, ctx).map(rs, ctx);
                 }
         }
 }
@@ -5,6 +5,7 @@ import org.jdbi.v3.core.statement.StatementContext;
 import org.jdbi.v3.sqlobject.config.RegisterBeanMapper;
 import org.jdbi.v3.sqlobject.customizer.Bind;
 import org.jdbi.v3.sqlobject.customizer.BindBean;
+import org.jdbi.v3.sqlobject.customizer.BindList;
 import org.jdbi.v3.sqlobject.statement.GetGeneratedKeys;
 import org.jdbi.v3.sqlobject.statement.SqlQuery;
 import org.jdbi.v3.sqlobject.statement.SqlUpdate;
@@ -14,7 +15,10 @@ import com.springboot.MyTodoList.model.User;
 
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 public interface TeamRepository {
@@ -26,11 +30,46 @@ public interface TeamRepository {
                         "OFFSET :offset ROWS FETCH NEXT :limit ROWS ONLY")
         List<Team> findAll(@Bind("limit") int limit, @Bind("offset") int offset);
 
+        @SqlQuery("SELECT * FROM teams WHERE id > :after ORDER BY id " +
+                        "FETCH FIRST :limit ROWS ONLY")
+        List<Team> findAllAfter(@Bind("after") long after, @Bind("limit") int limit);
+
         @SqlQuery("SELECT u.*, t.name as team_name FROM users u " +
                         "LEFT JOIN teams t ON u.team_id = t.id " +
                         "WHERE u.team_id = :teamId")
         List<User> findMembersByTeamId(@Bind("teamId") Long teamId);
 
+        // Oracle rechaza listas IN de mas de 1000 elementos
+        int MEMBER_BATCH_SIZE = 1000;
+
+        @SqlQuery("SELECT u.*, t.name as team_name FROM users u " +
+                        "LEFT JOIN teams t ON u.team_id = t.id " +
+                        "WHERE u.team_id IN (<teamIds>) " +
+                        "ORDER BY u.id")
+        List<User> findMembersByTeamIdsBatch(@BindList("teamIds") List<Long> teamIds);
+
+        // Asigna a cada equipo sus miembros con una consulta por bloque de equipos
+        default void loadMembers(List<Team> teams) {
+                if (teams == null || teams.isEmpty()) {
+                        return;
+                }
+
+                List<Long> teamIds = new ArrayList<>(teams.size());
+                for (Team team : teams) {
+                        teamIds.add(team.getId());
+                }
+                Map<Long, List<User>> membersByTeam = new HashMap<>();
+                for (int from = 0; from < teamIds.size(); from += MEMBER_BATCH_SIZE) {
+                        List<Long> batch = teamIds.subList(from, Math.min(from + MEMBER_BATCH_SIZE, teamIds.size()));
+                        for (User member : findMembersByTeamIdsBatch(batch)) {
+                                membersByTeam.computeIfAbsent(member.getTeamId(), id -> new ArrayList<>()).add(member);
+                        }
+                }
+                for (Team team : teams) {
+                        team.setMembers(membersByTeam.getOrDefault(team.getId(), new ArrayList<>()));
+                }
+        }
+
         @SqlQuery("SELECT t.* FROM teams t WHERE t.id IN (SELECT DISTINCT team_id FROM users WHERE team_id IS NOT NULL AND id = :userId)")
         @RegisterBeanMapper(Team.class)
         List<Team> findTeamsByUserId(@Bind("userId") Long userId);
@@ -7,8 +7,10 @@ import org.jdbi.v3.sqlobject.customizer.BindBean;
 import org.jdbi.v3.sqlobject.statement.GetGeneratedKeys;
 import org.jdbi.v3.sqlobject.statement.SqlQuery;
 import org.jdbi.v3.sqlobject.statement.SqlUpdate;
+import org.jdbi.v3.sqlobject.statement.UseRowMapper;
 
 import com.springboot.MyTodoList.model.User;
+import com.springboot.MyTodoList.service.BotChatIndex;
 
 import java.sql.ResultSet;
 import java.sql.SQLException;
@@ -28,6 +30,13 @@ public interface UserRepository {
                         "OFFSET :offset ROWS FETCH NEXT :limit ROWS ONLY")
         List<User> findAll(@Bind("limit") int limit, @Bind("offset") int offset);
 
+        @SqlQuery("SELECT u.*, t.name as team_name FROM users u " +
+                        "LEFT JOIN teams t ON u.team_id = t.id " +
+                        "WHERE u.id > :after " +
+                        "ORDER BY u.id " +
+                        "FETCH FIRST :limit ROWS ONLY")
+        List<User> findAllAfter(@Bind("after") long after, @Bind("limit") int limit);
+
         @SqlQuery("SELECT u.*, t.name as team_name FROM users u " +
                         "LEFT JOIN teams t ON u.team_id = t.id " +
                         "WHERE u.team_id = :teamId")
@@ -47,15 +56,22 @@ public interface UserRepository {
         @SqlUpdate("DELETE FROM users WHERE id = :id")
         int delete(@Bind("id") Long id);
 
-        @SqlUpdate("UPDATE users set telegramId = null WHERE telegramId = :chatId")
+        // TELEGRAMID es texto: comparar con un numero convertiria la columna y no se
+        // usaria IDX_USER_TELEGRAMID (schemas/users_telegramid_index.sql)
+        @SqlUpdate("UPDATE users set telegramId = null WHERE telegramId = TO_CHAR(:chatId)")
         int forgetChatId(@Bind("chatId") long chatId);
 
-        @SqlQuery("SELECT * FROM users WHERE users.telegramId = :chatId")
+        @SqlQuery("SELECT * FROM users WHERE users.telegramId = TO_CHAR(:chatId)")
         Optional<User> findByChatId(@Bind("chatId") long chatId);
 
-        @SqlUpdate("UPDATE users SET telegramId = :chatId WHERE id = :id")
+        @SqlUpdate("UPDATE users SET telegramId = TO_CHAR(:chatId) WHERE id = :id")
         int setChatIdForUser(@Bind("id") long id, @Bind("chatId") long chatId);
 
+        // Carga inicial de BotChatIndex
+        @SqlQuery("SELECT id, name, team_id, telegramId FROM users WHERE telegramId IS NOT NULL")
+        @UseRowMapper(ChatUserMapper.class)
+        List<BotChatIndex.ChatUser> findChatLinks();
+
         @SqlQuery("SELECT u.*, t.name as team_name FROM users u " +
                         "LEFT JOIN teams t ON u.team_id = t.id " +
                         "WHERE LOWER(u.email) = LOWER(:email)")
@@ -72,47 +88,48 @@ public interface UserRepository {
 
         class UserMapper implements RowMapper<User> {
 
+                // Resuelve las columnas una vez por resultado; password y las de equipo
+                // solo vienen en algunas consultas
+                @Override
+                public RowMapper<User> specialize(ResultSet rs, StatementContext ctx) throws SQLException {
+                        ColumnIndex columns = ColumnIndex.of(rs, ctx);
+                        int id = columns.get("id");
+                        int name = columns.get("name");
+                        int email = columns.get("email");
+                        int password = columns.get("password");
+                        int role = columns.get("role");
+                        int telegramId = columns.get("telegramId");
+                        int teamId = columns.get("team_id");
+                        int teamRole = columns.get("team_role");
+                        int teamName = columns.get("team_name");
+
+                        return (row, rowCtx) -> {
+                                User user = new User();
+                                user.setId(row.getLong(id));
+                                user.setName(row.getString(name));
+                                user.setEmail(row.getString(email));
+                                user.setPassword(ColumnIndex.getString(row, password));
+                                user.setRole(row.getString(role));
+                                user.setTelegramId(row.getLong(telegramId));
+                                user.setTeamId(ColumnIndex.getLong(row, teamId));
+                                user.setTeamRole(ColumnIndex.getString(row, teamRole));
+                                user.setTeamName(ColumnIndex.getString(row, teamName));
+                                return user;
+                        };
+                }
+
                 @Override
                 public User map(ResultSet rs, StatementContext ctx) throws SQLException {
-                        User user = new User();
-                        user.setId(rs.getLong("id"));
-                        user.setName(rs.getString("name"));
-                        user.setEmail(rs.getString("email"));
-
-                        try {
-                                user.setPassword(rs.getString("password"));
-                        } catch (SQLException e) {
-                                user.setPassword(null);
-                        }
-
-                        user.setRole(rs.getString("role"));
-                        user.setTelegramId(rs.getLong("telegramId"));
-
-                        try {
-                                Long teamId = rs.getObject("team_id", Long.class);
-                                if (!rs.wasNull()) {
-                                        user.setTeamId(teamId);
-                                }
-                        } catch (SQLException e) {
-                                user.setTeamId(null);
-                        }
-
-                        try {
-                                user.setTeamRole(rs.getString("team_role"));
-                        } catch (SQLException e) {
-                                user.setTeamRole(null);
-                        }
-
-                        try {
-                                String teamName = rs.getString("team_name");
-                                if (!rs.wasNull()) {
-                                        user.setTeamName(teamName);
-                                }
-                        } catch (SQLException e) {
-                                user.setTeamName(null);
-                        }
-
-                        return user;
+                        return specialize(rs, ctx).map(rs, ctx);
+                }
+        }
+
+        class ChatUserMapper implements RowMapper<BotChatIndex.ChatUser> {
+
+                @Override
+                public BotChatIndex.ChatUser map(ResultSet rs, StatementContext ctx) throws SQLException {
+                        return new BotChatIndex.ChatUser(rs.getLong("id"), rs.getString("name"),
+                                        rs.getObject("team_id", Long.class), rs.getLong("telegramId"));
                 }
         }
 }
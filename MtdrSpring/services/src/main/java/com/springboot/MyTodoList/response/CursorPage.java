@@ -0,0 +1,58 @@
+package com.springboot.MyTodoList.response;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.List;
+import java.util.function.Function;
+
+// Pagina de resultados para paginacion por cursor (keyset). El cursor es opaco
+// para el cliente; internamente codifica el ultimo id devuelto.
+public class CursorPage<T> {
+    private static final String CURSOR_PREFIX = "id:";
+
+    private List<T> items;
+    private String nextCursor;
+
+    public CursorPage(List<T> items, String nextCursor) {
+        this.items = items;
+        this.nextCursor = nextCursor;
+    }
+
+    // Si la pagina vino llena puede haber mas filas: el siguiente cursor apunta al ultimo id
+    public static <T> CursorPage<T> of(List<T> items, int limit, Function<T, Long> idOf) {
+        String nextCursor = null;
+        if (limit > 0 && items.size() >= limit) {
+            nextCursor = encodeCursor(idOf.apply(items.get(items.size() - 1)));
+        }
+        return new CursorPage<>(items, nextCursor);
+    }
+
+    public static String encodeCursor(long lastId) {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString((CURSOR_PREFIX + lastId).getBytes(StandardCharsets.UTF_8));
+    }
+
+    // Un cursor vacio significa "primera pagina"
+    public static long decodeCursor(String cursor) {
+        if (cursor == null || cursor.isEmpty()) {
+            return 0L;
+        }
+        try {
+            String decoded = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            if (!decoded.startsWith(CURSOR_PREFIX)) {
+                throw new IllegalArgumentException("Invalid cursor");
+            }
+            return Long.parseLong(decoded.substring(CURSOR_PREFIX.length()));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid cursor", e);
+        }
+    }
+
+    public List<T> getItems() {
+        return items;
+    }
+
+    public String getNextCursor() {
+        return nextCursor;
+    }
+}
@@ -0,0 +1,271 @@
+package com.springboot.MyTodoList.service;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.jdbi.v3.core.Jdbi;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.springboot.MyTodoList.model.User;
+import com.springboot.MyTodoList.repository.UserRepository;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+// Chats de Telegram ligados a un usuario (USERS.TELEGRAMID), en memoria. Se carga
+// completo al arrancar el bot y lo mantienen el login/logout del bot y los cambios
+// de usuarios de UserController. Es local a cada instancia: se vuelve a cargar cada
+// bot.chat-index.refresh-minutes en un hilo aparte (una recarga a la vez; mientras
+// tanto se sirve el indice anterior), y un chat que no esta aqui se busca en USERS (un
+// login en otra replica, con webhook) y, si tampoco esta, no se vuelve a buscar
+// durante bot.chat-index.miss-ttl-seconds.
+@Component
+public class BotChatIndex {
+    private static final Logger logger = LoggerFactory.getLogger(BotChatIndex.class);
+
+    public static final class ChatUser {
+        private final long userId;
+        private final String name;
+        private final Long teamId;
+        private final long chatId;
+
+        public ChatUser(long userId, String name, Long teamId, long chatId) {
+            this.userId = userId;
+            this.name = name;
+            this.teamId = teamId;
+            this.chatId = chatId;
+        }
+
+        public long getUserId() {
+            return userId;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public Long getTeamId() {
+            return teamId;
+        }
+
+        public long getChatId() {
+            return chatId;
+        }
+    }
+
+    // Arriba de esto se limpian los fallos vencidos al guardar uno nuevo
+    private static final int MAX_MISSES = 10_000;
+
+    private final UserRepository userRepository;
+    private final long refreshMillis;
+    private final long missTtlMillis;
+
+    // Se escriben con el lock de this; se leen sin lock. load() los reemplaza
+    // completos, asi nadie ve el indice a medio cargar
+    private volatile Map<Long, ChatUser> byChat = new ConcurrentHashMap<>();
+    private volatile Map<Long, Long> chatByUser = new ConcurrentHashMap<>();
+    private volatile long loadedAt;
+    // Chats sin usuario en USERS -> hasta cuando no se vuelven a buscar
+    private final Map<Long, Long> misses = new ConcurrentHashMap<>();
+    // Cuenta los cambios, para saber si alguno ocurrio mientras load() leia la base
+    private long changes;
+    // Recarga en segundo plano cuando el indice vencio; a lo mas una en curso
+    private final ExecutorService refresher = VirtualThreads.newExecutor("bot-chat-index");
+    private final AtomicBoolean refreshing = new AtomicBoolean();
+    private final MeterRegistry registry;
+
+    public BotChatIndex(Jdbi jdbi,
+            @Value("${bot.chat-index.refresh-minutes:10}") long refreshMinutes,
+            @Value("${bot.chat-index.miss-ttl-seconds:30}") long missTtlSeconds,
+            MeterRegistry registry) {
+        this.userRepository = jdbi.onDemand(UserRepository.class);
+        this.refreshMillis = refreshMinutes * 60_000;
+        this.missTtlMillis = missTtlSeconds * 1000;
+        this.registry = registry;
+    }
+
+    @PostConstruct
+    void registerMetrics() {
+        Gauge.builder("bot.chat-index.size", this, index -> index.byChat.size())
+                .description("Telegram chats linked to a user, held in memory")
+                .register(registry);
+    }
+
+    // Al arrancar el bot; despues en refresher cuando el indice vence
+    public void load() {
+        // Un login a media lectura quedaria fuera de lo leido: se vuelve a leer
+        for (int attempt = 0; attempt < 3; attempt++) {
+            long before;
+            synchronized (this) {
+                before = changes;
+            }
+            List<ChatUser> links;
+            try {
+                links = userRepository.findChatLinks();
+            } catch (RuntimeException e) {
+                // Sin indice el bot sigue consultando USERS por chat
+                logger.error("Could not load the Telegram chat index", e);
+                return;
+            }
+            Map<Long, ChatUser> chats = new ConcurrentHashMap<>();
+            Map<Long, Long> users = new ConcurrentHashMap<>();
+            for (ChatUser link : links) {
+                chats.put(link.getChatId(), link);
+                users.put(link.getUserId(), link.getChatId());
+            }
+            synchronized (this) {
+                if (changes != before) {
+                    continue;
+                }
+                byChat = chats;
+                chatByUser = users;
+                loadedAt = System.currentTimeMillis();
+            }
+            logger.info("Loaded {} Telegram chats linked to users", links.size());
+            return;
+        }
+        logger.warn("Telegram chat index kept changing while loading; keeping the current one");
+    }
+
+    private boolean isLoaded() {
+        long loaded = loadedAt;
+        if (loaded == 0) {
+            return false;
+        }
+        long now = System.currentTimeMillis();
+        if (now - loaded > refreshMillis && refreshing.compareAndSet(false, true)) {
+            // Si la recarga falla se vuelve a intentar en el siguiente periodo
+            loadedAt = now;
+            try {
+                refresher.execute(() -> {
+                    try {
+                        load();
+                    } finally {
+                        refreshing.set(false);
+                    }
+                });
+            } catch (RejectedExecutionException e) {
+                refreshing.set(false);
+            }
+        }
+        return true;
+    }
+
+    @PreDestroy
+    void shutdown() {
+        refresher.shutdownNow();
+    }
+
+    // Antes de cargar el indice (o si fallo la carga) va a la base
+    public Optional<ChatUser> find(long chatId) {
+        if (!isLoaded()) {
+            return findInDatabase(chatId);
+        }
+        ChatUser cached = byChat.get(chatId);
+        if (cached != null) {
+            return Optional.of(cached);
+        }
+        Long missUntil = misses.get(chatId);
+        if (missUntil != null && missUntil > System.currentTimeMillis()) {
+            return Optional.empty();
+        }
+        long before;
+        synchronized (this) {
+            before = changes;
+        }
+        Optional<ChatUser> found = findInDatabase(chatId);
+        synchronized (this) {
+            // Un login o logout local mientras se leia ya dejo el indice al dia
+            if (changes == before) {
+                if (found.isPresent()) {
+                    misses.remove(chatId);
+                    forgetUser(found.get().getUserId());
+                    put(found.get());
+                } else {
+                    addMiss(chatId);
+                }
+            }
+        }
+        return found;
+    }
+
+    private Optional<ChatUser> findInDatabase(long chatId) {
+        return userRepository.findByChatId(chatId)
+                .map(user -> new ChatUser(user.getId(), user.getName(), user.getTeamId(), chatId));
+    }
+
+    // false solo si se sabe que el chat no esta ligado (evita el UPDATE de forgetChatId)
+    public boolean mayBeLinked(long chatId) {
+        return !isLoaded() || find(chatId).isPresent();
+    }
+
+    // Despues de setChatIdForUser: el usuario deja su chat anterior y el chat a su
+    // usuario anterior
+    public synchronized void link(User user, long chatId) {
+        misses.remove(chatId);
+        forgetChat(chatId);
+        forgetUser(user.getId());
+        put(new ChatUser(user.getId(), user.getName(), user.getTeamId(), chatId));
+    }
+
+    // Despues de forgetChatId
+    public synchronized void forgetChat(long chatId) {
+        ChatUser removed = byChat.remove(chatId);
+        if (removed != null) {
+            changes++;
+            chatByUser.remove(removed.getUserId(), chatId);
+        }
+    }
+
+    // UserController: nombre, equipo o TELEGRAMID pudieron cambiar, o se borro el usuario
+    public void refreshUser(Long userId) {
+        if (userId == null || loadedAt == 0) {
+            return;
+        }
+        Optional<User> user = userRepository.findById(userId);
+        synchronized (this) {
+            forgetUser(userId);
+            user.filter(u -> u.getTelegramId() != null && u.getTelegramId() != 0)
+                    .ifPresent(u -> {
+                        misses.remove(u.getTelegramId());
+                        forgetChat(u.getTelegramId());
+                        put(new ChatUser(u.getId(), u.getName(), u.getTeamId(), u.getTelegramId()));
+                    });
+        }
+    }
+
+    // Llamar con el lock de this
+    private void forgetUser(long userId) {
+        Long chatId = chatByUser.remove(userId);
+        if (chatId != null) {
+            changes++;
+            byChat.remove(chatId);
+        }
+    }
+
+    // Llamar con el lock de this
+    private void addMiss(long chatId) {
+        long now = System.currentTimeMillis();
+        if (misses.size() >= MAX_MISSES) {
+            misses.values().removeIf(until -> until <= now);
+        }
+        if (misses.size() < MAX_MISSES) {
+            misses.put(chatId, now + missTtlMillis);
+        }
+    }
+
+    private void put(ChatUser link) {
+        changes++;
+        byChat.put(link.getChatId(), link);
+        chatByUser.put(link.getUserId(), link.getChatId());
+    }
+}
@@ -0,0 +1,113 @@
+package com.springboot.MyTodoList.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Consultas del bot a Gemini fuera de los carriles: el carril del chat queda libre
+// para sus siguientes comandos mientras el modelo responde. Cada chat tiene a lo mas
+// bot.gemini.max-per-chat consultas en curso (las demas se rechazan) y en toda la
+// aplicacion corren a lo mas bot.gemini.max-concurrent a la vez (las demas esperan).
+@Component
+public class BotGeminiJobs {
+    private static final Logger logger = LoggerFactory.getLogger(BotGeminiJobs.class);
+
+    private final int maxPerChat;
+    private final Semaphore permits;
+    private final ExecutorService executor = VirtualThreads.newExecutor("bot-gemini");
+    // Consultas en curso o esperando permiso, por chat; sin entrada si no hay
+    private final ConcurrentHashMap<Long, Integer> inFlight = new ConcurrentHashMap<>();
+    private final AtomicInteger total = new AtomicInteger();
+
+    private final Timer duration;
+    private final Counter rejected;
+
+    public BotGeminiJobs(@Value("${bot.gemini.max-per-chat:1}") int maxPerChat,
+            @Value("${bot.gemini.max-concurrent:8}") int maxConcurrent,
+            MeterRegistry registry) {
+        this.maxPerChat = maxPerChat;
+        this.permits = new Semaphore(maxConcurrent, true);
+        this.duration = Timer.builder("bot.gemini.duration")
+                .description("Time a bot Gemini request takes, including the wait for a permit")
+                .register(registry);
+        this.rejected = Counter.builder("bot.gemini.rejected")
+                .description("Bot Gemini requests refused because the chat already had one running")
+                .register(registry);
+        Gauge.builder("bot.gemini.in-flight", total, AtomicInteger::get)
+                .description("Bot Gemini requests running or waiting for a permit")
+                .register(registry);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    // false si el chat ya llego a su limite; el job no se corre
+    public boolean submit(long chatId, Runnable job) {
+        if (!reserve(chatId)) {
+            rejected.increment();
+            return false;
+        }
+        try {
+            executor.execute(() -> run(chatId, job));
+        } catch (RejectedExecutionException e) {
+            release(chatId);
+            throw e;
+        }
+        return true;
+    }
+
+    private void run(long chatId, Runnable job) {
+        long started = System.nanoTime();
+        try {
+            permits.acquire();
+            try {
+                job.run();
+            } finally {
+                permits.release();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (RuntimeException e) {
+            logger.error("Gemini job for chat {} failed", chatId, e);
+        } finally {
+            release(chatId);
+            duration.record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private boolean reserve(long chatId) {
+        boolean[] reserved = new boolean[1];
+        inFlight.compute(chatId, (id, count) -> {
+            int current = count == null ? 0 : count;
+            if (current >= maxPerChat) {
+                return count;
+            }
+            reserved[0] = true;
+            return current + 1;
+        });
+        if (reserved[0]) {
+            total.incrementAndGet();
+        }
+        return reserved[0];
+    }
+
+    private void release(long chatId) {
+        inFlight.computeIfPresent(chatId, (id, count) -> count > 1 ? count - 1 : null);
+        total.decrementAndGet();
+    }
+}
@@ -0,0 +1,363 @@
+package com.springboot.MyTodoList.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.telegram.telegrambots.meta.api.methods.BotApiMethod;
+import org.telegram.telegrambots.meta.api.methods.send.SendMessage;
+import org.telegram.telegrambots.meta.api.methods.updatingmessages.EditMessageText;
+import org.telegram.telegrambots.meta.api.objects.Message;
+import org.telegram.telegrambots.meta.exceptions.TelegramApiException;
+import org.telegram.telegrambots.meta.exceptions.TelegramApiRequestException;
+
+import javax.annotation.PreDestroy;
+import java.io.Serializable;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Cola de salida de mensajes del bot. send() solo encola y regresa; un hilo
+// programador reparte los envios respetando dos cubetas de tokens, una global
+// (bot.sender.global-per-second, Telegram acepta unos 30 por segundo) y una por chat
+// (bot.sender.chat-per-second, alrededor de 1 por segundo con rafagas cortas). Cada
+// chat tiene a lo mas un envio en curso, asi sus mensajes llegan en orden.
+//
+// Los textos seguidos al mismo chat se juntan en uno cuando el primero no lleva
+// teclado (el teclado del ultimo se conserva). Un 429 reintenta despues de su
+// retry_after, hasta bot.sender.max-retries veces. Las ediciones (editMessageText)
+// van por la misma cola del chat y gastan tokens igual que un envio. Un chat con
+// bot.sender.chat-queue-capacity mensajes esperando rechaza los siguientes.
+//
+// Las llamadas salen por bot.sender.workers hilos de plataforma: esperan conexion
+// en el pool de TelegramHttpTransport (del mismo tamano) y un hilo virtual se
+// quedaria fijo a su carrier mientras tanto.
+@Component
+public class BotMessageSender {
+    private static final Logger logger = LoggerFactory.getLogger(BotMessageSender.class);
+
+    // Limite de Telegram para el texto de un mensaje
+    private static final int MAX_TEXT_LENGTH = 4096;
+    private static final String SEPARATOR = "\n\n";
+    private static final int TOO_MANY_REQUESTS = 429;
+
+    // Quien hace la llamada a Telegram (BotController::execute)
+    public interface Transport {
+        Serializable send(BotApiMethod<? extends Serializable> method) throws TelegramApiException;
+    }
+
+    private final double chatPerSecond;
+    private final int chatBurst;
+    private final int maxRetries;
+    private final int workerCount;
+    private final int chatQueueCapacity;
+
+    // Las cubetas solo se tocan desde el hilo programador
+    private final TokenBucket global;
+    private final ConcurrentHashMap<Long, ChatQueue> chats = new ConcurrentHashMap<>();
+    private final AtomicInteger queued = new AtomicInteger();
+
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "bot-sender");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final ExecutorService workers;
+
+    private final Counter sent;
+    private final Counter coalesced;
+    private final Counter retried;
+    private final Counter failed;
+    private final Counter dropped;
+
+    public BotMessageSender(@Value("${bot.sender.global-per-second:30}") double globalPerSecond,
+            @Value("${bot.sender.chat-per-second:1}") double chatPerSecond,
+            @Value("${bot.sender.chat-burst:3}") int chatBurst,
+            @Value("${bot.sender.max-retries:3}") int maxRetries,
+            @Value("${bot.sender.workers:10}") int workerCount,
+            @Value("${bot.sender.chat-queue-capacity:50}") int chatQueueCapacity,
+            MeterRegistry registry) {
+        this.chatPerSecond = chatPerSecond;
+        this.chatBurst = chatBurst;
+        this.maxRetries = maxRetries;
+        this.global = new TokenBucket(globalPerSecond, (int) Math.ceil(globalPerSecond));
+        this.workerCount = Math.max(1, workerCount);
+        this.chatQueueCapacity = Math.max(1, chatQueueCapacity);
+        this.workers = Executors.newFixedThreadPool(this.workerCount, runnable -> {
+            Thread thread = new Thread(runnable, "bot-sender-worker");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        sent = messages(registry, "sent");
+        coalesced = messages(registry, "coalesced");
+        retried = messages(registry, "retried");
+        failed = messages(registry, "failed");
+        dropped = messages(registry, "dropped");
+        Gauge.builder("bot.sender.queue.depth", queued, AtomicInteger::get)
+                .description("Outbound bot messages waiting to be sent")
+                .register(registry);
+
+        // Las colas de chats sin mensajes y con la cubeta llena se descartan
+        scheduler.scheduleWithFixedDelay(this::sweep, 1, 1, TimeUnit.MINUTES);
+    }
+
+    private static Counter messages(MeterRegistry registry, String result) {
+        return Counter.builder("bot.sender.messages")
+                .description("Outbound bot messages by result")
+                .tag("result", result)
+                .register(registry);
+    }
+
+    // Llamadas a Telegram en curso a la vez como maximo
+    public int getWorkerCount() {
+        return workerCount;
+    }
+
+    @PreDestroy
+    void shutdown() {
+        scheduler.shutdownNow();
+        workers.shutdownNow();
+    }
+
+    public void send(long chatId, SendMessage message, Transport transport) {
+        enqueue(chatId, new Outgoing(message, transport, null));
+    }
+
+    // No se junta con otros mensajes: el Message que devuelve Telegram sirve para
+    // editarlo despues. Falla si el envio falla
+    public CompletableFuture<Message> sendForEdit(long chatId, SendMessage message, Transport transport) {
+        CompletableFuture<Serializable> result = new CompletableFuture<>();
+        enqueue(chatId, new Outgoing(message, transport, result));
+        return result.thenApply(Message.class::cast);
+    }
+
+    public void edit(long chatId, EditMessageText edit, Transport transport) {
+        enqueue(chatId, new Outgoing(edit, transport, null));
+    }
+
+    private void enqueue(long chatId, Outgoing outgoing) {
+        while (true) {
+            ChatQueue chat = chats.computeIfAbsent(chatId, ChatQueue::new);
+            synchronized (chat) {
+                if (chat.closed) {
+                    continue;
+                }
+                if (chat.pending.size() >= chatQueueCapacity) {
+                    break;
+                }
+                chat.pending.addLast(outgoing);
+                queued.incrementAndGet();
+                schedule(chat);
+                return;
+            }
+        }
+        // Un chat que genera mensajes mas rapido de lo que Telegram deja enviar
+        dropped.increment();
+        logger.warn("Dropping message for chat {}: {} messages already waiting", chatId, chatQueueCapacity);
+        outgoing.fail(new RejectedExecutionException("Outbound queue full for chat " + chatId));
+    }
+
+    // Llamar con el lock del chat
+    private void schedule(ChatQueue chat) {
+        if (!chat.scheduled && !chat.inFlight && !chat.pending.isEmpty()) {
+            chat.scheduled = true;
+            scheduler.execute(() -> pump(chat));
+        }
+    }
+
+    // En el hilo programador: envia el siguiente mensaje del chat si hay tokens o
+    // se vuelve a programar para cuando los haya
+    private void pump(ChatQueue chat) {
+        Outgoing next;
+        synchronized (chat) {
+            long now = System.nanoTime();
+            long wait = Math.max(chat.retryAt - now,
+                    Math.max(chat.bucket.nanosUntilToken(now), global.nanosUntilToken(now)));
+            if (wait > 0) {
+                scheduler.schedule(() -> pump(chat), wait, TimeUnit.NANOSECONDS);
+                return;
+            }
+            chat.bucket.take();
+            global.take();
+            next = coalesce(chat.pending);
+            chat.scheduled = false;
+            chat.inFlight = true;
+        }
+        workers.execute(() -> deliver(chat, next));
+    }
+
+    private Outgoing coalesce(Deque<Outgoing> pending) {
+        Outgoing first = pending.pollFirst();
+        queued.decrementAndGet();
+        while (!pending.isEmpty() && first.canAbsorb(pending.peekFirst())) {
+            first = first.merge(pending.pollFirst());
+            queued.decrementAndGet();
+            coalesced.increment();
+        }
+        return first;
+    }
+
+    private void deliver(ChatQueue chat, Outgoing outgoing) {
+        try {
+            Serializable response = outgoing.transport.send(outgoing.method);
+            sent.increment();
+            outgoing.complete(response);
+        } catch (TelegramApiRequestException e) {
+            Integer retryAfter = e.getParameters() == null ? null : e.getParameters().getRetryAfter();
+            if (Objects.equals(e.getErrorCode(), TOO_MANY_REQUESTS) && retryAfter != null
+                    && outgoing.attempts < maxRetries) {
+                retried.increment();
+                logger.warn("Telegram throttled chat {}; retrying in {} s", chat.chatId, retryAfter);
+                synchronized (chat) {
+                    outgoing.attempts++;
+                    chat.pending.addFirst(outgoing);
+                    queued.incrementAndGet();
+                    chat.retryAt = System.nanoTime() + TimeUnit.SECONDS.toNanos(retryAfter);
+                }
+            } else {
+                failed.increment();
+                outgoing.fail(e);
+                logger.error("Telegram API error sending message to chat {}: {}", chat.chatId, e.getMessage(), e);
+            }
+        } catch (TelegramApiException e) {
+            failed.increment();
+            outgoing.fail(e);
+            logger.error("Telegram API error sending message to chat {}: {}", chat.chatId, e.getMessage(), e);
+        } catch (RuntimeException e) {
+            failed.increment();
+            outgoing.fail(e);
+            logger.error("Unexpected error sending message to chat {}: {}", chat.chatId, e.getMessage(), e);
+        } finally {
+            synchronized (chat) {
+                chat.inFlight = false;
+                schedule(chat);
+            }
+        }
+    }
+
+    private void sweep() {
+        long now = System.nanoTime();
+        chats.values().removeIf(chat -> {
+            synchronized (chat) {
+                if (chat.pending.isEmpty() && !chat.inFlight && !chat.scheduled && chat.bucket.isFull(now)) {
+                    chat.closed = true;
+                    return true;
+                }
+                return false;
+            }
+        });
+    }
+
+    private final class ChatQueue {
+        final long chatId;
+        // Protegidos por el lock del chat
+        final Deque<Outgoing> pending = new ArrayDeque<>();
+        final TokenBucket bucket = new TokenBucket(chatPerSecond, chatBurst);
+        boolean scheduled;
+        boolean inFlight;
+        boolean closed;
+        long retryAt = System.nanoTime();
+
+        ChatQueue(long chatId) {
+            this.chatId = chatId;
+        }
+    }
+
+    private static final class Outgoing {
+        final BotApiMethod<? extends Serializable> method;
+        final Transport transport;
+        // null si nadie espera la respuesta de Telegram
+        final CompletableFuture<Serializable> result;
+        int attempts;
+
+        Outgoing(BotApiMethod<? extends Serializable> method, Transport transport,
+                CompletableFuture<Serializable> result) {
+            this.method = method;
+            this.transport = transport;
+            this.result = result;
+        }
+
+        void complete(Serializable response) {
+            if (result != null) {
+                result.complete(response);
+            }
+        }
+
+        void fail(Exception e) {
+            if (result != null) {
+                result.completeExceptionally(e);
+            }
+        }
+
+        // Solo envios de texto plano que nadie espera: sin teclado en este mensaje y
+        // mismas opciones de formato
+        boolean canAbsorb(Outgoing next) {
+            if (result != null || next.result != null
+                    || !(method instanceof SendMessage) || !(next.method instanceof SendMessage)) {
+                return false;
+            }
+            SendMessage message = (SendMessage) method;
+            SendMessage nextMessage = (SendMessage) next.method;
+            return transport == next.transport
+                    && message.getReplyMarkup() == null
+                    && Objects.equals(message.getParseMode(), nextMessage.getParseMode())
+                    && message.getText().length() + SEPARATOR.length() + nextMessage.getText().length()
+                            <= MAX_TEXT_LENGTH;
+        }
+
+        Outgoing merge(Outgoing next) {
+            SendMessage message = (SendMessage) method;
+            SendMessage nextMessage = (SendMessage) next.method;
+            SendMessage merged = new SendMessage();
+            merged.setChatId(message.getChatId());
+            merged.setText(message.getText() + SEPARATOR + nextMessage.getText());
+            merged.setParseMode(message.getParseMode());
+            merged.setReplyMarkup(nextMessage.getReplyMarkup());
+            return new Outgoing(merged, transport, null);
+        }
+    }
+
+    private static final class TokenBucket {
+        final double perNano;
+        final int capacity;
+        double tokens;
+        long refilledAt = System.nanoTime();
+
+        TokenBucket(double perSecond, int capacity) {
+            this.perNano = perSecond / TimeUnit.SECONDS.toNanos(1);
+            this.capacity = Math.max(1, capacity);
+            this.tokens = this.capacity;
+        }
+
+        private void refill(long now) {
+            tokens = Math.min(capacity, tokens + (now - refilledAt) * perNano);
+            refilledAt = now;
+        }
+
+        long nanosUntilToken(long now) {
+            refill(now);
+            return tokens >= 1 ? 0 : (long) Math.ceil((1 - tokens) / perNano);
+        }
+
+        void take() {
+            tokens -= 1;
+        }
+
+        boolean isFull(long now) {
+            refill(now);
+            return tokens >= capacity;
+        }
+    }
+}
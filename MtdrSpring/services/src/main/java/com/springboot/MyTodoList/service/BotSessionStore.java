@@ -0,0 +1,289 @@
+package com.springboot.MyTodoList.service;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Function;
+
+// Estado de conversacion del bot por chat, en dos niveles. En memoria se guardan a
+// lo mas maxEntries chats (LRU) y se expulsan los inactivos por mas de idleTtl; la
+// copia persistida (Persistence, p. ej. BotSessionRepository) se escribe al terminar
+// cada update que cambio el estado. Un chat expulsado, o uno que atendia otro pod
+// antes de un cambio de lider, se vuelve a leer de ahi.
+//
+// Con revalidate (webhook con varias replicas) cada acceso compara la version
+// persistida y relee el estado si otra replica lo cambio.
+public class BotSessionStore<S> {
+    private static final Logger logger = LoggerFactory.getLogger(BotSessionStore.class);
+
+    // Las sesiones persistidas viejas se borran a lo mas una vez por hora
+    private static final long PURGE_INTERVAL_MILLIS = Duration.ofHours(1).toMillis();
+
+    public interface Persistence {
+        Optional<Stored> load(long chatId);
+
+        // null si el chat no tiene sesion guardada
+        Long findVersion(long chatId);
+
+        void save(long chatId, String state, long version);
+
+        int purgeOlderThanDays(int days);
+    }
+
+    // Sin copia persistida: solo memoria
+    public static final Persistence NONE = new Persistence() {
+        @Override
+        public Optional<Stored> load(long chatId) {
+            return Optional.empty();
+        }
+
+        @Override
+        public Long findVersion(long chatId) {
+            return null;
+        }
+
+        @Override
+        public void save(long chatId, String state, long version) {
+        }
+
+        @Override
+        public int purgeOlderThanDays(int days) {
+            return 0;
+        }
+    };
+
+    public static final class Stored {
+        private final String state;
+        private final long version;
+
+        public Stored(String state, long version) {
+            this.state = state;
+            this.version = version;
+        }
+
+        public String getState() {
+            return state;
+        }
+
+        public long getVersion() {
+            return version;
+        }
+    }
+
+    private final Class<S> type;
+    private final int maxEntries;
+    private final long idleTtlMillis;
+    private final int persistedTtlDays;
+    private final boolean revalidate;
+    private final Persistence persistence;
+    private final ObjectMapper mapper = new ObjectMapper()
+            .setSerializationInclusion(JsonInclude.Include.NON_NULL)
+            .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+
+    // Protegidos por this
+    private final Map<Long, Entry<S>> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private long lastPurge = System.currentTimeMillis();
+
+    private final Counter hits;
+    private final Counter loaded;
+    private final Counter created;
+    private final Counter sizeEvictions;
+    private final Counter idleEvictions;
+    private final MeterRegistry registry;
+
+    public BotSessionStore(Class<S> type, int maxEntries, Duration idleTtl, int persistedTtlDays,
+            boolean revalidate, Persistence persistence, MeterRegistry registry) {
+        this.type = type;
+        this.maxEntries = maxEntries;
+        this.idleTtlMillis = idleTtl.toMillis();
+        this.persistedTtlDays = persistedTtlDays;
+        this.revalidate = revalidate;
+        this.persistence = persistence;
+
+        hits = requests(registry, "hit");
+        loaded = requests(registry, "loaded");
+        created = requests(registry, "created");
+        sizeEvictions = evictions(registry, "size");
+        idleEvictions = evictions(registry, "idle");
+        this.registry = registry;
+    }
+
+    // Lo llama quien crea el store (TelegramBotService al arrancar), no el constructor:
+    // el gauge guarda una referencia a this
+    public void registerMetrics() {
+        Gauge.builder("bot.sessions.size", this, BotSessionStore::size)
+                .description("Bot conversations held in memory")
+                .register(registry);
+    }
+
+    // Solo memoria, con los limites por defecto
+    public static <S> BotSessionStore<S> inMemory(Class<S> type) {
+        return new BotSessionStore<>(type, 10_000, Duration.ofHours(24), 0, false, NONE, new SimpleMeterRegistry());
+    }
+
+    private static Counter requests(MeterRegistry registry, String result) {
+        return Counter.builder("bot.sessions.requests")
+                .description("Bot session lookups by where the state came from")
+                .tag("result", result)
+                .register(registry);
+    }
+
+    private static Counter evictions(MeterRegistry registry, String cause) {
+        return Counter.builder("bot.sessions.evictions")
+                .description("Bot sessions removed from memory")
+                .tag("cause", cause)
+                .register(registry);
+    }
+
+    // Memoria, si no la copia persistida, si no creator
+    public S computeIfAbsent(long chatId, Function<Long, S> creator) {
+        Entry<S> entry = memoryEntry(chatId);
+        if (entry != null && (!revalidate || isCurrent(chatId, entry))) {
+            hits.increment();
+            return entry.state;
+        }
+
+        Optional<Stored> stored = persistence.load(chatId);
+        S state = stored.map(row -> decode(chatId, row.getState())).orElse(null);
+        if (state != null) {
+            loaded.increment();
+            return remember(chatId, new Entry<>(state, stored.get().getState(), stored.get().getVersion()));
+        }
+        created.increment();
+        return remember(chatId, new Entry<>(creator.apply(chatId), null, 0));
+    }
+
+    // Solo memoria; null si el chat no esta cargado
+    public S get(long chatId) {
+        Entry<S> entry = memoryEntry(chatId);
+        return entry == null ? null : entry.state;
+    }
+
+    public void put(long chatId, S state) {
+        remember(chatId, new Entry<>(state, null, 0));
+    }
+
+    // Al terminar un update: escribe el estado del chat si cambio desde la ultima vez
+    public void save(long chatId) {
+        if (persistence == NONE) {
+            return;
+        }
+        Entry<S> entry = memoryEntry(chatId);
+        if (entry == null) {
+            return;
+        }
+        String encoded;
+        try {
+            encoded = mapper.writeValueAsString(entry.state);
+        } catch (JsonProcessingException e) {
+            logger.error("Could not encode bot session for chat {}", chatId, e);
+            return;
+        }
+        if (encoded.equals(entry.saved)) {
+            return;
+        }
+        long version = ThreadLocalRandom.current().nextLong();
+        persistence.save(chatId, encoded, version);
+        synchronized (this) {
+            entry.saved = encoded;
+            entry.version = version;
+        }
+        purgeIfDue();
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    private boolean isCurrent(long chatId, Entry<S> entry) {
+        Long version = persistence.findVersion(chatId);
+        return version == null || version == entry.version;
+    }
+
+    private S decode(long chatId, String encoded) {
+        try {
+            return mapper.readValue(encoded, type);
+        } catch (JsonProcessingException e) {
+            logger.warn("Discarding unreadable bot session for chat {}: {}", chatId, e.getOriginalMessage());
+            return null;
+        }
+    }
+
+    private synchronized Entry<S> memoryEntry(long chatId) {
+        evictIdle();
+        Entry<S> entry = entries.get(chatId);
+        if (entry != null) {
+            entry.touchedAt = System.currentTimeMillis();
+        }
+        return entry;
+    }
+
+    private synchronized S remember(long chatId, Entry<S> entry) {
+        entries.put(chatId, entry);
+        if (entries.size() > maxEntries) {
+            Iterator<Entry<S>> eldest = entries.values().iterator();
+            eldest.next();
+            eldest.remove();
+            sizeEvictions.increment();
+        }
+        return entry.state;
+    }
+
+    // El orden de acceso deja primero a los chats inactivos por mas tiempo
+    private void evictIdle() {
+        long oldest = System.currentTimeMillis() - idleTtlMillis;
+        Iterator<Entry<S>> eldest = entries.values().iterator();
+        while (eldest.hasNext()) {
+            if (eldest.next().touchedAt > oldest) {
+                return;
+            }
+            eldest.remove();
+            idleEvictions.increment();
+        }
+    }
+
+    private void purgeIfDue() {
+        if (persistedTtlDays <= 0) {
+            return;
+        }
+        synchronized (this) {
+            long now = System.currentTimeMillis();
+            if (now - lastPurge < PURGE_INTERVAL_MILLIS) {
+                return;
+            }
+            lastPurge = now;
+        }
+        int purged = persistence.purgeOlderThanDays(persistedTtlDays);
+        if (purged > 0) {
+            logger.info("Purged {} bot sessions idle for more than {} days", purged, persistedTtlDays);
+        }
+    }
+
+    private static final class Entry<S> {
+        final S state;
+        // Ultima version escrita o leida de la copia persistida
+        String saved;
+        long version;
+        long touchedAt = System.currentTimeMillis();
+
+        Entry(S state, String saved, long version) {
+            this.state = state;
+            this.saved = saved;
+            this.version = version;
+        }
+    }
+}
@@ -0,0 +1,163 @@
+package com.springboot.MyTodoList.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+
+// Reparte los updates del bot en carriles por chatId. Cada carril tiene una cola
+// acotada y un solo hilo virtual: los updates de un chat se procesan en orden y
+// los de chats en carriles distintos en paralelo, asi un
+// login con BCrypt o una llamada a Gemini no frena a los demas chats. Con la cola
+// llena el hilo de long polling espera hasta bot.dispatcher.offer-timeout-ms (deja
+// de pedir updates a Telegram) y despues rechaza el update.
+@Component
+public class BotUpdateDispatcher {
+    private static final Logger logger = LoggerFactory.getLogger(BotUpdateDispatcher.class);
+
+    private final Lane[] lanes;
+    private final long offerTimeoutMillis;
+    private final ExecutorService executor = VirtualThreads.newExecutor("bot-lane");
+    // Solo shutdown() detiene los carriles; cualquier otra interrupcion se ignora
+    private volatile boolean stopped;
+    private final MeterRegistry registry;
+    private final Timer queueWait;
+    private final Counter rejected;
+
+    public BotUpdateDispatcher(@Value("${bot.dispatcher.lanes:32}") int laneCount,
+            @Value("${bot.dispatcher.queue-capacity:50}") int queueCapacity,
+            @Value("${bot.dispatcher.offer-timeout-ms:5000}") long offerTimeoutMillis,
+            MeterRegistry registry) {
+        this.offerTimeoutMillis = offerTimeoutMillis;
+        this.registry = registry;
+        this.lanes = new Lane[laneCount];
+        for (int i = 0; i < laneCount; i++) {
+            lanes[i] = new Lane(queueCapacity);
+        }
+
+        queueWait = Timer.builder("bot.dispatcher.wait")
+                .description("Time a Telegram update waits in its lane before processing")
+                .publishPercentileHistogram()
+                .register(registry);
+        rejected = Counter.builder("bot.dispatcher.rejected")
+                .description("Telegram updates rejected because their lane stayed full")
+                .register(registry);
+    }
+
+    // Fuera del constructor: los carriles y los gauges guardan una referencia a this
+    @PostConstruct
+    public void start() {
+        Gauge.builder("bot.dispatcher.queue.depth", this, BotUpdateDispatcher::queuedUpdates)
+                .description("Telegram updates waiting in all lanes")
+                .register(registry);
+        Gauge.builder("bot.dispatcher.queue.max", this, BotUpdateDispatcher::deepestLane)
+                .description("Telegram updates waiting in the fullest lane")
+                .register(registry);
+
+        for (Lane lane : lanes) {
+            executor.execute(lane::drain);
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        stopped = true;
+        executor.shutdownNow();
+    }
+
+    // false si el carril del chat siguio lleno durante todo el plazo
+    public boolean dispatch(long chatId, Runnable work) {
+        return dispatch(chatId, work, offerTimeoutMillis);
+    }
+
+    // timeoutMillis=0 no espera (webhook: Telegram reintenta la entrega)
+    public boolean dispatch(long chatId, Runnable work, long timeoutMillis) {
+        Lane lane = lanes[Math.floorMod(Long.hashCode(chatId), lanes.length)];
+        try {
+            if (lane.queue.offer(new Queued(work), timeoutMillis, TimeUnit.MILLISECONDS)) {
+                return true;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        rejected.increment();
+        logger.warn("Rejected update for chat {}: lane full for {} ms", chatId, timeoutMillis);
+        return false;
+    }
+
+    // Duracion del procesamiento por comando; command debe venir de un conjunto acotado
+    public void recordCommand(String command, long nanos) {
+        Timer.builder("bot.update.duration")
+                .description("Time spent processing a Telegram update, by command")
+                .tag("command", command)
+                .publishPercentileHistogram()
+                .register(registry)
+                .record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    private int queuedUpdates() {
+        int total = 0;
+        for (Lane lane : lanes) {
+            total += lane.queue.size();
+        }
+        return total;
+    }
+
+    private int deepestLane() {
+        int deepest = 0;
+        for (Lane lane : lanes) {
+            deepest = Math.max(deepest, lane.queue.size());
+        }
+        return deepest;
+    }
+
+    private static final class Queued {
+        final Runnable work;
+        final long enqueuedAt = System.nanoTime();
+
+        Queued(Runnable work) {
+            this.work = work;
+        }
+    }
+
+    private final class Lane {
+        final BlockingQueue<Queued> queue;
+
+        Lane(int capacity) {
+            this.queue = new ArrayBlockingQueue<>(capacity);
+        }
+
+        void drain() {
+            while (!stopped) {
+                Queued next;
+                try {
+                    next = queue.take();
+                } catch (InterruptedException e) {
+                    // Una interrupcion suelta no deja al carril parado para siempre
+                    continue;
+                }
+                queueWait.record(System.nanoTime() - next.enqueuedAt, TimeUnit.NANOSECONDS);
+                try {
+                    next.work.run();
+                } catch (RuntimeException e) {
+                    // BotController ya atrapa sus errores; esto solo mantiene vivo el carril
+                    logger.error("Unhandled exception in bot update lane", e);
+                } finally {
+                    // Un handler que deja la marca de interrupcion no afecta al siguiente
+                    Thread.interrupted();
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,191 @@
+package com.springboot.MyTodoList.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Optional;
+import java.util.TreeSet;
+import java.util.stream.Collectors;
+
+// Avance del long polling de un periodo de liderazgo. A Telegram solo se le confirma
+// (offset de getUpdates) hasta el ultimo update_id con todos los anteriores ya
+// procesados, y ese punto se persiste junto con los procesados que quedaron por
+// encima. Si el pod muere con updates en los carriles, Telegram todavia los tiene y
+// el siguiente lider los vuelve a pedir; los que ya estaban procesados se saltan.
+//
+// Se crea una instancia por cada vez que el pod toma el liderazgo; al cerrarla deja
+// de escribir, asi los carriles que terminan tarde no pisan lo del nuevo lider.
+public class BotUpdateOffsets {
+    private static final Logger logger = LoggerFactory.getLogger(BotUpdateOffsets.class);
+
+    // getUpdates entrega a lo mas 100 a partir del offset, asi que por encima del
+    // ultimo confirmado nunca hay mas que eso
+    private static final int MAX_DONE_ABOVE = 100;
+
+    public interface Persistence {
+        Optional<Saved> load(String botName);
+
+        void save(String botName, long lastUpdateId, String doneAbove);
+    }
+
+    // Sin copia persistida: el avance solo vive mientras dure el liderazgo
+    public static final Persistence NONE = new Persistence() {
+        @Override
+        public Optional<Saved> load(String botName) {
+            return Optional.empty();
+        }
+
+        @Override
+        public void save(String botName, long lastUpdateId, String doneAbove) {
+        }
+    };
+
+    public static final class Saved {
+        private final long lastUpdateId;
+        private final String doneAbove;
+        private final long ageMillis;
+
+        public Saved(long lastUpdateId, String doneAbove, long ageMillis) {
+            this.lastUpdateId = lastUpdateId;
+            this.doneAbove = doneAbove;
+            this.ageMillis = ageMillis;
+        }
+
+        public long getLastUpdateId() {
+            return lastUpdateId;
+        }
+
+        public String getDoneAbove() {
+            return doneAbove;
+        }
+
+        // Cuanto hace que el lider anterior escribio (su ultimo latido)
+        public long getAgeMillis() {
+            return ageMillis;
+        }
+    }
+
+    private final String botName;
+    private final Persistence persistence;
+    private final Counter skipped;
+    // Una escritura a la vez, y ninguna despues de close()
+    private final Object flushLock = new Object();
+
+    // Protegidos por this
+    private final TreeSet<Integer> inFlight = new TreeSet<>();
+    private final TreeSet<Integer> doneAbove = new TreeSet<>();
+    // Todo update_id <= lastDone ya esta procesado
+    private int lastDone;
+    private boolean closed;
+
+    public BotUpdateOffsets(String botName, Persistence persistence, MeterRegistry registry) {
+        this.botName = botName;
+        this.persistence = persistence;
+        this.skipped = Counter.builder("bot.updates.skipped")
+                .description("Telegram updates fetched again after a failover but already processed")
+                .register(registry);
+    }
+
+    // Lee el punto guardado por el lider anterior; vacio si no habia
+    public synchronized Optional<Saved> load() {
+        Optional<Saved> saved = persistence.load(botName);
+        saved.ifPresent(row -> {
+            lastDone = (int) row.getLastUpdateId();
+            if (row.getDoneAbove() != null && !row.getDoneAbove().isBlank()) {
+                for (String id : row.getDoneAbove().split(",")) {
+                    doneAbove.add(Integer.parseInt(id.trim()));
+                }
+            }
+            logger.info("Resuming Telegram updates after update_id {} ({} already processed above it)",
+                    lastDone, doneAbove.size());
+        });
+        return saved;
+    }
+
+    // Offset para getUpdates: confirma solo lo que ya se proceso
+    public synchronized int nextOffset() {
+        return lastDone + 1;
+    }
+
+    // true si el update hay que procesarlo; false si ya se proceso o ya esta en curso
+    // (getUpdates devuelve otra vez los que no se han confirmado)
+    public synchronized boolean claim(int updateId) {
+        if (closed || inFlight.contains(updateId)) {
+            return false;
+        }
+        if (updateId <= lastDone || doneAbove.contains(updateId)) {
+            skipped.increment();
+            advance();
+            return false;
+        }
+        inFlight.add(updateId);
+        return true;
+    }
+
+    public synchronized void finish(int updateId) {
+        if (!inFlight.remove(updateId)) {
+            return;
+        }
+        doneAbove.add(updateId);
+        advance();
+        notifyAll();
+    }
+
+    // Hasta antes del update en curso mas viejo
+    private void advance() {
+        int limit = inFlight.isEmpty() ? Integer.MAX_VALUE : inFlight.first();
+        while (!doneAbove.isEmpty() && doneAbove.first() < limit) {
+            lastDone = doneAbove.pollFirst();
+        }
+    }
+
+    // Para el hilo de long polling cuando todo lo que devolvio Telegram ya estaba en
+    // curso: espera a que termine alguno en vez de volver a pedir enseguida
+    public synchronized void awaitProgress(long timeoutMillis) throws InterruptedException {
+        if (!inFlight.isEmpty()) {
+            wait(timeoutMillis);
+        }
+    }
+
+    // Al perder el liderazgo: espera a que los carriles terminen lo que tienen
+    public synchronized void awaitIdle(long timeoutMillis) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + timeoutMillis;
+        long remaining = timeoutMillis;
+        while (!inFlight.isEmpty() && remaining > 0) {
+            wait(remaining);
+            remaining = deadline - System.currentTimeMillis();
+        }
+    }
+
+    // Escribe el punto actual; tambien sirve de latido del lider
+    public void flush() {
+        synchronized (flushLock) {
+            long last;
+            String done;
+            synchronized (this) {
+                if (closed) {
+                    return;
+                }
+                last = lastDone;
+                done = doneAbove.stream()
+                        .limit(MAX_DONE_ABOVE)
+                        .map(String::valueOf)
+                        .collect(Collectors.joining(","));
+            }
+            persistence.save(botName, last, done);
+        }
+    }
+
+    // Ultima escritura; despues de esto la instancia ya no toca la base
+    public void close() {
+        synchronized (flushLock) {
+            flush();
+            synchronized (this) {
+                closed = true;
+                notifyAll();
+            }
+        }
+    }
+}
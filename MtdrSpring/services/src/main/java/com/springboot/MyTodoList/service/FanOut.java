@@ -0,0 +1,186 @@
+package com.springboot.MyTodoList.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Corre consultas independientes de una misma peticion en paralelo, cada una en su
+// hilo virtual. Un semaforo compartido acota cuantas corren a la vez en toda la
+// aplicacion (fanout.max-concurrent, por debajo del maximo del pool UCP) y cada
+// peticion tiene un plazo (fanout.deadline-ms); al vencer se cancelan las ramas
+// pendientes y se lanza DeadlineExceededException.
+//
+// Solo vale la pena para lecturas caras e independientes; un par de consultas por
+// llave primaria va en linea, sin esperar permiso del semaforo.
+//
+//     try (FanOut.Scope scope = fanOut.open("team-hours")) {
+//         FanOut.Branch<List<Kpi>> hours = scope.fork(() -> kpis.getHoursPerSprintAndMember(teamId));
+//         FanOut.Branch<List<Kpi>> tasks = scope.fork(() -> kpis.getDeveloperTasksPerSprint(teamId));
+//         scope.join();
+//         ... hours.get(), tasks.get()
+//     }
+@Component
+public class FanOut {
+
+    private final Semaphore permits;
+    private final long deadlineNanos;
+    private final ExecutorService executor = VirtualThreads.newExecutor("fanout");
+    private final MeterRegistry registry;
+
+    public FanOut(@Value("${fanout.max-concurrent:4}") int maxConcurrent,
+            @Value("${fanout.deadline-ms:10000}") long deadlineMillis,
+            MeterRegistry registry) {
+        this.permits = new Semaphore(maxConcurrent, true);
+        this.deadlineNanos = TimeUnit.MILLISECONDS.toNanos(deadlineMillis);
+        this.registry = registry;
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    public Scope open(String name) {
+        return new Scope(name, System.nanoTime() + deadlineNanos);
+    }
+
+    public static class DeadlineExceededException extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+
+        public DeadlineExceededException(String name) {
+            super("Parallel queries for '" + name + "' did not finish before the deadline");
+        }
+    }
+
+    public final class Scope implements AutoCloseable {
+        private final String name;
+        private final long deadline;
+        private final long started = System.nanoTime();
+        private final List<Future<?>> futures = new ArrayList<>();
+        // Ramas en el orden en que terminan
+        private final CompletionService<Object> completed = new ExecutorCompletionService<>(executor);
+        // Se marca antes de interrumpir: una rama que recibe el permiso de una rama
+        // cancelada lo devuelve sin correr
+        private volatile boolean cancelled;
+        // Suma del tiempo de cada rama: lo que habria tardado en serie
+        private final AtomicLong serialNanos = new AtomicLong();
+
+        private Scope(String name, long deadline) {
+            this.name = name;
+            this.deadline = deadline;
+        }
+
+        @SuppressWarnings("unchecked")
+        public <T> Branch<T> fork(Callable<T> task) {
+            Future<T> future = (Future<T>) completed.submit(() -> {
+                if (!permits.tryAcquire(remainingNanos(), TimeUnit.NANOSECONDS)) {
+                    throw new TimeoutException();
+                }
+                if (cancelled) {
+                    permits.release();
+                    throw new CancellationException();
+                }
+                long branchStarted = System.nanoTime();
+                try {
+                    return task.call();
+                } finally {
+                    serialNanos.addAndGet(System.nanoTime() - branchStarted);
+                    permits.release();
+                }
+            });
+            futures.add(future);
+            return new Branch<>(future);
+        }
+
+        // Espera todas las ramas en el orden en que terminan; si una falla o vence el
+        // plazo cancela las demas sin esperar a las que siguen corriendo
+        public void join() {
+            for (int pending = futures.size(); pending > 0; pending--) {
+                try {
+                    Future<Object> future = completed.poll(remainingNanos(), TimeUnit.NANOSECONDS);
+                    if (future == null) {
+                        cancelAll();
+                        throw new DeadlineExceededException(name);
+                    }
+                    future.get();
+                } catch (ExecutionException e) {
+                    cancelAll();
+                    if (e.getCause() instanceof TimeoutException) {
+                        throw new DeadlineExceededException(name);
+                    }
+                    if (e.getCause() instanceof RuntimeException) {
+                        throw (RuntimeException) e.getCause();
+                    }
+                    throw new IllegalStateException(e.getCause());
+                } catch (InterruptedException e) {
+                    cancelAll();
+                    Thread.currentThread().interrupt();
+                    throw new IllegalStateException("Interrupted while waiting for '" + name + "'", e);
+                }
+            }
+        }
+
+        private long remainingNanos() {
+            return Math.max(0, deadline - System.nanoTime());
+        }
+
+        private void cancelAll() {
+            cancelled = true;
+            for (Future<?> future : futures) {
+                future.cancel(true);
+            }
+        }
+
+        @Override
+        public void close() {
+            cancelAll();
+            timer("wall").record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+            timer("serial").record(serialNanos.get(), TimeUnit.NANOSECONDS);
+        }
+
+        private Timer timer(String kind) {
+            return Timer.builder("fanout.duration")
+                    .description("Wall-clock time of a fan-out and the sum of its branches")
+                    .tag("name", name)
+                    .tag("kind", kind)
+                    .publishPercentileHistogram()
+                    .register(registry);
+        }
+    }
+
+    public static final class Branch<T> {
+        private final Future<T> future;
+
+        private Branch(Future<T> future) {
+            this.future = future;
+        }
+
+        // Solo despues de Scope.join()
+        public T get() {
+            if (!future.isDone()) {
+                throw new IllegalStateException("Branch read before join()");
+            }
+            try {
+                return future.get();
+            } catch (ExecutionException | InterruptedException | CancellationException e) {
+                throw new IllegalStateException("Branch did not complete", e);
+            }
+        }
+    }
+}
@@ -1,17 +1,25 @@
 package com.springboot.MyTodoList.service;
 
+import com.springboot.MyTodoList.model.User;
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
-import io.jsonwebtoken.SignatureAlgorithm;
 import io.jsonwebtoken.io.Decoders;
 import io.jsonwebtoken.security.Keys;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Service;
 
-import java.security.Key;
+import javax.annotation.PostConstruct;
+import javax.crypto.SecretKey;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.Map;
 import java.util.function.Function;
 
@@ -23,8 +31,42 @@ public class JwtService {
     @Value("${security.jwt.expiration-time}")
     private long jwtExpiration;
 
+    // Numero maximo de tokens verificados que se recuerdan (0 desactiva la cache)
+    @Value("${security.jwt.verified-cache-size:10000}")
+    private int verifiedCacheSize;
+
+    // Modo sin estado: el filtro arma el usuario con los claims del token
+    // en lugar de consultarlo en la base de datos
+    @Value("${security.jwt.stateless-claims:false}")
+    private boolean statelessClaims;
+
+    static final String CLAIM_USER_ID = "uid";
+    static final String CLAIM_NAME = "name";
+    static final String CLAIM_ROLE = "role";
+    static final String CLAIM_TEAM_ID = "teamId";
+    static final String CLAIM_TEAM_ROLE = "teamRole";
+    static final String CLAIM_TEAM_NAME = "teamName";
+
+    private SecretKey signInKey;
+    private JwtParser parser;
+    private Map<ByteBuffer, VerifiedToken> verifiedTokens;
+
+    @PostConstruct
+    void init() {
+        signInKey = Keys.hmacShaKeyFor(Decoders.BASE64.decode(secretKey));
+        parser = Jwts.parser().verifyWith(signInKey).build();
+
+        // LRU acotada: los tokens de una misma sesion se repiten en cada peticion
+        verifiedTokens = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<ByteBuffer, VerifiedToken> eldest) {
+                return size() > verifiedCacheSize;
+            }
+        };
+    }
+
     public String extractUsername(String token) {
-        return extractClaim(token, Claims::getSubject);
+        return verifyToken(token).getSubject();
     }
 
     public <T> T extractClaim(String token, Function<Claims, T> claimsResolver) {
@@ -32,8 +74,43 @@ public class JwtService {
         return claimsResolver.apply(claims);
     }
 
+    // Verifica firma y expiracion una sola vez por token. Los tokens ya verificados
+    // se sirven desde la cache (por hash SHA-256) mientras no hayan expirado.
+    // Lanza JwtException si el token no es valido.
+    public VerifiedToken verifyToken(String token) {
+        if (verifiedCacheSize <= 0) {
+            return new VerifiedToken(extractAllClaims(token));
+        }
+
+        ByteBuffer tokenHash = hash(token);
+        VerifiedToken cached;
+        synchronized (verifiedTokens) {
+            cached = verifiedTokens.get(tokenHash);
+        }
+        if (cached != null && !cached.isExpired(Instant.now())) {
+            return cached;
+        }
+
+        // Si el token expiro, el parser lanza ExpiredJwtException como antes
+        VerifiedToken verified = new VerifiedToken(extractAllClaims(token));
+        synchronized (verifiedTokens) {
+            verifiedTokens.put(tokenHash, verified);
+        }
+        return verified;
+    }
+
     public String generateToken(UserDetails userDetails) {
-        return generateToken(new HashMap<>(), userDetails);
+        Map<String, Object> claims = new HashMap<>();
+        if (userDetails instanceof User) {
+            User user = (User) userDetails;
+            putIfNotNull(claims, CLAIM_USER_ID, user.getId());
+            putIfNotNull(claims, CLAIM_NAME, user.getName());
+            putIfNotNull(claims, CLAIM_ROLE, user.getRole());
+            putIfNotNull(claims, CLAIM_TEAM_ID, user.getTeamId());
+            putIfNotNull(claims, CLAIM_TEAM_ROLE, user.getTeamRole());
+            putIfNotNull(claims, CLAIM_TEAM_NAME, user.getTeamName());
+        }
+        return generateToken(claims, userDetails);
     }
 
     public String generateToken(Map<String, Object> extraClaims, UserDetails userDetails) {
@@ -44,44 +121,74 @@ public class JwtService {
         return jwtExpiration;
     }
 
+    public boolean isStatelessClaims() {
+        return statelessClaims;
+    }
+
+    // Usuario armado solo con los claims; null si el token no los trae
+    // (tokens emitidos antes de agregar los claims)
+    public User userFromClaims(VerifiedToken token) {
+        Long userId = longClaim(token, CLAIM_USER_ID);
+        if (userId == null || token.getSubject() == null) {
+            return null;
+        }
+
+        User user = new User();
+        user.setId(userId);
+        user.setEmail(token.getSubject());
+        user.setName((String) token.getClaim(CLAIM_NAME));
+        user.setRole((String) token.getClaim(CLAIM_ROLE));
+        user.setTeamId(longClaim(token, CLAIM_TEAM_ID));
+        user.setTeamRole((String) token.getClaim(CLAIM_TEAM_ROLE));
+        user.setTeamName((String) token.getClaim(CLAIM_TEAM_NAME));
+        return user;
+    }
+
     private String buildToken(
             Map<String, Object> extraClaims,
             UserDetails userDetails,
             long expiration) {
         return Jwts
                 .builder()
-                .setClaims(extraClaims)
-                .setSubject(userDetails.getUsername())
-                .setIssuedAt(new Date(System.currentTimeMillis()))
-                .setExpiration(new Date(System.currentTimeMillis() + expiration))
-                .signWith(getSignInKey(), SignatureAlgorithm.HS256)
+                .claims(extraClaims)
+                .subject(userDetails.getUsername())
+                .issuedAt(new Date(System.currentTimeMillis()))
+                .expiration(new Date(System.currentTimeMillis() + expiration))
+                .signWith(signInKey, Jwts.SIG.HS256)
                 .compact();
     }
 
     public boolean isTokenValid(String token, UserDetails userDetails) {
-        final String username = extractUsername(token);
-        return (username.equals(userDetails.getUsername())) && !isTokenExpired(token);
+        return isTokenValid(verifyToken(token), userDetails);
     }
 
-    private boolean isTokenExpired(String token) {
-        return extractExpiration(token).before(new Date());
+    public boolean isTokenValid(VerifiedToken token, UserDetails userDetails) {
+        return userDetails.getUsername().equals(token.getSubject()) && !token.isExpired(Instant.now());
     }
 
-    private Date extractExpiration(String token) {
-        return extractClaim(token, Claims::getExpiration);
+    private Claims extractAllClaims(String token) {
+        return parser
+                .parseSignedClaims(token)
+                .getPayload();
     }
 
-    private Claims extractAllClaims(String token) {
-        return Jwts
-                .parser()
-                .setSigningKey(getSignInKey())
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
+    private static void putIfNotNull(Map<String, Object> claims, String name, Object value) {
+        if (value != null) {
+            claims.put(name, value);
+        }
+    }
+
+    private static Long longClaim(VerifiedToken token, String name) {
+        Object value = token.getClaim(name);
+        return value instanceof Number ? ((Number) value).longValue() : null;
     }
 
-    private Key getSignInKey() {
-        byte[] keyBytes = Decoders.BASE64.decode(secretKey);
-        return Keys.hmacShaKeyFor(keyBytes);
+    private static ByteBuffer hash(String token) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return ByteBuffer.wrap(digest.digest(token.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,108 @@
+package com.springboot.MyTodoList.service;
+
+import com.springboot.MyTodoList.repository.KpiAggregateRepository;
+import org.jdbi.v3.core.Handle;
+import org.jdbi.v3.core.Jdbi;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+
+// Mantiene las tablas KPI_MEMBER_SPRINT y KPI_SPRINT al dia con cada escritura de
+// tareas: recalcula desde las tablas base solo los grupos (miembro, sprint) y los
+// sprints que toco la escritura, dentro de la misma transaccion. Activado con
+// kpi.aggregates.enabled=true despues de correr schemas/kpi_aggregates.sql.
+@Service
+@ConditionalOnProperty(name = "kpi.aggregates.enabled", havingValue = "true")
+public class KpiAggregateService implements TaskChangeListener {
+    private static final Logger logger = LoggerFactory.getLogger(KpiAggregateService.class);
+
+    // En KPI_MEMBER_SPRINT las tareas sin sprint se guardan con SPRINT_ID 0
+    static final long NO_SPRINT = 0L;
+
+    private static final int LOCK_BATCH_SIZE = 1000;
+
+    private final Jdbi jdbi;
+
+    public KpiAggregateService(Jdbi jdbi) {
+        this.jdbi = jdbi;
+    }
+
+    @Override
+    public void onTaskChange(Handle handle, TaskChange change) {
+        KpiAggregateRepository repository = handle.attach(KpiAggregateRepository.class);
+
+        // Ordenados para que dos escrituras concurrentes bloqueen en el mismo orden
+        List<Long> memberIds = new ArrayList<>(new TreeSet<>(change.getMemberIds()));
+        List<Long> sprintIds = new ArrayList<>(new TreeSet<>(change.getSprintIds()));
+        for (List<Long> batch : batches(memberIds)) {
+            repository.lockMembers(batch);
+        }
+        for (List<Long> batch : batches(sprintIds)) {
+            repository.lockSprints(batch);
+        }
+
+        if (!change.getMemberSprints().isEmpty()) {
+            List<Long> userIds = new ArrayList<>();
+            List<Long> groupSprintIds = new ArrayList<>();
+            for (TaskChange.MemberSprint group : change.getMemberSprints()) {
+                userIds.add(group.getUserId());
+                groupSprintIds.add(group.getSprintId() != null ? group.getSprintId() : NO_SPRINT);
+            }
+            repository.deleteMemberSprints(userIds, groupSprintIds);
+            repository.insertMemberSprints(userIds, groupSprintIds);
+        }
+
+        if (!sprintIds.isEmpty()) {
+            repository.deleteSprints(sprintIds);
+            repository.insertSprints(sprintIds);
+        }
+    }
+
+    // Oracle rechaza listas IN de mas de 1000 elementos
+    private static List<List<Long>> batches(List<Long> ids) {
+        List<List<Long>> batches = new ArrayList<>();
+        for (int from = 0; from < ids.size(); from += LOCK_BATCH_SIZE) {
+            batches.add(ids.subList(from, Math.min(from + LOCK_BATCH_SIZE, ids.size())));
+        }
+        return batches;
+    }
+
+    // Recalcula todo desde cero y compara el resultado con un calculo nuevo
+    // sobre las tablas base; mismatches debe ser 0
+    public Map<String, Object> rebuild() {
+        return jdbi.inTransaction(handle -> {
+            KpiAggregateRepository repository = handle.attach(KpiAggregateRepository.class);
+            repository.deleteAllMemberSprints();
+            int memberSprintRows = repository.insertAllMemberSprints();
+            repository.deleteAllSprints();
+            int sprintRows = repository.insertAllSprints();
+
+            int mismatches = repository.countMemberSprintMismatches() + repository.countSprintMismatches();
+            if (mismatches > 0) {
+                logger.warn("KPI aggregates rebuilt with {} mismatching rows", mismatches);
+            } else {
+                logger.info("KPI aggregates rebuilt: {} member/sprint rows, {} sprint rows",
+                        memberSprintRows, sprintRows);
+            }
+
+            Map<String, Object> result = new LinkedHashMap<>();
+            result.put("memberSprintRows", memberSprintRows);
+            result.put("sprintRows", sprintRows);
+            result.put("mismatches", mismatches);
+            return result;
+        });
+    }
+
+    // Solo compara, sin reconstruir
+    public int countMismatches() {
+        return jdbi.withExtension(KpiAggregateRepository.class,
+                repository -> repository.countMemberSprintMismatches() + repository.countSprintMismatches());
+    }
+}
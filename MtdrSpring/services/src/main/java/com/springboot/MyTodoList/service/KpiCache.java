@@ -0,0 +1,205 @@
+package com.springboot.MyTodoList.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Supplier;
+
+// Cache de respuestas de KpiController por (endpoint, teamId, sprintId, aggregated).
+// Acotada por tamano (LRU) y por tiempo. Cada escritura de tareas borra solo las
+// entradas de sus equipos y sprints, y las globales (sin equipo ni sprint). Los
+// cambios que no pasan por TaskChangeFeed (nombres, sprints nuevos) se ven al vencer
+// kpi.cache.ttl-seconds.
+@Component
+public class KpiCache implements TaskChangeListener {
+
+    // El ultimo sprint se elige entre todos los equipos: cualquier escritura puede
+    // cambiar el reporte de cualquier equipo
+    public static final String LAST_SPRINT_TASKS = "last-sprint/tasks";
+
+    private final int maxEntries;
+    private final long ttlMillis;
+
+    // Protegidos por this
+    private final Map<Key, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    // Cambia con cada invalidacion: un calculo que empezo antes no se guarda
+    private long generation;
+
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter bypassed;
+    private final Counter sizeEvictions;
+    private final Counter expiredEvictions;
+    private final Counter invalidations;
+    private final MeterRegistry registry;
+
+    public KpiCache(@Value("${kpi.cache.max-entries:500}") int maxEntries,
+            @Value("${kpi.cache.ttl-seconds:60}") long ttlSeconds,
+            MeterRegistry registry) {
+        this.maxEntries = maxEntries;
+        this.ttlMillis = ttlSeconds * 1000;
+
+        hits = requests(registry, "hit");
+        misses = requests(registry, "miss");
+        bypassed = requests(registry, "bypass");
+        sizeEvictions = evictions(registry, "size");
+        expiredEvictions = evictions(registry, "expired");
+        invalidations = evictions(registry, "invalidated");
+        this.registry = registry;
+    }
+
+    // Fuera del constructor: el gauge guarda una referencia a this
+    @PostConstruct
+    void registerMetrics() {
+        Gauge.builder("kpi.cache.size", this, KpiCache::size)
+                .description("KPI responses currently cached")
+                .register(registry);
+    }
+
+    private static Counter requests(MeterRegistry registry, String result) {
+        return Counter.builder("kpi.cache.requests")
+                .description("KPI requests by cache result")
+                .tag("result", result)
+                .register(registry);
+    }
+
+    private static Counter evictions(MeterRegistry registry, String cause) {
+        return Counter.builder("kpi.cache.evictions")
+                .description("Cached KPI responses removed")
+                .tag("cause", cause)
+                .register(registry);
+    }
+
+    // useCache=false (o max-entries=0) calcula siempre y no guarda el resultado
+    @SuppressWarnings("unchecked")
+    public <T> T get(String endpoint, Long teamId, Long sprintId, boolean aggregated, boolean useCache,
+            Supplier<T> loader) {
+        if (!useCache || maxEntries <= 0) {
+            bypassed.increment();
+            return loader.get();
+        }
+
+        Key key = new Key(endpoint, teamId, sprintId, aggregated);
+        long startedGeneration;
+        synchronized (this) {
+            Entry entry = entries.get(key);
+            if (entry != null) {
+                if (entry.expiresAt > System.currentTimeMillis()) {
+                    hits.increment();
+                    return (T) entry.value;
+                }
+                entries.remove(key);
+                expiredEvictions.increment();
+            }
+            startedGeneration = generation;
+        }
+
+        misses.increment();
+        T value = loader.get();
+
+        synchronized (this) {
+            if (generation == startedGeneration) {
+                entries.put(key, new Entry(value, System.currentTimeMillis() + ttlMillis));
+                if (entries.size() > maxEntries) {
+                    Iterator<Key> eldest = entries.keySet().iterator();
+                    eldest.next();
+                    eldest.remove();
+                    sizeEvictions.increment();
+                }
+            }
+        }
+        return value;
+    }
+
+    @Override
+    public void afterTaskCommit(TaskChange change) {
+        invalidate(change);
+    }
+
+    public synchronized void invalidate(TaskChange change) {
+        generation++;
+        Iterator<Key> keys = entries.keySet().iterator();
+        while (keys.hasNext()) {
+            if (keys.next().affectedBy(change)) {
+                keys.remove();
+                invalidations.increment();
+            }
+        }
+    }
+
+    public synchronized void clear() {
+        generation++;
+        invalidations.increment(entries.size());
+        entries.clear();
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    private static final class Entry {
+        final Object value;
+        final long expiresAt;
+
+        Entry(Object value, long expiresAt) {
+            this.value = value;
+            this.expiresAt = expiresAt;
+        }
+    }
+
+    private static final class Key {
+        final String endpoint;
+        final Long teamId;
+        final Long sprintId;
+        final boolean aggregated;
+
+        Key(String endpoint, Long teamId, Long sprintId, boolean aggregated) {
+            this.endpoint = endpoint;
+            this.teamId = teamId;
+            this.sprintId = sprintId;
+            this.aggregated = aggregated;
+        }
+
+        // Con sprint el resultado solo depende de ese sprint; con equipo, de ese equipo
+        boolean affectedBy(TaskChange change) {
+            if (endpoint.equals(LAST_SPRINT_TASKS)) {
+                return true;
+            }
+            if (sprintId != null) {
+                return change.getSprintIds().contains(sprintId);
+            }
+            if (teamId != null) {
+                return change.getTeamIds().contains(teamId);
+            }
+            return true;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key other = (Key) o;
+            return aggregated == other.aggregated
+                    && endpoint.equals(other.endpoint)
+                    && Objects.equals(teamId, other.teamId)
+                    && Objects.equals(sprintId, other.sprintId);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(endpoint, teamId, sprintId, aggregated);
+        }
+    }
+}
@@ -0,0 +1,843 @@
+package com.springboot.MyTodoList.service;
+
+import com.springboot.MyTodoList.model.Kpi;
+import com.springboot.MyTodoList.repository.KpiQueries;
+import com.springboot.MyTodoList.repository.KpiRepository;
+import org.jdbi.v3.core.Handle;
+import org.jdbi.v3.core.Jdbi;
+import org.jdbi.v3.core.statement.Query;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeSet;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+// Responde los KPIs desde una copia en memoria de tareas, asignaciones, miembros y
+// sprints guardada por columnas (KpiFacts). Carga todo al arrancar y despues aplica
+// las tareas que publica TaskChangeFeed; miembros y sprints se releen cada
+// kpi.engine.refresh-seconds. TaskChangeFeed solo ve las escrituras de esta replica:
+// cada kpi.engine.full-reload-every ciclos se recarga todo para recoger las de las
+// demas. Mientras no termina la primera carga KpiController sigue usando SQL.
+// Activado con kpi.engine.enabled=true.
+@Service
+@ConditionalOnProperty(name = "kpi.engine.enabled", havingValue = "true")
+public class KpiEngine implements KpiQueries, TaskChangeListener {
+    private static final Logger logger = LoggerFactory.getLogger(KpiEngine.class);
+
+    // Oracle rechaza listas IN de mas de 1000 elementos
+    private static final int BATCH_SIZE = 1000;
+    private static final int FETCH_SIZE = 1000;
+
+    private static final String MEMBERS_SELECT = "SELECT ID, NAME, TEAM_ID FROM TODOUSER.USERS";
+    private static final String SPRINTS_SELECT =
+            "SELECT ID, NAME, TEAM_ID, STATUS, START_DATE, END_DATE FROM TODOUSER.SPRINTS";
+    private static final String TASKS_SELECT =
+            "SELECT ID, STATUS, ACTUAL_HOURS, ESTIMATED_HOURS, SPRINT_ID, TITLE, DESCRIPTION FROM TODOUSER.TASKS";
+    private static final String ASSIGNEES_SELECT = "SELECT TASK_ID, USER_ID FROM TODOUSER.TASK_ASSIGNEE";
+
+    private static final Comparator<String> NULLS_LAST = Comparator.nullsLast(Comparator.naturalOrder());
+
+    private final Jdbi jdbi;
+    private final long refreshSeconds;
+    // Ciclos de refresh entre cargas completas; 0 = solo al arrancar o tras un error
+    private final int fullReloadEvery;
+    // KpiCache invalida al hacer commit, antes de que el motor aplique el cambio:
+    // se vuelve a invalidar cuando el motor ya lo tiene
+    private final KpiCache cache;
+
+    // Un solo hilo aplica todos los cambios, en el orden en que llegan
+    private final ScheduledExecutorService writer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "kpi-engine");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // Protegidos por lock
+    private KpiFacts facts = new KpiFacts();
+    private long version;
+    private long loadedAt;
+    private long loadMillis;
+
+    private volatile CachedCube cachedCube;
+    private volatile boolean ready;
+    // Si falla una actualizacion incremental, el siguiente ciclo recarga todo
+    private volatile boolean fullLoadPending = true;
+    // Solo lo usa el hilo writer
+    private int refreshesSinceLoad;
+
+    public KpiEngine(Jdbi jdbi, @Value("${kpi.engine.refresh-seconds:60}") long refreshSeconds,
+            @Value("${kpi.engine.full-reload-every:5}") int fullReloadEvery,
+            ObjectProvider<KpiCache> cache) {
+        this.jdbi = jdbi;
+        this.refreshSeconds = refreshSeconds;
+        this.fullReloadEvery = fullReloadEvery;
+        this.cache = cache.getIfAvailable();
+    }
+
+    @PostConstruct
+    void start() {
+        writer.execute(this::refresh);
+        writer.scheduleWithFixedDelay(this::refresh, refreshSeconds, refreshSeconds, TimeUnit.SECONDS);
+    }
+
+    @PreDestroy
+    void stop() {
+        writer.shutdownNow();
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    @Override
+    public void afterTaskCommit(TaskChange change) {
+        List<Long> taskIds = new ArrayList<>(change.getTaskIds());
+        writer.execute(() -> {
+            try {
+                applyTasks(taskIds);
+                if (cache != null) {
+                    cache.invalidate(change);
+                }
+            } catch (RuntimeException e) {
+                logger.error("KPI engine failed to apply {} changed tasks; scheduling a full reload", taskIds.size(), e);
+                fullLoadPending = true;
+            }
+        });
+    }
+
+    void refresh() {
+        try {
+            if (fullLoadPending || (fullReloadEvery > 0 && ++refreshesSinceLoad >= fullReloadEvery)) {
+                loadAll();
+            } else {
+                List<Consumer<KpiFacts>> dimensions = jdbi.withHandle(KpiEngine::readDimensions);
+                lock.writeLock().lock();
+                try {
+                    applyDimensions(facts, dimensions);
+                    version++;
+                } finally {
+                    lock.writeLock().unlock();
+                }
+            }
+        } catch (RuntimeException e) {
+            logger.error("KPI engine refresh failed", e);
+            fullLoadPending = true;
+        }
+    }
+
+    // Arma una copia nueva sin bloquear a los lectores y la reemplaza al final
+    private void loadAll() {
+        long started = System.currentTimeMillis();
+        fullLoadPending = false;
+        refreshesSinceLoad = 0;
+        KpiFacts loaded = new KpiFacts();
+        jdbi.useHandle(handle -> {
+            applyDimensions(loaded, readDimensions(handle));
+            forEachRow(handle, TASKS_SELECT, Map.of(), rs -> new TaskRow(rs).applyTo(loaded, new long[0]));
+            forEachRow(handle, ASSIGNEES_SELECT, Map.of(),
+                    rs -> loaded.addAssignee(rs.getLong("TASK_ID"), rs.getLong("USER_ID")));
+        });
+
+        lock.writeLock().lock();
+        try {
+            facts = loaded;
+            version++;
+            loadedAt = System.currentTimeMillis();
+            loadMillis = loadedAt - started;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        ready = true;
+        if (cache != null) {
+            cache.clear();
+        }
+        logger.info("KPI engine loaded {} tasks and {} assignments in {} ms",
+                loaded.liveTasks, loaded.liveAssignments, loadMillis);
+    }
+
+    // Relee las tareas cambiadas (las que ya no existen se borran). Tambien relee
+    // miembros y sprints: son tablas chicas y asi las tareas nuevas los encuentran.
+    // Las consultas van antes del write lock; con el lock solo se copian valores
+    private void applyTasks(List<Long> taskIds) {
+        if (taskIds.isEmpty() || fullLoadPending) {
+            return;
+        }
+        Map<Long, TaskRow> rows = new HashMap<>();
+        Map<Long, List<Long>> assignees = new HashMap<>();
+        List<Consumer<KpiFacts>> dimensions = jdbi.withHandle(handle -> {
+            for (int from = 0; from < taskIds.size(); from += BATCH_SIZE) {
+                List<Long> batch = taskIds.subList(from, Math.min(from + BATCH_SIZE, taskIds.size()));
+                Map<String, List<Long>> ids = Map.of("ids", batch);
+                forEachRow(handle, TASKS_SELECT + " WHERE ID IN (<ids>)", ids,
+                        rs -> rows.put(rs.getLong("ID"), new TaskRow(rs)));
+                forEachRow(handle, ASSIGNEES_SELECT + " WHERE TASK_ID IN (<ids>)", ids,
+                        rs -> assignees.computeIfAbsent(rs.getLong("TASK_ID"), id -> new ArrayList<>())
+                                .add(rs.getLong("USER_ID")));
+            }
+            return readDimensions(handle);
+        });
+
+        lock.writeLock().lock();
+        try {
+            applyDimensions(facts, dimensions);
+            for (Long taskId : taskIds) {
+                TaskRow row = rows.get(taskId);
+                if (row == null) {
+                    facts.removeTask(taskId);
+                } else {
+                    row.applyTo(facts, assignees.getOrDefault(taskId, List.of()).stream()
+                            .mapToLong(Long::longValue)
+                            .toArray());
+                }
+            }
+            if (facts.needsCompaction()) {
+                facts = facts.compacted();
+            }
+            version++;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Lee miembros y sprints como cambios para aplicar despues sobre los hechos
+    private static List<Consumer<KpiFacts>> readDimensions(Handle handle) {
+        List<Consumer<KpiFacts>> updates = new ArrayList<>();
+        forEachRow(handle, MEMBERS_SELECT, Map.of(), rs -> {
+            long id = rs.getLong("ID");
+            String name = rs.getString("NAME");
+            Long teamId = nullableLong(rs, "TEAM_ID");
+            updates.add(target -> target.upsertMember(id, name, teamId));
+        });
+        forEachRow(handle, SPRINTS_SELECT, Map.of(), rs -> {
+            long id = rs.getLong("ID");
+            String name = rs.getString("NAME");
+            Long teamId = nullableLong(rs, "TEAM_ID");
+            String status = rs.getString("STATUS");
+            long start = rs.getTimestamp("START_DATE").getTime();
+            long end = rs.getTimestamp("END_DATE").getTime();
+            updates.add(target -> target.upsertSprint(id, name, teamId, status, start, end));
+        });
+        return updates;
+    }
+
+    private static void applyDimensions(KpiFacts target, List<Consumer<KpiFacts>> updates) {
+        target.beginDimensions();
+        for (Consumer<KpiFacts> update : updates) {
+            update.accept(target);
+        }
+    }
+
+    private static final class TaskRow {
+        final long id;
+        final String status;
+        final BigDecimal actualHours;
+        final BigDecimal estimatedHours;
+        final Long sprintId;
+        final String title;
+        final String description;
+
+        TaskRow(ResultSet rs) throws SQLException {
+            id = rs.getLong("ID");
+            status = rs.getString("STATUS");
+            actualHours = rs.getBigDecimal("ACTUAL_HOURS");
+            estimatedHours = rs.getBigDecimal("ESTIMATED_HOURS");
+            sprintId = nullableLong(rs, "SPRINT_ID");
+            title = rs.getString("TITLE");
+            description = rs.getString("DESCRIPTION");
+        }
+
+        void applyTo(KpiFacts target, long[] assigneeIds) {
+            target.upsertTask(id, status, actualHours, estimatedHours, sprintId, title, description, assigneeIds);
+        }
+    }
+
+    private interface RowCallback {
+        void accept(ResultSet rs) throws SQLException;
+    }
+
+    private static void forEachRow(Handle handle, String sql, Map<String, List<Long>> lists, RowCallback callback) {
+        Query query = handle.createQuery(sql).setFetchSize(FETCH_SIZE);
+        lists.forEach((name, values) -> query.bindList(name, values));
+        query.scanResultSet((supplier, ctx) -> {
+            ResultSet rs = supplier.get();
+            while (rs.next()) {
+                callback.accept(rs);
+            }
+            return null;
+        });
+    }
+
+    private static Long nullableLong(ResultSet rs, String column) throws SQLException {
+        long value = rs.getLong(column);
+        return rs.wasNull() ? null : value;
+    }
+
+    // Lecturas
+
+    private static final class CachedCube {
+        final long version;
+        final KpiFacts.Cube cube;
+
+        CachedCube(long version, KpiFacts.Cube cube) {
+            this.version = version;
+            this.cube = cube;
+        }
+    }
+
+    // El cubo se recalcula una vez por version de los hechos
+    private KpiFacts.Cube cube() {
+        lock.readLock().lock();
+        try {
+            CachedCube cached = cachedCube;
+            if (cached != null && cached.version == version) {
+                return cached.cube;
+            }
+            KpiFacts.Cube cube = facts.cube();
+            cachedCube = new CachedCube(version, cube);
+            return cube;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Sumas de un grupo; las horas en centesimas y null si no hubo ningun valor
+    private static final class Totals {
+        final String name;
+        final String memberName;
+        final long start;
+        int completed;
+        int assigned;
+        long actual;
+        int actualCount;
+        long estimated;
+        int estimatedCount;
+
+        Totals(String name, String memberName, long start) {
+            this.name = name;
+            this.memberName = memberName;
+            this.start = start;
+        }
+
+        Kpi toKpi() {
+            Kpi kpi = new Kpi();
+            kpi.setMemberName(name);
+            kpi.setCompletedTasks(completed);
+            kpi.setTotalAssignedTasks(assigned);
+            kpi.setCompletionRatePercent(rate(completed, assigned));
+            kpi.setTotalActualHours(hours(actual, actualCount));
+            kpi.setTotalEstimatedHours(hours(estimated, estimatedCount));
+            return kpi;
+        }
+    }
+
+    private static boolean inTeam(long team, Long teamId) {
+        return teamId == null || team == teamId;
+    }
+
+    // GROUP BY u.NAME: miembros con el mismo nombre se suman juntos. slot NONE = todos los sprints
+    private static Collection<Totals> byMember(KpiFacts.Cube cube, Long teamId, int slot) {
+        Map<String, Totals> groups = new HashMap<>();
+        for (int m = 0; m < cube.members; m++) {
+            if (!cube.memberLive[m] || !inTeam(cube.memberTeams[m], teamId)) {
+                continue;
+            }
+            int fromSlot = slot == KpiFacts.NONE ? 0 : slot;
+            int toSlot = slot == KpiFacts.NONE ? cube.slots : slot + 1;
+            for (int s = fromSlot; s < toSlot; s++) {
+                int cell = cube.cell(m, s);
+                if (cube.assigned[cell] == 0) {
+                    continue;
+                }
+                String name = cube.memberNames[m];
+                Totals totals = groups.computeIfAbsent(name, key -> new Totals(key, key, 0));
+                totals.completed += cube.completed[cell];
+                totals.assigned += cube.assigned[cell];
+                totals.actual += cube.actual[cell];
+                totals.actualCount += cube.actualCount[cell];
+                totals.estimated += cube.estimated[cell];
+                totals.estimatedCount += cube.estimatedCount[cell];
+            }
+        }
+        return groups.values();
+    }
+
+    // GROUP BY s.NAME, s.START_DATE con LEFT JOIN: cada sprint aparece aunque no tenga tareas
+    private static List<Totals> bySprint(KpiFacts.Cube cube, Long teamId) {
+        Map<List<Object>, Totals> groups = new LinkedHashMap<>();
+        for (int s = 0; s < cube.sprintIds.length; s++) {
+            if (!cube.sprintLive[s] || !inTeam(cube.sprintTeams[s], teamId)) {
+                continue;
+            }
+            String name = cube.sprintNames[s];
+            long start = cube.sprintStart[s];
+            Totals totals = groups.computeIfAbsent(Arrays.asList(name, start), key -> new Totals(name, null, start));
+            totals.completed += cube.sprintCompletedTasks[s];
+            totals.assigned += cube.sprintTotalTasks[s];
+            totals.actual += cube.sprintActual[s];
+            totals.actualCount += cube.sprintActualCount[s];
+            totals.estimated += cube.sprintEstimated[s];
+            totals.estimatedCount += cube.sprintEstimatedCount[s];
+        }
+        List<Totals> rows = new ArrayList<>(groups.values());
+        rows.sort(Comparator.comparingLong((Totals totals) -> totals.start)
+                .thenComparing(totals -> totals.name, NULLS_LAST));
+        return rows;
+    }
+
+    // GROUP BY s.NAME, u.NAME, s.START_DATE sobre tareas completadas con sprint
+    private static List<Totals> bySprintAndMember(KpiFacts.Cube cube, Long teamId) {
+        Map<List<Object>, Totals> groups = new HashMap<>();
+        for (int m = 0; m < cube.members; m++) {
+            if (!cube.memberLive[m] || !inTeam(cube.memberTeams[m], teamId)) {
+                continue;
+            }
+            for (int s = 0; s < cube.sprintIds.length; s++) {
+                int cell = cube.cell(m, s + 1);
+                if (cube.completed[cell] == 0 || !cube.sprintLive[s]) {
+                    continue;
+                }
+                String sprintName = cube.sprintNames[s];
+                String memberName = cube.memberNames[m];
+                long start = cube.sprintStart[s];
+                Totals totals = groups.computeIfAbsent(Arrays.asList(sprintName, memberName, start),
+                        key -> new Totals(sprintName, memberName, start));
+                totals.completed += cube.completed[cell];
+                totals.actual += cube.completedActual[cell];
+                totals.actualCount += cube.completedActualCount[cell];
+            }
+        }
+        return new ArrayList<>(groups.values());
+    }
+
+    private static BigDecimal rate(int completed, int total) {
+        if (total == 0) {
+            return BigDecimal.ZERO;
+        }
+        BigDecimal rate = BigDecimal.valueOf(completed * 100L)
+                .divide(BigDecimal.valueOf(total), 2, RoundingMode.HALF_UP)
+                .stripTrailingZeros();
+        // Igual que Oracle: 100 y no 1E+2
+        return rate.scale() < 0 ? rate.setScale(0) : rate;
+    }
+
+    private static Double hours(long cents, int count) {
+        return count == 0 ? null : BigDecimal.valueOf(cents, 2).doubleValue();
+    }
+
+    private static Double hours(int cents) {
+        return cents == KpiFacts.NO_HOURS ? null : BigDecimal.valueOf(cents, 2).doubleValue();
+    }
+
+    @Override
+    public List<Kpi> getCompletedTasksByMember() {
+        return getCompletedTasksByMemberAndTeam(null);
+    }
+
+    @Override
+    public List<Kpi> getCompletedTasksByMemberAndTeam(Long teamId) {
+        List<Kpi> rows = new ArrayList<>();
+        for (Totals totals : byMember(cube(), teamId, KpiFacts.NONE)) {
+            if (totals.completed > 0) {
+                Kpi kpi = new Kpi();
+                kpi.setMemberName(totals.name);
+                kpi.setCompletedTasks(totals.completed);
+                rows.add(kpi);
+            }
+        }
+        rows.sort(Comparator.comparing(Kpi::getCompletedTasks, Comparator.reverseOrder())
+                .thenComparing(Kpi::getMemberName, NULLS_LAST));
+        return rows;
+    }
+
+    @Override
+    public List<Kpi> getTotalActualHoursByMember() {
+        return getTotalActualHoursByMemberAndTeam(null);
+    }
+
+    @Override
+    public List<Kpi> getTotalActualHoursByMemberAndTeam(Long teamId) {
+        List<Kpi> rows = new ArrayList<>();
+        for (Totals totals : byMember(cube(), teamId, KpiFacts.NONE)) {
+            if (totals.actualCount + totals.estimatedCount > 0) {
+                Kpi kpi = new Kpi();
+                kpi.setMemberName(totals.name);
+                kpi.setTotalActualHours(hours(totals.actual, totals.actualCount));
+                kpi.setTotalEstimatedHours(hours(totals.estimated, totals.estimatedCount));
+                rows.add(kpi);
+            }
+        }
+        rows.sort(Comparator.comparing(Kpi::getMemberName, NULLS_LAST));
+        return rows;
+    }
+
+    @Override
+    public List<Kpi> getCompletionRateByMember() {
+        return getCompletionRateByMemberAndTeam(null);
+    }
+
+    @Override
+    public List<Kpi> getCompletionRateByMemberAndTeam(Long teamId) {
+        return completionRates(byMember(cube(), teamId, KpiFacts.NONE));
+    }
+
+    @Override
+    public List<Kpi> getCompletionRateByMemberAndSprint(Long sprintId) {
+        KpiFacts.Cube cube = cube();
+        int sprint = sprintOrdinal(cube, sprintId);
+        if (sprint == KpiFacts.NONE) {
+            return new ArrayList<>();
+        }
+        return completionRates(byMember(cube, null, sprint + 1));
+    }
+
+    private static List<Kpi> completionRates(Collection<Totals> groups) {
+        List<Kpi> rows = new ArrayList<>();
+        for (Totals totals : groups) {
+            rows.add(totals.toKpi());
+        }
+        rows.sort(Comparator.comparing(Kpi::getMemberName, NULLS_LAST));
+        return rows;
+    }
+
+    private static int sprintOrdinal(KpiFacts.Cube cube, Long sprintId) {
+        for (int s = 0; sprintId != null && s < cube.sprintIds.length; s++) {
+            if (cube.sprintIds[s] == sprintId && cube.sprintLive[s]) {
+                return s;
+            }
+        }
+        return KpiFacts.NONE;
+    }
+
+    @Override
+    public List<Kpi> getCompletedTasksBySprint() {
+        return getCompletedTasksBySprintAndTeam(null);
+    }
+
+    @Override
+    public List<Kpi> getCompletedTasksBySprintAndTeam(Long teamId) {
+        List<Kpi> rows = new ArrayList<>();
+        for (Totals totals : bySprint(cube(), teamId)) {
+            Kpi kpi = new Kpi();
+            kpi.setMemberName(totals.name);
+            kpi.setCompletedTasks(totals.completed);
+            rows.add(kpi);
+        }
+        return rows;
+    }
+
+    @Override
+    public List<Kpi> getTotalActualHoursBySprint() {
+        return getTotalActualHoursBySprintAndTeam(null);
+    }
+
+    @Override
+    public List<Kpi> getTotalActualHoursBySprintAndTeam(Long teamId) {
+        List<Kpi> rows = new ArrayList<>();
+        for (Totals totals : bySprint(cube(), teamId)) {
+            Kpi kpi = new Kpi();
+            kpi.setMemberName(totals.name);
+            kpi.setTotalActualHours(hours(totals.actual, totals.actualCount));
+            kpi.setTotalEstimatedHours(hours(totals.estimated, totals.estimatedCount));
+            rows.add(kpi);
+        }
+        return rows;
+    }
+
+    @Override
+    public List<Kpi> getCompletionRateBySprint() {
+        return getCompletionRateBySprintAndTeam(null);
+    }
+
+    @Override
+    public List<Kpi> getCompletionRateBySprintAndTeam(Long teamId) {
+        List<Kpi> rows = new ArrayList<>();
+        for (Totals totals : bySprint(cube(), teamId)) {
+            rows.add(totals.toKpi());
+        }
+        return rows;
+    }
+
+    @Override
+    public List<Kpi> getHoursPerSprintAndMemberAllTeams() {
+        return getHoursPerSprintAndMember(null);
+    }
+
+    @Override
+    public List<Kpi> getHoursPerSprintAndMember(Long teamId) {
+        List<Totals> groups = bySprintAndMember(cube(), teamId);
+        groups.sort(Comparator.comparingLong((Totals totals) -> totals.start)
+                .thenComparing(totals -> totals.memberName, NULLS_LAST)
+                .thenComparing(totals -> totals.name, NULLS_LAST));
+        return sprintMemberRows(groups, false);
+    }
+
+    @Override
+    public List<Kpi> getDeveloperHoursPerSprintAllTeams() {
+        return getDeveloperHoursPerSprint(null);
+    }
+
+    @Override
+    public List<Kpi> getDeveloperHoursPerSprint(Long teamId) {
+        return sprintMemberRows(byMemberThenSprint(teamId), false);
+    }
+
+    @Override
+    public List<Kpi> getDeveloperTasksPerSprintAllTeams() {
+        return getDeveloperTasksPerSprint(null);
+    }
+
+    @Override
+    public List<Kpi> getDeveloperTasksPerSprint(Long teamId) {
+        return sprintMemberRows(byMemberThenSprint(teamId), true);
+    }
+
+    private List<Totals> byMemberThenSprint(Long teamId) {
+        List<Totals> groups = bySprintAndMember(cube(), teamId);
+        groups.sort(Comparator.comparing((Totals totals) -> totals.memberName, NULLS_LAST)
+                .thenComparingLong(totals -> totals.start)
+                .thenComparing(totals -> totals.name, NULLS_LAST));
+        return groups;
+    }
+
+    private static List<Kpi> sprintMemberRows(List<Totals> groups, boolean tasks) {
+        List<Kpi> rows = new ArrayList<>(groups.size());
+        for (Totals totals : groups) {
+            Kpi kpi = new Kpi();
+            kpi.setSprintName(totals.name);
+            kpi.setMemberName(totals.memberName);
+            if (tasks) {
+                kpi.setCompletedTasks(totals.completed);
+            } else {
+                kpi.setTotalActualHours(hours(totals.actual, totals.actualCount));
+            }
+            rows.add(kpi);
+        }
+        return rows;
+    }
+
+    // El ultimo sprint COMPLETED por fecha de fin, de cualquier equipo (como la consulta SQL)
+    @Override
+    public List<Kpi> getLastSprintTasksByDeveloper(Long teamId) {
+        lock.readLock().lock();
+        try {
+            int last = KpiFacts.NONE;
+            for (int s = 0; s < facts.sprintCount; s++) {
+                if (facts.sprintLive[s] && facts.sprintCompleted[s]
+                        && (last == KpiFacts.NONE || facts.sprintEnd[s] > facts.sprintEnd[last])) {
+                    last = s;
+                }
+            }
+            return last == KpiFacts.NONE ? new ArrayList<>() : sprintTasks(last, teamId, false);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public List<Kpi> getSprintTasksByDeveloper(Long sprintId, Long teamId) {
+        lock.readLock().lock();
+        try {
+            int sprint = sprintId != null ? facts.sprintOrdinal(sprintId) : KpiFacts.NONE;
+            return sprint == KpiFacts.NONE ? new ArrayList<>() : sprintTasks(sprint, teamId, true);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Tareas completadas del sprint, una fila por asignado; llamar con el read lock
+    private List<Kpi> sprintTasks(int sprint, Long teamId, boolean withSprintId) {
+        List<Kpi> rows = new ArrayList<>();
+        for (int a = 0; a < facts.assignmentCount; a++) {
+            int task = facts.assignmentTask[a];
+            if (task == KpiFacts.NONE || facts.taskSprint[task] != sprint || !facts.isCompleted(task)) {
+                continue;
+            }
+            int member = facts.assignmentMember[a];
+            if (!facts.memberLive[member] || !inTeam(facts.memberTeams[member], teamId)) {
+                continue;
+            }
+            Kpi kpi = new Kpi();
+            kpi.setMemberName(facts.memberNames[member]);
+            kpi.setTaskTitle(facts.taskTitles[task]);
+            kpi.setTaskDescription(facts.taskDescriptions[task]);
+            kpi.setTotalActualHours(hours(facts.taskActualCents[task]));
+            kpi.setTotalEstimatedHours(hours(facts.taskEstimatedCents[task]));
+            kpi.setTaskStatus(facts.statusName(task));
+            if (withSprintId) {
+                kpi.setSprintId(facts.sprintIds[sprint]);
+            }
+            rows.add(kpi);
+        }
+        rows.sort(Comparator.comparing(Kpi::getMemberName, NULLS_LAST)
+                .thenComparing(Kpi::getTaskTitle, NULLS_LAST));
+        return rows;
+    }
+
+    // Estado y memoria ocupada por los arreglos
+    public Map<String, Object> stats() {
+        lock.readLock().lock();
+        try {
+            Map<String, Object> stats = new LinkedHashMap<>();
+            stats.put("ready", ready);
+            stats.put("version", version);
+            stats.put("tasks", facts.liveTasks);
+            stats.put("assignments", facts.liveAssignments);
+            stats.put("members", facts.memberCount);
+            stats.put("sprints", facts.sprintCount);
+            stats.put("footprintBytes", facts.footprintBytes());
+            stats.put("loadedAt", loadedAt);
+            stats.put("loadMillis", loadMillis);
+            return stats;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Compara cada consulta contra KpiRepository, sin el equipo, con cada equipo y con
+    // cada sprint. Las filas se comparan sin importar el orden (los empates en SQL no
+    // tienen orden definido); horas redondeadas a 2 decimales
+    public Map<String, Object> verify() {
+        KpiQueries sql = jdbi.onDemand(KpiRepository.class);
+        List<Long> teamIds = new ArrayList<>();
+        List<Long> sprintIds = new ArrayList<>();
+        lock.readLock().lock();
+        try {
+            TreeSet<Long> teams = new TreeSet<>();
+            for (int m = 0; m < facts.memberCount; m++) {
+                if (facts.memberTeams[m] != KpiFacts.NO_TEAM) {
+                    teams.add(facts.memberTeams[m]);
+                }
+            }
+            for (int s = 0; s < facts.sprintCount; s++) {
+                if (facts.sprintLive[s]) {
+                    sprintIds.add(facts.sprintIds[s]);
+                }
+                if (facts.sprintTeams[s] != KpiFacts.NO_TEAM) {
+                    teams.add(facts.sprintTeams[s]);
+                }
+            }
+            teamIds.addAll(teams);
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        Verification verification = new Verification();
+        verification.check("completedTasksByMember", sql::getCompletedTasksByMember, this::getCompletedTasksByMember);
+        verification.check("totalActualHoursByMember", sql::getTotalActualHoursByMember, this::getTotalActualHoursByMember);
+        verification.check("completionRateByMember", sql::getCompletionRateByMember, this::getCompletionRateByMember);
+        verification.check("completedTasksBySprint", sql::getCompletedTasksBySprint, this::getCompletedTasksBySprint);
+        verification.check("totalActualHoursBySprint", sql::getTotalActualHoursBySprint, this::getTotalActualHoursBySprint);
+        verification.check("completionRateBySprint", sql::getCompletionRateBySprint, this::getCompletionRateBySprint);
+        verification.check("hoursPerSprintAndMember", sql::getHoursPerSprintAndMemberAllTeams,
+                this::getHoursPerSprintAndMemberAllTeams);
+        verification.check("developerHoursPerSprint", sql::getDeveloperHoursPerSprintAllTeams,
+                this::getDeveloperHoursPerSprintAllTeams);
+        verification.check("developerTasksPerSprint", sql::getDeveloperTasksPerSprintAllTeams,
+                this::getDeveloperTasksPerSprintAllTeams);
+        verification.check("lastSprintTasks", () -> sql.getLastSprintTasksByDeveloper(null),
+                () -> getLastSprintTasksByDeveloper(null));
+
+        for (Long teamId : teamIds) {
+            String suffix = "[team=" + teamId + "]";
+            verification.check("completedTasksByMember" + suffix, () -> sql.getCompletedTasksByMemberAndTeam(teamId),
+                    () -> getCompletedTasksByMemberAndTeam(teamId));
+            verification.check("totalActualHoursByMember" + suffix, () -> sql.getTotalActualHoursByMemberAndTeam(teamId),
+                    () -> getTotalActualHoursByMemberAndTeam(teamId));
+            verification.check("completionRateByMember" + suffix, () -> sql.getCompletionRateByMemberAndTeam(teamId),
+                    () -> getCompletionRateByMemberAndTeam(teamId));
+            verification.check("completedTasksBySprint" + suffix, () -> sql.getCompletedTasksBySprintAndTeam(teamId),
+                    () -> getCompletedTasksBySprintAndTeam(teamId));
+            verification.check("totalActualHoursBySprint" + suffix, () -> sql.getTotalActualHoursBySprintAndTeam(teamId),
+                    () -> getTotalActualHoursBySprintAndTeam(teamId));
+            verification.check("completionRateBySprint" + suffix, () -> sql.getCompletionRateBySprintAndTeam(teamId),
+                    () -> getCompletionRateBySprintAndTeam(teamId));
+            verification.check("hoursPerSprintAndMember" + suffix, () -> sql.getHoursPerSprintAndMember(teamId),
+                    () -> getHoursPerSprintAndMember(teamId));
+            verification.check("developerHoursPerSprint" + suffix, () -> sql.getDeveloperHoursPerSprint(teamId),
+                    () -> getDeveloperHoursPerSprint(teamId));
+            verification.check("developerTasksPerSprint" + suffix, () -> sql.getDeveloperTasksPerSprint(teamId),
+                    () -> getDeveloperTasksPerSprint(teamId));
+            verification.check("lastSprintTasks" + suffix, () -> sql.getLastSprintTasksByDeveloper(teamId),
+                    () -> getLastSprintTasksByDeveloper(teamId));
+        }
+
+        for (Long sprintId : sprintIds) {
+            String suffix = "[sprint=" + sprintId + "]";
+            verification.check("completionRateByMember" + suffix, () -> sql.getCompletionRateByMemberAndSprint(sprintId),
+                    () -> getCompletionRateByMemberAndSprint(sprintId));
+            verification.check("sprintTasks" + suffix, () -> sql.getSprintTasksByDeveloper(sprintId, null),
+                    () -> getSprintTasksByDeveloper(sprintId, null));
+        }
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("checks", verification.checks);
+        result.put("mismatches", verification.mismatches);
+        result.put("sqlMillis", verification.sqlNanos / 1_000_000);
+        result.put("engineMillis", verification.engineNanos / 1_000_000);
+        return result;
+    }
+
+    private static final class Verification {
+        int checks;
+        final List<String> mismatches = new ArrayList<>();
+        long sqlNanos;
+        long engineNanos;
+
+        void check(String name, Supplier<List<Kpi>> sql, Supplier<List<Kpi>> engine) {
+            long started = System.nanoTime();
+            List<String> expected = canonical(sql.get());
+            long sqlDone = System.nanoTime();
+            List<String> actual = canonical(engine.get());
+            engineNanos += System.nanoTime() - sqlDone;
+            sqlNanos += sqlDone - started;
+
+            checks++;
+            if (!expected.equals(actual)) {
+                mismatches.add(name);
+            }
+        }
+
+        private static List<String> canonical(List<Kpi> rows) {
+            List<String> values = new ArrayList<>(rows.size());
+            for (Kpi kpi : rows) {
+                values.add(String.join("|", kpi.getMemberName(), kpi.getSprintName(), kpi.getTaskTitle(),
+                        kpi.getTaskDescription(), kpi.getTaskStatus(), Objects.toString(kpi.getSprintId()),
+                        Objects.toString(kpi.getCompletedTasks()), Objects.toString(kpi.getTotalAssignedTasks()),
+                        kpi.getCompletionRatePercent() == null ? "null"
+                                : kpi.getCompletionRatePercent().stripTrailingZeros().toPlainString(),
+                        round(kpi.getTotalActualHours()), round(kpi.getTotalEstimatedHours())));
+            }
+            values.sort(Comparator.naturalOrder());
+            return values;
+        }
+
+        private static String round(Double value) {
+            return value == null ? "null" : BigDecimal.valueOf(value).setScale(2, RoundingMode.HALF_UP).toPlainString();
+        }
+    }
+}
@@ -0,0 +1,533 @@
+package com.springboot.MyTodoList.service;
+
+import com.springboot.MyTodoList.model.TaskStatusCode;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+
+// Hechos de KPIs en arreglos primitivos por columna: tareas, asignaciones
+// (tarea, miembro), miembros y sprints. Las dimensiones se referencian por ordinal
+// (posicion en su arreglo) y los ordinales no cambian al recargar. No es seguro
+// para hilos: KpiEngine escribe desde un solo hilo y lee con un ReadWriteLock.
+final class KpiFacts {
+    static final int NONE = -1;
+    // Horas en centesimas (NUMBER(5,2) es exacto); este valor representa NULL
+    static final int NO_HOURS = Integer.MIN_VALUE;
+    static final long NO_TEAM = Long.MIN_VALUE;
+
+    private static final int INITIAL_CAPACITY = 1024;
+    // Menos filas que esto por bloque no compensa repartir el calculo
+    private static final int MIN_ROWS_PER_CHUNK = 4096;
+
+    // Estados codificados en un byte; el texto original se conserva en el diccionario
+    private final List<String> statusNames = new ArrayList<>();
+    private final Map<String, Byte> statusCodes = new HashMap<>();
+    private boolean[] completedStatus = new boolean[0];
+
+    // Tareas
+    int taskCount;
+    long[] taskIds = new long[INITIAL_CAPACITY];
+    byte[] taskStatus = new byte[INITIAL_CAPACITY];
+    int[] taskActualCents = new int[INITIAL_CAPACITY];
+    int[] taskEstimatedCents = new int[INITIAL_CAPACITY];
+    int[] taskSprint = new int[INITIAL_CAPACITY];
+    boolean[] taskLive = new boolean[INITIAL_CAPACITY];
+    String[] taskTitles = new String[INITIAL_CAPACITY];
+    String[] taskDescriptions = new String[INITIAL_CAPACITY];
+    // Primera asignacion de la tarea (lista enlazada por assignmentNext)
+    int[] taskFirstAssignment = new int[INITIAL_CAPACITY];
+    private final Map<Long, Integer> taskIndex = new HashMap<>();
+    int liveTasks;
+
+    // Asignaciones; assignmentTask = NONE marca una fila borrada
+    int assignmentCount;
+    int[] assignmentTask = new int[INITIAL_CAPACITY];
+    int[] assignmentMember = new int[INITIAL_CAPACITY];
+    int[] assignmentNext = new int[INITIAL_CAPACITY];
+    int liveAssignments;
+
+    // Miembros
+    int memberCount;
+    long[] memberIds = new long[64];
+    String[] memberNames = new String[64];
+    long[] memberTeams = new long[64];
+    boolean[] memberLive = new boolean[64];
+    private final Map<Long, Integer> memberIndex = new HashMap<>();
+
+    // Sprints
+    int sprintCount;
+    long[] sprintIds = new long[64];
+    String[] sprintNames = new String[64];
+    long[] sprintTeams = new long[64];
+    long[] sprintStart = new long[64];
+    long[] sprintEnd = new long[64];
+    boolean[] sprintCompleted = new boolean[64];
+    boolean[] sprintLive = new boolean[64];
+    private final Map<Long, Integer> sprintIndex = new HashMap<>();
+
+    // Dimensiones
+
+    // Antes de recargar miembros y sprints: los que no vuelvan a aparecer quedan fuera
+    void beginDimensions() {
+        Arrays.fill(memberLive, 0, memberCount, false);
+        Arrays.fill(sprintLive, 0, sprintCount, false);
+    }
+
+    void upsertMember(long id, String name, Long teamId) {
+        Integer ordinal = memberIndex.get(id);
+        if (ordinal == null) {
+            ordinal = memberCount++;
+            if (ordinal == memberIds.length) {
+                int capacity = ordinal * 2;
+                memberIds = Arrays.copyOf(memberIds, capacity);
+                memberNames = Arrays.copyOf(memberNames, capacity);
+                memberTeams = Arrays.copyOf(memberTeams, capacity);
+                memberLive = Arrays.copyOf(memberLive, capacity);
+            }
+            memberIds[ordinal] = id;
+            memberIndex.put(id, ordinal);
+        }
+        memberNames[ordinal] = name;
+        memberTeams[ordinal] = teamId != null ? teamId : NO_TEAM;
+        memberLive[ordinal] = true;
+    }
+
+    void upsertSprint(long id, String name, Long teamId, String status, long start, long end) {
+        Integer ordinal = sprintIndex.get(id);
+        if (ordinal == null) {
+            ordinal = sprintCount++;
+            if (ordinal == sprintIds.length) {
+                int capacity = ordinal * 2;
+                sprintIds = Arrays.copyOf(sprintIds, capacity);
+                sprintNames = Arrays.copyOf(sprintNames, capacity);
+                sprintTeams = Arrays.copyOf(sprintTeams, capacity);
+                sprintStart = Arrays.copyOf(sprintStart, capacity);
+                sprintEnd = Arrays.copyOf(sprintEnd, capacity);
+                sprintCompleted = Arrays.copyOf(sprintCompleted, capacity);
+                sprintLive = Arrays.copyOf(sprintLive, capacity);
+            }
+            sprintIds[ordinal] = id;
+            sprintIndex.put(id, ordinal);
+        }
+        sprintNames[ordinal] = name;
+        sprintTeams[ordinal] = teamId != null ? teamId : NO_TEAM;
+        sprintStart[ordinal] = start;
+        sprintEnd[ordinal] = end;
+        sprintCompleted[ordinal] = "COMPLETED".equals(status);
+        sprintLive[ordinal] = true;
+    }
+
+    int sprintOrdinal(long id) {
+        Integer ordinal = sprintIndex.get(id);
+        return ordinal != null ? ordinal : NONE;
+    }
+
+    // Tareas
+
+    void upsertTask(long id, String status, BigDecimal actualHours, BigDecimal estimatedHours,
+            Long sprintId, String title, String description, long[] assigneeIds) {
+        Integer index = taskIndex.get(id);
+        if (index == null) {
+            index = taskCount++;
+            if (index == taskIds.length) {
+                growTasks(index * 2);
+            }
+            taskIds[index] = id;
+            taskIndex.put(id, index);
+            taskFirstAssignment[index] = NONE;
+            liveTasks++;
+        } else {
+            removeAssignments(index);
+        }
+
+        taskStatus[index] = statusCode(status);
+        taskActualCents[index] = cents(actualHours);
+        taskEstimatedCents[index] = cents(estimatedHours);
+        taskSprint[index] = sprintId != null ? sprintOrdinal(sprintId) : NONE;
+        taskTitles[index] = title;
+        taskDescriptions[index] = description;
+        taskLive[index] = true;
+
+        for (long assigneeId : assigneeIds) {
+            Integer member = memberIndex.get(assigneeId);
+            if (member != null) {
+                addAssignment(index, member);
+            }
+        }
+    }
+
+    // Carga completa: las asignaciones llegan despues de todas las tareas
+    void addAssignee(long taskId, long memberId) {
+        Integer task = taskIndex.get(taskId);
+        Integer member = memberIndex.get(memberId);
+        if (task != null && member != null) {
+            addAssignment(task, member);
+        }
+    }
+
+    void removeTask(long id) {
+        Integer index = taskIndex.remove(id);
+        if (index == null) {
+            return;
+        }
+        removeAssignments(index);
+        taskLive[index] = false;
+        liveTasks--;
+    }
+
+    // Las filas borradas se quedan como huecos hasta compactar
+    boolean needsCompaction() {
+        return taskCount - liveTasks > Math.max(INITIAL_CAPACITY, liveTasks)
+                || assignmentCount - liveAssignments > Math.max(INITIAL_CAPACITY, liveAssignments);
+    }
+
+    // Copia sin huecos, con las mismas dimensiones y ordinales
+    KpiFacts compacted() {
+        KpiFacts copy = new KpiFacts();
+        for (int m = 0; m < memberCount; m++) {
+            copy.upsertMember(memberIds[m], memberNames[m], memberTeams[m] != NO_TEAM ? memberTeams[m] : null);
+            copy.memberLive[m] = memberLive[m];
+        }
+        for (int s = 0; s < sprintCount; s++) {
+            copy.upsertSprint(sprintIds[s], sprintNames[s], sprintTeams[s] != NO_TEAM ? sprintTeams[s] : null,
+                    null, sprintStart[s], sprintEnd[s]);
+            copy.sprintCompleted[s] = sprintCompleted[s];
+            copy.sprintLive[s] = sprintLive[s];
+        }
+        for (int t = 0; t < taskCount; t++) {
+            if (!taskLive[t]) {
+                continue;
+            }
+            List<Long> assignees = new ArrayList<>();
+            for (int a = taskFirstAssignment[t]; a != NONE; a = assignmentNext[a]) {
+                assignees.add(memberIds[assignmentMember[a]]);
+            }
+            copy.upsertTask(taskIds[t], statusNames.get(taskStatus[t]), decimal(taskActualCents[t]),
+                    decimal(taskEstimatedCents[t]), taskSprint[t] != NONE ? sprintIds[taskSprint[t]] : null,
+                    taskTitles[t], taskDescriptions[t], assignees.stream().mapToLong(Long::longValue).toArray());
+        }
+        return copy;
+    }
+
+    boolean isCompleted(int task) {
+        return completedStatus[taskStatus[task]];
+    }
+
+    String statusName(int task) {
+        return statusNames.get(taskStatus[task]);
+    }
+
+    private byte statusCode(String status) {
+        Byte code = statusCodes.get(status);
+        if (code == null) {
+            if (statusNames.size() > Byte.MAX_VALUE) {
+                throw new IllegalStateException("Too many task statuses");
+            }
+            code = (byte) statusNames.size();
+            statusNames.add(status);
+            statusCodes.put(status, code);
+            completedStatus = Arrays.copyOf(completedStatus, statusNames.size());
+            TaskStatusCode known = TaskStatusCode.fromName(status);
+            completedStatus[code] = known != null && known.isDone();
+        }
+        return code;
+    }
+
+    private void addAssignment(int task, int member) {
+        int row = assignmentCount++;
+        if (row == assignmentTask.length) {
+            int capacity = row * 2;
+            assignmentTask = Arrays.copyOf(assignmentTask, capacity);
+            assignmentMember = Arrays.copyOf(assignmentMember, capacity);
+            assignmentNext = Arrays.copyOf(assignmentNext, capacity);
+        }
+        assignmentTask[row] = task;
+        assignmentMember[row] = member;
+        assignmentNext[row] = taskFirstAssignment[task];
+        taskFirstAssignment[task] = row;
+        liveAssignments++;
+    }
+
+    private void removeAssignments(int task) {
+        for (int a = taskFirstAssignment[task]; a != NONE; a = assignmentNext[a]) {
+            assignmentTask[a] = NONE;
+            liveAssignments--;
+        }
+        taskFirstAssignment[task] = NONE;
+    }
+
+    private void growTasks(int capacity) {
+        taskIds = Arrays.copyOf(taskIds, capacity);
+        taskStatus = Arrays.copyOf(taskStatus, capacity);
+        taskActualCents = Arrays.copyOf(taskActualCents, capacity);
+        taskEstimatedCents = Arrays.copyOf(taskEstimatedCents, capacity);
+        taskSprint = Arrays.copyOf(taskSprint, capacity);
+        taskLive = Arrays.copyOf(taskLive, capacity);
+        taskTitles = Arrays.copyOf(taskTitles, capacity);
+        taskDescriptions = Arrays.copyOf(taskDescriptions, capacity);
+        taskFirstAssignment = Arrays.copyOf(taskFirstAssignment, capacity);
+    }
+
+    static int cents(BigDecimal hours) {
+        return hours == null ? NO_HOURS : hours.movePointRight(2).setScale(0, RoundingMode.HALF_UP).intValueExact();
+    }
+
+    static BigDecimal decimal(int cents) {
+        return cents == NO_HOURS ? null : BigDecimal.valueOf(cents, 2);
+    }
+
+    // Memoria aproximada: arreglos por capacidad y texto de titulos, descripciones y nombres
+    long footprintBytes() {
+        long bytes = 0;
+        bytes += (long) taskIds.length * (8 + 1 + 4 + 4 + 4 + 1 + 4 + 4 + 4);
+        bytes += (long) assignmentTask.length * (4 + 4 + 4);
+        bytes += (long) memberIds.length * (8 + 4 + 8 + 1);
+        bytes += (long) sprintIds.length * (8 + 4 + 8 + 8 + 8 + 1 + 1);
+        bytes += stringBytes(taskTitles, taskCount) + stringBytes(taskDescriptions, taskCount);
+        bytes += stringBytes(memberNames, memberCount) + stringBytes(sprintNames, sprintCount);
+        // Entradas de los indices id -> posicion (HashMap con Long e Integer)
+        bytes += (long) (taskIndex.size() + memberIndex.size() + sprintIndex.size()) * 64;
+        return bytes;
+    }
+
+    private static long stringBytes(String[] values, int count) {
+        long bytes = 0;
+        for (int i = 0; i < count; i++) {
+            if (values[i] != null) {
+                bytes += 40 + values[i].length();
+            }
+        }
+        return bytes;
+    }
+
+    // Agregados de una version de los hechos. Por (miembro, sprint) se cuentan las
+    // asignaciones; por sprint, las tareas (tengan o no asignados). El slot 0 de
+    // sprint es "sin sprint" y el slot s + 1 es el sprint con ordinal s.
+    Cube cube() {
+        return new Cube(this);
+    }
+
+    static final class Cube {
+        final int members;
+        final int slots;
+        final int[] completed;
+        final int[] assigned;
+        final long[] actual;
+        final int[] actualCount;
+        final long[] estimated;
+        final int[] estimatedCount;
+        final long[] completedActual;
+        final int[] completedActualCount;
+
+        final int[] sprintCompletedTasks;
+        final int[] sprintTotalTasks;
+        final long[] sprintActual;
+        final int[] sprintActualCount;
+        final long[] sprintEstimated;
+        final int[] sprintEstimatedCount;
+
+        // Copias de las dimensiones para responder sin el lock
+        final String[] memberNames;
+        final long[] memberTeams;
+        final boolean[] memberLive;
+        final long[] sprintIds;
+        final String[] sprintNames;
+        final long[] sprintTeams;
+        final long[] sprintStart;
+        final long[] sprintEnd;
+        final boolean[] sprintCompleted;
+        final boolean[] sprintLive;
+
+        private Cube(KpiFacts facts) {
+            members = facts.memberCount;
+            slots = facts.sprintCount + 1;
+            memberNames = Arrays.copyOf(facts.memberNames, members);
+            memberTeams = Arrays.copyOf(facts.memberTeams, members);
+            memberLive = Arrays.copyOf(facts.memberLive, members);
+            sprintIds = Arrays.copyOf(facts.sprintIds, facts.sprintCount);
+            sprintNames = Arrays.copyOf(facts.sprintNames, facts.sprintCount);
+            sprintTeams = Arrays.copyOf(facts.sprintTeams, facts.sprintCount);
+            sprintStart = Arrays.copyOf(facts.sprintStart, facts.sprintCount);
+            sprintEnd = Arrays.copyOf(facts.sprintEnd, facts.sprintCount);
+            sprintCompleted = Arrays.copyOf(facts.sprintCompleted, facts.sprintCount);
+            sprintLive = Arrays.copyOf(facts.sprintLive, facts.sprintCount);
+
+            MemberPartial members = parallel(facts.assignmentCount,
+                    (from, to) -> MemberPartial.accumulate(facts, from, to, this.members * slots),
+                    MemberPartial::merge);
+            completed = members.completed;
+            assigned = members.assigned;
+            actual = members.actual;
+            actualCount = members.actualCount;
+            estimated = members.estimated;
+            estimatedCount = members.estimatedCount;
+            completedActual = members.completedActual;
+            completedActualCount = members.completedActualCount;
+
+            SprintPartial sprints = parallel(facts.taskCount,
+                    (from, to) -> SprintPartial.accumulate(facts, from, to),
+                    SprintPartial::merge);
+            sprintCompletedTasks = sprints.completed;
+            sprintTotalTasks = sprints.total;
+            sprintActual = sprints.actual;
+            sprintActualCount = sprints.actualCount;
+            sprintEstimated = sprints.estimated;
+            sprintEstimatedCount = sprints.estimatedCount;
+        }
+
+        int cell(int member, int slot) {
+            return member * slots + slot;
+        }
+    }
+
+    private interface RangeAccumulator<P> {
+        P accumulate(int from, int to);
+    }
+
+    private interface Merger<P> {
+        P merge(P left, P right);
+    }
+
+    // Reparte [0, rows) en bloques, acumula cada bloque en paralelo y combina los parciales
+    private static <P> P parallel(int rows, RangeAccumulator<P> accumulator, Merger<P> merger) {
+        int chunks = Math.max(1, Math.min(ForkJoinPool.getCommonPoolParallelism(), rows / MIN_ROWS_PER_CHUNK));
+        if (chunks == 1) {
+            return accumulator.accumulate(0, rows);
+        }
+        int chunkSize = (rows + chunks - 1) / chunks;
+        return IntStream.range(0, chunks)
+                .parallel()
+                .mapToObj(chunk -> accumulator.accumulate(chunk * chunkSize, Math.min(rows, (chunk + 1) * chunkSize)))
+                .reduce(merger::merge)
+                .orElseThrow();
+    }
+
+    private static final class MemberPartial {
+        final int[] completed;
+        final int[] assigned;
+        final long[] actual;
+        final int[] actualCount;
+        final long[] estimated;
+        final int[] estimatedCount;
+        final long[] completedActual;
+        final int[] completedActualCount;
+
+        MemberPartial(int cells) {
+            completed = new int[cells];
+            assigned = new int[cells];
+            actual = new long[cells];
+            actualCount = new int[cells];
+            estimated = new long[cells];
+            estimatedCount = new int[cells];
+            completedActual = new long[cells];
+            completedActualCount = new int[cells];
+        }
+
+        static MemberPartial accumulate(KpiFacts facts, int from, int to, int cells) {
+            MemberPartial partial = new MemberPartial(cells);
+            int slots = facts.sprintCount + 1;
+            for (int a = from; a < to; a++) {
+                int task = facts.assignmentTask[a];
+                if (task == NONE) {
+                    continue;
+                }
+                int cell = facts.assignmentMember[a] * slots + facts.taskSprint[task] + 1;
+                boolean done = facts.isCompleted(task);
+                int actualCents = facts.taskActualCents[task];
+                int estimatedCents = facts.taskEstimatedCents[task];
+
+                partial.assigned[cell]++;
+                if (done) {
+                    partial.completed[cell]++;
+                }
+                if (actualCents != NO_HOURS) {
+                    partial.actual[cell] += actualCents;
+                    partial.actualCount[cell]++;
+                    if (done) {
+                        partial.completedActual[cell] += actualCents;
+                        partial.completedActualCount[cell]++;
+                    }
+                }
+                if (estimatedCents != NO_HOURS) {
+                    partial.estimated[cell] += estimatedCents;
+                    partial.estimatedCount[cell]++;
+                }
+            }
+            return partial;
+        }
+
+        static MemberPartial merge(MemberPartial left, MemberPartial right) {
+            for (int i = 0; i < left.completed.length; i++) {
+                left.completed[i] += right.completed[i];
+                left.assigned[i] += right.assigned[i];
+                left.actual[i] += right.actual[i];
+                left.actualCount[i] += right.actualCount[i];
+                left.estimated[i] += right.estimated[i];
+                left.estimatedCount[i] += right.estimatedCount[i];
+                left.completedActual[i] += right.completedActual[i];
+                left.completedActualCount[i] += right.completedActualCount[i];
+            }
+            return left;
+        }
+    }
+
+    private static final class SprintPartial {
+        final int[] completed;
+        final int[] total;
+        final long[] actual;
+        final int[] actualCount;
+        final long[] estimated;
+        final int[] estimatedCount;
+
+        SprintPartial(int sprints) {
+            completed = new int[sprints];
+            total = new int[sprints];
+            actual = new long[sprints];
+            actualCount = new int[sprints];
+            estimated = new long[sprints];
+            estimatedCount = new int[sprints];
+        }
+
+        static SprintPartial accumulate(KpiFacts facts, int from, int to) {
+            SprintPartial partial = new SprintPartial(facts.sprintCount);
+            for (int t = from; t < to; t++) {
+                int sprint = facts.taskSprint[t];
+                if (!facts.taskLive[t] || sprint == NONE) {
+                    continue;
+                }
+                partial.total[sprint]++;
+                if (facts.isCompleted(t)) {
+                    partial.completed[sprint]++;
+                }
+                if (facts.taskActualCents[t] != NO_HOURS) {
+                    partial.actual[sprint] += facts.taskActualCents[t];
+                    partial.actualCount[sprint]++;
+                }
+                if (facts.taskEstimatedCents[t] != NO_HOURS) {
+                    partial.estimated[sprint] += facts.taskEstimatedCents[t];
+                    partial.estimatedCount[sprint]++;
+                }
+            }
+            return partial;
+        }
+
+        static SprintPartial merge(SprintPartial left, SprintPartial right) {
+            for (int i = 0; i < left.completed.length; i++) {
+                left.completed[i] += right.completed[i];
+                left.total[i] += right.total[i];
+                left.actual[i] += right.actual[i];
+                left.actualCount[i] += right.actualCount[i];
+                left.estimated[i] += right.estimated[i];
+                left.estimatedCount[i] += right.estimatedCount[i];
+            }
+            return left;
+        }
+    }
+}
@@ -7,8 +7,10 @@ import io.kubernetes.client.openapi.ApiClient;
 import io.kubernetes.client.util.ClientBuilder;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import javax.annotation.PreDestroy;
 import java.time.Duration;
 import java.util.UUID;
 import java.util.concurrent.atomic.AtomicBoolean;
@@ -19,6 +21,22 @@ public class LeaderElectionService {
     private final AtomicBoolean isLeader = new AtomicBoolean(false);
     private final String id = UUID.randomUUID().toString();
 
+    // El lider detiene el bot al no poder renovar en renewDeadline, antes de que
+    // venza el lease; asi nunca hay dos pods pidiendo updates a Telegram
+    private final Duration leaseDuration;
+    private final Duration renewDeadline;
+    private final Duration retryPeriod;
+    private volatile boolean stopping;
+    private volatile LeaderElector leaderElector;
+
+    public LeaderElectionService(@Value("${bot.leader.lease-seconds:15}") long leaseSeconds,
+            @Value("${bot.leader.renew-deadline-seconds:10}") long renewDeadlineSeconds,
+            @Value("${bot.leader.retry-seconds:2}") long retrySeconds) {
+        this.leaseDuration = Duration.ofSeconds(leaseSeconds);
+        this.renewDeadline = Duration.ofSeconds(renewDeadlineSeconds);
+        this.retryPeriod = Duration.ofSeconds(retrySeconds);
+    }
+
     public void startLeaderElection(TelegramBotService telegramBotService) {
         try {
             // Get Kubernetes client
@@ -37,33 +55,42 @@ public class LeaderElectionService {
             // Configure leader election
             LeaderElectionConfig leaderElectionConfig = new LeaderElectionConfig(
                     lock,
-                    Duration.ofSeconds(15), // lease duration
-                    Duration.ofSeconds(10), // renew deadline
-                    Duration.ofSeconds(2)); // retry period
+                    leaseDuration,
+                    renewDeadline,
+                    retryPeriod);
 
             // Start leader election in a separate thread
             new Thread(() -> {
                 try {
-                    try (// Create leader elector
-                            LeaderElector leaderElector = new LeaderElector(leaderElectionConfig)) {
-                        // Register callbacks
-                        leaderElector.run(
-                                () -> {
-                                    logger.info("Pod {} became leader", lockIdentity);
-                                    isLeader.set(true);
-
-                                    // Register the Telegram bot when this pod becomes the leader
-                                    logger.info("This pod is the leader - registering Telegram bot");
-                                    telegramBotService.registerBot();
-                                },
-                                () -> {
-                                    logger.info("Pod {} lost leadership", lockIdentity);
-                                    isLeader.set(false);
-                                    // Note: We can't unregister the bot easily, so we just log the event
-                                    logger.info("Lost leadership - bot will continue running until pod is terminated");
-                                });
+                    // run() regresa al perder el liderazgo; se vuelve a competir por el lease
+                    while (!stopping) {
+                        try (// Create leader elector
+                                LeaderElector elector = new LeaderElector(leaderElectionConfig)) {
+                            leaderElector = elector;
+                            // Register callbacks
+                            elector.run(
+                                    () -> {
+                                        logger.info("Pod {} became leader", lockIdentity);
+                                        isLeader.set(true);
+
+                                        // Register the Telegram bot when this pod becomes the leader
+                                        logger.info("This pod is the leader - registering Telegram bot");
+                                        telegramBotService.registerBot();
+                                    },
+                                    () -> {
+                                        logger.info("Pod {} lost leadership", lockIdentity);
+                                        isLeader.set(false);
+                                        telegramBotService.stopBot();
+                                    });
+                        }
+                        // Por si el callback no alcanzo a correr antes de cerrar el elector
+                        isLeader.set(false);
+                        telegramBotService.stopBot();
                     }
                 } catch (Exception e) {
+                    if (stopping) {
+                        return;
+                    }
                     logger.error("Error in leader election thread", e);
                     // If running locally or outside of K8s, become the leader
                     isLeader.set(true);
@@ -85,6 +112,16 @@ public class LeaderElectionService {
         }
     }
 
+    // TelegramBotService.shutdown() detiene el bot y guarda el avance
+    @PreDestroy
+    void shutdown() {
+        stopping = true;
+        LeaderElector elector = leaderElector;
+        if (elector != null) {
+            elector.close();
+        }
+    }
+
     public boolean isLeader() {
         return isLeader.get();
     }
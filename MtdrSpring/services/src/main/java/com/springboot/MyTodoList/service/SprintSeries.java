@@ -0,0 +1,400 @@
+package com.springboot.MyTodoList.service;
+
+import com.springboot.MyTodoList.model.SprintBurndown;
+import com.springboot.MyTodoList.model.SprintVelocity;
+import com.springboot.MyTodoList.model.TaskStatusCode;
+import org.jdbi.v3.core.Handle;
+import org.jdbi.v3.core.Jdbi;
+import org.jdbi.v3.core.statement.Query;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PreDestroy;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+// Series de burndown y velocidad por sprint. La primera consulta de un sprint lee
+// sus tareas una vez (indice por SPRINT_ID) y las reparte en cubetas por dia de
+// END_DATE; despues solo se aplican las tareas que publica TaskChangeFeed
+// (updateStatus, updateEndDate, updateRealHours y demas escrituras). Asi cada
+// respuesta recorre los dias del sprint y no sus tareas. TaskChangeFeed solo ve las
+// escrituras de esta replica: un sprint cargado hace mas de
+// sprint-series.reload-seconds se vuelve a leer en su siguiente consulta.
+@Service
+public class SprintSeries implements TaskChangeListener {
+    private static final Logger logger = LoggerFactory.getLogger(SprintSeries.class);
+
+    // Oracle rechaza listas IN de mas de 1000 elementos
+    private static final int BATCH_SIZE = 1000;
+    private static final int FETCH_SIZE = 1000;
+
+    private static final String SPRINTS_SELECT =
+            "SELECT ID, NAME, STATUS, START_DATE, END_DATE FROM TODOUSER.SPRINTS";
+    private static final String TASKS_SELECT =
+            "SELECT ID, SPRINT_ID, STATUS, ESTIMATED_HOURS, ACTUAL_HOURS, END_DATE FROM TODOUSER.TASKS";
+
+    // Tarea completada con END_DATE vacio o ilegible: cuenta el ultimo dia del sprint
+    private static final long UNDATED = Long.MIN_VALUE;
+
+    private final Jdbi jdbi;
+    private final long reloadNanos;
+
+    // Cargas y cambios corren en un solo hilo, en el orden en que llegan: un cambio
+    // publicado mientras se carga un sprint se aplica despues de esa carga
+    private final ExecutorService writer = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "sprint-series");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    // Protegidos por this. Solo se siguen las tareas de los sprints cargados
+    private final Map<Long, Buckets> sprints = new HashMap<>();
+    private final Map<Long, TaskPoint> tasks = new HashMap<>();
+
+    public SprintSeries(Jdbi jdbi, @Value("${sprint-series.reload-seconds:300}") long reloadSeconds) {
+        this.jdbi = jdbi;
+        this.reloadNanos = TimeUnit.SECONDS.toNanos(reloadSeconds);
+    }
+
+    @PreDestroy
+    void stop() {
+        writer.shutdownNow();
+    }
+
+    @Override
+    public void afterTaskCommit(TaskChange change) {
+        List<Long> taskIds = new ArrayList<>(change.getTaskIds());
+        Set<Long> sprintIds = change.getSprintIds();
+        writer.execute(() -> {
+            try {
+                applyTasks(taskIds, sprintIds);
+            } catch (RuntimeException e) {
+                // Se vuelven a cargar en la siguiente consulta
+                logger.error("Sprint series failed to apply {} changed tasks; dropping sprints {}",
+                        taskIds.size(), sprintIds, e);
+                drop(sprintIds);
+            }
+        });
+    }
+
+    // Vacio si el sprint no existe
+    public Optional<SprintBurndown> burndown(Long sprintId) {
+        Optional<SprintRow> found = jdbi.withHandle(handle -> readSprints(handle, " WHERE ID = :id", "id", sprintId))
+                .stream()
+                .findFirst();
+        if (!found.isPresent()) {
+            return Optional.empty();
+        }
+        SprintRow sprint = found.get();
+        ensureLoaded(List.of(sprintId));
+
+        long first = sprint.start;
+        long last = Math.max(sprint.end, first);
+        long today = LocalDate.now().toEpochDay();
+        long days = last - first;
+        List<SprintBurndown.Point> points = new ArrayList<>((int) days + 1);
+        long committed;
+
+        synchronized (this) {
+            Buckets buckets = sprints.getOrDefault(sprintId, new Buckets());
+            committed = buckets.committed;
+            // Lo completado antes del inicio ya se descuenta el primer dia, y lo
+            // completado despues del fin (o sin fecha) el ultimo
+            long remaining = committed - sum(buckets.burned.headMap(first, true).values());
+            for (long day = first; day <= last; day++) {
+                if (day > first) {
+                    remaining -= buckets.burned.getOrDefault(day, 0L);
+                }
+                if (day == last) {
+                    remaining -= sum(buckets.burned.tailMap(last, false).values()) + buckets.undatedBurned;
+                }
+                long ideal = days == 0 ? 0 : committed * (last - day) / days;
+                points.add(new SprintBurndown.Point(LocalDate.ofEpochDay(day).toString(),
+                        day <= today ? hours(remaining) : null, hours(ideal)));
+            }
+        }
+
+        SprintBurndown burndown = new SprintBurndown();
+        burndown.setSprintId(sprintId);
+        burndown.setSprintName(sprint.name);
+        burndown.setStartDate(LocalDate.ofEpochDay(sprint.start).toString());
+        burndown.setEndDate(LocalDate.ofEpochDay(sprint.end).toString());
+        burndown.setTotalEstimatedHours(hours(committed));
+        burndown.setPoints(points);
+        return Optional.of(burndown);
+    }
+
+    // Un elemento por sprint del equipo, del mas antiguo al mas reciente
+    public List<SprintVelocity> velocity(Long teamId) {
+        List<SprintRow> teamSprints = jdbi.withHandle(handle ->
+                readSprints(handle, " WHERE TEAM_ID = :teamId ORDER BY START_DATE, ID", "teamId", teamId));
+        List<Long> sprintIds = new ArrayList<>(teamSprints.size());
+        for (SprintRow sprint : teamSprints) {
+            sprintIds.add(sprint.id);
+        }
+        ensureLoaded(sprintIds);
+
+        List<SprintVelocity> rows = new ArrayList<>(teamSprints.size());
+        synchronized (this) {
+            for (SprintRow sprint : teamSprints) {
+                Buckets buckets = sprints.getOrDefault(sprint.id, new Buckets());
+                SprintVelocity row = new SprintVelocity();
+                row.setSprintId(sprint.id);
+                row.setSprintName(sprint.name);
+                row.setStatus(sprint.status);
+                row.setStartDate(LocalDate.ofEpochDay(sprint.start).toString());
+                row.setEndDate(LocalDate.ofEpochDay(sprint.end).toString());
+                row.setCompletedTasks(buckets.completedTasks);
+                row.setTotalTasks(buckets.totalTasks);
+                row.setCommittedHours(hours(buckets.committed));
+                row.setCompletedEstimatedHours(hours(buckets.completedEstimated));
+                row.setCompletedActualHours(hours(buckets.completedActual));
+                rows.add(row);
+            }
+        }
+        return rows;
+    }
+
+    // Carga en el hilo de escritura los sprints que falten o hayan vencido y espera
+    // a que terminen
+    private void ensureLoaded(Collection<Long> sprintIds) {
+        synchronized (this) {
+            if (stale(sprintIds).isEmpty()) {
+                return;
+            }
+        }
+        Future<?> load = writer.submit(() -> load(sprintIds));
+        try {
+            load.get();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new IllegalStateException(e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while loading sprint series", e);
+        }
+    }
+
+    // Llamar con el lock
+    private List<Long> stale(Collection<Long> sprintIds) {
+        List<Long> stale = new ArrayList<>();
+        long now = System.nanoTime();
+        for (Long sprintId : sprintIds) {
+            Buckets buckets = sprints.get(sprintId);
+            if (buckets == null || now - buckets.loadedAt >= reloadNanos) {
+                stale.add(sprintId);
+            }
+        }
+        return stale;
+    }
+
+    private void load(Collection<Long> sprintIds) {
+        List<Long> missing;
+        synchronized (this) {
+            missing = stale(sprintIds);
+        }
+        if (missing.isEmpty()) {
+            return;
+        }
+
+        List<TaskPoint> points = new ArrayList<>();
+        jdbi.useHandle(handle -> {
+            for (int from = 0; from < missing.size(); from += BATCH_SIZE) {
+                List<Long> batch = missing.subList(from, Math.min(from + BATCH_SIZE, missing.size()));
+                forEachRow(handle, TASKS_SELECT + " WHERE SPRINT_ID IN (<ids>)", batch,
+                        rs -> points.add(new TaskPoint(rs)));
+            }
+        });
+
+        synchronized (this) {
+            // Al recargar se reemplaza lo anterior del sprint
+            Set<Long> reloaded = new HashSet<>(missing);
+            tasks.values().removeIf(point -> reloaded.contains(point.sprintId));
+            for (Long sprintId : missing) {
+                sprints.put(sprintId, new Buckets());
+            }
+            for (TaskPoint point : points) {
+                sprints.get(point.sprintId).add(point, 1);
+                tasks.put(point.taskId, point);
+            }
+        }
+        logger.debug("Sprint series loaded {} tasks for sprints {}", points.size(), missing);
+    }
+
+    // Relee las tareas cambiadas: se descuenta lo que aportaban y se suma lo que
+    // aportan ahora (o nada si se borraron o salieron de los sprints cargados)
+    private void applyTasks(List<Long> taskIds, Set<Long> sprintIds) {
+        synchronized (this) {
+            if (sprintIds.stream().noneMatch(sprints::containsKey)) {
+                return;
+            }
+        }
+
+        Map<Long, TaskPoint> rows = new HashMap<>();
+        jdbi.useHandle(handle -> {
+            for (int from = 0; from < taskIds.size(); from += BATCH_SIZE) {
+                List<Long> batch = taskIds.subList(from, Math.min(from + BATCH_SIZE, taskIds.size()));
+                forEachRow(handle, TASKS_SELECT + " WHERE ID IN (<ids>)", batch, rs -> {
+                    TaskPoint point = new TaskPoint(rs);
+                    rows.put(point.taskId, point);
+                });
+            }
+        });
+
+        synchronized (this) {
+            for (Long taskId : taskIds) {
+                TaskPoint previous = tasks.remove(taskId);
+                if (previous != null) {
+                    sprints.get(previous.sprintId).add(previous, -1);
+                }
+                TaskPoint current = rows.get(taskId);
+                if (current != null && current.sprintId != null && sprints.containsKey(current.sprintId)) {
+                    sprints.get(current.sprintId).add(current, 1);
+                    tasks.put(taskId, current);
+                }
+            }
+        }
+    }
+
+    private synchronized void drop(Set<Long> sprintIds) {
+        sprints.keySet().removeAll(sprintIds);
+        tasks.values().removeIf(point -> sprintIds.contains(point.sprintId));
+    }
+
+    // Totales de un sprint; horas en centesimas (null cuenta como 0)
+    private static final class Buckets {
+        final long loadedAt = System.nanoTime();
+        // Estimado de las tareas completadas por dia de END_DATE (epoch day)
+        final TreeMap<Long, Long> burned = new TreeMap<>();
+        long undatedBurned;
+        int totalTasks;
+        int completedTasks;
+        long committed;
+        long completedEstimated;
+        long completedActual;
+
+        void add(TaskPoint point, int sign) {
+            totalTasks += sign;
+            committed += sign * point.estimated;
+            if (!point.done) {
+                return;
+            }
+            completedTasks += sign;
+            completedEstimated += sign * point.estimated;
+            completedActual += sign * point.actual;
+            if (point.day == UNDATED) {
+                undatedBurned += sign * point.estimated;
+            } else if (point.estimated != 0) {
+                burned.merge(point.day, sign * point.estimated, (a, b) -> a + b == 0 ? null : a + b);
+            }
+        }
+    }
+
+    private static final class TaskPoint {
+        final long taskId;
+        final Long sprintId;
+        final boolean done;
+        final long day;
+        final long estimated;
+        final long actual;
+
+        TaskPoint(ResultSet rs) throws SQLException {
+            taskId = rs.getLong("ID");
+            long sprint = rs.getLong("SPRINT_ID");
+            sprintId = rs.wasNull() ? null : sprint;
+            TaskStatusCode status = TaskStatusCode.fromName(rs.getString("STATUS"));
+            done = status != null && status.isDone();
+            day = epochDay(rs.getString("END_DATE"));
+            estimated = cents(rs.getBigDecimal("ESTIMATED_HOURS"));
+            actual = cents(rs.getBigDecimal("ACTUAL_HOURS"));
+        }
+    }
+
+    private static final class SprintRow {
+        final long id;
+        final String name;
+        final String status;
+        final long start;
+        final long end;
+
+        SprintRow(ResultSet rs) throws SQLException {
+            id = rs.getLong("ID");
+            name = rs.getString("NAME");
+            status = rs.getString("STATUS");
+            start = rs.getDate("START_DATE").toLocalDate().toEpochDay();
+            end = rs.getDate("END_DATE").toLocalDate().toEpochDay();
+        }
+    }
+
+    private static List<SprintRow> readSprints(Handle handle, String where, String name, Long value) {
+        return handle.createQuery(SPRINTS_SELECT + where)
+                .bind(name, value)
+                .map((rs, ctx) -> new SprintRow(rs))
+                .list();
+    }
+
+    private interface RowCallback {
+        void accept(ResultSet rs) throws SQLException;
+    }
+
+    private static void forEachRow(Handle handle, String sql, List<Long> ids, RowCallback callback) {
+        Query query = handle.createQuery(sql).setFetchSize(FETCH_SIZE).bindList("ids", ids);
+        query.scanResultSet((supplier, ctx) -> {
+            ResultSet rs = supplier.get();
+            while (rs.next()) {
+                callback.accept(rs);
+            }
+            return null;
+        });
+    }
+
+    // TASKS.END_DATE es VARCHAR2: se toma el prefijo yyyy-MM-dd
+    private static long epochDay(String value) {
+        if (value == null || value.length() < 10) {
+            return UNDATED;
+        }
+        try {
+            return LocalDate.parse(value.substring(0, 10)).toEpochDay();
+        } catch (DateTimeParseException e) {
+            return UNDATED;
+        }
+    }
+
+    private static long cents(BigDecimal hours) {
+        return hours == null ? 0 : hours.movePointRight(2).setScale(0, RoundingMode.HALF_UP).longValue();
+    }
+
+    private static Double hours(long cents) {
+        return cents / 100.0;
+    }
+
+    private static long sum(Collection<Long> values) {
+        long total = 0;
+        for (long value : values) {
+            total += value;
+        }
+        return total;
+    }
+}
@@ -0,0 +1,130 @@
+package com.springboot.MyTodoList.service;
+
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.Objects;
+import java.util.Set;
+
+// Lo que toco una escritura de tareas: las tareas, y los sprints, equipos y
+// miembros a los que pertenecian antes o despues de escribir. Asi quien escucha
+// puede recalcular tanto el grupo de origen como el de destino de un movimiento.
+public final class TaskChange {
+    private final Set<Long> taskIds;
+    private final Set<Long> sprintIds;
+    private final Set<Long> teamIds;
+    private final Set<Long> memberIds;
+    private final Set<MemberSprint> memberSprints;
+
+    private TaskChange(Builder builder) {
+        this.taskIds = Collections.unmodifiableSet(new LinkedHashSet<>(builder.taskIds));
+        this.sprintIds = Collections.unmodifiableSet(new LinkedHashSet<>(builder.sprintIds));
+        this.teamIds = Collections.unmodifiableSet(new LinkedHashSet<>(builder.teamIds));
+        this.memberIds = Collections.unmodifiableSet(new LinkedHashSet<>(builder.memberIds));
+        this.memberSprints = Collections.unmodifiableSet(new LinkedHashSet<>(builder.memberSprints));
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public Set<Long> getTaskIds() {
+        return taskIds;
+    }
+
+    // Sprints de las tareas (sin null: las tareas del backlog no tienen sprint)
+    public Set<Long> getSprintIds() {
+        return sprintIds;
+    }
+
+    // Equipos de las tareas, de sus asignados y de sus sprints
+    public Set<Long> getTeamIds() {
+        return teamIds;
+    }
+
+    public Set<Long> getMemberIds() {
+        return memberIds;
+    }
+
+    // Pares (miembro, sprint) afectados; el sprint es null para el backlog
+    public Set<MemberSprint> getMemberSprints() {
+        return memberSprints;
+    }
+
+    public boolean isEmpty() {
+        return taskIds.isEmpty();
+    }
+
+    public static final class MemberSprint {
+        private final Long userId;
+        private final Long sprintId;
+
+        public MemberSprint(Long userId, Long sprintId) {
+            this.userId = userId;
+            this.sprintId = sprintId;
+        }
+
+        public Long getUserId() {
+            return userId;
+        }
+
+        public Long getSprintId() {
+            return sprintId;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof MemberSprint)) {
+                return false;
+            }
+            MemberSprint other = (MemberSprint) o;
+            return Objects.equals(userId, other.userId) && Objects.equals(sprintId, other.sprintId);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(userId, sprintId);
+        }
+    }
+
+    public static final class Builder {
+        private final Set<Long> taskIds = new LinkedHashSet<>();
+        private final Set<Long> sprintIds = new LinkedHashSet<>();
+        private final Set<Long> teamIds = new LinkedHashSet<>();
+        private final Set<Long> memberIds = new LinkedHashSet<>();
+        private final Set<MemberSprint> memberSprints = new LinkedHashSet<>();
+
+        private Builder() {
+        }
+
+        // Una fila (tarea, asignado) tal como estaba en un momento dado; userId es
+        // null si la tarea no tiene asignados
+        public Builder add(Long taskId, Long sprintId, Long teamId, Long userId) {
+            taskIds.add(taskId);
+            if (sprintId != null) {
+                sprintIds.add(sprintId);
+            }
+            if (teamId != null) {
+                teamIds.add(teamId);
+            }
+            if (userId != null) {
+                memberIds.add(userId);
+                memberSprints.add(new MemberSprint(userId, sprintId));
+            }
+            return this;
+        }
+
+        public Builder addTeam(Long teamId) {
+            if (teamId != null) {
+                teamIds.add(teamId);
+            }
+            return this;
+        }
+
+        public TaskChange build() {
+            return new TaskChange(this);
+        }
+    }
+}
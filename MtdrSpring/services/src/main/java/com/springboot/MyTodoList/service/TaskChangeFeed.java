@@ -0,0 +1,188 @@
+package com.springboot.MyTodoList.service;
+
+import org.jdbi.v3.core.Handle;
+import org.jdbi.v3.core.Jdbi;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+// Publica las escrituras de tareas a los TaskChangeListener registrados. Quien escribe
+// captura las tareas antes de modificarlas y publica despues: la feed lee a que
+// sprints, equipos y miembros pertenecian en ambos momentos. Sin listeners no
+// hace ninguna consulta.
+@Component
+public class TaskChangeFeed {
+    private static final Logger logger = LoggerFactory.getLogger(TaskChangeFeed.class);
+
+    // Oracle rechaza listas IN de mas de 1000 elementos
+    private static final int BATCH_SIZE = 1000;
+
+    // Los equipos del asignado y del sprint tambien cuentan: los KPIs por miembro
+    // filtran por u.team_id y los de sprint por s.team_id
+    private static final String SNAPSHOT_SELECT =
+            "SELECT t.id AS task_id, t.sprint_id, t.team_id, ta.user_id, " +
+            "u.team_id AS user_team_id, s.team_id AS sprint_team_id FROM tasks t " +
+            "LEFT JOIN task_assignee ta ON ta.task_id = t.id " +
+            "LEFT JOIN users u ON u.id = ta.user_id " +
+            "LEFT JOIN sprints s ON s.id = t.sprint_id ";
+
+    private final List<TaskChangeListener> listeners;
+
+    public TaskChangeFeed(ObjectProvider<TaskChangeListener> listeners) {
+        this(listeners.orderedStream().collect(Collectors.toList()));
+    }
+
+    public TaskChangeFeed(List<TaskChangeListener> listeners) {
+        this.listeners = new ArrayList<>(listeners);
+    }
+
+    public boolean hasListeners() {
+        return !listeners.isEmpty();
+    }
+
+    // Captura el estado de estas tareas antes de escribirlas
+    public Capture capture(Handle handle, Collection<Long> taskIds) {
+        if (!hasListeners()) {
+            return Capture.NONE;
+        }
+        Capture capture = new Capture(this, handle);
+        capture.addTasks(taskIds);
+        capture.snapshot();
+        return capture;
+    }
+
+    // Captura todas las tareas que hoy estan en el sprint (movimientos masivos)
+    public Capture captureSprint(Handle handle, Long sprintId) {
+        if (!hasListeners()) {
+            return Capture.NONE;
+        }
+        Capture capture = new Capture(this, handle);
+        handle.createQuery(SNAPSHOT_SELECT + "WHERE t.sprint_id = :sprintId")
+                .bind("sprintId", sprintId)
+                .map((rs, ctx) -> {
+                    Long taskId = addRow(capture.change, rs);
+                    capture.taskIds.add(taskId);
+                    return taskId;
+                })
+                .list();
+        return capture;
+    }
+
+    // Para quien no tiene un handle abierto (el bot): abre una transaccion,
+    // captura, escribe y publica
+    public <R> R inTransaction(Jdbi jdbi, Collection<Long> taskIds, Write<R> write) {
+        return jdbi.inTransaction(handle -> {
+            Capture change = capture(handle, taskIds);
+            R result = write.apply(handle, change);
+            change.publish();
+            return result;
+        });
+    }
+
+    private void publish(Handle handle, TaskChange change) {
+        for (TaskChangeListener listener : listeners) {
+            listener.onTaskChange(handle, change);
+        }
+
+        Runnable afterCommit = () -> {
+            for (TaskChangeListener listener : listeners) {
+                try {
+                    listener.afterTaskCommit(change);
+                } catch (RuntimeException e) {
+                    logger.error("Task change listener {} failed", listener.getClass().getSimpleName(), e);
+                }
+            }
+        };
+        if (handle.isInTransaction()) {
+            handle.afterCommit(afterCommit);
+        } else {
+            afterCommit.run();
+        }
+    }
+
+    private static Long addRow(TaskChange.Builder change, ResultSet rs) throws SQLException {
+        Long taskId = rs.getLong("task_id");
+        change.add(taskId, nullableLong(rs, "sprint_id"), nullableLong(rs, "team_id"), nullableLong(rs, "user_id"))
+                .addTeam(nullableLong(rs, "user_team_id"))
+                .addTeam(nullableLong(rs, "sprint_team_id"));
+        return taskId;
+    }
+
+    private static Long nullableLong(ResultSet rs, String column) throws SQLException {
+        long value = rs.getLong(column);
+        return rs.wasNull() ? null : value;
+    }
+
+    public interface Write<R> {
+        R apply(Handle handle, Capture change);
+    }
+
+    public static final class Capture {
+        // Sin listeners: no consulta nada y publish() no hace nada
+        static final Capture NONE = new Capture(null, null);
+
+        private final TaskChangeFeed feed;
+        private final Handle handle;
+        private final Set<Long> taskIds = new LinkedHashSet<>();
+        private final TaskChange.Builder change = TaskChange.builder();
+
+        private Capture(TaskChangeFeed feed, Handle handle) {
+            this.feed = feed;
+            this.handle = handle;
+        }
+
+        // Tareas creadas durante la escritura (no existian al capturar)
+        public Capture addTask(Long taskId) {
+            if (taskId != null) {
+                taskIds.add(taskId);
+            }
+            return this;
+        }
+
+        public Capture addTasks(Collection<Long> ids) {
+            if (ids != null) {
+                for (Long id : ids) {
+                    addTask(id);
+                }
+            }
+            return this;
+        }
+
+        // Lee el estado despues de escribir y avisa a los listeners
+        public void publish() {
+            if (feed == null) {
+                return;
+            }
+            snapshot();
+            TaskChange built = change.build();
+            if (!built.isEmpty()) {
+                feed.publish(handle, built);
+            }
+        }
+
+        private void snapshot() {
+            List<Long> ids = new ArrayList<>(taskIds);
+            for (int from = 0; from < ids.size(); from += BATCH_SIZE) {
+                List<Long> batch = ids.subList(from, Math.min(from + BATCH_SIZE, ids.size()));
+                handle.createQuery(SNAPSHOT_SELECT + "WHERE t.id IN (<taskIds>)")
+                        .bindList("taskIds", batch)
+                        .map((rs, ctx) -> addRow(change, rs))
+                        .list();
+            }
+            // Una tarea borrada no aparece despues, pero sigue siendo parte del cambio
+            for (Long id : ids) {
+                change.add(id, null, null, null);
+            }
+        }
+    }
+}
@@ -0,0 +1,16 @@
+package com.springboot.MyTodoList.service;
+
+import org.jdbi.v3.core.Handle;
+
+// Se registra como bean para recibir las escrituras de tareas publicadas en TaskChangeFeed
+public interface TaskChangeListener {
+
+    // Dentro de la transaccion de la escritura y con el mismo handle: si lanza,
+    // la escritura completa se revierte
+    default void onTaskChange(Handle handle, TaskChange change) {
+    }
+
+    // Despues del commit; los errores solo se registran
+    default void afterTaskCommit(TaskChange change) {
+    }
+}
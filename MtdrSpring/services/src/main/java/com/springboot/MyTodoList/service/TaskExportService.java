@@ -0,0 +1,111 @@
+package com.springboot.MyTodoList.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.springboot.MyTodoList.model.Task;
+import com.springboot.MyTodoList.model.User;
+import com.springboot.MyTodoList.repository.TaskFilter;
+import com.springboot.MyTodoList.repository.TaskRepository;
+import org.jdbi.v3.core.Jdbi;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.stream.Collectors;
+
+// Exporta tareas escribiendo cada fila directo a la respuesta mientras se lee
+// el cursor, asi la memoria no crece con el numero de tareas
+@Service
+public class TaskExportService {
+    // Filas por viaje a la base de datos
+    static final int FETCH_SIZE = 500;
+
+    private static final String[] CSV_HEADER = {
+            "id", "title", "description", "tag", "status", "start_date", "end_date",
+            "creator_id", "creator_name", "team_id", "team_name", "sprint_id",
+            "estimated_hours", "actual_hours", "assignees"
+    };
+
+    private final Jdbi jdbi;
+    private final ObjectMapper objectMapper;
+
+    public TaskExportService(Jdbi jdbi, ObjectMapper objectMapper) {
+        this.jdbi = jdbi;
+        this.objectMapper = objectMapper;
+    }
+
+    // Un objeto JSON por linea (application/x-ndjson)
+    public void exportJsonLines(TaskFilter filter, OutputStream out) throws IOException {
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(out)) {
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            generator.setRootValueSeparator(null);
+
+            export(filter, task -> {
+                generator.writeObject(task);
+                generator.writeRaw('\n');
+            });
+        }
+    }
+
+    public void exportCsv(TaskFilter filter, OutputStream out) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        writer.write(String.join(",", CSV_HEADER));
+        writer.write("\r\n");
+
+        export(filter, task -> {
+            String assignees = task.getAssignees().stream()
+                    .map(User::getName)
+                    .collect(Collectors.joining(";"));
+            Object[] values = {
+                    task.getId(), task.getTitle(), task.getDescription(), task.getTag(), task.getStatus(),
+                    task.getStartDate(), task.getEndDate(), task.getCreatorId(), task.getCreatorName(),
+                    task.getTeamId(), task.getTeamName(), task.getSprintId(),
+                    task.getEstimatedHours(), task.getActualHours(), assignees
+            };
+            for (int i = 0; i < values.length; i++) {
+                if (i > 0) {
+                    writer.write(',');
+                }
+                writer.write(csvField(values[i]));
+            }
+            writer.write("\r\n");
+        });
+        writer.flush();
+    }
+
+    private void export(TaskFilter filter, TaskWriter taskWriter) throws IOException {
+        try {
+            jdbi.useHandle(handle -> handle.attach(TaskRepository.class)
+                    .forEachTaskWithAssignees(filter, FETCH_SIZE, task -> {
+                        try {
+                            taskWriter.write(task);
+                        } catch (IOException e) {
+                            throw new UncheckedIOException(e);
+                        }
+                    }));
+        } catch (UncheckedIOException e) {
+            // El cliente cerro la conexion o fallo la escritura
+            throw e.getCause();
+        }
+    }
+
+    static String csvField(Object value) {
+        if (value == null) {
+            return "";
+        }
+        String text = value.toString();
+        if (text.indexOf(',') < 0 && text.indexOf('"') < 0 && text.indexOf('\n') < 0 && text.indexOf('\r') < 0) {
+            return text;
+        }
+        return '"' + text.replace("\"", "\"\"") + '"';
+    }
+
+    private interface TaskWriter {
+        void write(Task task) throws IOException;
+    }
+}
@@ -1,16 +1,35 @@
 package com.springboot.MyTodoList.service;
 
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import org.jdbi.v3.core.Jdbi;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
-import org.telegram.telegrambots.meta.TelegramBotsApi;
+import org.telegram.telegrambots.bots.DefaultBotOptions;
+import org.telegram.telegrambots.meta.api.methods.updates.GetUpdates;
+import org.telegram.telegrambots.meta.api.methods.updates.SetWebhook;
+import org.telegram.telegrambots.meta.api.objects.Update;
 import org.telegram.telegrambots.meta.exceptions.TelegramApiException;
 import org.telegram.telegrambots.updatesreceivers.DefaultBotSession;
 
 import com.springboot.MyTodoList.controller.BotController;
 import com.springboot.MyTodoList.controller.GeminiController;
+import com.springboot.MyTodoList.repository.BotOffsetRepository;
+import com.springboot.MyTodoList.repository.BotSessionRepository;
 
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
 
 @Service
 public class TelegramBotService {
@@ -19,30 +38,299 @@ public class TelegramBotService {
     private final Jdbi jdbi;
     private final AuthenticationService autentication; 
     private final GeminiController geminiController;
+    private final TaskChangeFeed taskChangeFeed;
+    private final BotUpdateDispatcher dispatcher;
+    private final BotMessageSender messageSender;
+    private final BotChatIndex chatIndex;
+    private final BotGeminiJobs geminiJobs;
+    // Compartido por los bots que se creen en este pod
+    private final BotSessionStore<BotController.UserState> sessions;
 
-	public TelegramBotService(Jdbi jdbi, AuthenticationService autentication, GeminiController geminiController) {
+    private final boolean webhookMode;
+    private final String webhookUrl;
+    private final String webhookSecret;
+    private final String apiUrl;
+    // Bot que atiende el webhook; null en modo polling o antes de registrarlo
+    private volatile BotController webhookBot;
+    // Un solo BotController (y su cliente HTTP) por pod, reusado en cada periodo de
+    // liderazgo; protegido por this
+    private BotController bot;
+
+    // Long polling del lider (ver registerBot/stopBot)
+    private final MeterRegistry registry;
+    private final BotUpdateOffsets.Persistence offsetPersistence;
+    private final long heartbeatMillis;
+    private final long drainMillis;
+    private final Timer takeover;
+    private final Timer failover;
+    private final ScheduledExecutorService heartbeat = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "bot-leader-heartbeat");
+        thread.setDaemon(true);
+        return thread;
+    });
+    // Protegidos por this; null mientras este pod no es lider
+    private DefaultBotSession pollingSession;
+    private BotUpdateOffsets pollingOffsets;
+    private ScheduledFuture<?> heartbeatTask;
+    private volatile boolean offsetsWritable = true;
+
+	public TelegramBotService(Jdbi jdbi, AuthenticationService autentication, GeminiController geminiController,
+			TaskChangeFeed taskChangeFeed, BotUpdateDispatcher dispatcher, BotMessageSender messageSender,
+			BotChatIndex chatIndex, BotGeminiJobs geminiJobs,
+			@Value("${telegram.mode:polling}") String mode,
+			@Value("${telegram.webhook.url:}") String webhookUrl,
+			@Value("${telegram.webhook.secret:}") String webhookSecret,
+			@Value("${telegram.api-url:}") String apiUrl,
+			@Value("${bot.sessions.max-entries:10000}") int sessionMaxEntries,
+			@Value("${bot.sessions.idle-ttl-minutes:1440}") long sessionIdleTtlMinutes,
+			@Value("${bot.sessions.persistent:false}") boolean persistentSessions,
+			@Value("${bot.sessions.persisted-ttl-days:30}") int sessionPersistedTtlDays,
+			@Value("${bot.sessions.revalidate:false}") boolean revalidateSessions,
+			@Value("${bot.offsets.persistent:false}") boolean persistentOffsets,
+			@Value("${bot.leader.heartbeat-ms:1000}") long heartbeatMillis,
+			@Value("${bot.leader.drain-ms:3000}") long drainMillis,
+			MeterRegistry registry) {
 		//public TelegramBotService(Jdbi jdbi, AuthenticationService autentication) {
         this.jdbi = jdbi;
         this.autentication = autentication;
 	this.geminiController = geminiController;
+        this.taskChangeFeed = taskChangeFeed;
+        this.dispatcher = dispatcher;
+        this.messageSender = messageSender;
+        this.chatIndex = chatIndex;
+        this.geminiJobs = geminiJobs;
+        this.webhookMode = "webhook".equalsIgnoreCase(mode);
+        this.webhookUrl = webhookUrl;
+        this.webhookSecret = webhookSecret;
+        this.apiUrl = apiUrl;
+        this.sessions = new BotSessionStore<>(BotController.UserState.class, sessionMaxEntries,
+                Duration.ofMinutes(sessionIdleTtlMinutes), sessionPersistedTtlDays, revalidateSessions,
+                persistentSessions ? jdbi.onDemand(BotSessionRepository.class) : BotSessionStore.NONE,
+                registry);
+
+        this.registry = registry;
+        this.offsetPersistence = persistentOffsets
+                ? jdbi.onDemand(BotOffsetRepository.class) : BotUpdateOffsets.NONE;
+        this.heartbeatMillis = heartbeatMillis;
+        this.drainMillis = drainMillis;
+        this.takeover = Timer.builder("bot.leader.takeover")
+                .description("Time from winning the leader lease to polling Telegram")
+                .register(registry);
+        this.failover = Timer.builder("bot.leader.failover")
+                .description("Time from the previous leader's last heartbeat to polling Telegram again")
+                .register(registry);
+    }
+
+    @PostConstruct
+    void registerMetrics() {
+        Gauge.builder("bot.leader.active", this, service -> service.isPolling() ? 1 : 0)
+                .description("1 while this pod polls Telegram")
+                .register(registry);
+        sessions.registerMetrics();
+    }
+
+    public boolean isWebhookMode() {
+        return webhookMode;
+    }
+
+    public String getWebhookSecret() {
+        return webhookSecret;
+    }
+
+    public Optional<BotController> getWebhookBot() {
+        return Optional.ofNullable(webhookBot);
+    }
+
+    private static String botToken() {
+        return System.getProperty("TELEGRAM_BOT_TOKEN");
+    }
+
+    private synchronized BotController bot() {
+        if (bot == null) {
+            bot = createBot();
+        }
+        return bot;
+    }
+
+    private BotController createBot() {
+        String telegramBotToken = botToken();
+        String telegramBotName = System.getProperty("TELEGRAM_BOT_NAME");
+
+        logger.info("Bot initializing with username: {}", telegramBotName);
+
+        DefaultBotOptions options = new DefaultBotOptions();
+        if (apiUrl != null && !apiUrl.isBlank()) {
+            options.setBaseUrl(apiUrl);
+        }
+        chatIndex.load();
+        return new BotController(telegramBotToken, options, telegramBotName, jdbi, autentication, geminiController,
+                taskChangeFeed, dispatcher, messageSender, sessions, chatIndex, geminiJobs);
     }
 
-    public void registerBot() {
+    // Modo webhook: cada replica atiende los updates que le llegan, sin eleccion de
+    // lider. setWebhook es idempotente, asi que todas lo registran al arrancar
+    public void registerWebhook() {
+        if (webhookSecret == null || webhookSecret.isBlank()) {
+            logger.error("telegram.webhook.secret is required in webhook mode; webhook updates will be rejected");
+            return;
+        }
+        BotController botController = bot();
+        webhookBot = botController;
+
+        if (webhookUrl == null || webhookUrl.isBlank()) {
+            logger.warn("telegram.webhook.url is empty; accepting updates without registering the webhook");
+            return;
+        }
         try {
-            logger.info("Registering Telegram bot");
-            TelegramBotsApi telegramBotsApi = new TelegramBotsApi(DefaultBotSession.class);
+            SetWebhook setWebhook = new SetWebhook();
+            setWebhook.setUrl(webhookUrl);
+            setWebhook.setSecretToken(webhookSecret);
+            botController.execute(setWebhook);
+            logger.info("Telegram webhook registered at {}", webhookUrl);
+        } catch (TelegramApiException e) {
+            // Otra replica pudo haberlo registrado; los updates se aceptan igual
+            logger.error("Failed to register Telegram webhook", e);
+        }
+    }
 
-            String telegramBotToken = System.getProperty("TELEGRAM_BOT_TOKEN");
-            String telegramBotName = System.getProperty("TELEGRAM_BOT_NAME");
+    // Al ganar el liderazgo: arranca el long polling desde donde lo dejo el lider
+    // anterior (BotUpdateOffsets)
+    public synchronized void registerBot() {
+        if (pollingSession != null) {
+            logger.info("Telegram bot is already polling");
+            return;
+        }
+        long started = System.nanoTime();
+        try {
+            logger.info("Registering Telegram bot");
+            BotController botController = bot();
+            BotUpdateOffsets offsets = new BotUpdateOffsets(botController.getBotUsername(), offsetPersistence,
+                    registry);
+            Optional<BotUpdateOffsets.Saved> previous = loadOffsets(offsets);
+            long loaded = System.nanoTime();
+            botController.setUpdateOffsets(offsets);
 
-            logger.info("Bot initializing with username: {}", telegramBotName);
+            // Lo mismo que TelegramBotsApi.registerBot, pero con el offset de offsets y
+            // conservando la sesion para poder detenerla
+            botController.clearWebhook();
+            botController.onRegister();
+            DefaultBotSession session = new DefaultBotSession();
+            // getBotToken() de DefaultAbsSender esta deprecado; es el mismo token
+            session.setToken(botToken());
+            session.setOptions(botController.getOptions());
+            session.setCallback(botController);
+            session.setUpdatesSupplier(() -> fetchUpdates(botController, offsets));
+            session.start();
 
-            BotController botController = new BotController(telegramBotToken, telegramBotName, jdbi, autentication, geminiController);
-            telegramBotsApi.registerBot(botController);
+            pollingSession = session;
+            pollingOffsets = offsets;
+            heartbeatTask = heartbeat.scheduleWithFixedDelay(() -> flush(offsets),
+                    heartbeatMillis, heartbeatMillis, TimeUnit.MILLISECONDS);
 
+            long now = System.nanoTime();
+            takeover.record(now - started, TimeUnit.NANOSECONDS);
+            previous.ifPresent(row -> failover.record(
+                    row.getAgeMillis() + TimeUnit.NANOSECONDS.toMillis(now - loaded), TimeUnit.MILLISECONDS));
             logger.info("Bot registered and started successfully!");
         } catch (TelegramApiException e) {
             logger.error("Failed to register Telegram bot", e);
         }
     }
+
+    // Al perder el liderazgo o al apagar el pod: deja de pedir updates, espera a que
+    // los carriles terminen lo que ya tenian y guarda hasta donde se llego
+    public void stopBot() {
+        DefaultBotSession session;
+        BotUpdateOffsets offsets;
+        synchronized (this) {
+            if (pollingSession == null) {
+                return;
+            }
+            session = pollingSession;
+            offsets = pollingOffsets;
+            heartbeatTask.cancel(false);
+            pollingSession = null;
+            pollingOffsets = null;
+            heartbeatTask = null;
+        }
+
+        logger.info("Stopping Telegram bot polling");
+        if (session.isRunning()) {
+            session.stop();
+        }
+        try {
+            offsets.awaitIdle(drainMillis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        try {
+            offsets.close();
+        } catch (RuntimeException e) {
+            logger.error("Could not save Telegram update offsets on stop", e);
+        }
+    }
+
+    public synchronized boolean isPolling() {
+        return pollingSession != null;
+    }
+
+    @PreDestroy
+    void shutdown() {
+        stopBot();
+        heartbeat.shutdownNow();
+        synchronized (this) {
+            if (bot != null) {
+                bot.onClosing();
+            }
+        }
+    }
+
+    private Optional<BotUpdateOffsets.Saved> loadOffsets(BotUpdateOffsets offsets) {
+        try {
+            return offsets.load();
+        } catch (RuntimeException e) {
+            // Sin el punto guardado se reprocesan a lo mas los updates sin confirmar
+            logger.error("Could not load Telegram update offsets; resuming from Telegram's", e);
+            return Optional.empty();
+        }
+    }
+
+    private void flush(BotUpdateOffsets offsets) {
+        try {
+            offsets.flush();
+            offsetsWritable = true;
+        } catch (RuntimeException e) {
+            // Una vez por racha de errores; el latido corre cada segundo
+            if (offsetsWritable) {
+                logger.warn("Could not save Telegram update offsets: {}", e.getMessage());
+            }
+            offsetsWritable = false;
+        }
+    }
+
+    // Hace lo mismo que el lector de DefaultBotSession, salvo el offset: se confirma
+    // solo lo ya procesado, asi Telegram guarda lo que sigue en los carriles
+    private List<Update> fetchUpdates(BotController botController, BotUpdateOffsets offsets) throws Exception {
+        DefaultBotOptions options = botController.getOptions();
+        GetUpdates.GetUpdatesBuilder request = GetUpdates.builder()
+                .offset(offsets.nextOffset())
+                .limit(options.getGetUpdatesLimit())
+                .timeout(options.getGetUpdatesTimeout());
+        if (options.getAllowedUpdates() != null) {
+            request.allowedUpdates(options.getAllowedUpdates());
+        }
+        List<Update> fetched = botController.execute(request.build());
+
+        List<Update> fresh = new ArrayList<>();
+        for (Update update : fetched) {
+            if (offsets.claim(update.getUpdateId())) {
+                fresh.add(update);
+            }
+        }
+        // Todo estaba en curso: volver a pedir ahora devolveria lo mismo
+        if (fresh.isEmpty() && !fetched.isEmpty()) {
+            offsets.awaitProgress(1000);
+        }
+        return fresh;
+    }
 }
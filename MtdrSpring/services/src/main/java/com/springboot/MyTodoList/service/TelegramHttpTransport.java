@@ -0,0 +1,76 @@
+package com.springboot.MyTodoList.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.http.HttpEntity;
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.client.methods.CloseableHttpResponse;
+import org.apache.http.client.methods.HttpPost;
+import org.apache.http.entity.ContentType;
+import org.apache.http.entity.StringEntity;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.HttpClientBuilder;
+import org.apache.http.util.EntityUtils;
+import org.telegram.telegrambots.bots.DefaultBotOptions;
+import org.telegram.telegrambots.meta.api.methods.BotApiMethod;
+import org.telegram.telegrambots.meta.exceptions.TelegramApiException;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Serializable;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+// Transporte de BotMessageSender con su propio cliente HTTP. telegrambots arma el
+// suyo con 2 conexiones por host y no deja cambiarlo, asi la cola de salida no
+// pasaria de 2 envios en curso; este se arma con un pool del tamano pedido
+// (bot.sender.workers mas un margen). Hace la misma llamada que
+// DefaultAbsSender.execute: POST con el metodo en JSON a baseUrl + token.
+public class TelegramHttpTransport implements BotMessageSender.Transport, Closeable {
+    // Como DefaultAbsSender: mas que el timeout de getUpdates
+    private static final int SOCKET_TIMEOUT_MILLIS = 75_000;
+
+    private final String methodUrl;
+    private final CloseableHttpClient httpClient;
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    // Sin proxy: con proxy se sigue usando el cliente de telegrambots (BotController)
+    public TelegramHttpTransport(DefaultBotOptions options, String botToken, int connections) {
+        this.methodUrl = options.getBaseUrl() + botToken + "/";
+        RequestConfig requestConfig = options.getRequestConfig() != null ? options.getRequestConfig()
+                : RequestConfig.custom()
+                        .setSocketTimeout(SOCKET_TIMEOUT_MILLIS)
+                        .setConnectTimeout(SOCKET_TIMEOUT_MILLIS)
+                        .setConnectionRequestTimeout(SOCKET_TIMEOUT_MILLIS)
+                        .build();
+        this.httpClient = HttpClientBuilder.create()
+                .setMaxConnPerRoute(connections)
+                .setMaxConnTotal(connections)
+                .setConnectionTimeToLive(70, TimeUnit.SECONDS)
+                .setDefaultRequestConfig(requestConfig)
+                .build();
+    }
+
+    @Override
+    public Serializable send(BotApiMethod<? extends Serializable> method) throws TelegramApiException {
+        method.validate();
+        try {
+            HttpPost post = new HttpPost(methodUrl + method.getMethod());
+            post.addHeader("charset", StandardCharsets.UTF_8.name());
+            post.setEntity(new StringEntity(mapper.writeValueAsString(method), ContentType.APPLICATION_JSON));
+            String body;
+            try (CloseableHttpResponse response = httpClient.execute(post)) {
+                HttpEntity entity = response.getEntity();
+                body = EntityUtils.toString(entity, StandardCharsets.UTF_8);
+            }
+            // Lanza TelegramApiRequestException con error_code y retry_after si fallo
+            return method.deserializeResponse(body);
+        } catch (IOException e) {
+            throw new TelegramApiException("Unable to execute " + method.getMethod() + " method", e);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        httpClient.close();
+    }
+}
@@ -0,0 +1,61 @@
+package com.springboot.MyTodoList.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Marca usuarios y equipos modificados despues de emitir un token. Los claims de
+// un token emitido antes de la marca se consideran viejos y el filtro vuelve a
+// cargar al usuario desde la base de datos. Es local a cada instancia: en otra
+// replica los claims viejos siguen validos hasta que expire el token.
+@Component
+public class TokenRevocationList {
+    private final Map<Long, Long> userChanges = new ConcurrentHashMap<>();
+    private final Map<Long, Long> teamChanges = new ConcurrentHashMap<>();
+
+    @Value("${security.jwt.expiration-time}")
+    private long jwtExpiration;
+
+    public void markUserChanged(Long userId) {
+        if (userId != null) {
+            userChanges.put(userId, nowSeconds());
+            prune();
+        }
+    }
+
+    public void markTeamChanged(Long teamId) {
+        if (teamId != null) {
+            teamChanges.put(teamId, nowSeconds());
+            prune();
+        }
+    }
+
+    // iat tiene resolucion de segundos: un token emitido en el mismo segundo que
+    // el cambio tambien se considera viejo (solo cuesta una consulta)
+    public boolean isStale(Long userId, Long teamId, Instant issuedAt) {
+        if (issuedAt == null) {
+            return true;
+        }
+        long issuedAtSeconds = issuedAt.getEpochSecond();
+        Long userChange = userId != null ? userChanges.get(userId) : null;
+        if (userChange != null && issuedAtSeconds <= userChange) {
+            return true;
+        }
+        Long teamChange = teamId != null ? teamChanges.get(teamId) : null;
+        return teamChange != null && issuedAtSeconds <= teamChange;
+    }
+
+    // Una marca mas vieja que la vida de un token ya no afecta a ningun token valido
+    private void prune() {
+        long cutoff = nowSeconds() - jwtExpiration / 1000 - 1;
+        userChanges.values().removeIf(changedAt -> changedAt < cutoff);
+        teamChanges.values().removeIf(changedAt -> changedAt < cutoff);
+    }
+
+    private static long nowSeconds() {
+        return Instant.now().getEpochSecond();
+    }
+}
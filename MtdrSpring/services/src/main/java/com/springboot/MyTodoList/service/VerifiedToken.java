@@ -0,0 +1,47 @@
+package com.springboot.MyTodoList.service;
+
+import io.jsonwebtoken.Claims;
+
+import java.time.Instant;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+// Resultado inmutable de verificar un JWT una sola vez (firma y expiracion)
+public final class VerifiedToken {
+    private final String subject;
+    private final Instant issuedAt;
+    private final Instant expiresAt;
+    private final Map<String, Object> claims;
+
+    VerifiedToken(Claims claims) {
+        this.subject = claims.getSubject();
+        this.issuedAt = claims.getIssuedAt() != null ? claims.getIssuedAt().toInstant() : null;
+        this.expiresAt = claims.getExpiration() != null ? claims.getExpiration().toInstant() : null;
+        this.claims = Collections.unmodifiableMap(new HashMap<>(claims));
+    }
+
+    public String getSubject() {
+        return subject;
+    }
+
+    public Instant getIssuedAt() {
+        return issuedAt;
+    }
+
+    public Instant getExpiresAt() {
+        return expiresAt;
+    }
+
+    public boolean isExpired(Instant now) {
+        return expiresAt != null && !expiresAt.isAfter(now);
+    }
+
+    public Object getClaim(String name) {
+        return claims.get(name);
+    }
+
+    public Map<String, Object> getClaims() {
+        return claims;
+    }
+}
@@ -0,0 +1,17 @@
+package com.springboot.MyTodoList.service;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+// Ejecutores de hilos virtuales para trabajo que se bloquea en E/S (consultas en
+// paralelo, carriles del bot, llamadas a Gemini). Los hilos llevan el nombre del
+// componente y un numero, para distinguirlos en un volcado de hilos.
+public final class VirtualThreads {
+
+    private VirtualThreads() {
+    }
+
+    public static ExecutorService newExecutor(String name) {
+        return Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name(name + "-", 0).factory());
+    }
+}
@@ -0,0 +1,394 @@
+package com.bot.load;
+
+import com.springboot.MyTodoList.controller.BotController;
+import com.springboot.MyTodoList.controller.GeminiController;
+import com.springboot.MyTodoList.model.Sprint;
+import com.springboot.MyTodoList.model.Task;
+import com.springboot.MyTodoList.model.User;
+import com.springboot.MyTodoList.repository.CommentRepository;
+import com.springboot.MyTodoList.repository.KpiRepository;
+import com.springboot.MyTodoList.repository.SprintRepository;
+import com.springboot.MyTodoList.repository.TaskRepository;
+import com.springboot.MyTodoList.repository.UserRepository;
+import com.springboot.MyTodoList.service.AuthenticationService;
+import com.springboot.MyTodoList.service.BotChatIndex;
+import com.springboot.MyTodoList.service.BotMessageSender;
+import com.springboot.MyTodoList.service.BotSessionStore;
+import com.springboot.MyTodoList.service.BotUpdateDispatcher;
+import com.springboot.MyTodoList.service.TaskChangeFeed;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.config.MeterFilter;
+import io.micrometer.core.instrument.distribution.DistributionStatisticConfig;
+import io.micrometer.core.instrument.distribution.ValueAtPercentile;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.jdbi.v3.core.Handle;
+import org.jdbi.v3.core.HandleCallback;
+import org.jdbi.v3.core.Jdbi;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.mockito.stubbing.Answer;
+import org.telegram.telegrambots.bots.DefaultBotOptions;
+import org.telegram.telegrambots.meta.TelegramBotsApi;
+import org.telegram.telegrambots.meta.generics.BotSession;
+import org.telegram.telegrambots.updatesreceivers.DefaultBotSession;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.withSettings;
+
+// Prueba de carga del bot: BotController con su transporte real (long polling,
+// carriles, cola de salida) contra FakeTelegramApi, con repositorios en memoria.
+// Cada chat repite un flujo tipico: login, /tasks, detalle, cambio de estatus y
+// alta de tarea. No corre con el resto de las pruebas:
+//
+//   mvn test -Dtest=BotLoadTest -Dbot.load=true -Dbot.load.chats=500 -Dbot.load.db-latency-ms=5
+//
+// Reporta updates/s, percentiles por comando (bot.update.duration), espera en los
+// carriles y los mensajes que salieron por metodo de la API.
+@EnabledIfSystemProperty(named = "bot.load", matches = "true")
+public class BotLoadTest {
+
+	private static final int CHATS = Integer.getInteger("bot.load.chats", 200);
+	private static final int TEAMS = Integer.getInteger("bot.load.teams", 10);
+	private static final int TASKS_PER_USER = Integer.getInteger("bot.load.tasks-per-user", 8);
+	// Tiempo entre pasos de un mismo chat (lo que tarda una persona en tocar un boton)
+	private static final long THINK_MILLIS = Long.getLong("bot.load.think-ms", 200);
+	// Los chats arrancan repartidos en este tiempo
+	private static final long RAMP_UP_MILLIS = Long.getLong("bot.load.ramp-up-ms", 5000);
+	// Latencia simulada de cada llamada a un repositorio
+	private static final long DB_LATENCY_MILLIS = Long.getLong("bot.load.db-latency-ms", 2);
+	private static final int LANES = Integer.getInteger("bot.load.lanes", 32);
+	// Por defecto sin los limites de Telegram; con 30 y 1 se ve la cola de salida real
+	private static final double GLOBAL_PER_SECOND = Double.parseDouble(
+			System.getProperty("bot.load.global-per-second", "100000"));
+	private static final double CHAT_PER_SECOND = Double.parseDouble(
+			System.getProperty("bot.load.chat-per-second", "100000"));
+	// Hilos de la cola de salida (y conexiones HTTP a la API falsa)
+	private static final int SENDER_WORKERS = Integer.getInteger("bot.load.sender-workers", 32);
+	private static final long TIMEOUT_MILLIS = Long.getLong("bot.load.timeout-ms", 300_000);
+
+	private static final long FIRST_CHAT_ID = 700_000_000L;
+	private static final String PASSWORD = "load-password";
+
+	private final Map<Long, User> users = new ConcurrentHashMap<>();
+	private final Map<Long, Task> tasks = new ConcurrentHashMap<>();
+	private final Map<Long, List<Task>> tasksByUser = new ConcurrentHashMap<>();
+	private final Map<Long, List<Sprint>> sprintsByTeam = new ConcurrentHashMap<>();
+	private final AtomicLong nextTaskId = new AtomicLong(1_000_000);
+
+	@Test
+	void replayTypicalFlows() throws Exception {
+		SimpleMeterRegistry registry = new SimpleMeterRegistry();
+		registry.config().meterFilter(new MeterFilter() {
+			@Override
+			public DistributionStatisticConfig configure(Meter.Id id, DistributionStatisticConfig config) {
+				if (id.getType() != Meter.Type.TIMER) {
+					return config;
+				}
+				return DistributionStatisticConfig.builder()
+						.percentiles(0.5, 0.95, 0.99)
+						.build()
+						.merge(config);
+			}
+		});
+
+		seedData();
+		Jdbi jdbi = inMemoryJdbi();
+		AuthenticationService authentication = mock(AuthenticationService.class, withSettings().stubOnly());
+		when(authentication.authenticate(anyString(), anyString())).thenAnswer(delayed(invocation -> {
+			String email = invocation.getArgument(0);
+			return users.values().stream()
+					.filter(user -> user.getEmail().equals(email))
+					.findFirst()
+					.orElseThrow(() -> new IllegalArgumentException("Bad credentials"));
+		}));
+
+		BotUpdateDispatcher dispatcher = new BotUpdateDispatcher(LANES, 50, 5000, registry);
+		dispatcher.start();
+		BotMessageSender sender = new BotMessageSender(GLOBAL_PER_SECOND, CHAT_PER_SECOND, 3, 3, SENDER_WORKERS, 50,
+				registry);
+
+		// Como en TelegramBotService.createBot
+		BotChatIndex chatIndex = new BotChatIndex(jdbi, 10, 30, registry);
+		chatIndex.load();
+
+		try (FakeTelegramApi api = new FakeTelegramApi()) {
+			DefaultBotOptions options = new DefaultBotOptions();
+			options.setBaseUrl(api.baseUrl());
+			options.setGetUpdatesTimeout(1);
+			BotController bot = new BotController("load-token", options, "load_bot", jdbi, authentication,
+					mock(GeminiController.class), new TaskChangeFeed(Collections.emptyList()), dispatcher,
+					sender, BotSessionStore.inMemory(BotController.UserState.class),
+					chatIndex, null);
+			BotSession session = new TelegramBotsApi(DefaultBotSession.class).registerBot(bot);
+
+			ScheduledExecutorService clients = Executors.newSingleThreadScheduledExecutor();
+			long started = System.nanoTime();
+			int expected = 0;
+			double processedSeconds;
+			try {
+				Random random = new Random(42);
+				for (int i = 0; i < CHATS; i++) {
+					long chatId = FIRST_CHAT_ID + i;
+					long at = RAMP_UP_MILLIS == 0 ? 0 : (long) (random.nextDouble() * RAMP_UP_MILLIS);
+					for (Consumer<FakeTelegramApi> step : flow(i + 1L, chatId)) {
+						clients.schedule(() -> step.accept(api), at, TimeUnit.MILLISECONDS);
+						at += THINK_MILLIS;
+						expected++;
+					}
+				}
+
+				awaitProcessed(registry, expected);
+				processedSeconds = (System.nanoTime() - started) / 1e9;
+				awaitSent(registry);
+			} finally {
+				clients.shutdownNow();
+				session.stop();
+			}
+			double seconds = (System.nanoTime() - started) / 1e9;
+
+			report(registry, api, expected, processedSeconds, seconds);
+			assertEquals(expected, processed(registry));
+			assertEquals(0, registry.counter("bot.sender.messages", "result", "failed").count());
+			assertEquals(0, registry.counter("bot.dispatcher.rejected").count());
+		}
+	}
+
+	// login -> /tasks -> detalle -> cambio de estatus -> alta de tarea con sprint
+	private List<Consumer<FakeTelegramApi>> flow(long userId, long chatId) {
+		User user = users.get(userId);
+		Task task = tasksByUser.get(userId).get(0);
+		List<Sprint> sprints = sprintsByTeam.get(user.getTeamId());
+		String status = task.getStatus().equals("Backlog") ? "IN_PROGRESS" : "COMPLETED";
+
+		List<Consumer<FakeTelegramApi>> steps = new ArrayList<>();
+		steps.add(api -> api.enqueueText(chatId, "/login"));
+		steps.add(api -> api.enqueueText(chatId, user.getEmail()));
+		steps.add(api -> api.enqueueText(chatId, PASSWORD));
+		steps.add(api -> api.enqueueText(chatId, "/tasks"));
+		steps.add(api -> api.enqueueCallback(chatId, "task_" + task.getId()));
+		steps.add(api -> api.enqueueCallback(chatId, "change_status"));
+		steps.add(api -> api.enqueueCallback(chatId, "status_select_" + status));
+		steps.add(api -> api.enqueueCallback(chatId, "addTaskTitle"));
+		steps.add(api -> api.enqueueText(chatId, "Carga " + chatId));
+		steps.add(api -> api.enqueueText(chatId, "Tarea creada por la prueba de carga"));
+		steps.add(api -> api.enqueueText(chatId, "3"));
+		steps.add(api -> api.enqueueCallback(chatId, "tag_select_Feature"));
+		steps.add(api -> api.enqueueCallback(chatId, "sprint_select_" + sprints.get(0).getId()));
+		return steps;
+	}
+
+	private void seedData() {
+		for (long teamId = 1; teamId <= TEAMS; teamId++) {
+			List<Sprint> sprints = new ArrayList<>();
+			for (int s = 0; s < 3; s++) {
+				Sprint sprint = new Sprint();
+				sprint.setId(teamId * 10 + s);
+				sprint.setTeamId(teamId);
+				sprint.setName("Sprint " + (s + 1));
+				sprint.setStatus(s == 0 ? "ACTIVE" : "PLANNED");
+				sprints.add(sprint);
+			}
+			sprintsByTeam.put(teamId, sprints);
+		}
+		for (long userId = 1; userId <= CHATS; userId++) {
+			User user = new User();
+			user.setId(userId);
+			user.setName("Usuario " + userId);
+			user.setEmail("carga" + userId + "@example.com");
+			user.setTeamId(1 + (userId - 1) % TEAMS);
+			users.put(userId, user);
+
+			List<Task> assigned = Collections.synchronizedList(new ArrayList<>());
+			for (int t = 0; t < TASKS_PER_USER; t++) {
+				Task task = new Task();
+				task.setId(nextTaskId.incrementAndGet());
+				task.setTitle("Tarea " + task.getId());
+				task.setDescription("Descripcion de la tarea " + task.getId());
+				task.setTag(t % 2 == 0 ? "Feature" : "Issue");
+				task.setStatus(t % 3 == 0 ? "Backlog" : "En progreso");
+				task.setTeamId(user.getTeamId());
+				task.setSprintId(sprintsByTeam.get(user.getTeamId()).get(0).getId());
+				task.setEstimatedHours(4.0);
+				tasks.put(task.getId(), task);
+				assigned.add(task);
+			}
+			tasksByUser.put(userId, assigned);
+		}
+	}
+
+	// Repositorios en memoria con la latencia configurada; inTransaction ejecuta el
+	// callback con un Handle que entrega los mismos repositorios
+	private Jdbi inMemoryJdbi() throws Exception {
+		UserRepository userRepository = mock(UserRepository.class, withSettings().stubOnly());
+		when(userRepository.findById(anyLong())).thenAnswer(delayed(
+				invocation -> Optional.ofNullable(users.get((Long) invocation.getArgument(0)))));
+		when(userRepository.findByChatId(anyLong())).thenAnswer(delayed(invocation -> Optional.empty()));
+		when(userRepository.findChatLinks()).thenAnswer(delayed(invocation -> Collections.emptyList()));
+		when(userRepository.findAll(anyInt(), anyInt())).thenAnswer(delayed(
+				invocation -> new ArrayList<>(users.values())));
+		when(userRepository.forgetChatId(anyLong())).thenAnswer(delayed(invocation -> 1));
+		when(userRepository.setChatIdForUser(anyLong(), anyLong())).thenAnswer(delayed(invocation -> 1));
+
+		TaskRepository taskRepository = mock(TaskRepository.class, withSettings().stubOnly());
+		when(taskRepository.findTasksAssignedToUser(anyLong())).thenAnswer(delayed(invocation -> {
+			List<Task> assigned = tasksByUser.get((Long) invocation.getArgument(0));
+			synchronized (assigned) {
+				return new ArrayList<>(assigned);
+			}
+		}));
+		when(taskRepository.findById(anyLong())).thenAnswer(delayed(
+				invocation -> Optional.ofNullable(tasks.get((Long) invocation.getArgument(0)))));
+		when(taskRepository.findAssigneesByTaskId(anyLong())).thenAnswer(delayed(invocation -> {
+			Long taskId = invocation.getArgument(0);
+			List<User> assignees = new ArrayList<>();
+			tasksByUser.forEach((userId, assigned) -> {
+				if (assigned.stream().anyMatch(task -> task.getId().equals(taskId))) {
+					assignees.add(users.get(userId));
+				}
+			});
+			return assignees;
+		}));
+		when(taskRepository.findTasksByTeamId(anyLong())).thenAnswer(delayed(invocation -> {
+			Long teamId = invocation.getArgument(0);
+			List<Task> team = new ArrayList<>();
+			for (Task task : tasks.values()) {
+				if (teamId.equals(task.getTeamId())) {
+					team.add(task);
+				}
+			}
+			return team;
+		}));
+		when(taskRepository.updateStatus(anyLong(), anyString())).thenAnswer(delayed(invocation -> {
+			Task task = tasks.get((Long) invocation.getArgument(0));
+			task.setStatus(invocation.getArgument(1));
+			return 1;
+		}));
+		when(taskRepository.updateEndDate(anyLong(), anyString())).thenAnswer(delayed(invocation -> 1));
+		when(taskRepository.insert(any(Task.class))).thenAnswer(delayed(invocation -> {
+			Task task = invocation.getArgument(0);
+			task.setId(nextTaskId.incrementAndGet());
+			tasks.put(task.getId(), task);
+			return task.getId();
+		}));
+		when(taskRepository.addAssignee(anyLong(), anyLong())).thenAnswer(delayed(invocation -> {
+			tasksByUser.get((Long) invocation.getArgument(1)).add(tasks.get((Long) invocation.getArgument(0)));
+			return 1;
+		}));
+
+		SprintRepository sprintRepository = mock(SprintRepository.class, withSettings().stubOnly());
+		when(sprintRepository.findById(anyLong())).thenAnswer(delayed(invocation -> {
+			Long sprintId = invocation.getArgument(0);
+			return sprintsByTeam.values().stream()
+					.flatMap(List::stream)
+					.filter(sprint -> sprint.getId().equals(sprintId))
+					.findFirst();
+		}));
+		when(sprintRepository.findByTeamId(anyLong())).thenAnswer(delayed(
+				invocation -> sprintsByTeam.getOrDefault((Long) invocation.getArgument(0), Collections.emptyList())));
+
+		CommentRepository commentRepository = mock(CommentRepository.class, withSettings().stubOnly());
+		when(commentRepository.findByTaskId(anyLong())).thenAnswer(delayed(invocation -> Collections.emptyList()));
+
+		Handle handle = mock(Handle.class, withSettings().stubOnly());
+		when(handle.attach(UserRepository.class)).thenReturn(userRepository);
+		when(handle.attach(TaskRepository.class)).thenReturn(taskRepository);
+
+		Jdbi jdbi = mock(Jdbi.class, withSettings().stubOnly());
+		when(jdbi.onDemand(UserRepository.class)).thenReturn(userRepository);
+		when(jdbi.onDemand(TaskRepository.class)).thenReturn(taskRepository);
+		when(jdbi.onDemand(SprintRepository.class)).thenReturn(sprintRepository);
+		when(jdbi.onDemand(CommentRepository.class)).thenReturn(commentRepository);
+		when(jdbi.onDemand(KpiRepository.class)).thenReturn(mock(KpiRepository.class, withSettings().stubOnly()));
+		when(jdbi.inTransaction(any())).thenAnswer(
+				invocation -> ((HandleCallback<?, ?>) invocation.getArgument(0)).withHandle(handle));
+		return jdbi;
+	}
+
+	private static <T> Answer<T> delayed(Answer<T> answer) {
+		return invocation -> {
+			if (DB_LATENCY_MILLIS > 0) {
+				Thread.sleep(DB_LATENCY_MILLIS);
+			}
+			return answer.answer(invocation);
+		};
+	}
+
+	private static long processed(MeterRegistry registry) {
+		return registry.find("bot.update.duration").timers().stream()
+				.mapToLong(Timer::count)
+				.sum();
+	}
+
+	private static void awaitProcessed(MeterRegistry registry, int expected) throws InterruptedException {
+		long deadline = System.currentTimeMillis() + TIMEOUT_MILLIS;
+		while (processed(registry) < expected && System.currentTimeMillis() < deadline) {
+			Thread.sleep(50);
+		}
+	}
+
+	// La cola de salida vacia y sin envios en curso durante medio segundo
+	private static void awaitSent(MeterRegistry registry) throws InterruptedException {
+		long deadline = System.currentTimeMillis() + TIMEOUT_MILLIS;
+		double last = -1;
+		while (System.currentTimeMillis() < deadline) {
+			double sent = registry.find("bot.sender.messages").counters().stream()
+					.mapToDouble(counter -> counter.count())
+					.sum();
+			double queued = registry.get("bot.sender.queue.depth").gauge().value();
+			if (queued == 0 && sent == last) {
+				return;
+			}
+			last = sent;
+			Thread.sleep(500);
+		}
+	}
+
+	private static void report(MeterRegistry registry, FakeTelegramApi api, int updates,
+			double processedSeconds, double seconds) {
+		System.out.printf("%nBot load: %d chats, %d updates processed in %.1f s (%.1f updates/s), "
+				+ "outbound queue drained at %.1f s%n",
+				CHATS, updates, processedSeconds, updates / processedSeconds, seconds);
+		System.out.printf("%-34s %8s %9s %9s %9s %9s%n", "command", "count", "p50 ms", "p95 ms", "p99 ms", "max ms");
+		registry.find("bot.update.duration").timers().stream()
+				.sorted((a, b) -> a.getId().getTag("command").compareTo(b.getId().getTag("command")))
+				.forEach(timer -> printTimer(timer.getId().getTag("command"), timer));
+		printTimer("(lane wait)", registry.get("bot.dispatcher.wait").timer());
+
+		System.out.println("Telegram API calls:");
+		api.calls().forEach((method, count) -> System.out.printf("  %-26s %8d%n", method, count));
+		System.out.println("Outbound messages:");
+		registry.find("bot.sender.messages").counters().forEach(counter -> System.out.printf("  %-26s %8.0f%n",
+				counter.getId().getTag("result"), counter.count()));
+	}
+
+	private static void printTimer(String name, Timer timer) {
+		double[] values = new double[3];
+		for (ValueAtPercentile percentile : timer.takeSnapshot().percentileValues()) {
+			int index = percentile.percentile() == 0.5 ? 0 : percentile.percentile() == 0.95 ? 1 : 2;
+			values[index] = percentile.value(TimeUnit.MILLISECONDS);
+		}
+		System.out.printf("%-34s %8d %9.1f %9.1f %9.1f %9.1f%n", name, timer.count(),
+				values[0], values[1], values[2], timer.max(TimeUnit.MILLISECONDS));
+	}
+}
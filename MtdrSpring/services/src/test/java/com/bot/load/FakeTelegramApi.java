@@ -0,0 +1,218 @@
+package com.bot.load;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+// API de Telegram falsa para las pruebas de carga: getUpdates con long polling y
+// confirmacion por offset, sendMessage, answerCallbackQuery y editMessageText. Los
+// updates se encolan con enqueue(); cada llamada se cuenta por metodo.
+public class FakeTelegramApi implements AutoCloseable {
+
+	private final ObjectMapper mapper = new ObjectMapper();
+	private final HttpServer server;
+	private final ExecutorService executor = Executors.newCachedThreadPool();
+
+	// Protegido por this; lo que getUpdates todavia no ve confirmado
+	private final Deque<ObjectNode> pending = new ArrayDeque<>();
+	private final AtomicInteger nextUpdateId = new AtomicInteger(1);
+	private final AtomicInteger nextMessageId = new AtomicInteger(1);
+
+	private final Map<String, AtomicLong> calls = new ConcurrentHashMap<>();
+	private final AtomicLong enqueued = new AtomicLong();
+
+	public FakeTelegramApi() throws IOException {
+		server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+		server.createContext("/", this::handle);
+		server.setExecutor(executor);
+		server.start();
+	}
+
+	// Para DefaultBotOptions.setBaseUrl
+	public String baseUrl() {
+		return "http://127.0.0.1:" + server.getAddress().getPort() + "/bot";
+	}
+
+	public void enqueueText(long chatId, String text) {
+		ObjectNode message = message(chatId);
+		message.put("text", text);
+		if (text.startsWith("/")) {
+			ObjectNode entity = message.putArray("entities").addObject();
+			entity.put("type", "bot_command");
+			entity.put("offset", 0);
+			entity.put("length", text.length());
+		}
+		ObjectNode update = mapper.createObjectNode();
+		update.set("message", message);
+		enqueue(update);
+	}
+
+	public void enqueueCallback(long chatId, String data) {
+		ObjectNode callback = mapper.createObjectNode();
+		callback.put("id", "cb" + nextMessageId.incrementAndGet());
+		callback.set("from", user(chatId));
+		callback.set("message", message(chatId));
+		callback.put("chat_instance", String.valueOf(chatId));
+		callback.put("data", data);
+		ObjectNode update = mapper.createObjectNode();
+		update.set("callback_query", callback);
+		enqueue(update);
+	}
+
+	private synchronized void enqueue(ObjectNode update) {
+		update.put("update_id", nextUpdateId.getAndIncrement());
+		pending.addLast(update);
+		enqueued.incrementAndGet();
+		notifyAll();
+	}
+
+	public long enqueued() {
+		return enqueued.get();
+	}
+
+	// Llamadas recibidas por metodo de la API
+	public Map<String, Long> calls() {
+		Map<String, Long> counts = new TreeMap<>();
+		calls.forEach((method, count) -> counts.put(method, count.get()));
+		return counts;
+	}
+
+	public long calls(String method) {
+		AtomicLong count = calls.get(method);
+		return count == null ? 0 : count.get();
+	}
+
+	private ObjectNode message(long chatId) {
+		ObjectNode message = mapper.createObjectNode();
+		message.put("message_id", nextMessageId.incrementAndGet());
+		message.put("date", TimeUnit.MILLISECONDS.toSeconds(System.currentTimeMillis()));
+		ObjectNode chat = message.putObject("chat");
+		chat.put("id", chatId);
+		chat.put("type", "private");
+		message.set("from", user(chatId));
+		return message;
+	}
+
+	private ObjectNode user(long chatId) {
+		ObjectNode user = mapper.createObjectNode();
+		user.put("id", chatId);
+		user.put("is_bot", false);
+		user.put("first_name", "Load " + chatId);
+		return user;
+	}
+
+	private void handle(HttpExchange exchange) throws IOException {
+		try {
+			String path = exchange.getRequestURI().getPath();
+			String method = path.substring(path.lastIndexOf('/') + 1);
+			JsonNode body = readBody(exchange);
+			calls.computeIfAbsent(method, key -> new AtomicLong()).incrementAndGet();
+
+			JsonNode result;
+			// telegrambots pide los metodos en minusculas (getupdates, sendmessage)
+			switch (method.toLowerCase(Locale.ROOT)) {
+				case "getupdates":
+					result = getUpdates(body);
+					break;
+				case "sendmessage":
+				case "editmessagetext":
+					result = sentMessage(body);
+					break;
+				default:
+					// answercallbackquery, deletewebhook, ...
+					result = mapper.getNodeFactory().booleanNode(true);
+					break;
+			}
+			ObjectNode response = mapper.createObjectNode();
+			response.put("ok", true);
+			response.set("result", result);
+			write(exchange, 200, mapper.writeValueAsBytes(response));
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			write(exchange, 500, new byte[0]);
+		} catch (RuntimeException e) {
+			write(exchange, 500, String.valueOf(e).getBytes(StandardCharsets.UTF_8));
+		}
+	}
+
+	// Confirma lo anterior a offset y espera hasta timeout (a lo mas un segundo, para
+	// que la sesion se detenga rapido) a que haya updates
+	private JsonNode getUpdates(JsonNode body) throws InterruptedException {
+		int offset = body.path("offset").asInt(0);
+		int limit = body.path("limit").asInt(100);
+		long timeoutMillis = Math.min(1000, TimeUnit.SECONDS.toMillis(body.path("timeout").asInt(0)));
+		long deadline = System.currentTimeMillis() + timeoutMillis;
+
+		ArrayNode updates = mapper.createArrayNode();
+		synchronized (this) {
+			while (!pending.isEmpty() && pending.peekFirst().get("update_id").asInt() < offset) {
+				pending.pollFirst();
+			}
+			long remaining = timeoutMillis;
+			while (pending.isEmpty() && remaining > 0) {
+				wait(remaining);
+				remaining = deadline - System.currentTimeMillis();
+			}
+			for (ObjectNode update : pending) {
+				if (updates.size() >= limit) {
+					break;
+				}
+				updates.add(update);
+			}
+		}
+		return updates;
+	}
+
+	private JsonNode sentMessage(JsonNode body) {
+		ObjectNode message = mapper.createObjectNode();
+		message.put("message_id", body.has("message_id")
+				? body.get("message_id").asInt() : nextMessageId.incrementAndGet());
+		message.put("date", TimeUnit.MILLISECONDS.toSeconds(System.currentTimeMillis()));
+		ObjectNode chat = message.putObject("chat");
+		chat.put("id", body.path("chat_id").asLong());
+		chat.put("type", "private");
+		message.put("text", body.path("text").asText(""));
+		return message;
+	}
+
+	private JsonNode readBody(HttpExchange exchange) throws IOException {
+		try (InputStream in = exchange.getRequestBody()) {
+			byte[] bytes = in.readAllBytes();
+			return bytes.length == 0 ? mapper.createObjectNode() : mapper.readTree(bytes);
+		}
+	}
+
+	private static void write(HttpExchange exchange, int status, byte[] body) throws IOException {
+		exchange.getResponseHeaders().set("Content-Type", "application/json");
+		exchange.sendResponseHeaders(status, body.length);
+		try (OutputStream out = exchange.getResponseBody()) {
+			out.write(body);
+		}
+	}
+
+	@Override
+	public void close() {
+		server.stop(0);
+		executor.shutdownNow();
+	}
+}
@@ -0,0 +1,138 @@
+package com.springboot.MyTodoList.controller;
+
+import com.bot.load.FakeTelegramApi;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.springboot.MyTodoList.service.AuthenticationService;
+import com.springboot.MyTodoList.service.BotMessageSender;
+import com.springboot.MyTodoList.service.BotSessionStore;
+import com.springboot.MyTodoList.service.BotUpdateDispatcher;
+import com.springboot.MyTodoList.service.TaskChangeFeed;
+import com.springboot.MyTodoList.service.TelegramBotService;
+import com.springboot.MyTodoList.service.TestSupport;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.jdbi.v3.core.Jdbi;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.telegram.telegrambots.bots.DefaultBotOptions;
+
+import java.util.Collections;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+public class TelegramWebhookControllerTest {
+
+	private static final String SECRET = "webhook-secret";
+	private static final long CHAT_ID = 42L;
+
+	private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+	private FakeTelegramApi api;
+	private BotUpdateDispatcher dispatcher;
+	private BotMessageSender sender;
+	private MockMvc mvc;
+
+	@BeforeEach
+	void setUp() throws Exception {
+		api = new FakeTelegramApi();
+		// Un solo carril con lugar para un update, para poder llenarlo
+		dispatcher = new BotUpdateDispatcher(1, 1, 0, registry);
+		dispatcher.start();
+		sender = new BotMessageSender(1000, 1000, 10, 3, 2, 50, registry);
+
+		// Repositorios vacios: ningun chat tiene usuario
+		Jdbi jdbi = mock(Jdbi.class);
+		when(jdbi.onDemand(any())).thenAnswer(invocation -> mock((Class<?>) invocation.getArgument(0)));
+		DefaultBotOptions options = new DefaultBotOptions();
+		options.setBaseUrl(api.baseUrl());
+		BotController bot = new BotController("webhook-token", options, "webhook_bot", jdbi,
+				mock(AuthenticationService.class), mock(GeminiController.class),
+				new TaskChangeFeed(Collections.emptyList()), dispatcher, sender,
+				BotSessionStore.inMemory(BotController.UserState.class), null, null);
+
+		TelegramBotService service = mock(TelegramBotService.class);
+		when(service.isWebhookMode()).thenReturn(true);
+		when(service.getWebhookSecret()).thenReturn(SECRET);
+		when(service.getWebhookBot()).thenReturn(Optional.of(bot));
+		mvc = MockMvcBuilders.standaloneSetup(new TelegramWebhookController(service, new ObjectMapper())).build();
+	}
+
+	// Los carriles y la cola de salida usan hilos daemon, como en BotLoadTest
+	@AfterEach
+	void tearDown() {
+		api.close();
+	}
+
+	private static String textUpdate(int updateId, String text) {
+		return "{\"update_id\":" + updateId + ",\"message\":{\"message_id\":1,\"date\":1700000000,"
+				+ "\"chat\":{\"id\":" + CHAT_ID + ",\"type\":\"private\"},"
+				+ "\"from\":{\"id\":" + CHAT_ID + ",\"is_bot\":false,\"first_name\":\"Ana\"},"
+				+ "\"text\":\"" + text + "\"}}";
+	}
+
+	private ResultActions postUpdate(String secret, String body) throws Exception {
+		if (secret == null) {
+			return mvc.perform(post("/api/telegram/webhook").contentType(MediaType.APPLICATION_JSON).content(body));
+		}
+		return mvc.perform(post("/api/telegram/webhook").contentType(MediaType.APPLICATION_JSON)
+				.header(TelegramWebhookController.SECRET_HEADER, secret).content(body));
+	}
+
+	@Test
+	void missingOrWrongSecret_IsRejected() throws Exception {
+		postUpdate(null, textUpdate(1, "/start")).andExpect(status().isUnauthorized());
+		postUpdate("not-the-secret", textUpdate(2, "/start")).andExpect(status().isUnauthorized());
+
+		Thread.sleep(200);
+		assertEquals(0, api.calls("sendmessage"));
+	}
+
+	@Test
+	void validUpdate_IsAnsweredThroughTheTelegramApi() throws Exception {
+		postUpdate(SECRET, textUpdate(1, "/start")).andExpect(status().isOk());
+
+		TestSupport.await("a sendMessage on the Telegram API", () -> api.calls("sendmessage") > 0);
+	}
+
+	@Test
+	void fullLane_AsksTelegramToRetry() throws Exception {
+		CountDownLatch started = new CountDownLatch(1);
+		CountDownLatch release = new CountDownLatch(1);
+		// El carril queda ocupado con un update en curso y otro en la cola
+		assertTrue(dispatcher.dispatch(CHAT_ID, () -> {
+			started.countDown();
+			try {
+				release.await(10, TimeUnit.SECONDS);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		}, 0));
+		assertTrue(started.await(5, TimeUnit.SECONDS));
+		assertTrue(dispatcher.dispatch(CHAT_ID, () -> { }, 0));
+
+		try {
+			postUpdate(SECRET, textUpdate(1, "/start")).andExpect(status().isServiceUnavailable());
+		} finally {
+			release.countDown();
+		}
+		// Cuando el carril se vacia, la misma entrega se acepta
+		long deadline = System.currentTimeMillis() + 5000;
+		int status;
+		do {
+			Thread.sleep(20);
+			status = postUpdate(SECRET, textUpdate(1, "/start")).andReturn().getResponse().getStatus();
+		} while (status == 503 && System.currentTimeMillis() < deadline);
+		assertEquals(200, status);
+	}
+}
@@ -0,0 +1,47 @@
+package com.springboot.MyTodoList.model;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TaskStatusCodeTest {
+
+	@Test
+	void codes_FallInTheRangesTheSqlFiltersOn() {
+		for (TaskStatusCode status : TaskStatusCode.values()) {
+			int code = status.getCode();
+			assertEquals(code < TaskStatusCode.FIRST_DONE, status.isOpen(), status.name());
+			assertEquals(code >= TaskStatusCode.FIRST_DONE && code <= TaskStatusCode.LAST_DONE, status.isDone(),
+					status.name());
+			assertEquals(code == TaskStatusCode.CANCELLED_CODE, status.isCancelled(), status.name());
+			// Cada estado cae en exactamente un rango
+			int ranges = (status.isOpen() ? 1 : 0) + (status.isDone() ? 1 : 0) + (status.isCancelled() ? 1 : 0);
+			assertEquals(1, ranges, status.name());
+		}
+		assertTrue(TaskStatusCode.BACKLOG.isOpen());
+		assertTrue(TaskStatusCode.IN_PROGRESS.isOpen());
+		assertTrue(TaskStatusCode.COMPLETED.isDone());
+		assertTrue(TaskStatusCode.DONE.isDone());
+		assertTrue(TaskStatusCode.CANCELLED.isCancelled());
+	}
+
+	@Test
+	void fromCode_ReturnsTheStatusOrNull() {
+		for (TaskStatusCode status : TaskStatusCode.values()) {
+			assertSame(status, TaskStatusCode.fromCode(status.getCode()));
+		}
+		assertNull(TaskStatusCode.fromCode(0));
+		assertNull(TaskStatusCode.fromCode(29));
+	}
+
+	@Test
+	void fromName_IgnoresCaseAndReturnsNullForUnknownNames() {
+		// Los textos guardados en TASKS.STATUS
+		assertSame(TaskStatusCode.IN_PROGRESS, TaskStatusCode.fromName("En progreso"));
+		assertSame(TaskStatusCode.IN_PROGRESS, TaskStatusCode.fromName("EN PROGRESO"));
+		assertSame(TaskStatusCode.DONE, TaskStatusCode.fromName("done"));
+		assertSame(TaskStatusCode.CANCELLED, TaskStatusCode.fromName("cancelada"));
+		assertNull(TaskStatusCode.fromName("Terminada"));
+		assertNull(TaskStatusCode.fromName(null));
+	}
+}
@@ -0,0 +1,94 @@
+package com.springboot.MyTodoList.repository;
+
+import com.springboot.MyTodoList.model.TaskStatusCode;
+import org.jdbi.v3.core.Jdbi;
+import org.jdbi.v3.sqlobject.SqlObjectPlugin;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Answers;
+import org.mockito.stubbing.Answer;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+
+public class BindStatusCodesTest {
+
+	// SQL y parametros por posicion de cada sentencia que llega a la conexion falsa
+	private final List<String> statements = new ArrayList<>();
+	private final List<Map<Integer, Object>> params = new ArrayList<>();
+	private Jdbi jdbi;
+
+	@BeforeEach
+	void setUp() throws SQLException {
+		Connection connection = mock(Connection.class);
+		doAnswer(invocation -> statement(invocation.getArgument(0))).when(connection).prepareStatement(anyString());
+		doAnswer(invocation -> statement(invocation.getArgument(0)))
+				.when(connection).prepareStatement(anyString(), anyInt(), anyInt());
+		jdbi = Jdbi.create(() -> connection).installPlugin(new SqlObjectPlugin());
+	}
+
+	private PreparedStatement statement(String sql) {
+		Map<Integer, Object> bound = new TreeMap<>();
+		statements.add(sql);
+		params.add(bound);
+		return mock(PreparedStatement.class, (Answer<Object>) invocation -> {
+			Object[] args = invocation.getArguments();
+			if (invocation.getMethod().getName().startsWith("set") && args.length >= 2) {
+				bound.put((Integer) args[0], args[1]);
+				return null;
+			}
+			switch (invocation.getMethod().getName()) {
+				case "execute":
+					return !sql.startsWith("UPDATE");
+				case "executeQuery":
+				case "getResultSet":
+					// Sin filas
+					return mock(ResultSet.class, Answers.RETURNS_MOCKS);
+				default:
+					return Answers.RETURNS_DEFAULTS.answer(invocation);
+			}
+		});
+	}
+
+	@Test
+	void openTasksUpdate_BindsTheFirstDoneCode() {
+		jdbi.onDemand(SprintRepository.class).moveIncompleteTasksToBacklog(5L);
+
+		assertEquals(1, statements.size());
+		assertFalse(statements.get(0).contains(":firstDone"));
+		assertTrue(params.get(0).containsValue(5L));
+		assertTrue(params.get(0).containsValue(TaskStatusCode.FIRST_DONE));
+	}
+
+	@Test
+	void doneRangeQuery_BindsBothEnds() {
+		jdbi.onDemand(KpiRepository.class).getCompletedTasksByMemberAndTeam(3L);
+
+		assertEquals(1, statements.size());
+		assertTrue(params.get(0).containsValue(TaskStatusCode.FIRST_DONE));
+		assertTrue(params.get(0).containsValue(TaskStatusCode.LAST_DONE));
+		assertTrue(params.get(0).containsValue(3L));
+	}
+
+	@Test
+	void filteredQuery_BindsTheRangeToo() {
+		jdbi.onDemand(KpiRepository.class).getSprintTasksByDeveloper(7L, null);
+
+		assertEquals(1, statements.size());
+		assertTrue(params.get(0).containsValue(TaskStatusCode.FIRST_DONE));
+		assertTrue(params.get(0).containsValue(TaskStatusCode.LAST_DONE));
+		assertTrue(params.get(0).containsValue(7L));
+	}
+}
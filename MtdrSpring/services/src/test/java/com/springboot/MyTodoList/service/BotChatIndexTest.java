@@ -0,0 +1,152 @@
+package com.springboot.MyTodoList.service;
+
+import com.springboot.MyTodoList.model.User;
+import com.springboot.MyTodoList.repository.UserRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.jdbi.v3.core.Jdbi;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class BotChatIndexTest {
+
+	private UserRepository userRepository;
+	private Jdbi jdbi;
+
+	@BeforeEach
+	void setUp() {
+		userRepository = mock(UserRepository.class);
+		jdbi = mock(Jdbi.class);
+		when(jdbi.onDemand(UserRepository.class)).thenReturn(userRepository);
+		when(userRepository.findChatLinks()).thenReturn(List.of(new BotChatIndex.ChatUser(1L, "Ana", 10L, 500L)));
+		when(userRepository.findByChatId(600L)).thenReturn(Optional.empty());
+	}
+
+	private BotChatIndex index(long missTtlSeconds) {
+		BotChatIndex index = new BotChatIndex(jdbi, 10, missTtlSeconds, new SimpleMeterRegistry());
+		index.load();
+		return index;
+	}
+
+	private static User user(long id, String name, long chatId) {
+		User user = new User();
+		user.setId(id);
+		user.setName(name);
+		user.setTeamId(10L);
+		user.setTelegramId(chatId);
+		return user;
+	}
+
+	@Test
+	void find_LoadedChatDoesNotQueryUsers() {
+		BotChatIndex index = index(30);
+
+		assertEquals("Ana", index.find(500L).orElseThrow().getName());
+		verify(userRepository, times(0)).findByChatId(500L);
+	}
+
+	@Test
+	void find_ChatLinkedOnAnotherReplica_IsReadFromUsersAndKept() {
+		BotChatIndex index = index(30);
+		// Login en otra replica despues de cargar el indice
+		when(userRepository.findByChatId(700L)).thenReturn(Optional.of(user(2L, "Beto", 700L)));
+
+		assertEquals(2L, index.find(700L).orElseThrow().getUserId());
+		assertTrue(index.find(700L).isPresent());
+		assertTrue(index.mayBeLinked(700L));
+		verify(userRepository, times(1)).findByChatId(700L);
+	}
+
+	@Test
+	void find_ChatLinkedOnAnotherReplica_ReplacesTheUsersOldChat() {
+		BotChatIndex index = index(30);
+		// Ana entro desde otro chat en otra replica
+		when(userRepository.findByChatId(700L)).thenReturn(Optional.of(user(1L, "Ana", 700L)));
+
+		assertTrue(index.find(700L).isPresent());
+
+		when(userRepository.findByChatId(500L)).thenReturn(Optional.empty());
+		assertFalse(index.find(500L).isPresent());
+	}
+
+	@Test
+	void find_UnlinkedChat_IsNotQueriedAgainWithinTheMissTtl() {
+		BotChatIndex index = index(30);
+
+		assertFalse(index.find(600L).isPresent());
+		assertFalse(index.find(600L).isPresent());
+		assertFalse(index.mayBeLinked(600L));
+		verify(userRepository, times(1)).findByChatId(600L);
+	}
+
+	@Test
+	void find_WithoutMissTtl_QueriesEveryTime() {
+		BotChatIndex index = index(0);
+
+		index.find(600L);
+		index.find(600L);
+
+		verify(userRepository, times(2)).findByChatId(600L);
+	}
+
+	@Test
+	void link_ReplacesAnEarlierMiss() {
+		BotChatIndex index = index(30);
+		assertFalse(index.find(600L).isPresent());
+
+		index.link(user(3L, "Carla", 600L), 600L);
+
+		assertEquals("Carla", index.find(600L).orElseThrow().getName());
+	}
+
+	@Test
+	void find_BeforeLoading_AlwaysQueriesUsers() {
+		when(userRepository.findChatLinks()).thenThrow(new IllegalStateException("down"));
+		BotChatIndex index = new BotChatIndex(jdbi, 10, 30, new SimpleMeterRegistry());
+		index.load();
+		when(userRepository.findByChatId(500L)).thenReturn(Optional.of(user(1L, "Ana", 500L)));
+
+		assertTrue(index.find(500L).isPresent());
+		assertTrue(index.find(500L).isPresent());
+		assertTrue(index.mayBeLinked(600L));
+		verify(userRepository, times(2)).findByChatId(500L);
+	}
+
+	@Test
+	void staleIndex_IsReloadedOnceInTheBackgroundWhileTheOldOneIsServed() throws Exception {
+		// Sin periodo de recarga: el indice vence en cuanto pasa un milisegundo
+		BotChatIndex index = new BotChatIndex(jdbi, 0, 30, new SimpleMeterRegistry());
+		index.load();
+		Thread.sleep(5);
+		CountDownLatch reloading = new CountDownLatch(1);
+		CountDownLatch release = new CountDownLatch(1);
+		when(userRepository.findChatLinks()).thenAnswer(invocation -> {
+			reloading.countDown();
+			release.await(5, TimeUnit.SECONDS);
+			return List.of(new BotChatIndex.ChatUser(2L, "Beto", 10L, 700L));
+		});
+
+		try {
+			// Los dos leen el indice anterior sin esperar a la recarga, que corre una sola vez
+			assertEquals("Ana", index.find(500L).orElseThrow().getName());
+			assertTrue(reloading.await(5, TimeUnit.SECONDS));
+			assertEquals("Ana", index.find(500L).orElseThrow().getName());
+			verify(userRepository, times(2)).findChatLinks();
+		} finally {
+			release.countDown();
+		}
+
+		TestSupport.await("the chat index reload", () -> index.find(700L).isPresent());
+		index.shutdown();
+	}
+}
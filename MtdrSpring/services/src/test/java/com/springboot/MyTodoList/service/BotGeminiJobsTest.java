@@ -0,0 +1,105 @@
+package com.springboot.MyTodoList.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class BotGeminiJobsTest {
+
+	private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+	private BotGeminiJobs jobs;
+
+	@AfterEach
+	void tearDown() {
+		jobs.shutdown();
+	}
+
+	// Job que sigue en curso hasta que se abre release
+	private static Runnable blocking(CountDownLatch started, CountDownLatch release) {
+		return () -> {
+			started.countDown();
+			try {
+				release.await(10, TimeUnit.SECONDS);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		};
+	}
+
+	private double rejected() {
+		return registry.get("bot.gemini.rejected").counter().count();
+	}
+
+	private double inFlight() {
+		return registry.get("bot.gemini.in-flight").gauge().value();
+	}
+
+	@Test
+	void submit_SecondJobForTheSameChat_IsRejectedWhileTheFirstRuns() throws Exception {
+		jobs = new BotGeminiJobs(1, 8, registry);
+		CountDownLatch started = new CountDownLatch(1);
+		CountDownLatch release = new CountDownLatch(1);
+		CountDownLatch otherChat = new CountDownLatch(1);
+
+		assertTrue(jobs.submit(7L, blocking(started, release)));
+		assertTrue(started.await(5, TimeUnit.SECONDS));
+		try {
+			assertFalse(jobs.submit(7L, () -> { }));
+			// Otro chat no comparte el limite
+			assertTrue(jobs.submit(8L, otherChat::countDown));
+			assertTrue(otherChat.await(5, TimeUnit.SECONDS));
+		} finally {
+			release.countDown();
+		}
+		assertEquals(1.0, rejected());
+	}
+
+	@Test
+	void submit_AfterTheJobEnds_TheChatCanAskAgain() throws Exception {
+		jobs = new BotGeminiJobs(1, 8, registry);
+		AtomicInteger runs = new AtomicInteger();
+
+		assertTrue(jobs.submit(7L, runs::incrementAndGet));
+		TestSupport.await("the first job", () -> runs.get() == 1 && inFlight() == 0);
+		assertTrue(jobs.submit(7L, runs::incrementAndGet));
+		TestSupport.await("the second job", () -> runs.get() == 2);
+		assertEquals(0.0, rejected());
+	}
+
+	@Test
+	void submit_FailingJob_StillReleasesTheChat() throws Exception {
+		jobs = new BotGeminiJobs(1, 8, registry);
+		CountDownLatch ran = new CountDownLatch(1);
+
+		assertTrue(jobs.submit(7L, () -> {
+			throw new IllegalStateException("gemini down");
+		}));
+		TestSupport.await("the failed job", () -> inFlight() == 0);
+		assertTrue(jobs.submit(7L, ran::countDown));
+		assertTrue(ran.await(5, TimeUnit.SECONDS));
+	}
+
+	@Test
+	void submit_JobsBeyondMaxConcurrent_WaitForAPermit() throws Exception {
+		jobs = new BotGeminiJobs(1, 1, registry);
+		CountDownLatch started = new CountDownLatch(1);
+		CountDownLatch release = new CountDownLatch(1);
+		CountDownLatch second = new CountDownLatch(1);
+
+		assertTrue(jobs.submit(7L, blocking(started, release)));
+		assertTrue(started.await(5, TimeUnit.SECONDS));
+		// El segundo chat se acepta pero espera el permiso del primero
+		assertTrue(jobs.submit(8L, second::countDown));
+		assertFalse(second.await(200, TimeUnit.MILLISECONDS));
+		assertEquals(2.0, inFlight());
+
+		release.countDown();
+		assertTrue(second.await(5, TimeUnit.SECONDS));
+	}
+}
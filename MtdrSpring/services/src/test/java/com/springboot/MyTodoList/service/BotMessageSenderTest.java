@@ -0,0 +1,243 @@
+package com.springboot.MyTodoList.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.telegram.telegrambots.meta.api.methods.BotApiMethod;
+import org.telegram.telegrambots.meta.api.methods.send.SendMessage;
+import org.telegram.telegrambots.meta.api.objects.ApiResponse;
+import org.telegram.telegrambots.meta.api.objects.Message;
+import org.telegram.telegrambots.meta.api.objects.replykeyboard.InlineKeyboardMarkup;
+import org.telegram.telegrambots.meta.exceptions.TelegramApiException;
+import org.telegram.telegrambots.meta.exceptions.TelegramApiRequestException;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class BotMessageSenderTest {
+
+	private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+	private BotMessageSender sender;
+
+	@AfterEach
+	void tearDown() {
+		sender.shutdown();
+	}
+
+	// Transporte falso: anota cada llamada y puede detenerse o fallar antes de responder
+	private static class FakeTransport implements BotMessageSender.Transport {
+		final List<String> texts = Collections.synchronizedList(new ArrayList<>());
+		final List<Long> sentAt = Collections.synchronizedList(new ArrayList<>());
+		final List<SendMessage> messages = Collections.synchronizedList(new ArrayList<>());
+		volatile CountDownLatch gate = new CountDownLatch(0);
+		volatile CountDownLatch firstCall = new CountDownLatch(1);
+		// Cuantas llamadas seguidas responden 429 antes de aceptar
+		volatile int throttled;
+
+		@Override
+		public Serializable send(BotApiMethod<? extends Serializable> method) throws TelegramApiException {
+			SendMessage message = (SendMessage) method;
+			texts.add(message.getText());
+			sentAt.add(System.nanoTime());
+			messages.add(message);
+			firstCall.countDown();
+			try {
+				gate.await(5, TimeUnit.SECONDS);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+			synchronized (this) {
+				if (throttled > 0) {
+					throttled--;
+					throw tooManyRequests();
+				}
+			}
+			return new Message();
+		}
+	}
+
+	private static TelegramApiRequestException tooManyRequests() {
+		try {
+			ApiResponse<?> response = new ObjectMapper().readValue(
+					"{\"ok\":false,\"error_code\":429,\"description\":\"Too Many Requests\","
+							+ "\"parameters\":{\"retry_after\":1}}",
+					ApiResponse.class);
+			return new TelegramApiRequestException("Error sending message", response);
+		} catch (Exception e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	private static SendMessage text(long chatId, String text) {
+		SendMessage message = new SendMessage();
+		message.setChatId(chatId);
+		message.setText(text);
+		return message;
+	}
+
+	private static SendMessage withKeyboard(SendMessage message) {
+		message.setReplyMarkup(new InlineKeyboardMarkup());
+		return message;
+	}
+
+	private double messages(String result) {
+		return registry.get("bot.sender.messages").tag("result", result).counter().count();
+	}
+
+	@Test
+	void globalBucket_PacesSendsAcrossChats() throws Exception {
+		// 5 por segundo con rafaga de 5: 10 chats distintos tardan al menos un segundo
+		sender = new BotMessageSender(5, 100, 3, 3, 4, 50, registry);
+		FakeTransport transport = new FakeTransport();
+		List<CompletableFuture<Message>> results = new ArrayList<>();
+
+		long before = System.nanoTime();
+		for (long chat = 1; chat <= 10; chat++) {
+			results.add(sender.sendForEdit(chat, text(chat, "hola"), transport));
+		}
+		for (CompletableFuture<Message> result : results) {
+			result.get(10, TimeUnit.SECONDS);
+		}
+
+		long elapsed = System.nanoTime() - before;
+		assertTrue(elapsed >= TimeUnit.MILLISECONDS.toNanos(900), "sent too fast: " + elapsed);
+		assertEquals(10.0, messages("sent"));
+	}
+
+	@Test
+	void chatBucket_SpacesSendsToTheSameChatAfterTheBurst() throws Exception {
+		// 5 por segundo en el chat con rafaga de 2: el tercero y el cuarto esperan ~200 ms cada uno
+		sender = new BotMessageSender(1000, 5, 2, 3, 4, 50, registry);
+		FakeTransport transport = new FakeTransport();
+		List<CompletableFuture<Message>> results = new ArrayList<>();
+
+		for (int i = 0; i < 4; i++) {
+			results.add(sender.sendForEdit(7L, text(7L, "m" + i), transport));
+		}
+		for (CompletableFuture<Message> result : results) {
+			result.get(10, TimeUnit.SECONDS);
+		}
+
+		assertEquals(List.of("m0", "m1", "m2", "m3"), transport.texts);
+		for (int i = 2; i < 4; i++) {
+			long gap = transport.sentAt.get(i) - transport.sentAt.get(i - 1);
+			assertTrue(gap >= TimeUnit.MILLISECONDS.toNanos(150), "gap " + i + " was " + gap);
+		}
+	}
+
+	@Test
+	void queuedTexts_AreCoalescedUntilOneHasAKeyboard() throws Exception {
+		sender = new BotMessageSender(1000, 1000, 10, 3, 4, 50, registry);
+		FakeTransport transport = new FakeTransport();
+		transport.gate = new CountDownLatch(1);
+
+		// El primero queda en curso; los demas se juntan en la cola del chat
+		sender.send(7L, text(7L, "a"), transport);
+		assertTrue(transport.firstCall.await(5, TimeUnit.SECONDS));
+		sender.send(7L, text(7L, "b"), transport);
+		sender.send(7L, withKeyboard(text(7L, "c")), transport);
+		sender.send(7L, text(7L, "d"), transport);
+		transport.gate.countDown();
+
+		TestSupport.await("the sender", () -> transport.texts.size() == 3);
+		// "b" absorbe a "c" y se queda con su teclado; "c" trae teclado y ya no absorbe a "d"
+		assertEquals(List.of("a", "b\n\nc", "d"), transport.texts);
+		assertNotNull(transport.messages.get(1).getReplyMarkup());
+		assertEquals(1.0, messages("coalesced"));
+	}
+
+	@Test
+	void coalescing_SkipsSendForEditAndDifferentParseModes() throws Exception {
+		sender = new BotMessageSender(1000, 1000, 10, 3, 4, 50, registry);
+		FakeTransport transport = new FakeTransport();
+		transport.gate = new CountDownLatch(1);
+
+		sender.send(7L, text(7L, "a"), transport);
+		assertTrue(transport.firstCall.await(5, TimeUnit.SECONDS));
+		sender.send(7L, text(7L, "b"), transport);
+		CompletableFuture<Message> edited = sender.sendForEdit(7L, text(7L, "c"), transport);
+		SendMessage html = text(7L, "d");
+		html.setParseMode("HTML");
+		sender.send(7L, html, transport);
+		sender.send(7L, text(7L, "e"), transport);
+		sender.send(7L, text(7L, "x".repeat(4095)), transport);
+		transport.gate.countDown();
+
+		edited.get(10, TimeUnit.SECONDS);
+		TestSupport.await("the sender", () -> transport.texts.size() == 6);
+		assertEquals(List.of("a", "b", "c", "d", "e"), transport.texts.subList(0, 5));
+		assertEquals(0.0, messages("coalesced"));
+	}
+
+	@Test
+	void tooManyRequests_IsRetriedBeforeTheRestOfTheChat() throws Exception {
+		sender = new BotMessageSender(1000, 1000, 10, 3, 4, 50, registry);
+		FakeTransport transport = new FakeTransport();
+		transport.gate = new CountDownLatch(1);
+		transport.throttled = 1;
+
+		CompletableFuture<Message> first = sender.sendForEdit(7L, text(7L, "a"), transport);
+		assertTrue(transport.firstCall.await(5, TimeUnit.SECONDS));
+		CompletableFuture<Message> second = sender.sendForEdit(7L, text(7L, "b"), transport);
+		long before = System.nanoTime();
+		transport.gate.countDown();
+
+		first.get(10, TimeUnit.SECONDS);
+		second.get(10, TimeUnit.SECONDS);
+		// "a" vuelve al frente de la cola y espera su retry_after (1 s) antes que "b"
+		assertEquals(List.of("a", "a", "b"), transport.texts);
+		assertTrue(transport.sentAt.get(1) - before >= TimeUnit.MILLISECONDS.toNanos(900));
+		assertEquals(1.0, messages("retried"));
+		assertEquals(2.0, messages("sent"));
+	}
+
+	@Test
+	void tooManyRequests_FailsAfterMaxRetries() throws Exception {
+		sender = new BotMessageSender(1000, 1000, 10, 1, 4, 50, registry);
+		FakeTransport transport = new FakeTransport();
+		transport.throttled = 2;
+
+		CompletableFuture<Message> result = sender.sendForEdit(7L, text(7L, "a"), transport);
+
+		ExecutionException error = assertThrows(ExecutionException.class, () -> result.get(10, TimeUnit.SECONDS));
+		assertTrue(error.getCause() instanceof TelegramApiRequestException);
+		assertEquals(2, transport.texts.size());
+		assertEquals(1.0, messages("failed"));
+	}
+
+	@Test
+	void fullChatQueue_RejectsNewMessages() throws Exception {
+		sender = new BotMessageSender(1000, 1000, 10, 3, 4, 2, registry);
+		FakeTransport transport = new FakeTransport();
+		transport.gate = new CountDownLatch(1);
+
+		// "a" queda en curso y "b" y "c" llenan la cola del chat
+		sender.send(7L, text(7L, "a"), transport);
+		assertTrue(transport.firstCall.await(5, TimeUnit.SECONDS));
+		sender.send(7L, text(7L, "b"), transport);
+		sender.send(7L, text(7L, "c"), transport);
+		CompletableFuture<Message> rejected = sender.sendForEdit(7L, text(7L, "d"), transport);
+
+		ExecutionException error = assertThrows(ExecutionException.class, () -> rejected.get(1, TimeUnit.SECONDS));
+		assertTrue(error.getCause() instanceof RejectedExecutionException);
+		assertEquals(1.0, messages("dropped"));
+
+		// Otro chat tiene su propia cola
+		CompletableFuture<Message> otherChat = sender.sendForEdit(8L, text(8L, "e"), transport);
+		transport.gate.countDown();
+		otherChat.get(10, TimeUnit.SECONDS);
+		TestSupport.await("the sender", () -> transport.texts.size() == 3);
+		assertTrue(transport.texts.contains("b\n\nc"));
+		assertFalse(transport.texts.contains("d"));
+	}
+}
@@ -0,0 +1,168 @@
+package com.springboot.MyTodoList.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class BotSessionStoreTest {
+
+	private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+	// Estado de prueba con la misma forma que BotController.UserState
+	public static class State {
+		public String step;
+
+		public State() {
+		}
+
+		State(String step) {
+			this.step = step;
+		}
+	}
+
+	// Guarda lo que escribiria BotSessionRepository
+	private static class FakePersistence implements BotSessionStore.Persistence {
+		final Map<Long, BotSessionStore.Stored> rows = new HashMap<>();
+		final List<String> saves = new ArrayList<>();
+
+		@Override
+		public Optional<BotSessionStore.Stored> load(long chatId) {
+			return Optional.ofNullable(rows.get(chatId));
+		}
+
+		@Override
+		public Long findVersion(long chatId) {
+			BotSessionStore.Stored row = rows.get(chatId);
+			return row == null ? null : row.getVersion();
+		}
+
+		@Override
+		public void save(long chatId, String state, long version) {
+			rows.put(chatId, new BotSessionStore.Stored(state, version));
+			saves.add(state);
+		}
+
+		@Override
+		public int purgeOlderThanDays(int days) {
+			return 0;
+		}
+	}
+
+	private BotSessionStore<State> store(int maxEntries, Duration idleTtl, boolean revalidate,
+			BotSessionStore.Persistence persistence) {
+		return new BotSessionStore<>(State.class, maxEntries, idleTtl, 0, revalidate, persistence, registry);
+	}
+
+	private double requests(String result) {
+		return registry.get("bot.sessions.requests").tag("result", result).counter().count();
+	}
+
+	private double evictions(String cause) {
+		return registry.get("bot.sessions.evictions").tag("cause", cause).counter().count();
+	}
+
+	@Test
+	void maxEntries_EvictsTheLeastRecentlyUsedChat() {
+		BotSessionStore<State> store = store(2, Duration.ofHours(1), false, BotSessionStore.NONE);
+		store.computeIfAbsent(1L, id -> new State("a"));
+		store.computeIfAbsent(2L, id -> new State("b"));
+		// El 1 se usa otra vez, asi el 2 queda como el mas viejo
+		store.computeIfAbsent(1L, id -> new State("otro"));
+		store.computeIfAbsent(3L, id -> new State("c"));
+
+		assertEquals(2, store.size());
+		assertEquals("a", store.get(1L).step);
+		assertNull(store.get(2L));
+		assertEquals(1.0, evictions("size"));
+		assertEquals(1.0, requests("hit"));
+	}
+
+	@Test
+	void idleTtl_EvictsInactiveChats() throws InterruptedException {
+		BotSessionStore<State> store = store(10, Duration.ofMillis(50), false, BotSessionStore.NONE);
+		store.put(1L, new State("a"));
+
+		Thread.sleep(120);
+
+		assertNull(store.get(1L));
+		assertEquals(0, store.size());
+		assertEquals(1.0, evictions("idle"));
+	}
+
+	@Test
+	void save_OnlyWritesWhenTheStateChanged() {
+		FakePersistence persistence = new FakePersistence();
+		BotSessionStore<State> store = store(10, Duration.ofHours(1), false, persistence);
+		State state = store.computeIfAbsent(1L, id -> new State("a"));
+
+		store.save(1L);
+		store.save(1L);
+		assertEquals(List.of("{\"step\":\"a\"}"), persistence.saves);
+
+		state.step = "b";
+		store.save(1L);
+		assertEquals(List.of("{\"step\":\"a\"}", "{\"step\":\"b\"}"), persistence.saves);
+	}
+
+	@Test
+	void evictedChat_IsReadBackFromPersistence() {
+		FakePersistence persistence = new FakePersistence();
+		BotSessionStore<State> store = store(1, Duration.ofHours(1), false, persistence);
+		store.computeIfAbsent(1L, id -> new State("a"));
+		store.save(1L);
+		// El chat 2 expulsa al 1 de memoria
+		store.computeIfAbsent(2L, id -> new State("b"));
+		assertNull(store.get(1L));
+
+		State state = store.computeIfAbsent(1L, id -> new State("nuevo"));
+
+		assertEquals("a", state.step);
+		assertEquals(1.0, requests("loaded"));
+		// Recien leido: guardar sin cambios no escribe
+		store.save(1L);
+		assertEquals(1, persistence.saves.size());
+	}
+
+	@Test
+	void revalidate_ReloadsWhenAnotherReplicaChangedTheState() {
+		FakePersistence persistence = new FakePersistence();
+		BotSessionStore<State> store = store(10, Duration.ofHours(1), true, persistence);
+		State first = store.computeIfAbsent(1L, id -> new State("a"));
+		store.save(1L);
+
+		// Sin cambios en la base se usa la copia en memoria
+		assertSame(first, store.computeIfAbsent(1L, id -> new State("nuevo")));
+
+		// Otra replica atendio el chat y escribio otra version
+		persistence.rows.put(1L, new BotSessionStore.Stored("{\"step\":\"b\"}", 42L));
+		State reloaded = store.computeIfAbsent(1L, id -> new State("nuevo"));
+
+		assertNotSame(first, reloaded);
+		assertEquals("b", reloaded.step);
+		assertEquals(1.0, requests("loaded"));
+	}
+
+	@Test
+	void unreadableStoredState_StartsANewSession() {
+		FakePersistence persistence = new FakePersistence();
+		persistence.rows.put(1L, new BotSessionStore.Stored("{no es json", 7L));
+		BotSessionStore<State> store = store(10, Duration.ofHours(1), false, persistence);
+
+		State state = store.computeIfAbsent(1L, id -> new State("nuevo"));
+
+		assertEquals("nuevo", state.step);
+		assertEquals(1.0, requests("created"));
+		assertEquals(0.0, requests("loaded"));
+		// La sesion nueva reemplaza a la ilegible en la siguiente escritura
+		store.save(1L);
+		assertEquals("{\"step\":\"nuevo\"}", persistence.rows.get(1L).getState());
+	}
+}
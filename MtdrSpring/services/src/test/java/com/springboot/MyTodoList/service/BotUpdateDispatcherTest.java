@@ -0,0 +1,141 @@
+package com.springboot.MyTodoList.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class BotUpdateDispatcherTest {
+
+	private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+	private BotUpdateDispatcher dispatcher;
+
+	@AfterEach
+	void tearDown() {
+		dispatcher.shutdown();
+	}
+
+	// Trabajo que ocupa el carril hasta que se abre release
+	private static Runnable blocking(CountDownLatch started, CountDownLatch release) {
+		return () -> {
+			started.countDown();
+			try {
+				release.await(10, TimeUnit.SECONDS);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		};
+	}
+
+	@Test
+	void sameChat_IsProcessedInOrder() throws Exception {
+		dispatcher = new BotUpdateDispatcher(4, 100, 1000, registry);
+		dispatcher.start();
+		List<Integer> done = Collections.synchronizedList(new ArrayList<>());
+		List<Integer> expected = new ArrayList<>();
+
+		for (int i = 0; i < 50; i++) {
+			int update = i;
+			expected.add(update);
+			assertTrue(dispatcher.dispatch(7L, () -> done.add(update)));
+		}
+
+		TestSupport.await("the lane", () -> done.size() == 50);
+		assertEquals(expected, done);
+	}
+
+	@Test
+	void differentLanes_RunInParallel() throws Exception {
+		dispatcher = new BotUpdateDispatcher(2, 10, 1000, registry);
+		dispatcher.start();
+		CountDownLatch started = new CountDownLatch(1);
+		CountDownLatch release = new CountDownLatch(1);
+		CountDownLatch otherChat = new CountDownLatch(1);
+
+		// Los chats 0 y 1 caen en carriles distintos
+		assertTrue(dispatcher.dispatch(0L, blocking(started, release)));
+		assertTrue(started.await(5, TimeUnit.SECONDS));
+		assertTrue(dispatcher.dispatch(1L, otherChat::countDown));
+
+		try {
+			assertTrue(otherChat.await(5, TimeUnit.SECONDS));
+		} finally {
+			release.countDown();
+		}
+	}
+
+	@Test
+	void fullLane_IsRejectedAfterTheTimeout() throws Exception {
+		dispatcher = new BotUpdateDispatcher(1, 1, 1000, registry);
+		dispatcher.start();
+		CountDownLatch started = new CountDownLatch(1);
+		CountDownLatch release = new CountDownLatch(1);
+		assertTrue(dispatcher.dispatch(7L, blocking(started, release)));
+		assertTrue(started.await(5, TimeUnit.SECONDS));
+		assertTrue(dispatcher.dispatch(7L, () -> { }, 0));
+
+		try {
+			long before = System.nanoTime();
+			assertFalse(dispatcher.dispatch(7L, () -> { }, 200));
+			assertTrue(System.nanoTime() - before >= TimeUnit.MILLISECONDS.toNanos(150));
+			assertFalse(dispatcher.dispatch(7L, () -> { }, 0));
+		} finally {
+			release.countDown();
+		}
+		assertEquals(2.0, registry.get("bot.dispatcher.rejected").counter().count());
+	}
+
+	@Test
+	void interruptedOrFailingWork_DoesNotStopTheLane() throws Exception {
+		dispatcher = new BotUpdateDispatcher(1, 10, 1000, registry);
+		dispatcher.start();
+		CountDownLatch after = new CountDownLatch(1);
+		AtomicBoolean sawInterrupt = new AtomicBoolean();
+
+		// Un handler deja la marca de interrupcion y otro lanza una excepcion
+		assertTrue(dispatcher.dispatch(7L, () -> Thread.currentThread().interrupt()));
+		assertTrue(dispatcher.dispatch(7L, () -> {
+			throw new IllegalStateException("boom");
+		}));
+		assertTrue(dispatcher.dispatch(7L, () -> {
+			sawInterrupt.set(Thread.currentThread().isInterrupted());
+			after.countDown();
+		}));
+
+		assertTrue(after.await(5, TimeUnit.SECONDS));
+		assertFalse(sawInterrupt.get());
+	}
+
+	@Test
+	void shutdown_InterruptsRunningWorkAndStopsTheLanes() throws Exception {
+		dispatcher = new BotUpdateDispatcher(1, 10, 1000, registry);
+		dispatcher.start();
+		CountDownLatch started = new CountDownLatch(1);
+		CountDownLatch interrupted = new CountDownLatch(1);
+		AtomicBoolean ranAfterShutdown = new AtomicBoolean();
+		assertTrue(dispatcher.dispatch(7L, () -> {
+			started.countDown();
+			try {
+				Thread.sleep(10_000);
+			} catch (InterruptedException e) {
+				interrupted.countDown();
+			}
+		}));
+		assertTrue(started.await(5, TimeUnit.SECONDS));
+
+		dispatcher.shutdown();
+
+		assertTrue(interrupted.await(5, TimeUnit.SECONDS));
+		dispatcher.dispatch(7L, () -> ranAfterShutdown.set(true), 0);
+		Thread.sleep(200);
+		assertFalse(ranAfterShutdown.get());
+	}
+}
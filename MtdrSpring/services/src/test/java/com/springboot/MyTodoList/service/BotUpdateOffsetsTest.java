@@ -0,0 +1,148 @@
+package com.springboot.MyTodoList.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class BotUpdateOffsetsTest {
+
+	private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+	// Guarda lo que escribiria BotOffsetRepository
+	private static class FakePersistence implements BotUpdateOffsets.Persistence {
+		final List<String> saves = new ArrayList<>();
+		BotUpdateOffsets.Saved saved;
+
+		@Override
+		public Optional<BotUpdateOffsets.Saved> load(String botName) {
+			return Optional.ofNullable(saved);
+		}
+
+		@Override
+		public synchronized void save(String botName, long lastUpdateId, String doneAbove) {
+			saves.add(lastUpdateId + "|" + doneAbove);
+		}
+
+		synchronized String last() {
+			return saves.get(saves.size() - 1);
+		}
+	}
+
+	private double skipped() {
+		return registry.get("bot.updates.skipped").counter().count();
+	}
+
+	@Test
+	void finish_OutOfOrder_OnlyConfirmsUpToTheOldestInFlight() {
+		FakePersistence persistence = new FakePersistence();
+		BotUpdateOffsets offsets = new BotUpdateOffsets("bot", persistence, registry);
+		assertFalse(offsets.load().isPresent());
+
+		assertTrue(offsets.claim(1));
+		assertTrue(offsets.claim(2));
+		assertTrue(offsets.claim(3));
+
+		// El 3 termina primero: el 1 y el 2 siguen en curso
+		offsets.finish(3);
+		assertEquals(1, offsets.nextOffset());
+		offsets.flush();
+		assertEquals("0|3", persistence.last());
+
+		offsets.finish(1);
+		assertEquals(2, offsets.nextOffset());
+		offsets.flush();
+		assertEquals("1|3", persistence.last());
+
+		offsets.finish(2);
+		assertEquals(4, offsets.nextOffset());
+		offsets.flush();
+		assertEquals("3|", persistence.last());
+	}
+
+	@Test
+	void claim_UpdateInFlightOrDone_IsNotProcessedTwice() {
+		BotUpdateOffsets offsets = new BotUpdateOffsets("bot", new FakePersistence(), registry);
+
+		assertTrue(offsets.claim(1));
+		// getUpdates lo devuelve otra vez mientras esta en curso
+		assertFalse(offsets.claim(1));
+		assertEquals(0.0, skipped());
+
+		offsets.finish(1);
+		assertFalse(offsets.claim(1));
+		assertEquals(1.0, skipped());
+		// Un finish sin claim no cambia nada
+		offsets.finish(7);
+		assertEquals(2, offsets.nextOffset());
+	}
+
+	@Test
+	void load_ResumesFromTheSavedPointAndSkipsWhatWasDoneAbove() {
+		FakePersistence persistence = new FakePersistence();
+		persistence.saved = new BotUpdateOffsets.Saved(10, "12, 13", 5000);
+		BotUpdateOffsets offsets = new BotUpdateOffsets("bot", persistence, registry);
+
+		assertEquals(5000, offsets.load().orElseThrow().getAgeMillis());
+		assertEquals(11, offsets.nextOffset());
+
+		// Telegram entrega otra vez 11, 12, 13 y 14, en ese orden
+		assertTrue(offsets.claim(11));
+		assertFalse(offsets.claim(12));
+		assertFalse(offsets.claim(13));
+		assertTrue(offsets.claim(14));
+		assertEquals(2.0, skipped());
+		assertEquals(11, offsets.nextOffset());
+
+		offsets.finish(14);
+		assertEquals(11, offsets.nextOffset());
+		offsets.finish(11);
+		assertEquals(15, offsets.nextOffset());
+		assertFalse(offsets.claim(9));
+	}
+
+	@Test
+	void close_WritesOnceAndThenNeverAgain() {
+		FakePersistence persistence = new FakePersistence();
+		BotUpdateOffsets offsets = new BotUpdateOffsets("bot", persistence, registry);
+		assertTrue(offsets.claim(1));
+		assertTrue(offsets.claim(2));
+		offsets.finish(1);
+
+		offsets.close();
+		assertEquals(List.of("1|"), persistence.saves);
+
+		// Un carril que termina tarde no pisa lo que escriba el nuevo lider
+		offsets.finish(2);
+		offsets.flush();
+		offsets.close();
+		assertFalse(offsets.claim(3));
+		assertEquals(List.of("1|"), persistence.saves);
+	}
+
+	@Test
+	void awaitIdle_ReturnsWhenTheLanesFinish() throws InterruptedException {
+		BotUpdateOffsets offsets = new BotUpdateOffsets("bot", new FakePersistence(), registry);
+		assertTrue(offsets.claim(1));
+
+		Thread lane = new Thread(() -> {
+			try {
+				Thread.sleep(100);
+			} catch (InterruptedException e) {
+				return;
+			}
+			offsets.finish(1);
+		});
+		lane.start();
+
+		long before = System.currentTimeMillis();
+		offsets.awaitIdle(5000);
+		assertTrue(System.currentTimeMillis() - before < 4000);
+		assertEquals(2, offsets.nextOffset());
+		lane.join();
+	}
+}
@@ -0,0 +1,142 @@
+package com.springboot.MyTodoList.service;
+
+import org.jdbi.v3.core.Jdbi;
+import org.mockito.Answers;
+import org.mockito.stubbing.Answer;
+
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+
+// Tablas en memoria detras de un Jdbi real con una conexion JDBC falsa, para los
+// servicios que leen con createQuery. Entiende "FROM tabla" y un solo filtro
+// "WHERE COL IN (...)" o "WHERE COL = ?"; las filas salen en el orden en que se
+// insertaron y se ignora ORDER BY.
+class FakeTables {
+
+	private static final Pattern FROM = Pattern.compile("FROM (\\S+)");
+	private static final Pattern WHERE = Pattern.compile("WHERE (\\w+) (IN|=)");
+
+	// Tabla -> llave -> fila (columna -> valor); LocalDate se lee con getDate o getTimestamp
+	private final Map<String, Map<Object, Map<String, Object>>> tables = new HashMap<>();
+	private final Jdbi jdbi;
+
+	FakeTables() {
+		Connection connection = mock(Connection.class);
+		try {
+			doAnswer(invocation -> statement(invocation.getArgument(0)))
+					.when(connection).prepareStatement(anyString());
+			doAnswer(invocation -> statement(invocation.getArgument(0)))
+					.when(connection).prepareStatement(anyString(), anyInt(), anyInt());
+		} catch (SQLException e) {
+			throw new IllegalStateException(e);
+		}
+		jdbi = Jdbi.create(() -> connection);
+	}
+
+	Jdbi jdbi() {
+		return jdbi;
+	}
+
+	// key identifica la fila dentro de la tabla (el ID, o "tarea:usuario" en TASK_ASSIGNEE)
+	synchronized FakeTables put(String table, Object key, Object... columnsAndValues) {
+		Map<String, Object> row = new HashMap<>();
+		for (int i = 0; i < columnsAndValues.length; i += 2) {
+			row.put((String) columnsAndValues[i], columnsAndValues[i + 1]);
+		}
+		tables.computeIfAbsent(table, name -> new LinkedHashMap<>()).put(key, row);
+		return this;
+	}
+
+	synchronized FakeTables remove(String table, Object key) {
+		tables.getOrDefault(table, new HashMap<>()).remove(key);
+		return this;
+	}
+
+	private PreparedStatement statement(String sql) {
+		// Parametros por posicion, tal como los liga Jdbi
+		Map<Integer, Object> params = new TreeMap<>();
+		return mock(PreparedStatement.class, (Answer<Object>) invocation -> {
+			String method = invocation.getMethod().getName();
+			Object[] args = invocation.getArguments();
+			if (method.startsWith("set") && args.length >= 2 && args[0] instanceof Integer) {
+				params.put((Integer) args[0], method.equals("setNull") ? null : args[1]);
+				return null;
+			}
+			switch (method) {
+				case "execute":
+					return true;
+				case "executeQuery":
+				case "getResultSet":
+					return resultSet(select(sql, new ArrayList<>(params.values())));
+				default:
+					return Answers.RETURNS_DEFAULTS.answer(invocation);
+			}
+		});
+	}
+
+	private synchronized List<Map<String, Object>> select(String sql, List<Object> params) {
+		Matcher from = FROM.matcher(sql);
+		if (!from.find()) {
+			throw new IllegalArgumentException("No table in " + sql);
+		}
+		Matcher where = WHERE.matcher(sql);
+		String column = where.find() ? where.group(1) : null;
+		List<Map<String, Object>> rows = new ArrayList<>();
+		for (Map<String, Object> row : tables.getOrDefault(from.group(1), new HashMap<>()).values()) {
+			if (column == null || params.contains(row.get(column))) {
+				rows.add(new HashMap<>(row));
+			}
+		}
+		return rows;
+	}
+
+	private static ResultSet resultSet(List<Map<String, Object>> rows) {
+		int[] position = {-1};
+		Object[] last = new Object[1];
+		return mock(ResultSet.class, (Answer<Object>) invocation -> {
+			String method = invocation.getMethod().getName();
+			if (method.equals("next")) {
+				return ++position[0] < rows.size();
+			}
+			if (method.equals("wasNull")) {
+				return last[0] == null;
+			}
+			if (!method.startsWith("get") || invocation.getArguments().length != 1
+					|| !(invocation.getArgument(0) instanceof String)) {
+				return Answers.RETURNS_DEFAULTS.answer(invocation);
+			}
+			Object value = rows.get(position[0]).get((String) invocation.getArgument(0));
+			last[0] = value;
+			switch (method) {
+				case "getLong":
+					return value == null ? 0L : ((Number) value).longValue();
+				case "getInt":
+					return value == null ? 0 : ((Number) value).intValue();
+				case "getDate":
+					return value == null ? null : Date.valueOf((LocalDate) value);
+				case "getTimestamp":
+					return value == null ? null : Timestamp.valueOf(((LocalDate) value).atStartOfDay());
+				default:
+					return value;
+			}
+		});
+	}
+}
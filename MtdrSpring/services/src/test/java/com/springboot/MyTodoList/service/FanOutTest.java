@@ -0,0 +1,149 @@
+package com.springboot.MyTodoList.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class FanOutTest {
+
+	private final MeterRegistry registry = new SimpleMeterRegistry();
+	private FanOut fanOut;
+
+	@AfterEach
+	void tearDown() {
+		fanOut.shutdown();
+	}
+
+	// Rama que espera hasta que la cancelen; cuenta la interrupcion
+	private static Object blockUntilInterrupted(CountDownLatch started, CountDownLatch interrupted) {
+		started.countDown();
+		try {
+			Thread.sleep(TimeUnit.SECONDS.toMillis(30));
+		} catch (InterruptedException e) {
+			interrupted.countDown();
+		}
+		return null;
+	}
+
+	@Test
+	void join_RunsBranchesAndRecordsWallAndSerialTime() {
+		fanOut = new FanOut(4, 5000, registry);
+		FanOut.Branch<Integer> one;
+		FanOut.Branch<String> two;
+		try (FanOut.Scope scope = fanOut.open("test")) {
+			one = scope.fork(() -> 1);
+			two = scope.fork(() -> "two");
+			scope.join();
+		}
+		assertEquals(1, one.get());
+		assertEquals("two", two.get());
+		assertEquals(1, registry.get("fanout.duration").tag("name", "test").tag("kind", "wall").timer().count());
+		assertEquals(1, registry.get("fanout.duration").tag("name", "test").tag("kind", "serial").timer().count());
+	}
+
+	@Test
+	void branchGet_BeforeJoin_Fails() throws InterruptedException {
+		fanOut = new FanOut(4, 5000, registry);
+		CountDownLatch release = new CountDownLatch(1);
+		try (FanOut.Scope scope = fanOut.open("test")) {
+			FanOut.Branch<Boolean> branch = scope.fork(() -> release.await(5, TimeUnit.SECONDS));
+			assertThrows(IllegalStateException.class, branch::get);
+			release.countDown();
+			scope.join();
+			assertTrue(branch.get());
+		}
+	}
+
+	@Test
+	void deadline_ThrowsAndCancelsPendingBranches() throws InterruptedException {
+		fanOut = new FanOut(4, 200, registry);
+		CountDownLatch started = new CountDownLatch(1);
+		CountDownLatch interrupted = new CountDownLatch(1);
+
+		long before = System.nanoTime();
+		try (FanOut.Scope scope = fanOut.open("slow")) {
+			scope.fork(() -> blockUntilInterrupted(started, interrupted));
+			assertThrows(FanOut.DeadlineExceededException.class, scope::join);
+		}
+
+		assertTrue(System.nanoTime() - before < TimeUnit.SECONDS.toNanos(5));
+		assertTrue(started.await(1, TimeUnit.SECONDS));
+		assertTrue(interrupted.await(5, TimeUnit.SECONDS), "the slow branch was not interrupted");
+	}
+
+	@Test
+	void failedBranch_IsRethrownAndCancelsTheOthers() throws InterruptedException {
+		fanOut = new FanOut(4, 10000, registry);
+		CountDownLatch started = new CountDownLatch(1);
+		CountDownLatch interrupted = new CountDownLatch(1);
+
+		long before = System.nanoTime();
+		try (FanOut.Scope scope = fanOut.open("failing")) {
+			// La rama lenta va primero: join no la espera para ver que otra fallo
+			scope.fork(() -> blockUntilInterrupted(started, interrupted));
+			scope.fork(() -> {
+				throw new IllegalArgumentException("boom");
+			});
+			IllegalArgumentException error = assertThrows(IllegalArgumentException.class, scope::join);
+			assertEquals("boom", error.getMessage());
+		}
+
+		assertTrue(System.nanoTime() - before < TimeUnit.SECONDS.toNanos(5));
+		assertTrue(interrupted.await(5, TimeUnit.SECONDS), "the slow branch was not interrupted");
+	}
+
+	@Test
+	void close_WithoutJoin_CancelsBranches() throws InterruptedException {
+		fanOut = new FanOut(4, 10000, registry);
+		CountDownLatch started = new CountDownLatch(1);
+		CountDownLatch interrupted = new CountDownLatch(1);
+
+		try (FanOut.Scope scope = fanOut.open("abandoned")) {
+			scope.fork(() -> blockUntilInterrupted(started, interrupted));
+			assertTrue(started.await(5, TimeUnit.SECONDS));
+		}
+
+		assertTrue(interrupted.await(5, TimeUnit.SECONDS));
+	}
+
+	@Test
+	void timeout_ReleasesPermitsOfCancelledBranchesOnly() throws InterruptedException {
+		fanOut = new FanOut(1, 300, registry);
+		CountDownLatch started = new CountDownLatch(1);
+		CountDownLatch interrupted = new CountDownLatch(1);
+		AtomicInteger waitingRan = new AtomicInteger();
+
+		// La primera rama toma el unico permiso; la segunda vence esperandolo
+		try (FanOut.Scope scope = fanOut.open("saturated")) {
+			scope.fork(() -> blockUntilInterrupted(started, interrupted));
+			assertTrue(started.await(5, TimeUnit.SECONDS));
+			scope.fork(waitingRan::incrementAndGet);
+			assertThrows(FanOut.DeadlineExceededException.class, scope::join);
+		}
+		assertTrue(interrupted.await(5, TimeUnit.SECONDS));
+		assertEquals(0, waitingRan.get());
+
+		// El permiso volvio, y solo uno: dos ramas nuevas nunca corren a la vez
+		AtomicInteger running = new AtomicInteger();
+		AtomicInteger maxRunning = new AtomicInteger();
+		try (FanOut.Scope scope = fanOut.open("after")) {
+			for (int i = 0; i < 2; i++) {
+				scope.fork(() -> {
+					maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+					Thread.sleep(50);
+					running.decrementAndGet();
+					return null;
+				});
+			}
+			scope.join();
+		}
+		assertEquals(1, maxRunning.get());
+	}
+}
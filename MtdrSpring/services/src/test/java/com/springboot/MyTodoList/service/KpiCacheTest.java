@@ -0,0 +1,144 @@
+package com.springboot.MyTodoList.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class KpiCacheTest {
+
+	private MeterRegistry registry;
+	private KpiCache cache;
+	private AtomicInteger loads;
+
+	@BeforeEach
+	void setUp() {
+		registry = new SimpleMeterRegistry();
+		cache = new KpiCache(100, 60, registry);
+		loads = new AtomicInteger();
+	}
+
+	// Devuelve cuantas veces se ha llamado el loader, contando esta
+	private int get(String endpoint, Long teamId, Long sprintId) {
+		return cache.get(endpoint, teamId, sprintId, false, true, loads::incrementAndGet);
+	}
+
+	private boolean cached(String endpoint, Long teamId, Long sprintId) {
+		int before = loads.get();
+		get(endpoint, teamId, sprintId);
+		return loads.get() == before;
+	}
+
+	private double evictions(String cause) {
+		return registry.get("kpi.cache.evictions").tag("cause", cause).counter().count();
+	}
+
+	@Test
+	void get_SecondCallIsAHit() {
+		assertEquals(1, get("by-member", 1L, null));
+		assertEquals(1, get("by-member", 1L, null));
+		assertEquals(1, cache.size());
+		assertEquals(1.0, registry.get("kpi.cache.requests").tag("result", "hit").counter().count());
+	}
+
+	@Test
+	void get_WithoutCache_AlwaysLoadsAndStoresNothing() {
+		cache.get("by-member", null, null, false, false, loads::incrementAndGet);
+		cache.get("by-member", null, null, false, false, loads::incrementAndGet);
+		assertEquals(2, loads.get());
+		assertEquals(0, cache.size());
+	}
+
+	@Test
+	void taskChange_DropsOnlyTheAffectedKeys() {
+		get("by-member", 1L, null);
+		get("by-member", 2L, null);
+		get("by-sprint", null, 5L);
+		get("by-sprint", null, 6L);
+		get("by-member", null, null);
+		get(KpiCache.LAST_SPRINT_TASKS, 2L, null);
+		assertEquals(6, cache.size());
+
+		// Tarea movida del sprint 5 (equipo 1) al backlog
+		cache.afterTaskCommit(TaskChange.builder().add(7L, 5L, 1L, 10L).build());
+
+		assertEquals(2, cache.size());
+		assertEquals(4.0, evictions("invalidated"));
+		assertTrue(cached("by-member", 2L, null));
+		assertTrue(cached("by-sprint", null, 6L));
+		assertFalse(cached("by-member", 1L, null));
+		assertFalse(cached("by-sprint", null, 5L));
+		assertFalse(cached("by-member", null, null));
+		assertFalse(cached(KpiCache.LAST_SPRINT_TASKS, 2L, null));
+	}
+
+	@Test
+	void sprintKey_IgnoresChangesToOtherSprintsOfTheSameTeam() {
+		get("by-sprint", 1L, 5L);
+
+		cache.invalidate(TaskChange.builder().add(7L, 6L, 1L, null).build());
+
+		assertTrue(cached("by-sprint", 1L, 5L));
+	}
+
+	@Test
+	void loadRacingWithAnInvalidation_IsNotStored() {
+		TaskChange change = TaskChange.builder().add(7L, 5L, 2L, null).build();
+
+		// La escritura hace commit mientras se calcula una llave que no le afecta:
+		// el valor pudo leer datos de antes o de despues, no se guarda
+		int value = cache.get("by-member", 1L, null, false, true, () -> {
+			cache.invalidate(change);
+			return loads.incrementAndGet();
+		});
+
+		assertEquals(1, value);
+		assertEquals(0, cache.size());
+		assertFalse(cached("by-member", 1L, null));
+		assertTrue(cached("by-member", 1L, null));
+	}
+
+	@Test
+	void clear_AlsoDiscardsLoadsInProgress() {
+		get("by-member", 2L, null);
+
+		cache.get("by-member", 1L, null, false, true, () -> {
+			cache.clear();
+			return loads.incrementAndGet();
+		});
+
+		assertEquals(0, cache.size());
+	}
+
+	@Test
+	void maxEntries_EvictsTheLeastRecentlyUsed() {
+		registry = new SimpleMeterRegistry();
+		cache = new KpiCache(2, 60, registry);
+		get("a", null, null);
+		get("b", null, null);
+		// "a" pasa a ser la mas reciente
+		assertTrue(cached("a", null, null));
+
+		get("c", null, null);
+
+		assertEquals(2, cache.size());
+		assertEquals(1.0, evictions("size"));
+		assertTrue(cached("a", null, null));
+		assertTrue(cached("c", null, null));
+		assertFalse(cached("b", null, null));
+	}
+
+	@Test
+	void ttl_ExpiredEntriesAreLoadedAgain() {
+		registry = new SimpleMeterRegistry();
+		cache = new KpiCache(100, 0, registry);
+		get("by-member", null, null);
+
+		assertFalse(cached("by-member", null, null));
+		assertEquals(1.0, evictions("expired"));
+	}
+}
@@ -0,0 +1,156 @@
+package com.springboot.MyTodoList.service;
+
+import com.springboot.MyTodoList.model.Kpi;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+
+public class KpiEngineTest {
+
+	private static final String USERS = "TODOUSER.USERS";
+	private static final String SPRINTS = "TODOUSER.SPRINTS";
+	private static final String TASKS = "TODOUSER.TASKS";
+	private static final String ASSIGNEES = "TODOUSER.TASK_ASSIGNEE";
+
+	private FakeTables tables;
+	private KpiEngine engine;
+
+	@BeforeEach
+	void setUp() {
+		tables = new FakeTables()
+				.put(USERS, 10L, "ID", 10L, "NAME", "Ana", "TEAM_ID", 1L)
+				.put(USERS, 11L, "ID", 11L, "NAME", "Beto", "TEAM_ID", 2L)
+				.put(SPRINTS, 100L, "ID", 100L, "NAME", "Sprint 1", "TEAM_ID", 1L, "STATUS", "COMPLETED",
+						"START_DATE", LocalDate.of(2025, 1, 1), "END_DATE", LocalDate.of(2025, 1, 14));
+		task(1L, "Completada", "2.00", 100L, 10L);
+		task(2L, "Backlog", null, 100L, 10L);
+		task(3L, "Completada", "1.00", null, 11L);
+		// Cada 2 ciclos de refresh se recarga todo
+		engine = new KpiEngine(tables.jdbi(), 60, 2, mockProvider());
+	}
+
+	@AfterEach
+	void tearDown() {
+		engine.stop();
+	}
+
+	private void task(long id, String status, String actualHours, Long sprintId, long userId) {
+		tables.put(TASKS, id, "ID", id, "STATUS", status,
+				"ACTUAL_HOURS", actualHours == null ? null : new BigDecimal(actualHours),
+				"ESTIMATED_HOURS", new BigDecimal("1.00"), "SPRINT_ID", sprintId, "TITLE", "T" + id);
+		tables.put(ASSIGNEES, id + ":" + userId, "TASK_ID", id, "USER_ID", userId);
+	}
+
+	private static Kpi row(List<Kpi> rows, String memberName) {
+		return rows.stream()
+				.filter(kpi -> memberName.equals(kpi.getMemberName()))
+				.findFirst()
+				.orElseThrow(() -> new AssertionError("No row for " + memberName + " in " + rows.size() + " rows"));
+	}
+
+	private static TaskChange change(long... taskIds) {
+		return TestSupport.change(100L, 1L, 10L, taskIds);
+	}
+
+	@Test
+	void refresh_LoadsEverythingAndAnswersLikeTheSqlQueries() {
+		assertFalse(engine.isReady());
+		engine.refresh();
+		assertTrue(engine.isReady());
+
+		Kpi ana = row(engine.getCompletionRateByMember(), "Ana");
+		assertEquals(1, ana.getCompletedTasks());
+		assertEquals(2, ana.getTotalAssignedTasks());
+		assertEquals(0, new BigDecimal("50.00").compareTo(ana.getCompletionRatePercent()));
+		assertEquals(2.0, ana.getTotalActualHours());
+
+		// Beto es del equipo 2
+		assertEquals(1, engine.getCompletedTasksByMemberAndTeam(1L).size());
+		Kpi sprint = row(engine.getCompletionRateBySprint(), "Sprint 1");
+		assertEquals(1, sprint.getCompletedTasks());
+		assertEquals(2, sprint.getTotalAssignedTasks());
+		assertEquals(1, engine.getLastSprintTasksByDeveloper(null).size());
+	}
+
+	@Test
+	void afterTaskCommit_AppliesTheChangedTasks() throws InterruptedException {
+		engine.refresh();
+
+		task(2L, "Completada", "3.00", 100L, 10L);
+		tables.remove(TASKS, 3L).remove(ASSIGNEES, "3:11");
+		task(4L, "Completada", null, 100L, 11L);
+		engine.afterTaskCommit(change(2L, 3L, 4L));
+
+		TestSupport.await("the KPI engine", () -> row(engine.getCompletionRateByMember(), "Ana").getCompletedTasks() == 2);
+		assertEquals(5.0, row(engine.getCompletionRateByMember(), "Ana").getTotalActualHours());
+		Kpi beto = row(engine.getCompletionRateByMember(), "Beto");
+		assertEquals(1, beto.getCompletedTasks());
+		assertNull(beto.getTotalActualHours());
+		assertEquals(3, engine.stats().get("tasks"));
+	}
+
+	@Test
+	void afterTaskCommit_CompactsAfterManyDeletes() throws InterruptedException {
+		long[] ids = new long[3000];
+		for (int i = 0; i < ids.length; i++) {
+			ids[i] = 1000L + i;
+			task(ids[i], "Completada", "1.00", 100L, 11L);
+		}
+		engine.refresh();
+		assertEquals(3003, engine.stats().get("tasks"));
+		long loadedFootprint = (Long) engine.stats().get("footprintBytes");
+
+		for (long id : ids) {
+			tables.remove(TASKS, id).remove(ASSIGNEES, id + ":11");
+		}
+		engine.afterTaskCommit(change(ids));
+
+		TestSupport.await("the KPI engine", () -> (Integer) engine.stats().get("tasks") == 3);
+		assertTrue((Long) engine.stats().get("footprintBytes") < loadedFootprint);
+		Kpi beto = row(engine.getCompletionRateByMember(), "Beto");
+		assertEquals(1, beto.getCompletedTasks());
+		assertEquals(1, beto.getTotalAssignedTasks());
+	}
+
+	@Test
+	void refresh_ReloadsTasksWrittenByOtherReplicas() {
+		engine.refresh();
+
+		// Escritura en otra replica: no pasa por afterTaskCommit de este motor
+		task(2L, "Completada", "1.00", 100L, 10L);
+
+		engine.refresh();
+		assertEquals(1, row(engine.getCompletionRateByMember(), "Ana").getCompletedTasks());
+
+		engine.refresh();
+		assertEquals(2, row(engine.getCompletionRateByMember(), "Ana").getCompletedTasks());
+	}
+
+	@Test
+	void refresh_WithoutPeriodicReload_OnlyReloadsDimensions() {
+		engine.stop();
+		engine = new KpiEngine(tables.jdbi(), 60, 0, mockProvider());
+		engine.refresh();
+		task(2L, "Completada", "1.00", 100L, 10L);
+		tables.put(USERS, 10L, "ID", 10L, "NAME", "Ana Maria", "TEAM_ID", 1L);
+
+		for (int i = 0; i < 3; i++) {
+			engine.refresh();
+		}
+
+		assertEquals(1, row(engine.getCompletionRateByMember(), "Ana Maria").getCompletedTasks());
+	}
+
+	@SuppressWarnings("unchecked")
+	private static ObjectProvider<KpiCache> mockProvider() {
+		return mock(ObjectProvider.class);
+	}
+}
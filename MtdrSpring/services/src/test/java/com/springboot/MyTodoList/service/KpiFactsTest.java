@@ -0,0 +1,168 @@
+package com.springboot.MyTodoList.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class KpiFactsTest {
+
+	private static final long TEAM = 1L;
+	private static final long ANA = 10L;
+	private static final long BETO = 11L;
+	private static final long SPRINT = 100L;
+
+	private KpiFacts facts;
+	private int ana;
+	private int beto;
+	private int sprintSlot;
+
+	@BeforeEach
+	void setUp() {
+		facts = new KpiFacts();
+		facts.upsertMember(ANA, "Ana", TEAM);
+		facts.upsertMember(BETO, "Beto", TEAM);
+		facts.upsertSprint(SPRINT, "Sprint 1", TEAM, "ACTIVE", 0, 1);
+		ana = 0;
+		beto = 1;
+		sprintSlot = facts.sprintOrdinal(SPRINT) + 1;
+	}
+
+	private static BigDecimal hours(String value) {
+		return value == null ? null : new BigDecimal(value);
+	}
+
+	@Test
+	void cube_SumsAssignmentsPerMemberAndSprintAndTasksPerSprint() {
+		facts.upsertTask(1L, "Completada", hours("2.00"), hours("3.00"), SPRINT, "T1", null, new long[] {ANA, BETO});
+		facts.upsertTask(2L, "Backlog", null, hours("1.00"), null, "T2", null, new long[] {ANA});
+		facts.upsertTask(3L, "DONE", hours("1.50"), null, SPRINT, "T3", null, new long[0]);
+
+		KpiFacts.Cube cube = facts.cube();
+
+		int anaSprint = cube.cell(ana, sprintSlot);
+		assertEquals(1, cube.assigned[anaSprint]);
+		assertEquals(1, cube.completed[anaSprint]);
+		assertEquals(200, cube.actual[anaSprint]);
+		assertEquals(300, cube.estimated[anaSprint]);
+		assertEquals(200, cube.completedActual[anaSprint]);
+		assertEquals(1, cube.assigned[cube.cell(beto, sprintSlot)]);
+
+		// Slot 0: sin sprint; las horas NULL no cuentan
+		int anaBacklog = cube.cell(ana, 0);
+		assertEquals(1, cube.assigned[anaBacklog]);
+		assertEquals(0, cube.completed[anaBacklog]);
+		assertEquals(0, cube.actualCount[anaBacklog]);
+		assertEquals(100, cube.estimated[anaBacklog]);
+
+		// Por sprint cuentan tambien las tareas sin asignados
+		int sprint = facts.sprintOrdinal(SPRINT);
+		assertEquals(2, cube.sprintTotalTasks[sprint]);
+		assertEquals(2, cube.sprintCompletedTasks[sprint]);
+		assertEquals(350, cube.sprintActual[sprint]);
+		assertEquals(2, cube.sprintActualCount[sprint]);
+		assertEquals(1, cube.sprintEstimatedCount[sprint]);
+	}
+
+	@Test
+	void upsertTask_ReplacesAssigneesAndMovesBetweenSprints() {
+		facts.upsertTask(1L, "Completada", hours("2.00"), hours("3.00"), SPRINT, "T1", null, new long[] {ANA, BETO});
+		facts.upsertTask(1L, "En progreso", hours("2.00"), hours("3.00"), null, "T1", null, new long[] {BETO});
+
+		KpiFacts.Cube cube = facts.cube();
+
+		assertEquals(1, facts.liveTasks);
+		assertEquals(1, facts.liveAssignments);
+		assertEquals(0, cube.assigned[cube.cell(ana, sprintSlot)]);
+		assertEquals(0, cube.assigned[cube.cell(beto, sprintSlot)]);
+		assertEquals(1, cube.assigned[cube.cell(beto, 0)]);
+		assertEquals(0, cube.completed[cube.cell(beto, 0)]);
+		assertEquals(0, cube.sprintTotalTasks[facts.sprintOrdinal(SPRINT)]);
+	}
+
+	@Test
+	void removeTask_DropsItsAssignmentsFromTheCube() {
+		facts.upsertTask(1L, "Completada", hours("2.00"), null, SPRINT, "T1", null, new long[] {ANA});
+		facts.upsertTask(2L, "Completada", hours("1.00"), null, SPRINT, "T2", null, new long[] {ANA});
+		facts.removeTask(1L);
+		facts.removeTask(1L);
+
+		KpiFacts.Cube cube = facts.cube();
+
+		assertEquals(1, facts.liveTasks);
+		assertEquals(1, facts.liveAssignments);
+		assertEquals(1, cube.completed[cube.cell(ana, sprintSlot)]);
+		assertEquals(100, cube.actual[cube.cell(ana, sprintSlot)]);
+		assertEquals(1, cube.sprintTotalTasks[facts.sprintOrdinal(SPRINT)]);
+	}
+
+	@Test
+	void assignment_ToUnknownMember_IsIgnored() {
+		facts.upsertTask(1L, "Completada", null, null, SPRINT, "T1", null, new long[] {999L});
+		facts.addAssignee(1L, 998L);
+		facts.addAssignee(2L, ANA);
+
+		assertEquals(1, facts.liveTasks);
+		assertEquals(0, facts.liveAssignments);
+	}
+
+	@Test
+	void compacted_RemovesHolesAndKeepsTheSameCube() {
+		int tasks = 3000;
+		for (long id = 1; id <= tasks; id++) {
+			String status = id % 3 == 0 ? "Completada" : "Backlog";
+			Long sprintId = id % 2 == 0 ? SPRINT : null;
+			facts.upsertTask(id, status, hours("1.25"), hours("2.00"), sprintId, "T" + id, null,
+					id % 5 == 0 ? new long[] {ANA, BETO} : new long[] {BETO});
+		}
+		for (long id = 1; id <= tasks; id++) {
+			if (id % 6 != 0) {
+				facts.removeTask(id);
+			}
+		}
+		assertTrue(facts.needsCompaction());
+
+		KpiFacts compacted = facts.compacted();
+
+		assertEquals(tasks / 6, compacted.taskCount);
+		assertEquals(facts.liveTasks, compacted.liveTasks);
+		assertEquals(facts.liveAssignments, compacted.assignmentCount);
+		assertFalse(compacted.needsCompaction());
+		// Las dimensiones conservan sus ordinales
+		assertEquals(facts.sprintOrdinal(SPRINT), compacted.sprintOrdinal(SPRINT));
+		assertArrayEquals(facts.memberIds, compacted.memberIds);
+
+		KpiFacts.Cube before = facts.cube();
+		KpiFacts.Cube after = compacted.cube();
+		assertArrayEquals(before.assigned, after.assigned);
+		assertArrayEquals(before.completed, after.completed);
+		assertArrayEquals(before.actual, after.actual);
+		assertArrayEquals(before.estimated, after.estimated);
+		assertArrayEquals(before.completedActual, after.completedActual);
+		assertArrayEquals(before.sprintTotalTasks, after.sprintTotalTasks);
+		assertArrayEquals(before.sprintCompletedTasks, after.sprintCompletedTasks);
+		assertArrayEquals(before.sprintActual, after.sprintActual);
+
+		// Sigue aceptando cambios sobre las tareas que quedaron
+		int liveAssignments = compacted.liveAssignments;
+		compacted.upsertTask(6L, "Completada", null, null, null, "T6", null, new long[] {ANA});
+		assertEquals(tasks / 6, compacted.liveTasks);
+		assertEquals(liveAssignments, compacted.liveAssignments);
+		KpiFacts.Cube moved = compacted.cube();
+		assertEquals(after.assigned[after.cell(ana, 0)] + 1, moved.assigned[moved.cell(ana, 0)]);
+		assertEquals(after.sprintTotalTasks[0] - 1, moved.sprintTotalTasks[0]);
+	}
+
+	@Test
+	void needsCompaction_IgnoresFewHoles() {
+		for (long id = 1; id <= 100; id++) {
+			facts.upsertTask(id, "Backlog", null, null, null, "T" + id, null, new long[] {ANA});
+		}
+		for (long id = 1; id <= 90; id++) {
+			facts.removeTask(id);
+		}
+		assertFalse(facts.needsCompaction());
+	}
+}
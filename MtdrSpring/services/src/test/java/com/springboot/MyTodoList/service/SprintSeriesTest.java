@@ -0,0 +1,166 @@
+package com.springboot.MyTodoList.service;
+
+import com.springboot.MyTodoList.model.SprintBurndown;
+import com.springboot.MyTodoList.model.SprintVelocity;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SprintSeriesTest {
+
+	private static final String SPRINTS = "TODOUSER.SPRINTS";
+	private static final String TASKS = "TODOUSER.TASKS";
+	private static final long TEAM = 1L;
+	private static final long SPRINT = 100L;
+	private static final long NEXT_SPRINT = 101L;
+
+	private FakeTables tables;
+	private SprintSeries series;
+
+	@BeforeEach
+	void setUp() {
+		tables = new FakeTables();
+		sprint(SPRINT, "Sprint 1", LocalDate.of(2025, 1, 1), LocalDate.of(2025, 1, 5));
+		sprint(NEXT_SPRINT, "Sprint 2", LocalDate.of(2025, 1, 6), LocalDate.of(2025, 1, 10));
+		// Completadas antes del inicio, a mitad, despues del fin y sin fecha; y una abierta
+		task(1L, SPRINT, "Completada", "2.00", "1.50", "2024-12-30");
+		task(2L, SPRINT, "DONE", "3.00", "3.00", "2025-01-03T10:00:00");
+		task(3L, SPRINT, "Completada", "1.00", null, "2025-01-10");
+		task(4L, SPRINT, "Completada", "4.00", "5.00", null);
+		task(5L, SPRINT, "En progreso", "5.00", null, "2025-01-02");
+		series = new SprintSeries(tables.jdbi(), 300);
+	}
+
+	@AfterEach
+	void tearDown() {
+		series.stop();
+	}
+
+	private void sprint(long id, String name, LocalDate start, LocalDate end) {
+		tables.put(SPRINTS, id, "ID", id, "NAME", name, "TEAM_ID", TEAM, "STATUS", "ACTIVE",
+				"START_DATE", start, "END_DATE", end);
+	}
+
+	private void task(long id, Long sprintId, String status, String estimated, String actual, String endDate) {
+		tables.put(TASKS, id, "ID", id, "SPRINT_ID", sprintId, "STATUS", status,
+				"ESTIMATED_HOURS", new BigDecimal(estimated),
+				"ACTUAL_HOURS", actual == null ? null : new BigDecimal(actual),
+				"END_DATE", endDate);
+	}
+
+	private List<Double> remaining(long sprintId) {
+		List<Double> remaining = new ArrayList<>();
+		for (SprintBurndown.Point point : series.burndown(sprintId).orElseThrow().getPoints()) {
+			remaining.add(point.getRemainingHours());
+		}
+		return remaining;
+	}
+
+	private SprintVelocity velocity(long sprintId) {
+		return series.velocity(TEAM).stream()
+				.filter(row -> row.getSprintId() == sprintId)
+				.findFirst()
+				.orElseThrow();
+	}
+
+	private static TaskChange change(long taskId, long sprintId) {
+		return TestSupport.change(sprintId, TEAM, null, taskId);
+	}
+
+	@Test
+	void burndown_BurnsEarlyTasksOnTheFirstDayAndLateOrUndatedOnTheLast() {
+		SprintBurndown burndown = series.burndown(SPRINT).orElseThrow();
+
+		assertEquals(15.0, burndown.getTotalEstimatedHours());
+		assertEquals("2025-01-01", burndown.getPoints().get(0).getDate());
+		// 15 - 2 (antes del inicio) el primer dia, - 3 el dia 3, - 1 (despues del fin) - 4 (sin fecha) el ultimo
+		assertEquals(Arrays.asList(13.0, 13.0, 10.0, 10.0, 5.0), remaining(SPRINT));
+		assertEquals(15.0, burndown.getPoints().get(0).getIdealHours());
+		assertEquals(0.0, burndown.getPoints().get(4).getIdealHours());
+	}
+
+	@Test
+	void burndown_UnknownSprintIsEmpty() {
+		assertFalse(series.burndown(999L).isPresent());
+	}
+
+	@Test
+	void velocity_CountsCompletedTasksAndHours() {
+		SprintVelocity row = velocity(SPRINT);
+
+		assertEquals(4, row.getCompletedTasks());
+		assertEquals(5, row.getTotalTasks());
+		assertEquals(15.0, row.getCommittedHours());
+		assertEquals(10.0, row.getCompletedEstimatedHours());
+		// ACTUAL_HOURS NULL cuenta como 0
+		assertEquals(9.5, row.getCompletedActualHours());
+		assertEquals(0, velocity(NEXT_SPRINT).getTotalTasks());
+	}
+
+	@Test
+	void changedTask_IsRemovedWithItsOldValuesAndAddedWithTheNewOnes() throws InterruptedException {
+		remaining(SPRINT);
+
+		// Se reabre la tarea 2 y la 5 se completa el dia 4 con otro estimado
+		task(2L, SPRINT, "En progreso", "3.00", "3.00", "2025-01-03");
+		task(5L, SPRINT, "Completada", "6.00", "1.00", "2025-01-04");
+		series.afterTaskCommit(change(2L, SPRINT));
+		series.afterTaskCommit(change(5L, SPRINT));
+
+		TestSupport.await("the sprint series", () -> velocity(SPRINT).getCompletedTasks() == 4 && velocity(SPRINT).getCommittedHours() == 16.0);
+		assertEquals(Arrays.asList(14.0, 14.0, 14.0, 8.0, 3.0), remaining(SPRINT));
+
+		// Aplicar dos veces el mismo cambio no cuenta doble
+		series.afterTaskCommit(change(5L, SPRINT));
+		series.afterTaskCommit(change(5L, SPRINT));
+		// Cargar un sprint nuevo pasa por el mismo hilo, despues de esos cambios
+		tables.put(SPRINTS, 200L, "ID", 200L, "NAME", "Otro equipo", "TEAM_ID", 2L, "STATUS", "ACTIVE",
+				"START_DATE", LocalDate.of(2025, 1, 1), "END_DATE", LocalDate.of(2025, 1, 5));
+		series.velocity(2L);
+		assertEquals(Arrays.asList(14.0, 14.0, 14.0, 8.0, 3.0), remaining(SPRINT));
+		assertEquals(4, velocity(SPRINT).getCompletedTasks());
+	}
+
+	@Test
+	void movedAndDeletedTasks_LeaveTheirOldSprint() throws InterruptedException {
+		velocity(SPRINT);
+
+		task(1L, NEXT_SPRINT, "Completada", "2.00", "1.50", "2025-01-07");
+		series.afterTaskCommit(TaskChange.builder()
+				.add(1L, SPRINT, TEAM, null)
+				.add(1L, NEXT_SPRINT, TEAM, null)
+				.build());
+		tables.remove(TASKS, 4L);
+		series.afterTaskCommit(change(4L, SPRINT));
+
+		TestSupport.await("the sprint series", () -> velocity(SPRINT).getTotalTasks() == 3);
+		assertEquals(9.0, velocity(SPRINT).getCommittedHours());
+		assertEquals(1, velocity(NEXT_SPRINT).getTotalTasks());
+		assertEquals(Arrays.asList(9.0, 9.0, 6.0, 6.0, 5.0), remaining(SPRINT));
+		assertEquals(Arrays.asList(2.0, 0.0, 0.0, 0.0, 0.0), remaining(NEXT_SPRINT));
+	}
+
+	@Test
+	void loadedSprint_IsReadAgainAfterReloadSeconds() {
+		assertEquals(5, velocity(SPRINT).getTotalTasks());
+
+		// Escritura en otra replica: no llega por afterTaskCommit
+		task(6L, SPRINT, "Backlog", "1.00", null, null);
+		assertEquals(5, velocity(SPRINT).getTotalTasks());
+
+		series.stop();
+		series = new SprintSeries(tables.jdbi(), 0);
+		assertEquals(6, velocity(SPRINT).getTotalTasks());
+		task(7L, SPRINT, "Backlog", "1.00", null, null);
+		assertEquals(7, velocity(SPRINT).getTotalTasks());
+		assertEquals(17.0, velocity(SPRINT).getCommittedHours());
+	}
+}
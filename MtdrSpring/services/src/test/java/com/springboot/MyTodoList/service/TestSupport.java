@@ -0,0 +1,33 @@
+package com.springboot.MyTodoList.service;
+
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Ayudas compartidas por las pruebas de los servicios con hilos propios (motor de
+// KPIs, series de sprint, cola del bot)
+public final class TestSupport {
+
+	private static final long AWAIT_MILLIS = 10_000;
+
+	private TestSupport() {
+	}
+
+	// Espera a que el hilo del servicio aplique un cambio; what va en el mensaje de error
+	public static void await(String what, BooleanSupplier condition) throws InterruptedException {
+		long deadline = System.currentTimeMillis() + AWAIT_MILLIS;
+		while (!condition.getAsBoolean()) {
+			assertTrue(System.currentTimeMillis() < deadline, "Timed out waiting for " + what);
+			Thread.sleep(10);
+		}
+	}
+
+	// Las mismas tareas de un sprint, equipo y usuario, como las publica TaskChangeFeed
+	public static TaskChange change(long sprintId, long teamId, Long userId, long... taskIds) {
+		TaskChange.Builder builder = TaskChange.builder();
+		for (long taskId : taskIds) {
+			builder.add(taskId, sprintId, teamId, userId);
+		}
+		return builder.build();
+	}
+}